@@ -207,6 +207,28 @@ public interface AccountServiceLocal {
     public boolean sendDiscountEndNotificationMail(long currentTimeMillis)
             throws MailOperationException;
 
+    /**
+     * Sending notification mail about ending discount period for the
+     * organization references returned by
+     * {@link #getOrganizationForDiscountEndNotificiation(long)} with a key in
+     * the given range. Only the references in the range are read. The mails
+     * are sent within a new transaction, the used transaction attribute is
+     * {@link javax.ejb.TransactionAttributeType#REQUIRES_NEW}.
+     * 
+     * @param currentTimeMillis
+     *            Current time of mail sending in milliseconds.
+     * @param lowerKey
+     *            The lowest key of the organization references to be handled.
+     * @param upperKey
+     *            The highest key of the organization references to be
+     *            handled.
+     * @return true if sending mail was successful.
+     * @throws MailOperationException
+     *             On error mail sending.
+     */
+    public boolean sendDiscountEndNotificationMail(long currentTimeMillis,
+            long lowerKey, long upperKey) throws MailOperationException;
+
     /**
      * Checks if the distinguished name set on the provided organization is
      * already used by a different organization. If not the organization is
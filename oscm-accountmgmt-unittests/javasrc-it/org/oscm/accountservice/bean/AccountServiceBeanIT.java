@@ -59,6 +59,7 @@ import javax.ejb.EJBException;
 import javax.persistence.Query;
 
 import org.junit.Assert;
+import org.junit.Ignore;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
@@ -185,6 +186,7 @@ import org.oscm.internal.types.exception.TechnicalServiceOperationException;
 import org.oscm.internal.types.exception.ValidationException;
 import org.oscm.internal.types.exception.ValidationException.ReasonEnum;
 import org.oscm.internal.vo.LdapProperties;
+import org.oscm.internal.vo.ListCriteria;
 import org.oscm.internal.vo.VOBillingContact;
 import org.oscm.internal.vo.VODiscount;
 import org.oscm.internal.vo.VOImageResource;
@@ -949,6 +951,62 @@ public class AccountServiceBeanIT extends EJBTestBase {
 
     }
 
+    /**
+     * Test for getting organization references of a partition. Only the
+     * reference with a key in the given range is expected.
+     */
+    @Test
+    public void testFindOrganizationForDiscountEndNotificationKeyRange()
+            throws Exception {
+        final long endDiscountMillis = 1000000L;
+
+        final long referenceKey = runTX(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                Organization custTmpl = new Organization();
+                custTmpl.setOrganizationId(organizationId);
+                Organization org = (Organization) mgr
+                        .getReferenceByBusinessKey(custTmpl);
+                OrganizationReference reference = org.getSources().get(0);
+                Discount discount = new Discount();
+                discount.setOrganizationReference(reference);
+                discount.setValue(new BigDecimal("1.00"));
+                discount.setStartTime(L1);
+                discount.setEndTime(Long.valueOf(endDiscountMillis));
+                mgr.persist(discount);
+                mgr.flush();
+                return Long.valueOf(reference.getKey());
+            }
+        }).longValue();
+
+        runTX(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Assert.assertEquals(1,
+                        findForDiscountEndNotification(endDiscountMillis,
+                                referenceKey, referenceKey).size());
+                Assert.assertEquals(0,
+                        findForDiscountEndNotification(endDiscountMillis,
+                                referenceKey + 1, Long.MAX_VALUE).size());
+                Assert.assertEquals(0,
+                        findForDiscountEndNotification(endDiscountMillis, 0,
+                                referenceKey - 1).size());
+                return null;
+            }
+        });
+    }
+
+    private List<?> findForDiscountEndNotification(long endTime,
+            long lowerKey, long upperKey) {
+        Query query = mgr.createNamedQuery(
+                "OrganizationReference.findOrganizationForDiscountEndNotification");
+        query.setParameter("firstMillis", Long.valueOf(endTime));
+        query.setParameter("lastMillis", Long.valueOf(endTime));
+        query.setParameter("lowerKey", Long.valueOf(lowerKey));
+        query.setParameter("upperKey", Long.valueOf(upperKey));
+        return query.getResultList();
+    }
+
     /**
      * Test for getting organization. Empty list is expected. Too early to
      * inform about discount end
@@ -1141,6 +1199,145 @@ public class AccountServiceBeanIT extends EJBTestBase {
         Assert.assertEquals(discountEnd, discountEndAfter);
     }
 
+    @Test
+    public void getMyCustomersByCriteria_page() throws Exception {
+        // given
+        givenCustomers("page-", 4, false);
+        container.login(supplier1User.getKey(), ROLE_SERVICE_MANAGER);
+        List<VOOrganization> all = accountMgmt.getMyCustomers();
+        ListCriteria criteria = new ListCriteria();
+        criteria.setOffset(1);
+        criteria.setLimit(2);
+
+        // when
+        List<VOOrganization> page = accountMgmt
+                .getMyCustomersByCriteria(criteria);
+
+        // then
+        // supplier also customer
+        assertEquals(5, all.size());
+        assertEquals(2, page.size());
+        assertEquals(all.get(1).getKey(), page.get(0).getKey());
+        assertEquals(all.get(2).getKey(), page.get(1).getKey());
+    }
+
+    @Test
+    public void getMyCustomersByCriteria_filter() throws Exception {
+        // given
+        givenCustomers("Filter-", 2, false);
+        givenCustomers("other-", 1, false);
+        container.login(supplier1User.getKey(), ROLE_SERVICE_MANAGER);
+        ListCriteria criteria = new ListCriteria();
+        criteria.setFilter("fILTER-");
+
+        // when
+        List<VOOrganization> customers = accountMgmt
+                .getMyCustomersByCriteria(criteria);
+
+        // then
+        assertEquals(2, customers.size());
+        assertEquals("Filter-0", customers.get(0).getOrganizationId());
+        assertEquals("Filter-1", customers.get(1).getOrganizationId());
+    }
+
+    @Test
+    public void getMyCustomersByCriteria_filterWildcard() throws Exception {
+        // given
+        givenCustomers("a_b-", 1, false);
+        givenCustomers("axb-", 1, false);
+        container.login(supplier1User.getKey(), ROLE_SERVICE_MANAGER);
+        ListCriteria criteria = new ListCriteria();
+        criteria.setFilter("a_b");
+
+        // when
+        List<VOOrganization> customers = accountMgmt
+                .getMyCustomersByCriteria(criteria);
+
+        // then
+        assertEquals(1, customers.size());
+        assertEquals("a_b-0", customers.get(0).getOrganizationId());
+    }
+
+    @Test
+    public void getMyCustomersByCriteria_discount() throws Exception {
+        // given
+        givenCustomers("discount-", 1, true);
+        container.login(supplier1User.getKey(), ROLE_SERVICE_MANAGER);
+        ListCriteria criteria = new ListCriteria();
+        criteria.setFilter("discount-");
+
+        // when
+        List<VOOrganization> customers = accountMgmt
+                .getMyCustomersByCriteria(criteria);
+
+        // then
+        assertEquals(1, customers.size());
+        assertEquals(new BigDecimal("1.00"), customers.get(0).getDiscount()
+                .getValue());
+        assertEquals("DE", customers.get(0).getDomicileCountry());
+    }
+
+    /**
+     * Benchmark for listing the customers of a supplier with 20,000 customers,
+     * half of them with a discount, not run by default. Compares reading all
+     * customers with reading pages of 100 customers.
+     */
+    @Ignore
+    @Test
+    public void getMyCustomersByCriteria_20000() throws Exception {
+        // given
+        final int count = 20000;
+        for (int i = 0; i < count / 1000; i++) {
+            givenCustomers("bench-" + i + "-", 500, false);
+            givenCustomers("bench-" + i + "-d", 500, true);
+        }
+        container.login(supplier1User.getKey(), ROLE_SERVICE_MANAGER);
+        ListCriteria criteria = new ListCriteria();
+        criteria.setLimit(100);
+
+        // when
+        long start = System.currentTimeMillis();
+        int all = accountMgmt.getMyCustomers().size();
+        long allTime = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        int pages = 0;
+        for (criteria.setOffset(0); criteria.getOffset() < all; criteria
+                .setOffset(criteria.getOffset() + criteria.getLimit())) {
+            accountMgmt.getMyCustomersByCriteria(criteria);
+            pages++;
+        }
+        long pageTime = System.currentTimeMillis() - start;
+
+        // then
+        System.out.println("Listed " + all + " customers: all at once "
+                + allTime + " ms, " + pages + " pages "
+                + (pageTime / Math.max(pages, 1)) + " ms per page");
+    }
+
+    private void givenCustomers(final String prefix, final int count,
+            final boolean discount) throws Exception {
+        runTX(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Organization supplier1 = Organizations.findOrganization(mgr,
+                        supplierIds.get(0));
+                for (int i = 0; i < count; i++) {
+                    Organization customer = Organizations.createCustomer(mgr,
+                            supplier1, prefix + i, false);
+                    if (discount) {
+                        Discount d = new Discount();
+                        d.setOrganizationReference(customer.getSources()
+                                .get(0));
+                        d.setValue(new BigDecimal("1.00"));
+                        d.setStartTime(L100);
+                        mgr.persist(d);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
     /**
      * Test for manage organization discount.
      */
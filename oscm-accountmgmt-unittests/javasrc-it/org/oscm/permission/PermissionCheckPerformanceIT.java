@@ -0,0 +1,99 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.permission;
+
+import java.util.concurrent.Callable;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import org.oscm.dataservice.bean.DataServiceBean;
+import org.oscm.dataservice.local.DataService;
+import org.oscm.domobjects.Organization;
+import org.oscm.domobjects.OrganizationReference;
+import org.oscm.domobjects.enums.OrganizationReferenceType;
+import org.oscm.internal.types.enumtypes.OrganizationRoleType;
+import org.oscm.test.EJBTestBase;
+import org.oscm.test.data.Organizations;
+import org.oscm.test.ejb.TestContainer;
+
+/**
+ * Measures the check whether a supplier with many customers is supplier of
+ * one of them.
+ */
+@Ignore
+public class PermissionCheckPerformanceIT extends EJBTestBase {
+
+    private static final int CUSTOMERS = 50000;
+    private static final int BATCH_SIZE = 1000;
+    private static final int CHECKS = 100;
+
+    private DataService ds;
+    private long supplierKey;
+    private long customerKey;
+
+    @Override
+    protected void setup(TestContainer container) throws Exception {
+        container.enableInterfaceMocking(true);
+        container.addBean(new DataServiceBean());
+        ds = container.get(DataService.class);
+
+        supplierKey = runTX(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                createOrganizationRoles(ds);
+                Organization supplier = Organizations.createOrganization(ds,
+                        OrganizationRoleType.SUPPLIER);
+                return Long.valueOf(supplier.getKey());
+            }
+        }).longValue();
+
+        for (int i = 0; i < CUSTOMERS / BATCH_SIZE; i++) {
+            final int batch = i;
+            customerKey = runTX(new Callable<Long>() {
+                @Override
+                public Long call() throws Exception {
+                    Organization supplier = ds.getReference(
+                            Organization.class, supplierKey);
+                    Organization customer = null;
+                    for (int j = 0; j < BATCH_SIZE; j++) {
+                        customer = Organizations.createOrganization("perf_"
+                                + batch + "_" + j);
+                        ds.persist(customer);
+                        ds.persist(new OrganizationReference(supplier,
+                                customer,
+                                OrganizationReferenceType.SUPPLIER_TO_CUSTOMER));
+                    }
+                    ds.flush();
+                    ds.clear();
+                    return Long.valueOf(customer.getKey());
+                }
+            }).longValue();
+        }
+    }
+
+    @Test
+    public void supplierOfCustomer() throws Exception {
+        long time = runTX(new Callable<Long>() {
+            @Override
+            public Long call() throws Exception {
+                long start = System.currentTimeMillis();
+                for (int i = 0; i < CHECKS; i++) {
+                    ds.clear();
+                    Organization supplier = ds.getReference(
+                            Organization.class, supplierKey);
+                    Organization customer = ds.getReference(
+                            Organization.class, customerKey);
+                    PermissionCheck.supplierOfCustomer(supplier, customer,
+                            null, null);
+                }
+                return Long.valueOf(System.currentTimeMillis() - start);
+            }
+        }).longValue();
+        Assert.assertTrue(CHECKS + " checks for a supplier with " + CUSTOMERS
+                + " customers took " + time + "ms.", time < 1000);
+    }
+}
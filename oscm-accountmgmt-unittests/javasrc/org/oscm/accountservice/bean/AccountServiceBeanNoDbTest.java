@@ -326,4 +326,11 @@ public class AccountServiceBeanNoDbTest {
         }
         return org;
     }
+
+    @Test
+    public void toPrefixPattern() {
+        assertEquals("abc%", AccountServiceBean.toPrefixPattern("abc"));
+        assertEquals("a\\%b\\_c\\\\%",
+                AccountServiceBean.toPrefixPattern("a%b_c\\"));
+    }
 }
@@ -140,6 +140,7 @@ import org.oscm.internal.types.exception.UserDeletionConstraintException;
 import org.oscm.internal.types.exception.ValidationException;
 import org.oscm.internal.types.exception.ValidationException.ReasonEnum;
 import org.oscm.internal.vo.LdapProperties;
+import org.oscm.internal.vo.ListCriteria;
 import org.oscm.internal.vo.VOBillingContact;
 import org.oscm.internal.vo.VOImageResource;
 import org.oscm.internal.vo.VOLocalizedText;
@@ -701,26 +702,79 @@ public class AccountServiceBean implements AccountService, AccountServiceLocal {
     @Override
     @RolesAllowed({ "SERVICE_MANAGER", "RESELLER_MANAGER", "BROKER_MANAGER" })
     public List<VOOrganization> getMyCustomers() {
-        List<VOOrganization> result = new ArrayList<VOOrganization>();
+        return getMyCustomersByCriteria(new ListCriteria());
+    }
 
+    @Override
+    @RolesAllowed({ "SERVICE_MANAGER", "RESELLER_MANAGER", "BROKER_MANAGER" })
+    public List<VOOrganization> getMyCustomersByCriteria(
+            ListCriteria listCriteria) {
+        ArgumentValidator.notNull("listCriteria", listCriteria);
         PlatformUser user = dm.getCurrentUser();
         Organization seller = user.getOrganization();
 
-        List<Organization> list = getCustomers(seller);
-        OrganizationReferenceType referenceType = getCustomerReferenceType(
-                seller);
+        List<OrganizationReference> references = getCustomerReferences(seller,
+                listCriteria);
+        List<Long> customerKeys = new ArrayList<Long>();
+        for (OrganizationReference reference : references) {
+            customerKeys.add(Long.valueOf(reference.getTargetKey()));
+        }
+        LocalizerFacade facade = new LocalizerFacade(localizer,
+                user.getLocale());
+        if (!customerKeys.isEmpty()) {
+            facade.prefetch(customerKeys, Collections
+                    .singletonList(LocalizedObjectTypes.ORGANIZATION_DESCRIPTION));
+        }
 
-        for (Organization customer : list) {
-            OrganizationReference customerSupplierAssociation = getOrgReferenceByKey(
-                    customer, seller.getKey(), referenceType);
+        List<VOOrganization> result = new ArrayList<VOOrganization>();
+        for (OrganizationReference reference : references) {
             result.add(OrganizationAssembler.toVOOrganizationWithDiscount(
-                    customer, false, customerSupplierAssociation.getDiscount(),
-                    new LocalizerFacade(localizer, user.getLocale())));
+                    reference.getTarget(), false, reference.getDiscount(),
+                    facade));
         }
-
         return result;
     }
 
+    /**
+     * Reads the references to the customers of the given seller together with
+     * the customer organizations and their discounts in one query.
+     */
+    List<OrganizationReference> getCustomerReferences(Organization seller,
+            ListCriteria listCriteria) {
+        OrganizationReferenceType referenceType = getCustomerReferenceType(
+                seller);
+        String filter = listCriteria.getFilter() == null ? "" : listCriteria
+                .getFilter().trim().toLowerCase();
+        Query query = dm.createNamedQuery(
+                "OrganizationReference.getForSourceWithTargetAndDiscount");
+        query.setParameter("sourceKey", Long.valueOf(seller.getKey()));
+        query.setParameter("referenceType", referenceType);
+        query.setParameter("filter", toPrefixPattern(filter));
+        query.setFirstResult(Math.max(listCriteria.getOffset(), 0));
+        if (listCriteria.getLimit() > 0) {
+            query.setMaxResults(listCriteria.getLimit());
+        }
+        return ParameterizedTypes.list(query.getResultList(),
+                OrganizationReference.class);
+    }
+
+    /**
+     * Returns the LIKE pattern matching the values starting with the given
+     * text. The wildcards and the escape character contained in the text are
+     * escaped, so they only match themselves.
+     */
+    static String toPrefixPattern(String text) {
+        StringBuilder pattern = new StringBuilder(text.length() + 1);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%' || c == '_' || c == '\\') {
+                pattern.append('\\');
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
     @Override
     @RolesAllowed({ "SERVICE_MANAGER", "RESELLER_MANAGER", "BROKER_MANAGER" })
     public List<VOOrganization> getMyCustomersOptimization() {
@@ -3202,20 +3256,26 @@ public class AccountServiceBean implements AccountService, AccountServiceLocal {
     @TransactionAttribute(TransactionAttributeType.MANDATORY)
     public boolean sendDiscountEndNotificationMail(long currentTimeMillis)
             throws MailOperationException {
+        return sendDiscountEndNotificationMail(currentTimeMillis, 0,
+                Long.MAX_VALUE);
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public boolean sendDiscountEndNotificationMail(long currentTimeMillis,
+            long lowerKey, long upperKey) throws MailOperationException {
 
         // getting organization with ending in one week discount
         List<OrganizationReference> organizationRefList = getOrganizationForDiscountEndNotificiation(
-                currentTimeMillis);
+                currentTimeMillis, lowerKey, upperKey);
 
         // send mails
-        if (organizationRefList != null) {
-            for (OrganizationReference organizationRef : organizationRefList) {
-                Organization cust = organizationRef.getTarget();
-                String email = cust.getEmail();
-                if (email != null && email.trim().length() != 0) {
-                    cs.sendMail(cust, EmailType.ORGANIZATION_DISCOUNT_ENDING,
-                            null, null);
-                }
+        for (OrganizationReference organizationRef : organizationRefList) {
+            Organization cust = organizationRef.getTarget();
+            String email = cust.getEmail();
+            if (email != null && email.trim().length() != 0) {
+                cs.sendMail(cust, EmailType.ORGANIZATION_DISCOUNT_ENDING,
+                        null, null);
             }
         }
 
@@ -3234,6 +3294,16 @@ public class AccountServiceBean implements AccountService, AccountServiceLocal {
     @TransactionAttribute(TransactionAttributeType.MANDATORY)
     public List<OrganizationReference> getOrganizationForDiscountEndNotificiation(
             long currentTimeMillis) {
+        return getOrganizationForDiscountEndNotificiation(currentTimeMillis,
+                0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Getting list of organization references with a key in the given range
+     * to sending info mail about ending discount in one week (seven days).
+     */
+    private List<OrganizationReference> getOrganizationForDiscountEndNotificiation(
+            long currentTimeMillis, long lowerKey, long upperKey) {
 
         // define the first and the last millisecond of needed day:
         // define date + 7 days
@@ -3246,6 +3316,8 @@ public class AccountServiceBean implements AccountService, AccountServiceLocal {
                 "OrganizationReference.findOrganizationForDiscountEndNotification");
         query.setParameter("firstMillis", Long.valueOf(firstMillis));
         query.setParameter("lastMillis", Long.valueOf(lastMillis));
+        query.setParameter("lowerKey", Long.valueOf(lowerKey));
+        query.setParameter("upperKey", Long.valueOf(upperKey));
         List<OrganizationReference> list = ParameterizedTypes
                 .list(query.getResultList(), OrganizationReference.class);
 
@@ -3588,6 +3660,7 @@ public class AccountServiceBean implements AccountService, AccountServiceLocal {
         vo.setImageType(ImageType.ORGANIZATION_IMAGE);
         vo.setBuffer(imageResource.getBuffer());
         vo.setContentType(imageResource.getContentType());
+        vo.setContentHash(imageResource.getContentHash());
 
         return vo;
     }
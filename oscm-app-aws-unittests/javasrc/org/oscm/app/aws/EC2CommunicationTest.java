@@ -14,6 +14,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.File;
@@ -305,6 +306,29 @@ public class EC2CommunicationTest {
 		}
 	}
 
+	@Test
+	public void testResolveAMICached() throws Exception {
+		ec2mock.createDescribeImagesResult("image1");
+		ec2comm.resolveAMI("image1");
+
+		String result = ec2comm.resolveAMI("image1");
+
+		assertEquals("image1", result);
+		verify(ec2, times(1)).describeImages(
+				Matchers.any(DescribeImagesRequest.class));
+	}
+
+	@Test
+	public void testEC2ClientShared() throws Exception {
+		EC2Communication.useMock(ec2);
+		AmazonEC2Client client = new EC2Communication(ph).getEC2();
+
+		AmazonEC2Client other = new EC2Communication(ph).getEC2();
+
+		assertTrue(client == other);
+		verify(ec2, times(1)).setEndpoint("ec2.test.amazonaws.com");
+	}
+
 	@Test(expected = APPlatformException.class)
 	public void testResolveAMINotFound() throws Exception {
 		ec2mock.createDescribeImagesResult();
@@ -561,4 +585,37 @@ public class EC2CommunicationTest {
 		boolean ready = ec2comm.isInstanceReady("instance1");
 		assertFalse(ready);
 	}
+
+	@Test
+	public void testGetClientKey() throws Exception {
+		String key = EC2Communication.getClientKey("endpoint", "access_key",
+				"secret_key", "proxy", 8080, "user");
+
+		assertFalse(key.contains("secret_key"));
+		assertEquals(key, EC2Communication.getClientKey("endpoint",
+				"access_key", "secret_key", "proxy", 8080, "user"));
+		assertFalse(key.equals(EC2Communication.getClientKey("endpoint",
+				"access_key", "other_key", "proxy", 8080, "user")));
+	}
+
+	@Test
+	public void testSharedClientsBounded() throws Exception {
+		for (int i = 0; i <= EC2Communication.MAX_CLIENTS; i++) {
+			parameters.put(PropertyHandler.REGION, "region" + i);
+			PropertyHandler handler = PropertyHandler
+					.withSettings(new ProvisioningSettings(parameters,
+							configSettings, "en"));
+			new EC2Communication(handler) {
+				@Override
+				AmazonEC2Client getEC2(
+						AWSCredentialsProvider credentialsProvider,
+						ClientConfiguration clientConfiguration) {
+					return ec2;
+				}
+			}.getEC2();
+		}
+
+		assertEquals(EC2Communication.MAX_CLIENTS,
+				EC2Communication.getClientCount());
+	}
 }
@@ -0,0 +1,247 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2016
+ *
+ *******************************************************************************/
+
+package org.oscm.app.aws;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.amazonaws.services.ec2.model.DescribeInstanceStatusRequest;
+import com.amazonaws.services.ec2.model.DescribeInstanceStatusResult;
+import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
+import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.Instance;
+import com.amazonaws.services.ec2.model.InstanceState;
+import com.amazonaws.services.ec2.model.InstanceStatus;
+import com.amazonaws.services.ec2.model.Reservation;
+
+public class EC2InstanceCacheTest {
+
+    private AmazonEC2Client ec2;
+    private EC2InstanceCache cache;
+    private long backoff;
+
+    @Before
+    public void setUp() {
+        ec2 = mock(AmazonEC2Client.class);
+        cache = new EC2InstanceCache();
+        backoff = EC2InstanceCache.backoffMillis;
+        EC2InstanceCache.backoffMillis = 1;
+    }
+
+    @After
+    public void tearDown() {
+        EC2InstanceCache.backoffMillis = backoff;
+    }
+
+    @Test
+    public void getInstance_batch() {
+        // given
+        givenInstances("i-1");
+        cache.getInstance(ec2, "i-1");
+        givenInstances("i-1", "i-2");
+
+        // when
+        Instance first = cache.getInstance(ec2, "i-2");
+        Instance second = cache.getInstance(ec2, "i-1");
+
+        // then
+        assertEquals("i-2", first.getInstanceId());
+        assertEquals("i-1", second.getInstanceId());
+        ArgumentCaptor<DescribeInstancesRequest> captor = ArgumentCaptor
+                .forClass(DescribeInstancesRequest.class);
+        verify(ec2, times(2)).describeInstances(captor.capture());
+        List<String> ids = captor.getValue().getFilters().get(0).getValues();
+        assertEquals(2, ids.size());
+        assertTrue(ids.containsAll(Arrays.asList("i-1", "i-2")));
+    }
+
+    @Test
+    public void getInstance_pollAgain() {
+        // given
+        givenInstances("i-1");
+        cache.getInstance(ec2, "i-1");
+
+        // when
+        cache.getInstance(ec2, "i-1");
+
+        // then
+        verify(ec2, times(2)).describeInstances(
+                any(DescribeInstancesRequest.class));
+    }
+
+    @Test
+    public void getInstance_notFound() {
+        // given
+        givenInstances();
+
+        // when
+        Instance instance = cache.getInstance(ec2, "i-1");
+
+        // then
+        assertNull(instance);
+    }
+
+    @Test
+    public void getInstanceStatus_paged() {
+        // given
+        DescribeInstanceStatusResult page1 = new DescribeInstanceStatusResult()
+                .withInstanceStatuses(
+                        new InstanceStatus().withInstanceId("i-1"))
+                .withNextToken("next");
+        DescribeInstanceStatusResult page2 = new DescribeInstanceStatusResult()
+                .withInstanceStatuses(new InstanceStatus()
+                        .withInstanceId("i-2"));
+        doReturn(page1).doReturn(page2).doReturn(page1).doReturn(page2)
+                .when(ec2)
+                .describeInstanceStatus(any(DescribeInstanceStatusRequest.class));
+        cache.getInstanceStatus(ec2, "i-2");
+
+        // when
+        InstanceStatus status = cache.getInstanceStatus(ec2, "i-1");
+
+        // then
+        assertEquals("i-1", status.getInstanceId());
+        verify(ec2, times(4)).describeInstanceStatus(
+                any(DescribeInstanceStatusRequest.class));
+    }
+
+    @Test
+    public void getInstanceStatus_unknownInstance() {
+        // given
+        doAnswer(new Answer<DescribeInstanceStatusResult>() {
+            @Override
+            public DescribeInstanceStatusResult answer(
+                    InvocationOnMock invocation) {
+                DescribeInstanceStatusRequest request = (DescribeInstanceStatusRequest) invocation
+                        .getArguments()[0];
+                if (request.getInstanceIds().contains("i-2")) {
+                    AmazonServiceException e = new AmazonServiceException(
+                            "not found");
+                    e.setErrorCode("InvalidInstanceID.NotFound");
+                    throw e;
+                }
+                return new DescribeInstanceStatusResult()
+                        .withInstanceStatuses(new InstanceStatus()
+                                .withInstanceId("i-1"));
+            }
+        }).when(ec2).describeInstanceStatus(
+                any(DescribeInstanceStatusRequest.class));
+        cache.getInstanceStatus(ec2, "i-2");
+
+        // when
+        InstanceStatus status = cache.getInstanceStatus(ec2, "i-1");
+
+        // then
+        assertEquals("i-1", status.getInstanceId());
+        verify(ec2, times(4)).describeInstanceStatus(
+                any(DescribeInstanceStatusRequest.class));
+    }
+
+    @Test
+    public void getImageId() {
+        // given
+        cache.putImageId("image", "ami-1");
+
+        // when
+        String imageId = cache.getImageId("image");
+
+        // then
+        assertEquals("ami-1", imageId);
+        assertNull(cache.getImageId("other"));
+    }
+
+    @Test
+    public void split() {
+        // given
+        Set<String> ids = new LinkedHashSet<String>();
+        for (int i = 0; i < EC2InstanceCache.MAX_IDS_PER_REQUEST + 1; i++) {
+            ids.add("i-" + i);
+        }
+
+        // when
+        List<List<String>> chunks = EC2InstanceCache.split(ids);
+
+        // then
+        assertEquals(2, chunks.size());
+        assertEquals(EC2InstanceCache.MAX_IDS_PER_REQUEST, chunks.get(0)
+                .size());
+        assertEquals(1, chunks.get(1).size());
+    }
+
+    @Test
+    public void getInstance_throttled() {
+        // given
+        AmazonServiceException e = new AmazonServiceException("throttled");
+        e.setErrorCode("RequestLimitExceeded");
+        doThrow(e).doReturn(result("i-1")).when(ec2)
+                .describeInstances(any(DescribeInstancesRequest.class));
+
+        // when
+        Instance instance = cache.getInstance(ec2, "i-1");
+
+        // then
+        assertEquals("i-1", instance.getInstanceId());
+        verify(ec2, times(2)).describeInstances(
+                any(DescribeInstancesRequest.class));
+    }
+
+    @Test
+    public void getInstance_notThrottled() {
+        // given
+        AmazonServiceException e = new AmazonServiceException("invalid");
+        e.setErrorCode("InvalidParameterValue");
+        doThrow(e).when(ec2).describeInstances(
+                any(DescribeInstancesRequest.class));
+
+        // when
+        try {
+            cache.getInstance(ec2, "i-1");
+            fail();
+        } catch (AmazonServiceException ex) {
+            // then
+            verify(ec2).describeInstances(any(DescribeInstancesRequest.class));
+        }
+    }
+
+    private void givenInstances(String... instanceIds) {
+        doReturn(result(instanceIds)).when(ec2).describeInstances(
+                any(DescribeInstancesRequest.class));
+    }
+
+    private static DescribeInstancesResult result(String... instanceIds) {
+        Reservation reservation = new Reservation();
+        for (String id : instanceIds) {
+            reservation.getInstances().add(
+                    new Instance().withInstanceId(id).withState(
+                            new InstanceState().withName("running")));
+        }
+        return new DescribeInstancesResult().withReservations(reservation);
+    }
+}
@@ -15,11 +15,14 @@ import java.io.InputStreamReader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 import org.apache.commons.codec.binary.Base64;
 import org.slf4j.Logger;
@@ -32,15 +35,10 @@ import com.amazonaws.services.ec2.AmazonEC2Client;
 import com.amazonaws.services.ec2.model.CreateTagsRequest;
 import com.amazonaws.services.ec2.model.DescribeImagesRequest;
 import com.amazonaws.services.ec2.model.DescribeImagesResult;
-import com.amazonaws.services.ec2.model.DescribeInstanceStatusRequest;
-import com.amazonaws.services.ec2.model.DescribeInstanceStatusResult;
-import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
-import com.amazonaws.services.ec2.model.DescribeInstancesResult;
 import com.amazonaws.services.ec2.model.Filter;
 import com.amazonaws.services.ec2.model.Image;
 import com.amazonaws.services.ec2.model.Instance;
 import com.amazonaws.services.ec2.model.InstanceStatus;
-import com.amazonaws.services.ec2.model.Reservation;
 import com.amazonaws.services.ec2.model.RunInstancesRequest;
 import com.amazonaws.services.ec2.model.RunInstancesResult;
 import com.amazonaws.services.ec2.model.StartInstancesRequest;
@@ -59,9 +57,43 @@ public class EC2Communication {
 	// EC2 client stub for unit testing
 	private static AmazonEC2Client ec2_stub;
 
+	/**
+	 * The maximum number of shared EC2 clients. The clients of the least
+	 * recently used settings are removed if there are more.
+	 */
+	static final int MAX_CLIENTS = 100;
+
+	/**
+	 * The EC2 clients shared by all instances with the same region, credentials
+	 * and proxy settings, keyed by a hash of the settings. The clients are
+	 * thread safe.
+	 */
+	private static final Map<String, SharedClient> clients = Collections
+			.synchronizedMap(new LinkedHashMap<String, SharedClient>(16,
+					0.75f, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(
+						Map.Entry<String, SharedClient> eldest) {
+					return size() > MAX_CLIENTS;
+				}
+			});
+
+	private static class SharedClient {
+		final AmazonEC2Client ec2;
+		final EC2InstanceCache cache = new EC2InstanceCache();
+
+		SharedClient(AmazonEC2Client ec2) {
+			this.ec2 = ec2;
+		}
+	}
+
 	private final PropertyHandler ph;
 	private final AWSCredentialsProvider credentialsProvider;
 	private AmazonEC2Client ec2;
+	private EC2InstanceCache cache;
 
 	private static final String ENDPOINT_PREFIX = "ec2.";
 	private static final String ENDPOINT_SUFFIX = ".amazonaws.com";
@@ -141,12 +173,55 @@ public class EC2Communication {
 					clientConfiguration.setProxyPassword(proxyPassword);
 				}
 			}
-			ec2 = getEC2(credentialsProvider, clientConfiguration);
-			ec2.setEndpoint(endpoint);
+			String key = getClientKey(endpoint, ph.getAccessKeyId(),
+					ph.getSecretKey(), clientConfiguration.getProxyHost(),
+					clientConfiguration.getProxyPort(),
+					clientConfiguration.getProxyUsername());
+			SharedClient shared;
+			synchronized (clients) {
+				shared = clients.get(key);
+				if (shared == null) {
+					AmazonEC2Client client = getEC2(credentialsProvider,
+							clientConfiguration);
+					client.setEndpoint(endpoint);
+					shared = new SharedClient(client);
+					clients.put(key, shared);
+				}
+			}
+			ec2 = shared.ec2;
+			cache = shared.cache;
 		}
 		return ec2;
 	}
 
+	/**
+	 * Returns the key of the shared client for the given settings. The key is
+	 * a hash, so the secret key is not kept in clear text.
+	 */
+	static String getClientKey(String endpoint, String accessKeyId,
+			String secretKey, String proxyHost, int proxyPort, String proxyUser) {
+		String settings = endpoint + "|" + accessKeyId + "|" + secretKey + "|"
+				+ proxyHost + "|" + proxyPort + "|" + proxyUser;
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return Base64.encodeBase64String(digest.digest(settings
+					.getBytes("UTF-8")));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static int getClientCount() {
+		return clients.size();
+	}
+
+	private EC2InstanceCache getCache() {
+		getEC2();
+		return cache;
+	}
+
 	/**
 	 * Define AWS mockup for unit tests
 	 * 
@@ -155,6 +230,7 @@ public class EC2Communication {
 	 */
 	public static void useMock(AmazonEC2Client ec2) {
 		ec2_stub = ec2;
+		clients.clear();
 	}
 
 	/**
@@ -213,20 +289,34 @@ public class EC2Communication {
 		return false;
 	}
 
-	public String resolveAMI(String imageName) throws APPlatformException {
+	public String resolveAMI(final String imageName)
+			throws APPlatformException {
 
 		LOGGER.debug("resolveAMI('{}') entered", imageName);
-		DescribeImagesRequest describeImagesRequest = new DescribeImagesRequest();
+		final AmazonEC2Client client = getEC2();
+		String imageId = cache.getImageId(imageName);
+		if (imageId != null) {
+			LOGGER.debug("  return cached image with id {}", imageId);
+			return imageId;
+		}
+		final DescribeImagesRequest describeImagesRequest = new DescribeImagesRequest();
 		Collection<Filter> filters = new ArrayList<Filter>();
 		filters.add(new Filter("name").withValues(imageName));
+		describeImagesRequest.withFilters(filters);
 
-		DescribeImagesResult result = getEC2().describeImages(
-				describeImagesRequest.withFilters(filters));
+		DescribeImagesResult result = EC2InstanceCache
+				.withBackoff(new EC2InstanceCache.Call<DescribeImagesResult>() {
+					@Override
+					public DescribeImagesResult call() {
+						return client.describeImages(describeImagesRequest);
+					}
+				});
 		List<Image> images = result.getImages();
 		LOGGER.debug("  number of images found: {}",
 				Integer.valueOf(images.size()));
 		for (Image image : images) {
 			LOGGER.debug("  return image with id {}", image.getImageId());
+			cache.putImageId(imageName, image.getImageId());
 			return image.getImageId();
 		}
 		throw new APPlatformException(Messages.getAll("error_invalid_image",
@@ -289,18 +379,11 @@ public class EC2Communication {
 
 	public String getInstanceState(String instanceId) {
 		LOGGER.debug("getInstanceState('{}') entered", instanceId);
-		DescribeInstancesResult result = getEC2().describeInstances(
-				new DescribeInstancesRequest().withInstanceIds(instanceId));
-		List<Reservation> reservations = result.getReservations();
-		Set<Instance> instances = new HashSet<Instance>();
-
-		for (Reservation reservation : reservations) {
-			instances.addAll(reservation.getInstances());
-			if (instances.size() > 0) {
-				String state = instances.iterator().next().getState().getName();
-				LOGGER.debug("  InstanceState: {}", state);
-				return state;
-			}
+		Instance instance = getCache().getInstance(ec2, instanceId);
+		if (instance != null && instance.getState() != null) {
+			String state = instance.getState().getName();
+			LOGGER.debug("  InstanceState: {}", state);
+			return state;
 		}
 		LOGGER.debug("getInstanceState('{}') left", instanceId);
 		return null;
@@ -308,15 +391,11 @@ public class EC2Communication {
 
 	public boolean isInstanceReady(String instanceId) {
 		LOGGER.debug("isInstanceReady('{}') entered", instanceId);
-		DescribeInstanceStatusResult result = getEC2()
-				.describeInstanceStatus(
-						new DescribeInstanceStatusRequest()
-								.withInstanceIds(instanceId));
-		List<InstanceStatus> statusList = result.getInstanceStatuses();
+		InstanceStatus status = getCache().getInstanceStatus(ec2, instanceId);
 		boolean instanceStatus = false;
 		boolean systemStatus = false;
 
-		for (InstanceStatus status : statusList) {
+		if (status != null) {
 			LOGGER.debug("  InstanceState:    {}", status.getInstanceState());
 			LOGGER.debug("  InstanceStatus:   {}", status.getInstanceStatus()
 					.getStatus());
@@ -333,18 +412,8 @@ public class EC2Communication {
 	}
 
 	public String getPublicDNS(String instanceId) {
-		DescribeInstancesResult result = getEC2().describeInstances(
-				new DescribeInstancesRequest().withInstanceIds(instanceId));
-		List<Reservation> reservations = result.getReservations();
-		Set<Instance> instances = new HashSet<Instance>();
-
-		for (Reservation reservation : reservations) {
-			instances.addAll(reservation.getInstances());
-			if (instances.size() > 0) {
-				return instances.iterator().next().getPublicDnsName();
-			}
-		}
-		return null;
+		Instance instance = getCache().getInstance(ec2, instanceId);
+		return instance != null ? instance.getPublicDnsName() : null;
 	}
 
     private String getTextBASE64(String url) throws APPlatformException {
@@ -0,0 +1,312 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2016
+ *
+ *******************************************************************************/
+
+package org.oscm.app.aws;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.ec2.AmazonEC2Client;
+import com.amazonaws.services.ec2.model.DescribeInstanceStatusRequest;
+import com.amazonaws.services.ec2.model.DescribeInstanceStatusResult;
+import com.amazonaws.services.ec2.model.DescribeInstancesRequest;
+import com.amazonaws.services.ec2.model.DescribeInstancesResult;
+import com.amazonaws.services.ec2.model.Filter;
+import com.amazonaws.services.ec2.model.Instance;
+import com.amazonaws.services.ec2.model.InstanceStatus;
+import com.amazonaws.services.ec2.model.Reservation;
+
+/**
+ * Describes the instances of one EC2 client in batches. When the state of an
+ * instance is requested, all instances polled recently through the same client
+ * are described together, with up to {@link #MAX_IDS_PER_REQUEST} instances
+ * per request. The other instances then take their
+ * state from this result, as long as it is younger than {@link #MAX_AGE}. Each
+ * result is used at most once per instance, so an instance polled again always
+ * gets a state at least as new as its previous one.
+ */
+class EC2InstanceCache {
+
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(EC2InstanceCache.class);
+
+    /**
+     * The maximum age of a batch result used for other instances.
+     */
+    static final long MAX_AGE = 20 * 1000L;
+
+    /**
+     * Instances not polled for this time are not described any more.
+     */
+    static final long POLL_EXPIRY = 10 * 60 * 1000L;
+
+    /**
+     * The time image ids resolved from image names are kept.
+     */
+    static final long IMAGE_TTL = 60 * 60 * 1000L;
+
+    /**
+     * The maximum number of values of a filter and of instance ids per
+     * request.
+     */
+    static final int MAX_IDS_PER_REQUEST = 100;
+
+    static final int MAX_RETRIES = 5;
+
+    /**
+     * The initial delay after a throttled request, doubled with each retry.
+     */
+    static long backoffMillis = 500;
+
+    private final Map<String, Long> polled = new HashMap<String, Long>();
+
+    private final Batch<Instance> instances = new Batch<Instance>();
+
+    private final Batch<InstanceStatus> statuses = new Batch<InstanceStatus>();
+
+    private final ConcurrentMap<String, ImageEntry> images = new ConcurrentHashMap<String, ImageEntry>();
+
+    private static class Batch<T> {
+        Map<String, T> results = Collections.emptyMap();
+        Set<String> unread = Collections.emptySet();
+        long time;
+    }
+
+    private static class ImageEntry {
+        final String imageId;
+        final long validUntil;
+
+        ImageEntry(String imageId, long validUntil) {
+            this.imageId = imageId;
+            this.validUntil = validUntil;
+        }
+    }
+
+    /**
+     * Returns the description of the given instance or <code>null</code> if
+     * it does not exist.
+     */
+    Instance getInstance(AmazonEC2Client ec2, String instanceId) {
+        long now = System.currentTimeMillis();
+        Set<String> ids;
+        synchronized (this) {
+            register(instanceId, now);
+            if (takeUnread(instances, instanceId, now)) {
+                return instances.results.get(instanceId);
+            }
+            ids = new HashSet<String>(polled.keySet());
+        }
+        // EC2 is called without holding the lock, so the other instances are
+        // not blocked by slow or throttled requests
+        Map<String, Instance> result = new HashMap<String, Instance>();
+        for (List<String> chunk : split(ids)) {
+            describeInstances(ec2, chunk, result);
+        }
+        synchronized (this) {
+            update(instances, result, ids, instanceId, now);
+        }
+        return result.get(instanceId);
+    }
+
+    /**
+     * Returns the status of the given instance or <code>null</code> if no
+     * status is reported for it, e.g. because it is not running.
+     */
+    InstanceStatus getInstanceStatus(AmazonEC2Client ec2, String instanceId) {
+        long now = System.currentTimeMillis();
+        Set<String> ids;
+        synchronized (this) {
+            register(instanceId, now);
+            if (takeUnread(statuses, instanceId, now)) {
+                return statuses.results.get(instanceId);
+            }
+            ids = new HashSet<String>(polled.keySet());
+        }
+        Map<String, InstanceStatus> result = new HashMap<String, InstanceStatus>();
+        for (List<String> chunk : split(ids)) {
+            describeInstanceStatus(ec2, chunk, result);
+        }
+        synchronized (this) {
+            update(statuses, result, ids, instanceId, now);
+        }
+        return result.get(instanceId);
+    }
+
+    String getImageId(String imageName) {
+        ImageEntry entry = images.get(imageName);
+        if (entry != null && entry.validUntil > System.currentTimeMillis()) {
+            return entry.imageId;
+        }
+        return null;
+    }
+
+    void putImageId(String imageName, String imageId) {
+        images.put(imageName, new ImageEntry(imageId,
+                System.currentTimeMillis() + IMAGE_TTL));
+    }
+
+    private void register(String instanceId, long now) {
+        polled.put(instanceId, Long.valueOf(now));
+        for (Iterator<Long> it = polled.values().iterator(); it.hasNext();) {
+            if (it.next().longValue() < now - POLL_EXPIRY) {
+                it.remove();
+            }
+        }
+    }
+
+    private static <T> boolean takeUnread(Batch<T> batch, String instanceId,
+            long now) {
+        return batch.time >= now - MAX_AGE && batch.unread.remove(instanceId);
+    }
+
+    /**
+     * Stores the result described at the given time for the given ids, unless
+     * a newer result has been stored meanwhile by a concurrent call.
+     */
+    private static <T> void update(Batch<T> batch, Map<String, T> result,
+            Set<String> ids, String instanceId, long now) {
+        if (batch.time > now) {
+            return;
+        }
+        Set<String> unread = new HashSet<String>(ids);
+        unread.remove(instanceId);
+        batch.results = result;
+        batch.unread = unread;
+        batch.time = now;
+    }
+
+    private void describeInstances(final AmazonEC2Client ec2,
+            List<String> ids, Map<String, Instance> result) {
+        // the filter limits the result to the given ids, so it is not paged
+        final DescribeInstancesRequest request = new DescribeInstancesRequest()
+                .withFilters(new Filter("instance-id").withValues(ids));
+        DescribeInstancesResult page = withBackoff(new Call<DescribeInstancesResult>() {
+            @Override
+            public DescribeInstancesResult call() {
+                return ec2.describeInstances(request);
+            }
+        });
+        for (Reservation reservation : page.getReservations()) {
+            for (Instance instance : reservation.getInstances()) {
+                result.put(instance.getInstanceId(), instance);
+            }
+        }
+    }
+
+    /**
+     * Describes the status of the given instances. The status request does not
+     * support filtering by instance id, so it fails completely if one of the
+     * ids is unknown, e.g. because the instance has been terminated meanwhile.
+     * In this case the instances are described one by one, and the unknown
+     * ones get no status.
+     */
+    private void describeInstanceStatus(final AmazonEC2Client ec2,
+            List<String> ids, Map<String, InstanceStatus> result) {
+        try {
+            describeInstanceStatusPaged(ec2, ids, result);
+        } catch (AmazonServiceException e) {
+            if (!isInstanceNotFound(e)) {
+                throw e;
+            }
+            if (ids.size() > 1) {
+                LOGGER.debug("Unknown instance in status request ({}), "
+                        + "describing the instances one by one",
+                        e.getMessage());
+                for (String id : ids) {
+                    describeInstanceStatus(ec2, Collections.singletonList(id),
+                            result);
+                }
+            }
+        }
+    }
+
+    private void describeInstanceStatusPaged(final AmazonEC2Client ec2,
+            List<String> ids, Map<String, InstanceStatus> result) {
+        final DescribeInstanceStatusRequest request = new DescribeInstanceStatusRequest()
+                .withInstanceIds(ids);
+        do {
+            DescribeInstanceStatusResult page = withBackoff(new Call<DescribeInstanceStatusResult>() {
+                @Override
+                public DescribeInstanceStatusResult call() {
+                    return ec2.describeInstanceStatus(request);
+                }
+            });
+            for (InstanceStatus status : page.getInstanceStatuses()) {
+                result.put(status.getInstanceId(), status);
+            }
+            request.setNextToken(page.getNextToken());
+        } while (request.getNextToken() != null);
+    }
+
+    static List<List<String>> split(Set<String> ids) {
+        List<List<String>> result = new ArrayList<List<String>>();
+        List<String> chunk = new ArrayList<String>();
+        for (String id : ids) {
+            if (chunk.size() == MAX_IDS_PER_REQUEST) {
+                result.add(chunk);
+                chunk = new ArrayList<String>();
+            }
+            chunk.add(id);
+        }
+        if (!chunk.isEmpty()) {
+            result.add(chunk);
+        }
+        return result;
+    }
+
+    interface Call<T> {
+        T call();
+    }
+
+    /**
+     * Executes the given call, repeating it with exponential backoff as long
+     * as EC2 rejects it because of request throttling.
+     */
+    static <T> T withBackoff(Call<T> call) {
+        long delay = backoffMillis;
+        for (int retry = 0;; retry++) {
+            try {
+                return call.call();
+            } catch (AmazonServiceException e) {
+                if (retry >= MAX_RETRIES || !isThrottled(e)) {
+                    throw e;
+                }
+                LOGGER.debug("Request throttled by EC2, retrying in {} ms",
+                        Long.valueOf(delay));
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+                delay *= 2;
+            }
+        }
+    }
+
+    static boolean isInstanceNotFound(AmazonServiceException e) {
+        return "InvalidInstanceID.NotFound".equals(e.getErrorCode())
+                || "InvalidInstanceID.Malformed".equals(e.getErrorCode());
+    }
+
+    static boolean isThrottled(AmazonServiceException e) {
+        return "RequestLimitExceeded".equals(e.getErrorCode())
+                || "Throttling".equals(e.getErrorCode())
+                || e.getStatusCode() == 503;
+    }
+}
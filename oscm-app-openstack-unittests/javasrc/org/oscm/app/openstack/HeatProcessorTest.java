@@ -41,6 +41,7 @@ public class HeatProcessorTest {
     public void setUp() throws Exception {
         OpenStackConnection.setURLStreamHandler(streamHandler);
         HeatProcessor.setURLStreamHandler(streamHandler);
+        KeystoneTokenCache.clear();
         paramHandler.setStackId("sID");
     }
 
@@ -8,6 +8,7 @@
 
 package org.oscm.app.openstack;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
@@ -97,4 +98,22 @@ public class KeystoneClientTest {
         new KeystoneClient(new OpenStackConnection("http://xyz.de"))
                 .authenticate("user", "password", "tenantName");
     }
+
+    @Test
+    public void parseExpiry() {
+        assertEquals(1464782400000L,
+                KeystoneClient.parseExpiry("2016-06-01T12:00:00Z"));
+    }
+
+    @Test
+    public void parseExpiry_fraction() {
+        assertEquals(1464782400000L,
+                KeystoneClient.parseExpiry("2016-06-01T12:00:00.123456Z"));
+    }
+
+    @Test
+    public void parseExpiry_invalid() {
+        assertEquals(0, KeystoneClient.parseExpiry("tomorrow at noon"));
+        assertEquals(0, KeystoneClient.parseExpiry(null));
+    }
 }
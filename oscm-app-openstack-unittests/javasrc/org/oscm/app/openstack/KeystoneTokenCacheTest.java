@@ -0,0 +1,244 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2016
+ *
+ *******************************************************************************/
+
+package org.oscm.app.openstack;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.sling.commons.json.JSONArray;
+import org.apache.sling.commons.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the token cache against a local stub of the Keystone and Heat APIs.
+ */
+public class KeystoneTokenCacheTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+    private final AtomicInteger rejectedRequests = new AtomicInteger();
+    private final List<Integer> clientPorts = Collections
+            .synchronizedList(new ArrayList<Integer>());
+    private volatile long expiresIn = 60 * 60 * 1000L;
+    private volatile String validToken;
+
+    @Before
+    public void setUp() throws Exception {
+        OpenStackConnection.setURLStreamHandler(null);
+        KeystoneTokenCache.clear();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+        server.createContext("/keystone/tokens", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                validToken = "token" + tokenRequests.incrementAndGet();
+                respond(exchange, 200, tokenResponse(validToken));
+            }
+        });
+        server.createContext("/heat/stacks", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                clientPorts.add(Integer.valueOf(exchange.getRemoteAddress()
+                        .getPort()));
+                String token = exchange.getRequestHeaders().getFirst(
+                        "X-Auth-Token");
+                if (token == null || !token.equals(validToken)) {
+                    rejectedRequests.incrementAndGet();
+                    respond(exchange, 401, "{\"error\":\"unauthorized\"}");
+                } else {
+                    respond(exchange, 200, "{\"stacks\":[]}");
+                }
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        KeystoneTokenCache.clear();
+    }
+
+    private static void respond(HttpExchange exchange, int code, String body)
+            throws IOException {
+        InputStream in = exchange.getRequestBody();
+        while (in.read() >= 0) {
+            // consume the request
+        }
+        byte[] bytes = body.getBytes("UTF-8");
+        exchange.sendResponseHeaders(code, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(bytes);
+        out.close();
+    }
+
+    private String tokenResponse(String token) {
+        try {
+            SimpleDateFormat format = new SimpleDateFormat(
+                    "yyyy-MM-dd'T'HH:mm:ss'Z'");
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            JSONObject tokenObj = new JSONObject();
+            tokenObj.put("id", token);
+            tokenObj.put("expires", format.format(new Date(System
+                    .currentTimeMillis() + expiresIn)));
+            JSONArray catalog = new JSONArray();
+            catalog.put(service(KeystoneClient.TYPE_HEAT,
+                    KeystoneClient.NAME_HEAT, baseUrl + "/heat"));
+            catalog.put(service(KeystoneClient.TYPE_NOVA,
+                    KeystoneClient.NAME_NOVA, baseUrl + "/nova"));
+            JSONObject access = new JSONObject();
+            access.put("token", tokenObj);
+            access.put("serviceCatalog", catalog);
+            JSONObject response = new JSONObject();
+            response.put("access", access);
+            return response.toString();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static JSONObject service(String type, String name, String url)
+            throws Exception {
+        JSONObject endpoint = new JSONObject();
+        endpoint.put("publicURL", url);
+        JSONArray endpoints = new JSONArray();
+        endpoints.put(endpoint);
+        JSONObject service = new JSONObject();
+        service.put("type", type);
+        service.put("name", name);
+        service.put("endpoints", endpoints);
+        return service;
+    }
+
+    private OpenStackConnection authenticate(String tenant) throws Exception {
+        OpenStackConnection connection = new OpenStackConnection(baseUrl
+                + "/keystone");
+        KeystoneTokenCache.authenticate(connection, "user", "password",
+                tenant);
+        return connection;
+    }
+
+    private RESTResponse getStacks(OpenStackConnection connection)
+            throws Exception {
+        return connection.processRequest(connection.getHeatEndpoint()
+                + "/stacks", "GET");
+    }
+
+    @Test
+    public void authenticate_cached() throws Exception {
+        // when
+        getStacks(authenticate("tenant"));
+        getStacks(authenticate("tenant"));
+
+        // then
+        assertEquals(1, tokenRequests.get());
+        assertEquals(0, rejectedRequests.get());
+    }
+
+    @Test
+    public void authenticate_otherTenant() throws Exception {
+        // when
+        authenticate("tenant1");
+        authenticate("tenant2");
+
+        // then
+        assertEquals(2, tokenRequests.get());
+    }
+
+    @Test
+    public void authenticate_otherPassword() throws Exception {
+        // given
+        authenticate("tenant");
+        OpenStackConnection connection = new OpenStackConnection(baseUrl
+                + "/keystone");
+
+        // when
+        KeystoneTokenCache.authenticate(connection, "user", "changed",
+                "tenant");
+
+        // then
+        assertEquals(2, tokenRequests.get());
+    }
+
+    @Test
+    public void authenticate_expiring() throws Exception {
+        // given
+        expiresIn = KeystoneTokenCache.EXPIRY_MARGIN / 2;
+
+        // when
+        authenticate("tenant");
+        authenticate("tenant");
+
+        // then
+        assertEquals(2, tokenRequests.get());
+    }
+
+    @Test
+    public void processRequest_reauthenticateOnUnauthorized() throws Exception {
+        // given a token revoked by Keystone
+        authenticate("tenant");
+        validToken = "revoked";
+
+        // when
+        RESTResponse response = getStacks(authenticate("tenant"));
+
+        // then
+        assertEquals(200, response.getResponseCode());
+        assertEquals(1, rejectedRequests.get());
+        assertEquals(2, tokenRequests.get());
+    }
+
+    @Test
+    public void processRequest_reauthenticatedTokenCached() throws Exception {
+        // given
+        authenticate("tenant");
+        validToken = "revoked";
+        getStacks(authenticate("tenant"));
+
+        // when
+        getStacks(authenticate("tenant"));
+
+        // then
+        assertEquals(2, tokenRequests.get());
+        assertEquals(1, rejectedRequests.get());
+    }
+
+    @Test
+    public void processRequest_reusesConnection() throws Exception {
+        // given
+        OpenStackConnection connection = authenticate("tenant");
+
+        // when
+        for (int i = 0; i < 5; i++) {
+            getStacks(connection);
+        }
+
+        // then all requests were sent over the same socket
+        assertEquals(5, clientPorts.size());
+        for (Integer port : clientPorts) {
+            assertEquals(clientPorts.get(0), port);
+        }
+    }
+}
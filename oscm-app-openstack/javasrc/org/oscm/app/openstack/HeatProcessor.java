@@ -94,9 +94,8 @@ public class HeatProcessor {
             throws HeatException, APPlatformException {
         OpenStackConnection connection = new OpenStackConnection(
                 ph.getKeystoneUrl());
-        KeystoneClient client = new KeystoneClient(connection);
-        client.authenticate(ph.getUserName(), ph.getPassword(),
-                ph.getTenantName());
+        KeystoneTokenCache.authenticate(connection, ph.getUserName(),
+                ph.getPassword(), ph.getTenantName());
         return new HeatClient(connection);
     }
 
@@ -228,16 +227,15 @@ public class HeatProcessor {
 
     public boolean resumeStack(PropertyHandler ph) throws HeatException,
             APPlatformException {
-        if (!createHeatClient(ph).checkServerExists(ph.getStackName())) {
+        HeatClient heatClient = createHeatClient(ph);
+        if (!heatClient.checkServerExists(ph.getStackName())) {
             throw new InstanceNotAliveException(
                     Messages.getAll("error_activating_failed_instance_not_found"));
         }
 
         if (OpenStackStatus.SUSPEND_COMPLETE.name().equals(
-                createHeatClient(ph).getStackDetails(ph.getStackName())
-                        .getStatus())) {
-            createHeatClient(ph)
-                    .resumeStack(ph.getStackName(), ph.getStackId());
+                heatClient.getStackDetails(ph.getStackName()).getStatus())) {
+            heatClient.resumeStack(ph.getStackName(), ph.getStackId());
             return true;
         }
         return false;
@@ -245,16 +243,15 @@ public class HeatProcessor {
 
     public boolean suspendStack(PropertyHandler ph) throws HeatException,
             APPlatformException {
-        if (!createHeatClient(ph).checkServerExists(ph.getStackName())) {
+        HeatClient heatClient = createHeatClient(ph);
+        if (!heatClient.checkServerExists(ph.getStackName())) {
             throw new InstanceNotAliveException(
                     Messages.getAll("error_deactivating_failed_instance_not_found"));
         }
 
         if (!OpenStackStatus.SUSPEND_COMPLETE.name().equals(
-                createHeatClient(ph).getStackDetails(ph.getStackName())
-                        .getStatus())) {
-            createHeatClient(ph).suspendStack(ph.getStackName(),
-                    ph.getStackId());
+                heatClient.getStackDetails(ph.getStackName()).getStatus())) {
+            heatClient.suspendStack(ph.getStackName(), ph.getStackId());
             return true;
         }
         return false;
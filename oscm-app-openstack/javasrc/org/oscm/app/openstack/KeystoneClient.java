@@ -8,6 +8,10 @@
 
 package org.oscm.app.openstack;
 
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.TimeZone;
+
 import org.apache.sling.commons.json.JSONArray;
 import org.apache.sling.commons.json.JSONException;
 import org.apache.sling.commons.json.JSONObject;
@@ -35,6 +39,8 @@ public class KeystoneClient {
 
     private final OpenStackConnection connection;
 
+    private long tokenExpiry;
+
     /**
      * 
      * @param connection
@@ -89,6 +95,7 @@ public class KeystoneClient {
             JSONObject access = jsonObj.getJSONObject("access");
             JSONObject token = access.getJSONObject("token");
             String authToken = token.getString("id");
+            tokenExpiry = parseExpiry(token.optString("expires", null));
             JSONArray catalog = access.getJSONArray("serviceCatalog");
             int catalogSize = catalog.length();
             for (int i = 0; i < catalogSize; i++) {
@@ -150,4 +157,31 @@ public class KeystoneClient {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Returns the expiry time of the token obtained by the last
+     * authentication, or 0 if Keystone did not return a readable expiry.
+     */
+    public long getTokenExpiry() {
+        return tokenExpiry;
+    }
+
+    /**
+     * Parses the expiry of a token, e.g. <code>2016-06-01T12:00:00Z</code> or
+     * <code>2016-06-01T12:00:00.000000Z</code>. Keystone returns UTC times.
+     */
+    static long parseExpiry(String expires) {
+        if (expires == null || expires.length() < 19) {
+            return 0;
+        }
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        try {
+            return format.parse(expires.substring(0, 19)).getTime();
+        } catch (ParseException e) {
+            LOGGER.debug("KeystoneClient.authenticate() unreadable token expiry: "
+                    + expires);
+            return 0;
+        }
+    }
 }
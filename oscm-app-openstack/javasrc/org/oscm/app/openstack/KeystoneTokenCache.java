@@ -0,0 +1,134 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2016
+ *
+ *******************************************************************************/
+
+package org.oscm.app.openstack;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.oscm.app.openstack.exceptions.HeatException;
+import org.oscm.app.v1_0.exceptions.APPlatformException;
+
+/**
+ * Caches the Keystone tokens and service endpoints per Keystone endpoint,
+ * tenant and user, so status polling does not request a new token for every
+ * Heat call. A token is used until shortly before it expires or until Heat or
+ * Nova reject it, in which case a new token is requested and the request is
+ * repeated.
+ */
+public class KeystoneTokenCache {
+
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(KeystoneTokenCache.class);
+
+    /**
+     * Tokens are not used any more if they expire within this time.
+     */
+    static final long EXPIRY_MARGIN = 60 * 1000L;
+
+    /**
+     * The time a token is used if Keystone does not return its expiry.
+     */
+    static final long DEFAULT_LIFETIME = 10 * 60 * 1000L;
+
+    private static final ConcurrentMap<String, Entry> tokens = new ConcurrentHashMap<String, Entry>();
+
+    private static class Entry {
+        final String password;
+        final String token;
+        final String heatEndpoint;
+        final String novaEndpoint;
+        final long validUntil;
+
+        Entry(String password, OpenStackConnection connection,
+                long validUntil) {
+            this.password = password;
+            this.token = connection.getAuthToken();
+            this.heatEndpoint = connection.getHeatEndpoint();
+            this.novaEndpoint = connection.getNovaEndpoint();
+            this.validUntil = validUntil;
+        }
+
+        boolean isValid(String pwd, long now) {
+            return now < validUntil && password.equals(pwd);
+        }
+    }
+
+    /**
+     * Authenticates the given connection, using a cached token if one is
+     * available. The connection obtains a new token by itself if its token is
+     * rejected.
+     */
+    public static void authenticate(OpenStackConnection connection,
+            final String user, final String password, final String tenantName)
+            throws HeatException, APPlatformException {
+        final String key = key(connection.getKeystoneEndpoint(), user,
+                tenantName);
+        Entry entry = tokens.get(key);
+        if (entry != null
+                && entry.isValid(password, System.currentTimeMillis())) {
+            connection.useAuthentication(entry.token);
+            connection.setHeatEndpoint(entry.heatEndpoint);
+            connection.setNovaEndpoint(entry.novaEndpoint);
+        } else {
+            requestToken(connection, key, user, password, tenantName);
+        }
+        connection
+                .setReauthentication(new OpenStackConnection.Reauthentication() {
+                    @Override
+                    public void reauthenticate(OpenStackConnection con)
+                            throws HeatException {
+                        tokens.remove(key);
+                        try {
+                            authenticate(con, user, password, tenantName);
+                        } catch (APPlatformException e) {
+                            throw new HeatException(e.getMessage());
+                        }
+                    }
+                });
+    }
+
+    private static void requestToken(OpenStackConnection connection,
+            String key, String user, String password, String tenantName)
+            throws HeatException, APPlatformException {
+        KeystoneClient client = new KeystoneClient(connection);
+        client.authenticate(user, password, tenantName);
+        long now = System.currentTimeMillis();
+        long validUntil = client.getTokenExpiry() > 0 ? client
+                .getTokenExpiry() - EXPIRY_MARGIN : now + DEFAULT_LIFETIME;
+        if (validUntil > now) {
+            removeExpired(now);
+            tokens.put(key, new Entry(password, connection, validUntil));
+        } else {
+            LOGGER.debug("KeystoneTokenCache: token expires too soon to be cached");
+        }
+    }
+
+    private static void removeExpired(long now) {
+        for (Iterator<Map.Entry<String, Entry>> it = tokens.entrySet()
+                .iterator(); it.hasNext();) {
+            if (it.next().getValue().validUntil <= now) {
+                it.remove();
+            }
+        }
+    }
+
+    private static String key(String endpoint, String user, String tenantName) {
+        return endpoint + "\n" + tenantName + "\n" + user;
+    }
+
+    /**
+     * Removes all cached tokens. <b>Should only be used for unit testing!</b>
+     */
+    public static void clear() {
+        tokens.clear();
+    }
+}
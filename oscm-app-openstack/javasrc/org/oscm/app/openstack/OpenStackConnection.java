@@ -9,6 +9,7 @@
 package org.oscm.app.openstack;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.net.Authenticator;
 import java.net.HttpURLConnection;
@@ -28,10 +29,21 @@ import org.oscm.app.openstack.proxy.ProxyAuthenticator;
 import org.oscm.app.openstack.proxy.ProxySettings;
 
 /**
- * A connection to the OpenStack Heat API.
+ * A connection to the OpenStack Heat API. The underlying HTTP connections are
+ * not closed after a request, so the JVM keeps them alive and reuses them for
+ * further requests to the same host.
  */
 public class OpenStackConnection {
 
+    /**
+     * Obtains a new token for a connection whose token was rejected.
+     */
+    public interface Reauthentication {
+
+        void reauthenticate(OpenStackConnection connection)
+                throws HeatException;
+    }
+
     private static final Logger logger = LoggerFactory
             .getLogger(OpenStackConnection.class);
 
@@ -41,6 +53,7 @@ public class OpenStackConnection {
     private String heatEndpoint = "";
     private String novaEndpoint = "";
     private String authToken = null;
+    private Reauthentication reauthentication;
 
     /**
      * Sets the URL stream handler. <b>Should only be used for unit testing!</b>
@@ -114,8 +127,31 @@ public class OpenStackConnection {
         return processRequest(restUri, method, null);
     }
 
+    /**
+     * Sends the request. If the request is rejected as unauthorized and a
+     * re-authentication is set, a new token is obtained and the request is
+     * sent once more.
+     */
     public RESTResponse processRequest(String restUri, String method,
             String requestBody) throws HeatException {
+        try {
+            return sendRequest(restUri, method, requestBody);
+        } catch (HeatException e) {
+            Reauthentication reauth = reauthentication;
+            if (e.getResponseCode() != 401 || reauth == null) {
+                throw e;
+            }
+            logger.debug("Token rejected, re-authenticating for " + restUri);
+            // the re-authentication sets itself again if it succeeds
+            reauthentication = null;
+            useAuthentication(null);
+            reauth.reauthenticate(this);
+            return sendRequest(restUri, method, requestBody);
+        }
+    }
+
+    private RESTResponse sendRequest(String restUri, String method,
+            String requestBody) throws HeatException {
         HttpURLConnection connection = null;
         OutputStreamWriter out = null;
         try {
@@ -152,6 +188,7 @@ public class OpenStackConnection {
             try {
                 if (connection != null) {
                     responseCode = connection.getResponseCode();
+                    discardErrorStream(connection);
                 }
             } catch (IOException e1) {
                 responseCode = -1;
@@ -190,12 +227,32 @@ public class OpenStackConnection {
                     // best effort pattern
                 }
             }
-            if (connection != null) {
-                try {
-                    connection.disconnect();
-                } catch (Exception e) {
-                    // best effort pattern
-                }
+            // the connection is not disconnected, as this would close the
+            // socket instead of returning it to the keep-alive cache
+        }
+    }
+
+    /**
+     * Reads the rest of the error response, so the underlying socket can be
+     * reused.
+     */
+    private void discardErrorStream(HttpURLConnection connection) {
+        InputStream in = connection.getErrorStream();
+        if (in == null) {
+            return;
+        }
+        try {
+            byte[] buffer = new byte[1024];
+            while (in.read(buffer) >= 0) {
+                // discard
+            }
+        } catch (IOException e) {
+            // best effort pattern
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // best effort pattern
             }
         }
     }
@@ -275,4 +332,16 @@ public class OpenStackConnection {
         this.authToken = authToken;
     }
 
+    String getAuthToken() {
+        return authToken;
+    }
+
+    /**
+     * Sets the re-authentication used when a request is rejected as
+     * unauthorized.
+     */
+    void setReauthentication(Reauthentication reauthentication) {
+        this.reauthentication = reauthentication;
+    }
+
 }
@@ -19,6 +19,7 @@ import java.util.concurrent.Callable;
 
 import javax.ejb.EJBException;
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -37,6 +38,7 @@ public class APPConfigurationServiceIT extends EJBTestBase {
 
     @Override
     protected void setup(TestContainer container) throws Exception {
+        APPConfigurationServiceBean.clearSnapshots();
         container.addBean(new APPConfigurationServiceBean());
 
         cs = container.get(APPConfigurationServiceBean.class);
@@ -339,6 +341,135 @@ public class APPConfigurationServiceIT extends EJBTestBase {
                         .name()));
     }
 
+    @Test
+    public void getControllerConfigurationSettings_snapshot() throws Exception {
+        // given
+        createContorllerConfigSetting("controller1",
+                ControllerConfigurationKey.BSS_ORGANIZATION_ID.name(), "org");
+        createContorllerConfigSetting("controller1", "key", "value");
+        createContorllerConfigSetting("controller1", "key_PWD",
+                APPConfigurationServiceBean.CRYPT_PREFIX + "secret");
+        getControllerSettings("controller1");
+        updateControllerConfigSetting("controller1", "key", "changed");
+
+        // when
+        Map<String, String> result = getControllerSettings("controller1");
+
+        // then
+        assertEquals("value", result.get("key"));
+        assertEquals("secret", result.get("key_PWD"));
+    }
+
+    @Test
+    public void getControllerConfigurationSettings_snapshotStored()
+            throws Exception {
+        // given
+        createContorllerConfigSetting("controller1",
+                ControllerConfigurationKey.BSS_ORGANIZATION_ID.name(), "org");
+        createContorllerConfigSetting("controller1", "key", "value");
+        getControllerSettings("controller1");
+        runTX(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                HashMap<String, String> map = new HashMap<String, String>();
+                map.put("key", "stored");
+                cs.storeControllerConfigurationSettings("controller1", map);
+                return null;
+            }
+        });
+
+        // when
+        Map<String, String> result = getControllerSettings("controller1");
+
+        // then
+        assertEquals("stored", result.get("key"));
+    }
+
+    @Test
+    public void getControllerConfigurationSettings_snapshotExpired()
+            throws Exception {
+        // given
+        long snapshotMillis = APPConfigurationServiceBean.snapshotMillis;
+        APPConfigurationServiceBean.snapshotMillis = 0;
+        try {
+            createContorllerConfigSetting("controller1",
+                    ControllerConfigurationKey.BSS_ORGANIZATION_ID.name(),
+                    "org");
+            createContorllerConfigSetting("controller1", "key", "value");
+            getControllerSettings("controller1");
+            updateControllerConfigSetting("controller1", "key", "changed");
+
+            // when
+            Map<String, String> result = getControllerSettings("controller1");
+
+            // then
+            assertEquals("changed", result.get("key"));
+        } finally {
+            APPConfigurationServiceBean.snapshotMillis = snapshotMillis;
+        }
+    }
+
+    @Test
+    public void isAPPSuspend_snapshotWhileStoring() throws Exception {
+        // given
+        assertFalse(isAPPSuspend());
+
+        // when
+        boolean[] result = runTX(new Callable<boolean[]>() {
+            @Override
+            public boolean[] call() throws Exception {
+                cs.setAPPSuspend("true");
+                boolean storingTransaction = cs.isAPPSuspend();
+                // runs in a new transaction while the storing one is pending
+                boolean otherTransaction = isAPPSuspend();
+                return new boolean[] { storingTransaction, otherTransaction };
+            }
+        });
+
+        // then
+        assertTrue(result[0]);
+        assertFalse(result[1]);
+        assertTrue(isAPPSuspend());
+    }
+
+    private boolean isAPPSuspend() throws Exception {
+        return runTX(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return Boolean.valueOf(cs.isAPPSuspend());
+            }
+        }).booleanValue();
+    }
+
+    private Map<String, String> getControllerSettings(final String controllerId)
+            throws Exception {
+        return runTX(new Callable<Map<String, String>>() {
+            @Override
+            public Map<String, String> call() throws Exception {
+                return cs.getControllerConfigurationSettings(controllerId);
+            }
+        });
+    }
+
+    private void updateControllerConfigSetting(final String controllerId,
+            final String settingKey, final String value) throws Exception {
+        runTX(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                Query query = em
+                        .createNamedQuery("ConfigurationSetting.getForController");
+                query.setParameter("controllerId", controllerId);
+                for (Object entry : query.getResultList()) {
+                    ConfigurationSetting setting = (ConfigurationSetting) entry;
+                    if (setting.getSettingKey().equals(settingKey)) {
+                        setting.setSettingValue(value);
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
     /**
      * Creates and persists a configuration setting.
      * 
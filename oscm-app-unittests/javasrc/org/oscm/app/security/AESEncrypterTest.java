@@ -0,0 +1,83 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.app.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.security.GeneralSecurityException;
+
+import org.junit.Test;
+
+public class AESEncrypterTest {
+
+    @Test
+    public void encrypt_decrypt() throws Exception {
+        // when
+        String encrypted1 = AESEncrypter.encrypt("secret1");
+        String encrypted2 = AESEncrypter.encrypt("secret2");
+
+        // then
+        assertFalse("secret1".equals(encrypted1));
+        assertEquals("secret2", AESEncrypter.decrypt(encrypted2));
+        assertEquals("secret1", AESEncrypter.decrypt(encrypted1));
+        assertEquals(encrypted1, AESEncrypter.encrypt("secret1"));
+    }
+
+    @Test
+    public void decrypt_afterFailure() throws Exception {
+        // given
+        String encrypted = AESEncrypter.encrypt("secret");
+        try {
+            AESEncrypter.decrypt("invalid");
+            fail("GeneralSecurityException expected");
+        } catch (GeneralSecurityException e) {
+            // expected
+        }
+
+        // when
+        String decrypted = AESEncrypter.decrypt(encrypted);
+
+        // then
+        assertEquals("secret", decrypted);
+    }
+
+    @Test
+    public void decrypt_threads() throws Exception {
+        // given
+        final String encrypted = AESEncrypter.encrypt("secret");
+        final String[] results = new String[4];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 1000; j++) {
+                            results[index] = AESEncrypter.decrypt(encrypted);
+                        }
+                    } catch (GeneralSecurityException e) {
+                        results[index] = e.getMessage();
+                    }
+                }
+            };
+        }
+
+        // when
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // then
+        for (String result : results) {
+            assertEquals("secret", result);
+        }
+    }
+}
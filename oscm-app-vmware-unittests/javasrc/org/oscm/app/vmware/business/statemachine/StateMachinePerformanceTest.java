@@ -0,0 +1,44 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2016
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.business.statemachine;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.oscm.app.v1_0.data.InstanceStatus;
+import org.oscm.app.v1_0.data.ProvisioningSettings;
+
+/**
+ * Measures the state transitions per second of a state machine without
+ * remote calls in its actions, i.e. the overhead of the state machine itself.
+ */
+@Ignore
+public class StateMachinePerformanceTest {
+
+    private static final int TRANSITIONS = 1000000;
+
+    @Test
+    public void transitionsPerSecond() throws Exception {
+        States states = StateMachineTest.createStates("next", "next", "next");
+        states.compile(getClass().getClassLoader());
+        ProvisioningSettings settings = StateMachineTest.createSettings();
+        StateMachine stateMachine = new StateMachine(states, "test.xml", "S0");
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < TRANSITIONS; i++) {
+            // a new state machine per step as in the controller
+            stateMachine = new StateMachine(states, "test.xml",
+                    stateMachine.executeAction(settings, "id",
+                            new InstanceStatus()));
+        }
+        long time = Math.max(1, System.currentTimeMillis() - start);
+
+        long perSecond = TRANSITIONS * 1000L / time;
+        Assert.assertTrue(perSecond + " transitions per second.",
+                perSecond > 100000);
+    }
+}
@@ -8,11 +8,17 @@
 
 package org.oscm.app.vmware.business.statemachine;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 
 import javax.xml.bind.JAXBContext;
@@ -22,6 +28,7 @@ import org.junit.Test;
 import org.oscm.app.v1_0.data.InstanceStatus;
 import org.oscm.app.v1_0.data.ProvisioningSettings;
 import org.oscm.app.vmware.business.statemachine.api.StateMachineAction;
+import org.oscm.app.vmware.business.statemachine.api.StateMachineException;
 
 /**
  * @author kulle
@@ -29,6 +36,45 @@ import org.oscm.app.vmware.business.statemachine.api.StateMachineAction;
  */
 public class StateMachineTest {
 
+    public static class TestActions {
+
+        public String next(@SuppressWarnings("unused") String instanceId,
+                @SuppressWarnings("unused") ProvisioningSettings settings,
+                @SuppressWarnings("unused") InstanceStatus result) {
+            return "next";
+        }
+
+        public String fail(@SuppressWarnings("unused") String instanceId,
+                @SuppressWarnings("unused") ProvisioningSettings settings,
+                @SuppressWarnings("unused") InstanceStatus result)
+                throws Exception {
+            throw new Exception("failed");
+        }
+    }
+
+    static States createStates(String... actions) {
+        List<State> list = new ArrayList<State>();
+        for (int i = 0; i < actions.length; i++) {
+            State state = new State();
+            state.setId("S" + i);
+            state.setAction(actions[i]);
+            Event event = new Event();
+            event.setId("next");
+            event.setState("S" + ((i + 1) % actions.length));
+            state.setEvents(new ArrayList<Event>(Arrays.asList(event)));
+            list.add(state);
+        }
+        States states = new States();
+        states.setClass(TestActions.class.getName());
+        states.setStates(list);
+        return states;
+    }
+
+    static ProvisioningSettings createSettings() {
+        return new ProvisioningSettings(new HashMap<String, String>(),
+                new HashMap<String, String>(), "en");
+    }
+
     private States loadStates(String filename) throws Exception {
         ClassLoader loader = Thread.currentThread().getContextClassLoader();
         try (InputStream stream = loader
@@ -448,4 +494,96 @@ public class StateMachineTest {
         // then no exception expected
     }
 
+    @Test
+    public void loadStateMachine_cached() throws Exception {
+        // when
+        States states = StateMachine.loadStateMachine("create_vm.xml");
+
+        // then
+        assertSame(states, StateMachine.loadStateMachine("create_vm.xml"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void loadStateMachine_immutable() throws Exception {
+        // given
+        States states = StateMachine.loadStateMachine("create_vm.xml");
+
+        // when
+        states.getStates().clear();
+    }
+
+    @Test(expected = StateMachineException.class)
+    public void compile_missingAction() throws Exception {
+        // given
+        States states = createStates("next", "missing");
+
+        // when
+        states.compile(getClass().getClassLoader());
+    }
+
+    @Test
+    public void executeAction() throws Exception {
+        // given
+        States states = createStates("next", "next");
+        states.compile(getClass().getClassLoader());
+        StateMachine stateMachine = new StateMachine(states, "test.xml", "S0");
+        StateMetrics.reset();
+
+        // when
+        String next = stateMachine.executeAction(createSettings(), "id",
+                new InstanceStatus());
+
+        // then
+        assertEquals("S1", next);
+        assertEquals("S0", stateMachine.getHistory());
+        assertEquals(1, StateMetrics.getAll().get("test.xml/S0")
+                .getExecutions());
+    }
+
+    @Test
+    public void executeAction_failed() throws Exception {
+        // given
+        States states = createStates("fail");
+        states.compile(getClass().getClassLoader());
+        StateMachine stateMachine = new StateMachine(states, "test.xml", "S0");
+        StateMetrics.reset();
+
+        // when
+        try {
+            stateMachine.executeAction(createSettings(), "id",
+                    new InstanceStatus());
+        } catch (StateMachineException e) {
+            // then
+            assertEquals("failed", e.getMessage());
+            assertEquals("fail", e.getMethod());
+            assertEquals(1, StateMetrics.getAll().get("test.xml/S0")
+                    .getExecutions());
+            return;
+        }
+        throw new AssertionError("StateMachineException expected");
+    }
+
+    @Test
+    public void stateMetrics_logSummary() throws Exception {
+        // given
+        StateMetrics.reset();
+        StateMetrics.record("test.xml", "S1", 3000000);
+        StateMetrics.record("test.xml", "S0", 2000000);
+        StateMetrics.record("test.xml", "S0", 4000000);
+        long now = System.currentTimeMillis() + StateMetrics.LOG_INTERVAL;
+
+        // when
+        boolean logged = StateMetrics.logSummary(now);
+
+        // then
+        assertTrue(logged);
+        assertFalse(StateMetrics.logSummary(now + StateMetrics.LOG_INTERVAL
+                - 1));
+        assertEquals("State execution statistics:" + System.lineSeparator()
+                + "test.xml/S0: executions: 2, average: 3 ms, max: 4 ms"
+                + System.lineSeparator()
+                + "test.xml/S1: executions: 1, average: 3 ms, max: 3 ms",
+                StateMetrics.getSummary());
+    }
+
 }
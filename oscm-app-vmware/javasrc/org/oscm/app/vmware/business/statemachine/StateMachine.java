@@ -9,6 +9,8 @@
 package org.oscm.app.vmware.business.statemachine;
 
 import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.Unmarshaller;
@@ -33,6 +35,13 @@ public class StateMachine {
     private static final Logger logger = LoggerFactory
             .getLogger(StateMachine.class);
 
+    /**
+     * The compiled state machine definitions, mapped by file name.
+     */
+    private static final ConcurrentMap<String, States> definitions = new ConcurrentHashMap<String, States>();
+
+    private static volatile JAXBContext jaxbContext;
+
     private States states;
 
     private String stateId;
@@ -51,20 +60,62 @@ public class StateMachine {
         stateId = settings.getParameters().get(StateMachineProperties.SM_STATE);
     }
 
-    private States loadStateMachine(String filename)
+    StateMachine(States states, String machine, String stateId) {
+        this.states = states;
+        this.machine = machine;
+        this.stateId = stateId;
+    }
+
+    /**
+     * Returns the compiled definition of the given state machine. Each file is
+     * read only once; the definitions are immutable and shared by all state
+     * machine instances.
+     */
+    static States loadStateMachine(String filename)
+            throws StateMachineException {
+        if (filename == null) {
+            throw new StateMachineException(
+                    "No state machine definition file specified");
+        }
+        States result = definitions.get(filename);
+        if (result == null) {
+            // concurrent first calls may read the file more than once, but
+            // only one definition is kept
+            result = readStateMachine(filename);
+            States existing = definitions.putIfAbsent(filename, result);
+            if (existing != null) {
+                result = existing;
+            }
+        }
+        return result;
+    }
+
+    private static States readStateMachine(String filename)
             throws StateMachineException {
         logger.debug("filename: " + filename);
         ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        States result;
         try (InputStream stream = loader.getResourceAsStream("statemachines/"
                 + filename);) {
-            JAXBContext jaxbContext = JAXBContext.newInstance(States.class);
-            Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
-            return (States) jaxbUnmarshaller.unmarshal(stream);
+            Unmarshaller jaxbUnmarshaller = getJaxbContext()
+                    .createUnmarshaller();
+            result = (States) jaxbUnmarshaller.unmarshal(stream);
         } catch (Exception e) {
             throw new StateMachineException(
                     "Failed to load state machine definition file: " + filename,
                     e);
         }
+        result.compile(loader);
+        return result;
+    }
+
+    private static JAXBContext getJaxbContext() throws Exception {
+        JAXBContext context = jaxbContext;
+        if (context == null) {
+            context = JAXBContext.newInstance(States.class);
+            jaxbContext = context;
+        }
+        return context;
     }
 
     public String getStateId() {
@@ -89,13 +140,22 @@ public class StateMachine {
             throws AuthenticationException, ConfigurationException,
             APPlatformException {
 
-        State currentState = getState(stateId);
-        String eventId = states.invokeAction(currentState, instanceId,
-                settings, result);
+        State currentState = states.getState(stateId);
+        long start = System.nanoTime();
+        String eventId;
+        try {
+            eventId = states.invokeAction(currentState, instanceId, settings,
+                    result);
+        } finally {
+            long duration = System.nanoTime() - start;
+            StateMetrics.record(machine, stateId, duration);
+            logger.debug("Executed state '" + stateId + "' of '" + machine
+                    + "' in " + duration / 1000000 + " ms");
+        }
         history = appendStateToHistory(stateId, history);
         stateId = getNextState(currentState, eventId);
 
-        State nextState = getState(stateId);
+        State nextState = states.getState(stateId);
         if (hasTimeout(nextState)) {
             VMPropertyHandler config = new VMPropertyHandler(settings);
 
@@ -183,15 +243,6 @@ public class StateMachine {
 
     }
 
-    private State getState(String stateId) throws StateMachineException {
-        for (State state : states.getStates()) {
-            if (state.getId().equals(stateId)) {
-                return state;
-            }
-        }
-        throw new StateMachineException("State " + stateId + " not found");
-    }
-
     private String getNextState(State state, String eventId)
             throws StateMachineException {
 
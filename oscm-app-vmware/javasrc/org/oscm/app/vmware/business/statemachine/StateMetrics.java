@@ -0,0 +1,132 @@
+/*******************************************************************************
+ *
+ *  Copyright FUJITSU LIMITED 2016
+ *
+ *******************************************************************************/
+
+package org.oscm.app.vmware.business.statemachine;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Execution time statistics of the states of all state machines, collected
+ * since the controller was started. The statistics are identified by the
+ * state machine file name and the state id, e.g. <code>create_vm.xml/BEGIN</code>.
+ * A summary of all statistics is logged with level INFO when a state is
+ * executed and the last summary is older than {@link #LOG_INTERVAL}.
+ */
+public class StateMetrics {
+
+    private static final Logger logger = LoggerFactory
+            .getLogger(StateMetrics.class);
+
+    /**
+     * The minimum time in milliseconds between two logged summaries.
+     */
+    static final long LOG_INTERVAL = 15 * 60 * 1000L;
+
+    private static final ConcurrentMap<String, StateMetrics> metrics = new ConcurrentHashMap<String, StateMetrics>();
+
+    private static final AtomicLong lastLogTime = new AtomicLong(
+            System.currentTimeMillis());
+
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong totalTime = new AtomicLong();
+    private final AtomicLong maxTime = new AtomicLong();
+
+    static void record(String machine, String stateId, long nanos) {
+        String key = machine + "/" + stateId;
+        StateMetrics entry = metrics.get(key);
+        if (entry == null) {
+            entry = new StateMetrics();
+            StateMetrics existing = metrics.putIfAbsent(key, entry);
+            if (existing != null) {
+                entry = existing;
+            }
+        }
+        entry.add(nanos);
+        logSummary(System.currentTimeMillis());
+    }
+
+    /**
+     * Logs the summary if the last one is older than {@link #LOG_INTERVAL}.
+     * Only one of concurrent callers logs it.
+     */
+    static boolean logSummary(long now) {
+        long last = lastLogTime.get();
+        if (now - last < LOG_INTERVAL || !lastLogTime.compareAndSet(last, now)) {
+            return false;
+        }
+        if (logger.isInfoEnabled()) {
+            logger.info(getSummary());
+        }
+        return true;
+    }
+
+    /**
+     * Returns the statistics of all executed states, one state per line.
+     */
+    static String getSummary() {
+        StringBuilder summary = new StringBuilder("State execution statistics:");
+        for (Map.Entry<String, StateMetrics> entry : getAll().entrySet()) {
+            summary.append(System.lineSeparator()).append(entry.getKey())
+                    .append(": ").append(entry.getValue());
+        }
+        return summary.toString();
+    }
+
+    private void add(long nanos) {
+        executions.incrementAndGet();
+        totalTime.addAndGet(nanos);
+        long max = maxTime.get();
+        while (nanos > max && !maxTime.compareAndSet(max, nanos)) {
+            max = maxTime.get();
+        }
+    }
+
+    /**
+     * Returns the statistics of all executed states, sorted by state machine
+     * and state id.
+     */
+    public static Map<String, StateMetrics> getAll() {
+        return Collections
+                .unmodifiableMap(new TreeMap<String, StateMetrics>(metrics));
+    }
+
+    static void reset() {
+        metrics.clear();
+        lastLogTime.set(System.currentTimeMillis());
+    }
+
+    public long getExecutions() {
+        return executions.get();
+    }
+
+    public long getTotalTimeMillis() {
+        return totalTime.get() / 1000000;
+    }
+
+    public long getMaxTimeMillis() {
+        return maxTime.get() / 1000000;
+    }
+
+    public long getAverageTimeMillis() {
+        long count = executions.get();
+        return count == 0 ? 0 : totalTime.get() / count / 1000000;
+    }
+
+    @Override
+    public String toString() {
+        return "executions: " + getExecutions() + ", average: "
+                + getAverageTimeMillis() + " ms, max: " + getMaxTimeMillis()
+                + " ms";
+    }
+}
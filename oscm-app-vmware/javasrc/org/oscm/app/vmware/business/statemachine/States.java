@@ -8,9 +8,13 @@
 
 package org.oscm.app.vmware.business.statemachine;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
@@ -27,9 +31,18 @@ public class States {
 
     private static final Logger logger = LoggerFactory.getLogger(States.class);
 
+    private static final MethodType ACTION_TYPE = MethodType.methodType(
+            String.class, Object.class, String.class,
+            ProvisioningSettings.class, InstanceStatus.class);
+
     private List<State> states;
     private String clazz;
 
+    private Map<String, State> statesById;
+    private Map<String, MethodHandle> handlers;
+    private Class<?> actionClass;
+    private volatile Object actions;
+
     @XmlAttribute
     public void setClass(String clazz) {
         this.clazz = clazz;
@@ -48,6 +61,65 @@ public class States {
         this.states = aStates;
     }
 
+    /**
+     * Prepares the unmarshalled definition for execution: the states and their
+     * events become unmodifiable, so the definition can be shared between
+     * threads, and the action methods are resolved once. The action class must
+     * be stateless, as one instance of it serves all invocations.
+     */
+    void compile(ClassLoader loader) throws StateMachineException {
+        try {
+            actionClass = Class.forName(clazz, true, loader);
+            Map<String, State> byId = new HashMap<String, State>();
+            Map<String, MethodHandle> byAction = new HashMap<String, MethodHandle>();
+            for (State state : states) {
+                if (state.getEvents() != null) {
+                    state.setEvents(Collections.unmodifiableList(state
+                            .getEvents()));
+                }
+                byId.put(state.getId(), state);
+                String action = state.getAction();
+                if (action != null && !byAction.containsKey(action)) {
+                    byAction.put(action, resolveAction(action));
+                }
+            }
+            states = Collections.unmodifiableList(states);
+            statesById = Collections.unmodifiableMap(byId);
+            handlers = Collections.unmodifiableMap(byAction);
+        } catch (Exception e) {
+            throw new StateMachineException("Failed to resolve actions of "
+                    + clazz, e);
+        }
+    }
+
+    private MethodHandle resolveAction(String methodName) throws Exception {
+        return MethodHandles
+                .publicLookup()
+                .unreflect(
+                        actionClass.getMethod(methodName, String.class,
+                                ProvisioningSettings.class,
+                                InstanceStatus.class)).asType(ACTION_TYPE);
+    }
+
+    State getState(String stateId) throws StateMachineException {
+        State state = statesById.get(stateId);
+        if (state == null) {
+            throw new StateMachineException("State " + stateId + " not found");
+        }
+        return state;
+    }
+
+    private Object getActions() throws Exception {
+        Object result = actions;
+        if (result == null) {
+            // concurrent first calls may create more than one instance, which
+            // is harmless for stateless action classes
+            result = actionClass.newInstance();
+            actions = result;
+        }
+        return result;
+    }
+
     public String invokeAction(State state, String instanceId,
             ProvisioningSettings settings, InstanceStatus status)
             throws StateMachineException {
@@ -55,26 +127,14 @@ public class States {
         logger.info("Invoking action '" + state.getAction() + "' of state '"
                 + state.getId() + "' for instance '" + instanceId + "'");
 
+        MethodHandle handler = state.getAction() == null ? null : handlers
+                .get(state.getAction());
+        Object target;
         try {
-            Class<?> c = Class.forName(clazz);
-            Object o = c.newInstance();
-
-            Class<?>[] paramTypes = new Class[3];
-            paramTypes[0] = String.class;
-            paramTypes[1] = ProvisioningSettings.class;
-            paramTypes[2] = InstanceStatus.class;
-
-            String methodName = state.getAction();
-            Method m;
-            try {
-                m = c.getMethod(methodName, paramTypes);
-            } catch (NoSuchMethodException e) {
-                m = c.getSuperclass().getMethod(methodName, paramTypes);
+            if (handler == null) {
+                throw new NoSuchMethodException(state.getAction());
             }
-            return (String) m.invoke(o, instanceId, settings, status);
-        } catch (InvocationTargetException e) {
-            throw new StateMachineException(e.getCause().getMessage(),
-                    e.getCause(), instanceId, clazz, state.getAction());
+            target = getActions();
         } catch (Exception e) {
             logger.error("Failed to call action method '" + state.getAction()
                     + "' of state '" + state.getId() + "' for class '" + clazz
@@ -82,5 +142,15 @@ public class States {
             throw new StateMachineException("Runtime error in action method: "
                     + e.getMessage(), e, instanceId, clazz, state.getAction());
         }
+
+        try {
+            return (String) handler.invokeExact(target, instanceId, settings,
+                    status);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new StateMachineException(t.getMessage(), t, instanceId,
+                    clazz, state.getAction());
+        }
     }
-}
\ No newline at end of file
+}
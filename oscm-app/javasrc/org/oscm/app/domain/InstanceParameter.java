@@ -19,6 +19,7 @@ import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.SequenceGenerator;
+import javax.persistence.Transient;
 
 import org.oscm.app.business.exceptions.BadResultException;
 import org.oscm.app.security.AESEncrypter;
@@ -127,6 +128,18 @@ public class InstanceParameter {
      */
     private String parameterKey;
 
+    /**
+     * The decrypted value of an encrypted parameter, only kept in memory.
+     */
+    @Transient
+    private String decryptedValue;
+
+    /**
+     * The encrypted value {@link #decryptedValue} belongs to.
+     */
+    @Transient
+    private String decryptedFrom;
+
     public long getTkey() {
         return tkey;
     }
@@ -148,9 +161,16 @@ public class InstanceParameter {
     }
 
     public String getDecryptedValue() throws BadResultException {
+        if (!isEncrypted()) {
+            return parameterValue;
+        }
+        if (parameterValue != null && parameterValue.equals(decryptedFrom)) {
+            return decryptedValue;
+        }
         try {
-            return isEncrypted() ? AESEncrypter.decrypt(parameterValue)
-                    : parameterValue;
+            decryptedValue = AESEncrypter.decrypt(parameterValue);
+            decryptedFrom = parameterValue;
+            return decryptedValue;
         } catch (GeneralSecurityException e) {
             throw new BadResultException(String.format(
                     "Parameter for key '%s' could not be decrypted",
@@ -165,8 +185,13 @@ public class InstanceParameter {
     public void setDecryptedValue(String parameterValue)
             throws BadResultException {
         try {
-            this.parameterValue = isEncrypted() ? AESEncrypter
-                    .encrypt(parameterValue) : parameterValue;
+            if (isEncrypted()) {
+                this.parameterValue = AESEncrypter.encrypt(parameterValue);
+                decryptedValue = parameterValue;
+                decryptedFrom = this.parameterValue;
+            } else {
+                this.parameterValue = parameterValue;
+            }
         } catch (GeneralSecurityException e) {
             throw new BadResultException(String.format(
                     "Parameter for key '%s' could not be encrypted",
@@ -27,6 +27,19 @@ public class AESEncrypter {
 
     /* => "aERkc2TCpkw58zLWR2YiIh" */
 
+    private final static SecretKeySpec KEY_SPEC = new SecretKeySpec(
+            Base64.decodeBase64(ENCRYPTION_KEY), "AES");
+
+    /**
+     * Creating and initializing a cipher is expensive, and a cipher must not
+     * be used by several threads at once, so each thread keeps its own
+     * initialized ciphers. A cipher is reset after each encryption or
+     * decryption and can be used again.
+     */
+    private final static ThreadLocal<Cipher> ENCRYPT_CIPHER = new ThreadLocal<Cipher>();
+
+    private final static ThreadLocal<Cipher> DECRYPT_CIPHER = new ThreadLocal<Cipher>();
+
     /**
      * Encrypts a given string based on a shared secret.
      * 
@@ -49,14 +62,15 @@ public class AESEncrypter {
      */
     public static byte[] encrypt(byte[] bytes) throws GeneralSecurityException {
 
-        SecretKeySpec skeySpec = new SecretKeySpec(
-                Base64.decodeBase64(ENCRYPTION_KEY), "AES");
-
-        Cipher cipher = Cipher.getInstance("AES");
-        cipher.init(Cipher.ENCRYPT_MODE, skeySpec);
-
-        byte[] encrypted = cipher.doFinal(bytes);
-        return Base64.encodeBase64(encrypted);
+        Cipher cipher = getCipher(ENCRYPT_CIPHER, Cipher.ENCRYPT_MODE);
+        try {
+            byte[] encrypted = cipher.doFinal(bytes);
+            return Base64.encodeBase64(encrypted);
+        } catch (GeneralSecurityException e) {
+            // the state of the cipher is unknown now
+            ENCRYPT_CIPHER.remove();
+            throw e;
+        }
     }
 
     /**
@@ -83,12 +97,25 @@ public class AESEncrypter {
     public static byte[] decrypt(byte[] encrypted)
             throws GeneralSecurityException {
 
-        SecretKeySpec skeySpec = new SecretKeySpec(
-                Base64.decodeBase64(ENCRYPTION_KEY), "AES");
-
         byte[] decoded = Base64.decodeBase64(encrypted);
-        Cipher cipher = Cipher.getInstance("AES");
-        cipher.init(Cipher.DECRYPT_MODE, skeySpec);
-        return cipher.doFinal(decoded);
+        Cipher cipher = getCipher(DECRYPT_CIPHER, Cipher.DECRYPT_MODE);
+        try {
+            return cipher.doFinal(decoded);
+        } catch (GeneralSecurityException e) {
+            // the state of the cipher is unknown now
+            DECRYPT_CIPHER.remove();
+            throw e;
+        }
+    }
+
+    private static Cipher getCipher(ThreadLocal<Cipher> ciphers, int mode)
+            throws GeneralSecurityException {
+        Cipher cipher = ciphers.get();
+        if (cipher == null) {
+            cipher = Cipher.getInstance("AES");
+            cipher.init(mode, KEY_SPEC);
+            ciphers.set(cipher);
+        }
+        return cipher;
     }
 }
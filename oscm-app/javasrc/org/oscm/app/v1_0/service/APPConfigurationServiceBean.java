@@ -12,15 +12,20 @@ import java.security.GeneralSecurityException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.annotation.Resource;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.persistence.EntityManager;
-import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,7 +46,10 @@ import org.oscm.app.v1_0.exceptions.ConfigurationException;
 import org.oscm.vo.VOUserDetails;
 
 /**
- * Implementation of the configuration service.
+ * Implementation of the configuration service. The decrypted settings of the
+ * controllers and the proxy are read into snapshots shared by all callers,
+ * which are renewed when settings have been stored and after
+ * {@link #snapshotMillis}.
  * 
  * @author Mike J&auml;ger
  * 
@@ -70,35 +78,141 @@ public class APPConfigurationServiceBean {
 
     public static final String CRYPT_KEY_SUFFIX_PASS = "_PASS";
 
+    /**
+     * The time in milliseconds a configuration snapshot is used before the
+     * settings are read from the database again.
+     */
+    static long snapshotMillis = 10000L;
+
+    /**
+     * The configuration snapshots of the controllers and the proxy, shared by
+     * all bean instances.
+     */
+    private static final ConcurrentMap<String, ConfigurationSnapshot> snapshots = new ConcurrentHashMap<String, ConfigurationSnapshot>();
+
+    /**
+     * Incremented whenever a transaction storing settings has completed, which
+     * invalidates all snapshots.
+     */
+    private static final AtomicLong configurationVersion = new AtomicLong();
+
+    /**
+     * Key of the transaction resource marking a transaction which stores
+     * settings.
+     */
+    private static final String SETTINGS_STORED = APPConfigurationServiceBean.class
+            .getName() + ".settingsStored";
+
     /**
      * EntityManager to be used for all persistence operations
      */
     @PersistenceContext(name = "persistence/em", unitName = "oscm-app")
     protected EntityManager em;
 
+    @Resource
+    protected TransactionSynchronizationRegistry tsr;
+
     @TransactionAttribute(TransactionAttributeType.MANDATORY)
     public String getProxyConfigurationSetting(PlatformConfigurationKey key)
             throws ConfigurationException {
 
         LOGGER.debug("Retrieving proxy configuration setting for key {}",
                 key.name());
-        Query query = em
-                .createNamedQuery("ConfigurationSetting.getForProxyKey");
-        query.setParameter("key", key.name());
-        try {
-            ConfigurationSetting result = (ConfigurationSetting) query
-                    .getSingleResult();
-            return handleDecryption(result);
-        } catch (NoResultException e) {
-            if (key.name().equals(APP_SUSPEND)) {
-                return "";
-            } else {
-                LOGGER.warn("No entry found for key {}", key.name());
-                throw new ConfigurationException(String.format(
-                        "No configuration setting found for key '%s'", key.name()),
-                        key.name());
+        Map<String, String> settings = getSnapshot(PROXY_ID);
+        if (settings.containsKey(key.name())) {
+            return settings.get(key.name());
+        }
+        if (key.name().equals(APP_SUSPEND)) {
+            return "";
+        } else {
+            LOGGER.warn("No entry found for key {}", key.name());
+            throw new ConfigurationException(String.format(
+                    "No configuration setting found for key '%s'", key.name()),
+                    key.name());
+        }
+    }
+
+    /**
+     * Returns the decrypted settings of the given controller or of the proxy
+     * from the current configuration snapshot, reading them from the database
+     * if the snapshot is missing, outdated or expired. A transaction which
+     * stores settings always reads them from the database and does not share
+     * them, as they are not committed yet. The returned map cannot be
+     * modified.
+     */
+    private Map<String, String> getSnapshot(String controllerId)
+            throws ConfigurationException {
+        long version = configurationVersion.get();
+        long now = System.currentTimeMillis();
+        boolean settingsStored = isSettingsStored();
+        ConfigurationSnapshot snapshot = settingsStored ? null : snapshots
+                .get(controllerId);
+        if (snapshot == null || !snapshot.isValid(version, now)) {
+            Query query = em
+                    .createNamedQuery("ConfigurationSetting.getForController");
+            query.setParameter("controllerId", controllerId);
+            Map<String, String> settings = new HashMap<String, String>();
+            for (Object entry : query.getResultList()) {
+                ConfigurationSetting currentCs = (ConfigurationSetting) entry;
+                settings.put(currentCs.getSettingKey(),
+                        handleDecryption(currentCs));
+            }
+            // settings stored meanwhile invalidate the snapshot at once
+            snapshot = new ConfigurationSnapshot(settings, version, now
+                    + snapshotMillis);
+            if (!settingsStored) {
+                snapshots.put(controllerId, snapshot);
             }
         }
+        return snapshot.getSettings();
+    }
+
+    private boolean isSettingsStored() {
+        return tsr != null && tsr.getTransactionKey() != null
+                && tsr.getResource(SETTINGS_STORED) != null;
+    }
+
+    /**
+     * Invalidates all configuration snapshots when the current transaction has
+     * completed. Invalidating them before the commit would let concurrent
+     * readers cache the previous settings under the new version.
+     */
+    private void invalidateSnapshotsAfterCompletion() {
+        if (tsr == null || tsr.getTransactionKey() == null) {
+            invalidateSnapshots();
+            return;
+        }
+        if (tsr.getResource(SETTINGS_STORED) == null) {
+            tsr.putResource(SETTINGS_STORED, Boolean.TRUE);
+            tsr.registerInterposedSynchronization(new Synchronization() {
+
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    invalidateSnapshots();
+                }
+            });
+        }
+    }
+
+    /**
+     * Invalidates all configuration snapshots, so the settings are read from
+     * the database again.
+     */
+    static void invalidateSnapshots() {
+        configurationVersion.incrementAndGet();
+    }
+
+    /**
+     * Removes all configuration snapshots. <b>Should only be used for unit
+     * testing!</b>
+     */
+    static void clearSnapshots() {
+        invalidateSnapshots();
+        snapshots.clear();
     }
 
     @TransactionAttribute(TransactionAttributeType.REQUIRED)
@@ -123,6 +237,7 @@ public class APPConfigurationServiceBean {
             HashMap<String, String> controllerOrganizations) {
 
         LOGGER.debug("Storing configured controllers");
+        invalidateSnapshotsAfterCompletion();
         Query query = em
                 .createNamedQuery("ConfigurationSetting.getControllersForKey");
         query.setParameter("key",
@@ -203,13 +318,8 @@ public class APPConfigurationServiceBean {
     public HashMap<String, String> getAllProxyConfigurationSettings()
             throws ConfigurationException {
         LOGGER.debug("Retrieving all configuration settings for proxy");
-        HashMap<String, String> result = new HashMap<String, String>();
-        Query query = em.createNamedQuery("ConfigurationSetting.getAllProxy");
-        List<?> resultList = query.getResultList();
-        for (Object entry : resultList) {
-            ConfigurationSetting currentCs = (ConfigurationSetting) entry;
-            result.put(currentCs.getSettingKey(), handleDecryption(currentCs));
-        }
+        HashMap<String, String> result = new HashMap<String, String>(
+                getSnapshot(PROXY_ID));
         PlatformConfigurationKey[] keys = PlatformConfigurationKey.values();
         StringBuffer missing = new StringBuffer();
         for (int i = 0; i < keys.length; i++) {
@@ -247,15 +357,7 @@ public class APPConfigurationServiceBean {
                 controllerId);
         HashMap<String, String> result = new HashMap<String, String>();
         if (controllerId != null) {
-            Query query = em
-                    .createNamedQuery("ConfigurationSetting.getForController");
-            query.setParameter("controllerId", controllerId);
-            List<?> resultList = query.getResultList();
-            for (Object entry : resultList) {
-                ConfigurationSetting currentCs = (ConfigurationSetting) entry;
-                result.put(currentCs.getSettingKey(),
-                        handleDecryption(currentCs));
-            }
+            result.putAll(getSnapshot(controllerId));
         }
         ControllerConfigurationKey[] keys = ControllerConfigurationKey.values();
         StringBuffer missing = new StringBuffer();
@@ -311,6 +413,7 @@ public class APPConfigurationServiceBean {
         if (controllerId == null || settings == null) {
             throw new IllegalArgumentException("All parameters must be set");
         }
+        invalidateSnapshotsAfterCompletion();
         Query query = em
                 .createNamedQuery("ConfigurationSetting.getForController");
         query.setParameter("controllerId", controllerId);
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.app.v1_0.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the decrypted configuration settings of a controller
+ * or of the proxy. The decrypted values are only kept in memory.
+ * <p>
+ * A snapshot belongs to a version of the configuration, which is incremented
+ * whenever settings are stored, and expires after a given time, so that
+ * changes made directly in the database are read as well.
+ */
+final class ConfigurationSnapshot {
+
+    private final Map<String, String> settings;
+    private final long version;
+    private final long expirationTime;
+
+    ConfigurationSnapshot(Map<String, String> settings, long version,
+            long expirationTime) {
+        this.settings = Collections
+                .unmodifiableMap(new HashMap<String, String>(settings));
+        this.version = version;
+        this.expirationTime = expirationTime;
+    }
+
+    /**
+     * Returns the decrypted settings, mapped by their keys. The map cannot be
+     * modified.
+     */
+    Map<String, String> getSettings() {
+        return settings;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns <code>true</code> if the snapshot belongs to the given
+     * configuration version and has not expired at the given time.
+     */
+    boolean isValid(long currentVersion, long currentTime) {
+        return version == currentVersion && currentTime < expirationTime;
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.billing.application.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.oscm.domobjects.BillingAdapter;
+
+public class BillingAdapterChannelTest {
+
+    private long openMillis;
+    private BillingAdapterChannels channels;
+
+    @Before
+    public void setup() {
+        openMillis = BillingAdapterChannel.openMillis;
+        channels = new BillingAdapterChannels();
+    }
+
+    @After
+    public void tearDown() {
+        BillingAdapterChannel.openMillis = openMillis;
+        channels.shutdown();
+    }
+
+    @Test
+    public void get_shared() {
+        // when
+        BillingAdapterChannel channel1 = channels
+                .get(givenAdapter("ADAPTER", null));
+        BillingAdapterChannel channel2 = channels
+                .get(givenAdapter("ADAPTER", null));
+        BillingAdapterChannel other = channels
+                .get(givenAdapter("OTHER", null));
+
+        // then
+        assertSame(channel1, channel2);
+        assertNotSame(channel1, other);
+    }
+
+    @Test
+    public void shutdown() {
+        // given
+        BillingAdapterChannel channel = channels.get(givenAdapter("ADAPTER",
+                null));
+
+        // when
+        channels.shutdown();
+
+        // then
+        assertTrue(channel.getExecutor().isShutdown());
+        assertNotSame(channel, channels.get(givenAdapter("ADAPTER", null)));
+    }
+
+    @Test
+    public void getTimeoutSeconds_default() throws Exception {
+        // when
+        BillingAdapterChannel channel = channels
+                .get(givenAdapter("ADAPTER", null));
+
+        // then
+        assertEquals(BasicBillingProxy.ADAPTER_TIMEOUT_IN_SECONDS,
+                channel.getTimeoutSeconds());
+    }
+
+    @Test
+    public void getTimeoutSeconds_configured() throws Exception {
+        // given
+        channels.get(givenAdapter("ADAPTER", null));
+
+        // when
+        BillingAdapterChannel channel = channels
+                .get(givenAdapter("ADAPTER", "5"));
+
+        // then
+        assertEquals(5L, channel.getTimeoutSeconds());
+    }
+
+    @Test
+    public void allowCall_failures() {
+        // given
+        BillingAdapterChannel channel = new BillingAdapterChannel("ADAPTER");
+
+        // when
+        for (int i = 0; i < BillingAdapterChannel.FAILURE_THRESHOLD; i++) {
+            assertTrue(channel.allowCall());
+            channel.callFinished(10, false);
+        }
+
+        // then
+        assertTrue(channel.isOpen());
+        assertFalse(channel.allowCall());
+        assertEquals(BillingAdapterChannel.FAILURE_THRESHOLD,
+                channel.getFailedCalls());
+        assertEquals(1, channel.getRejectedCalls());
+    }
+
+    @Test
+    public void allowCall_success() {
+        // given
+        BillingAdapterChannel channel = new BillingAdapterChannel("ADAPTER");
+        for (int i = 0; i < BillingAdapterChannel.FAILURE_THRESHOLD - 1; i++) {
+            channel.callFinished(10, false);
+        }
+
+        // when
+        channel.callFinished(10, true);
+        channel.callFinished(10, false);
+
+        // then
+        assertTrue(channel.allowCall());
+        assertEquals(1, channel.getConsecutiveFailures());
+    }
+
+    @Test
+    public void allowCall_trialCall() {
+        // given
+        BillingAdapterChannel.openMillis = 0;
+        BillingAdapterChannel channel = new BillingAdapterChannel("ADAPTER");
+        for (int i = 0; i < BillingAdapterChannel.FAILURE_THRESHOLD; i++) {
+            channel.callFinished(10, false);
+        }
+
+        // when
+        boolean trial = channel.allowCall();
+        boolean other = channel.allowCall();
+        channel.callFinished(10, true);
+
+        // then
+        assertTrue(trial);
+        assertFalse(other);
+        assertFalse(channel.isOpen());
+        assertTrue(channel.allowCall());
+    }
+
+    @Test
+    public void callFinished_statistics() {
+        // given
+        BillingAdapterChannel channel = new BillingAdapterChannel("ADAPTER");
+
+        // when
+        channel.callFinished(10, true);
+        channel.callFinished(30, false);
+
+        // then
+        assertEquals(2, channel.getCalls());
+        assertEquals(1, channel.getFailedCalls());
+        assertEquals(20, channel.getAverageCallTimeMillis());
+        assertEquals(30, channel.getMaxCallTimeMillis());
+    }
+
+    private BillingAdapter givenAdapter(String id, String timeout) {
+        BillingAdapter adapter = new BillingAdapter();
+        adapter.setBillingIdentifier(id);
+        Properties props = new Properties();
+        props.put(PluginServiceFactory.JNDI_NAME, "java:global/adapter/");
+        if (timeout != null) {
+            props.put(PluginServiceFactory.TIMEOUT, timeout);
+        }
+        try (ByteArrayOutputStream stream = new ByteArrayOutputStream();) {
+            props.storeToXML(stream, null, StandardCharsets.UTF_8.toString());
+            adapter.setConnectionProperties(stream.toString());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return adapter;
+    }
+}
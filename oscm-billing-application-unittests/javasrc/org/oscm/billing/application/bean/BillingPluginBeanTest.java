@@ -8,6 +8,7 @@
 
 package org.oscm.billing.application.bean;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
@@ -16,10 +17,15 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 import java.util.concurrent.TimeUnit;
 
+import javax.ejb.EJBException;
+
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
@@ -38,11 +44,13 @@ public class BillingPluginBeanTest {
     private BillingPluginBean billingApplServLocal;
     BillingPluginProxy billingPluginProxy;
     private BillingPluginService billingPluginMock;
+    private BillingAdapterChannels channels;
 
     @Before
     public void setup() throws Exception {
 
-        billingPluginProxy = spy(new BillingPluginProxy(null));
+        channels = new BillingAdapterChannels();
+        billingPluginProxy = spy(new BillingPluginProxy(null, channels));
         billingPluginMock = mock(BillingPluginService.class);
         doReturn(billingPluginMock).when(billingPluginProxy)
                 .locateBillingPluginService();
@@ -55,6 +63,11 @@ public class BillingPluginBeanTest {
                 .newBillingPluginProxy(any(BillingAdapter.class));
     }
 
+    @After
+    public void tearDown() {
+        channels.shutdown();
+    }
+
     @Test
     public void testConnection() throws Exception {
         // given
@@ -118,4 +131,44 @@ public class BillingPluginBeanTest {
         // when
         billingApplServLocal.testConnection(new BillingAdapter());
     }
+
+    @Test
+    public void testConnection_adapterUnavailable() throws Exception {
+        // given
+        BillingAdapterChannel channel = new BillingAdapterChannel(BILLING_ID);
+        for (int i = 0; i < BillingAdapterChannel.FAILURE_THRESHOLD; i++) {
+            channel.callFinished(0, false);
+        }
+        doReturn(channel).when(billingPluginProxy).getChannel();
+
+        // when
+        try {
+            billingApplServLocal.testConnection(BILLING_ID);
+            fail("BillingApplicationException expected");
+        } catch (BillingApplicationException e) {
+            // then
+            assertTrue("Wrong exception cause",
+                    e.getCause() instanceof BillingAdapterConnectionException);
+            verify(billingPluginMock, never()).testConnection();
+        }
+    }
+
+    @Test
+    public void testConnection_remoteFailure() throws Exception {
+        // given
+        doThrow(new EJBException("Connection refused")).when(
+                billingPluginMock).testConnection();
+
+        // when
+        try {
+            billingApplServLocal.testConnection(BILLING_ID);
+            fail("BillingApplicationException expected");
+        } catch (BillingApplicationException e) {
+            // then
+            assertTrue("Wrong exception cause",
+                    e.getCause() instanceof BillingAdapterConnectionException);
+            assertEquals(1, billingPluginProxy.getChannel()
+                    .getConsecutiveFailures());
+        }
+    }
 }
@@ -12,7 +12,6 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -33,6 +32,10 @@ import org.oscm.internal.types.exception.BillingApplicationException;
  */
 public abstract class BasicBillingProxy {
 
+    /**
+     * The default timeout for calls to the billing adapter, used if its
+     * connection properties do not contain a {@link PluginServiceFactory#TIMEOUT}.
+     */
     public static final long ADAPTER_TIMEOUT_IN_SECONDS = 30L;
 
     private static final Log4jLogger logger = LoggerFactory
@@ -40,15 +43,22 @@ public abstract class BasicBillingProxy {
 
     private BillingAdapter billingAdapter;
 
-    public BasicBillingProxy(BillingAdapter billingAdapter) {
+    private BillingAdapterChannels channels;
+
+    public BasicBillingProxy(BillingAdapter billingAdapter,
+            BillingAdapterChannels channels) {
         this.billingAdapter = billingAdapter;
+        this.channels = channels;
+    }
+
+    BillingAdapterChannel getChannel() {
+        return channels.get(billingAdapter);
     }
 
     <T> T locateBillingAdapterService(Class<T> serviceInterface)
             throws BillingApplicationException {
         try {
-            return PluginServiceFactory.getPluginService(serviceInterface,
-                    billingAdapter);
+            return getChannel().getService(serviceInterface, billingAdapter);
         } catch (BillingApplicationException e) {
             logger.logError(Log4jLogger.SYSTEM_LOG, e,
                     LogMessageIdentifier.ERROR_BILLING_ADAPTER_NOT_FOUND);
@@ -56,9 +66,41 @@ public abstract class BasicBillingProxy {
         }
     }
 
+    /**
+     * Calls the billing adapter in a thread of its channel and waits for the
+     * result. The call is rejected at once if the last calls to the adapter
+     * failed.
+     */
+    <T> T callAdapter(Callable<T> callable) throws BillingApplicationException {
+        BillingAdapterChannel channel = getChannel();
+        if (!channel.allowCall()) {
+            logger.logError(LogMessageIdentifier.ERROR_BILLING_ADAPTER_UNAVAILABLE,
+                    channel.getBillingIdentifier());
+            throw new BillingApplicationException(
+                    "Call to Billing Adapter failed",
+                    new BillingAdapterConnectionException(
+                            "The billing application is not available"));
+        }
+        long startTime = System.currentTimeMillis();
+        boolean available = false;
+        try {
+            T result = getAdapterResult(submitAdapterCall(callable));
+            available = true;
+            return result;
+        } catch (BillingApplicationException e) {
+            // exceptions thrown by the adapter itself show that it is
+            // available
+            available = !(e.getCause() instanceof BillingAdapterConnectionException);
+            throw e;
+        } finally {
+            channel.callFinished(System.currentTimeMillis() - startTime,
+                    available);
+        }
+    }
+
     <T> Future<T> submitAdapterCall(Callable<T> callable)
             throws BillingApplicationException {
-        ExecutorService executor = getSingleThreadExecutor();
+        ExecutorService executor = getExecutor();
 
         Future<T> future = null;
         try {
@@ -75,16 +117,21 @@ public abstract class BasicBillingProxy {
         return future;
     }
 
-    ExecutorService getSingleThreadExecutor() {
-        return Executors.newSingleThreadExecutor();
+    ExecutorService getExecutor() {
+        return getChannel().getExecutor();
+    }
+
+    long getTimeoutSeconds() {
+        return getChannel().getTimeoutSeconds();
     }
 
     <T> T getAdapterResult(Future<T> future)
             throws BillingApplicationException {
         try {
-            // TODO timeout as config setting
-            return (future.get(ADAPTER_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS));
+            return (future.get(getTimeoutSeconds(), TimeUnit.SECONDS));
         } catch (TimeoutException e) {
+            // free the thread of the channel for other calls
+            future.cancel(true);
             logger.logError(Log4jLogger.SYSTEM_LOG, e,
                     LogMessageIdentifier.ERROR_CALL_TO_BILLING_APPLICATION_TIMEOUT);
             throw new BillingApplicationException(
@@ -111,12 +158,22 @@ public abstract class BasicBillingProxy {
                 cause = e.getCause();
             }
 
-            if (cause instanceof EJBException) {
-                if (cause.getCause() != null) {
-                    cause = cause.getCause();
+            if (cause instanceof RuntimeException || cause instanceof Error) {
+                // the adapter only declares checked exceptions, so the call
+                // failed on the way to the adapter, e.g. because the remote
+                // adapter is down, and the adapter counts as unavailable
+                if (cause instanceof EJBException) {
+                    // EJBException's are already logged by the container!
+                    if (cause.getCause() != null) {
+                        cause = cause.getCause();
+                    }
+                } else {
+                    logger.logError(Log4jLogger.SYSTEM_LOG, cause,
+                            LogMessageIdentifier.ERROR_CONNECTION_TO_BILLING_ADAPTER_FAILED);
                 }
-                // EJBException's are already logged by the container!
-                throw new BillingApplicationException(cause.getMessage());
+                throw new BillingApplicationException(cause.getMessage(),
+                        new BillingAdapterConnectionException(
+                                cause.getMessage()));
             } else if (cause instanceof BillingApplicationException) {
                 logger.logError(Log4jLogger.SYSTEM_LOG, cause,
                         LogMessageIdentifier.ERROR_CONNECTION_TO_BILLING_ADAPTER_FAILED);
@@ -0,0 +1,297 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.billing.application.bean;
+
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.oscm.domobjects.BillingAdapter;
+import org.oscm.internal.types.exception.BillingApplicationException;
+import org.oscm.logging.Log4jLogger;
+import org.oscm.logging.LoggerFactory;
+import org.oscm.types.enumtypes.LogMessageIdentifier;
+
+/**
+ * The calls to one billing adapter, shared by all proxies of the adapter.
+ * <ul>
+ * <li>The calls are executed by a bounded thread pool of the adapter, so a
+ * slow adapter cannot create an unlimited number of threads.</li>
+ * <li>The plugin services looked up for the adapter are kept until its
+ * connection properties change or a call fails because of the connection.</li>
+ * <li>After {@link #FAILURE_THRESHOLD} consecutive connection failures, calls
+ * are rejected at once for {@link #openMillis} milliseconds. Then a single call
+ * is passed to the adapter, and the calls are rejected again if it fails.</li>
+ * </ul>
+ * The channels are owned by the {@link BillingAdapterChannels}. The channel of
+ * each adapter is registered as MBean
+ * <code>org.oscm:type=BillingAdapter,name=&lt;billing identifier&gt;</code>.
+ */
+public class BillingAdapterChannel implements BillingAdapterChannelMBean {
+
+    private static final Log4jLogger logger = LoggerFactory
+            .getLogger(BillingAdapterChannel.class);
+
+    static final int MAX_THREADS = 10;
+
+    static final int MAX_QUEUED_CALLS = 100;
+
+    static final int FAILURE_THRESHOLD = 5;
+
+    /**
+     * The time calls are rejected after consecutive failures.
+     */
+    static long openMillis = 30 * 1000L;
+
+    private final String billingIdentifier;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<Class<?>, Object> services = new ConcurrentHashMap<Class<?>, Object>();
+
+    private String connectionProperties;
+    private volatile long timeoutSeconds = BasicBillingProxy.ADAPTER_TIMEOUT_IN_SECONDS;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialCall = new AtomicBoolean();
+    private volatile long openUntil;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failedCalls = new AtomicLong();
+    private final AtomicLong rejectedCalls = new AtomicLong();
+    private final AtomicLong totalCallTime = new AtomicLong();
+    private final AtomicLong maxCallTime = new AtomicLong();
+
+    BillingAdapterChannel(final String billingIdentifier) {
+        this.billingIdentifier = billingIdentifier;
+        executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60L,
+                TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(
+                        MAX_QUEUED_CALLS), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "BillingAdapter-"
+                                + billingIdentifier + "-"
+                                + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the identifier of the given billing adapter the channel is kept
+     * for.
+     */
+    static String getChannelId(BillingAdapter billingAdapter) {
+        return billingAdapter == null
+                || billingAdapter.getBillingIdentifier() == null ? ""
+                : billingAdapter.getBillingIdentifier();
+    }
+
+    /**
+     * Drops the cached plugin services if the connection properties of the
+     * adapter have changed.
+     */
+    synchronized void update(BillingAdapter billingAdapter) {
+        String properties = billingAdapter == null ? null : billingAdapter
+                .getConnectionProperties();
+        if (properties == null ? connectionProperties == null : properties
+                .equals(connectionProperties)) {
+            return;
+        }
+        connectionProperties = properties;
+        services.clear();
+        timeoutSeconds = readTimeout(billingAdapter);
+    }
+
+    private static long readTimeout(BillingAdapter billingAdapter) {
+        try {
+            Properties properties = PluginServiceFactory
+                    .getConnectionProperties(billingAdapter);
+            String timeout = properties
+                    .getProperty(PluginServiceFactory.TIMEOUT);
+            if (timeout != null && Long.parseLong(timeout.trim()) > 0) {
+                return Long.parseLong(timeout.trim());
+            }
+        } catch (BillingApplicationException e) {
+            // reported when the plugin service is looked up
+        } catch (NumberFormatException e) {
+            // the default timeout is used
+        }
+        return BasicBillingProxy.ADAPTER_TIMEOUT_IN_SECONDS;
+    }
+
+    /**
+     * Returns the cached plugin service of the given type or looks it up.
+     */
+    <T> T getService(Class<T> serviceInterface, BillingAdapter billingAdapter)
+            throws BillingApplicationException {
+        Object service = services.get(serviceInterface);
+        if (service == null) {
+            service = PluginServiceFactory.getPluginService(serviceInterface,
+                    billingAdapter);
+            services.put(serviceInterface, service);
+        }
+        return serviceInterface.cast(service);
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    long getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+
+    /**
+     * Returns <code>false</code> if the adapter must not be called because the
+     * last calls failed.
+     */
+    boolean allowCall() {
+        long until = openUntil;
+        if (until == 0) {
+            return true;
+        }
+        if (System.currentTimeMillis() >= until
+                && trialCall.compareAndSet(false, true)) {
+            return true;
+        }
+        rejectedCalls.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Counts a finished call.
+     *
+     * @param callTime
+     *            the duration of the call in milliseconds
+     * @param available
+     *            <code>false</code> if the adapter could not be reached or did
+     *            not answer in time
+     */
+    void callFinished(long callTime, boolean available) {
+        calls.incrementAndGet();
+        totalCallTime.addAndGet(callTime);
+        long max = maxCallTime.get();
+        while (callTime > max && !maxCallTime.compareAndSet(max, callTime)) {
+            max = maxCallTime.get();
+        }
+        if (available) {
+            consecutiveFailures.set(0);
+            openUntil = 0;
+        } else {
+            failedCalls.incrementAndGet();
+            services.clear();
+            if (consecutiveFailures.incrementAndGet() >= FAILURE_THRESHOLD) {
+                openUntil = System.currentTimeMillis() + openMillis;
+            }
+        }
+        trialCall.set(false);
+    }
+
+    String getBillingIdentifier() {
+        return billingIdentifier;
+    }
+
+    int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.get();
+    }
+
+    @Override
+    public long getFailedCalls() {
+        return failedCalls.get();
+    }
+
+    @Override
+    public long getRejectedCalls() {
+        return rejectedCalls.get();
+    }
+
+    @Override
+    public long getAverageCallTimeMillis() {
+        long count = calls.get();
+        return count == 0 ? 0 : totalCallTime.get() / count;
+    }
+
+    @Override
+    public long getMaxCallTimeMillis() {
+        return maxCallTime.get();
+    }
+
+    @Override
+    public int getActiveCalls() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public int getQueuedCalls() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return openUntil != 0;
+    }
+
+    private ObjectName getObjectName() throws Exception {
+        return new ObjectName("org.oscm:type=BillingAdapter,name="
+                + ObjectName.quote(billingIdentifier));
+    }
+
+    void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = getObjectName();
+            if (server.isRegistered(name)) {
+                // left over from a previous deployment
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (Exception e) {
+            logger.logWarn(Log4jLogger.SYSTEM_LOG, e,
+                    LogMessageIdentifier.WARN_BILLING_ADAPTER_STATISTICS_NOT_REGISTERED,
+                    billingIdentifier);
+        }
+    }
+
+    private void unregister() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = getObjectName();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (Exception e) {
+            // nothing to clean up then
+        }
+    }
+
+    /**
+     * Stops the thread pool, interrupting the running calls, and unregisters
+     * the MBean of the channel.
+     */
+    void close() {
+        executor.shutdownNow();
+        unregister();
+    }
+}
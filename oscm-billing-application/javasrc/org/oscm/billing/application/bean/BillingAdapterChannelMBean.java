@@ -0,0 +1,31 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.billing.application.bean;
+
+/**
+ * The calls to one billing adapter made by this node, shown over JMX.
+ */
+public interface BillingAdapterChannelMBean {
+
+    public long getCalls();
+
+    public long getFailedCalls();
+
+    public long getRejectedCalls();
+
+    public long getAverageCallTimeMillis();
+
+    public long getMaxCallTimeMillis();
+
+    public int getActiveCalls();
+
+    public int getQueuedCalls();
+
+    /**
+     * Returns <code>true</code> while calls are rejected because the last
+     * calls failed.
+     */
+    public boolean isOpen();
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.billing.application.bean;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.LocalBean;
+import javax.ejb.Lock;
+import javax.ejb.LockType;
+import javax.ejb.Singleton;
+
+import org.oscm.domobjects.BillingAdapter;
+
+/**
+ * Owns the {@link BillingAdapterChannel}s of the billing adapters while the
+ * billing application is deployed. On undeployment the thread pools of the
+ * channels are stopped and their MBeans are unregistered.
+ */
+@Singleton
+@LocalBean
+@ConcurrencyManagement(ConcurrencyManagementType.CONTAINER)
+@Lock(LockType.READ)
+public class BillingAdapterChannels {
+
+    private final ConcurrentMap<String, BillingAdapterChannel> channels = new ConcurrentHashMap<String, BillingAdapterChannel>();
+
+    /**
+     * Returns the channel of the given billing adapter, creating it on first
+     * use. The cached plugin services are dropped if the connection properties
+     * of the adapter have changed.
+     */
+    public BillingAdapterChannel get(BillingAdapter billingAdapter) {
+        String id = BillingAdapterChannel.getChannelId(billingAdapter);
+        BillingAdapterChannel channel = channels.get(id);
+        if (channel == null) {
+            channel = new BillingAdapterChannel(id);
+            BillingAdapterChannel existing = channels.putIfAbsent(id, channel);
+            if (existing != null) {
+                // not registered, so only the unused pool has to be stopped
+                channel.getExecutor().shutdown();
+                channel = existing;
+            } else {
+                channel.register();
+            }
+        }
+        channel.update(billingAdapter);
+        return channel;
+    }
+
+    /**
+     * Stops the thread pools and removes all channels.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (BillingAdapterChannel channel : channels.values()) {
+            channel.close();
+        }
+        channels.clear();
+    }
+}
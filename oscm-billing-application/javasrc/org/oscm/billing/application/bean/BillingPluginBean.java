@@ -25,6 +25,9 @@ public class BillingPluginBean {
     @EJB
     BillingAdapterDAO billingAdapterDAO;
 
+    @EJB
+    BillingAdapterChannels billingAdapterChannels;
+
     /**
      * Test the connection to the external billing system via the billing
      * adapter
@@ -53,11 +56,12 @@ public class BillingPluginBean {
 
     BillingPluginProxy newBillingPluginProxy(String billingId)
             throws BillingApplicationException {
-        return new BillingPluginProxy(getBillingAdapter(billingId));
+        return new BillingPluginProxy(getBillingAdapter(billingId),
+                billingAdapterChannels);
     }
 
     BillingPluginProxy newBillingPluginProxy(BillingAdapter billingAdapter) {
-        return new BillingPluginProxy(billingAdapter);
+        return new BillingPluginProxy(billingAdapter, billingAdapterChannels);
     }
 
     private BillingAdapter getBillingAdapter(String billingId)
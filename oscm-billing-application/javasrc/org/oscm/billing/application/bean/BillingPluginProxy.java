@@ -21,8 +21,9 @@ public class BillingPluginProxy extends BasicBillingProxy {
 
     BillingPluginService billingPluginService;
 
-    public BillingPluginProxy(BillingAdapter billingAdapter) {
-        super(billingAdapter);
+    public BillingPluginProxy(BillingAdapter billingAdapter,
+            BillingAdapterChannels channels) {
+        super(billingAdapter, channels);
     }
 
     BillingPluginService locateBillingPluginService()
@@ -43,7 +44,7 @@ public class BillingPluginProxy extends BasicBillingProxy {
             }
         };
 
-        getAdapterResult(submitAdapterCall(callable));
+        callAdapter(callable);
     }
 
 }
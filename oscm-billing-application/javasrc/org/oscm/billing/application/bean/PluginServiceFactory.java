@@ -31,6 +31,12 @@ import org.oscm.internal.types.exception.BillingApplicationException;
 public class PluginServiceFactory {
     public final static String JNDI_NAME = "JNDI_NAME";
 
+    /**
+     * The optional connection property holding the timeout for calls to the
+     * billing adapter in seconds.
+     */
+    public final static String TIMEOUT = "TIMEOUT";
+
     public static <T> T getPluginService(Class<T> serviceInterface,
             BillingAdapter billingAdapter) throws BillingApplicationException {
         try {
@@ -82,6 +88,7 @@ public class PluginServiceFactory {
     protected static Properties createJndiProperties(
             Properties connectionProperties) {
         connectionProperties.remove(PluginServiceFactory.JNDI_NAME);
+        connectionProperties.remove(PluginServiceFactory.TIMEOUT);
         return connectionProperties;
     }
 
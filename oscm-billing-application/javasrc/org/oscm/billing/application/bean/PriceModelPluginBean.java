@@ -35,6 +35,9 @@ public class PriceModelPluginBean {
     @EJB
     BillingAdapterDAO billingAdapterDAO;
 
+    @EJB
+    BillingAdapterChannels billingAdapterChannels;
+
     public PriceModel getPriceModel(String billingId, Set<Locale> locales,
             Map<ContextKey, ContextValue<?>> context)
             throws BillingApplicationException {
@@ -47,7 +50,8 @@ public class PriceModelPluginBean {
 
     PriceModelPluginProxy newPriceModelPluginProxy(String billingId)
             throws BillingApplicationException {
-        return new PriceModelPluginProxy(getBillingAdapter(billingId));
+        return new PriceModelPluginProxy(getBillingAdapter(billingId),
+                billingAdapterChannels);
     }
 
     private BillingAdapter getBillingAdapter(String billingId)
@@ -27,8 +27,9 @@ public class PriceModelPluginProxy extends BasicBillingProxy {
 
     PriceModelPluginService priceModelPluginService;
 
-    public PriceModelPluginProxy(BillingAdapter billingAdapter) {
-        super(billingAdapter);
+    public PriceModelPluginProxy(BillingAdapter billingAdapter,
+            BillingAdapterChannels channels) {
+        super(billingAdapter, channels);
     }
 
     PriceModelPluginService locatePriceModelPluginService()
@@ -51,7 +52,7 @@ public class PriceModelPluginProxy extends BasicBillingProxy {
             }
         };
 
-        return getAdapterResult(submitAdapterCall(callable));
+        return callAdapter(callable);
     }
 
 }
\ No newline at end of file
@@ -189,6 +189,7 @@ public class SubscriptionUpgradeSetup {
         container.addBean(mock(UserLicenseDao.class));
         container.addBean(mock(UserLicenseServiceLocalBean.class));
         container.addBean(new AccountServiceBean());
+        container.addBean(new ServiceListingCacheBean());
         container.addBean(new SearchServiceBean());
         container.addBean(new ImageResourceServiceBean());
         container.addBean(new SharesDataRetrievalServiceBean());
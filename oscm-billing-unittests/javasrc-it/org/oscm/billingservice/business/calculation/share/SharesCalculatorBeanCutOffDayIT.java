@@ -50,6 +50,7 @@ import org.oscm.test.data.Organizations;
 import org.oscm.test.data.Products;
 import org.oscm.test.data.Subscriptions;
 import org.oscm.test.ejb.TestContainer;
+import org.oscm.test.stubs.ConfigurationServiceStub;
 import org.oscm.internal.types.enumtypes.BillingSharesResultType;
 import org.oscm.internal.types.enumtypes.OrganizationRoleType;
 
@@ -116,6 +117,7 @@ public class SharesCalculatorBeanCutOffDayIT extends EJBTestBase {
         ds = container.get(DataService.class);
         container.addBean(new SharesDataRetrievalServiceBean());
         container.addBean(new BillingDataRetrievalServiceBean());
+        container.addBean(new ConfigurationServiceStub());
         container.addBean(new SharesCalculatorBean());
         calculator = container.get(SharesCalculatorLocal.class);
         givenTransactionTime();
@@ -0,0 +1,229 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.billingservice.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.junit.Test;
+
+import org.oscm.dataservice.bean.DataServiceBean;
+import org.oscm.dataservice.local.DataService;
+import org.oscm.domobjects.Organization;
+import org.oscm.domobjects.PlatformUser;
+import org.oscm.domobjects.Product;
+import org.oscm.domobjects.Subscription;
+import org.oscm.domobjects.UsageLicense;
+import org.oscm.domobjects.UserGroup;
+import org.oscm.test.EJBTestBase;
+import org.oscm.test.data.Organizations;
+import org.oscm.test.data.PlatformUsers;
+import org.oscm.test.data.Products;
+import org.oscm.test.data.Subscriptions;
+import org.oscm.test.data.UserGroups;
+import org.oscm.test.ejb.TestContainer;
+import org.oscm.internal.types.enumtypes.OrganizationRoleType;
+import org.oscm.internal.types.enumtypes.ServiceAccessType;
+
+public class BillingDataRetrievalServiceBeanPaymentPreviewIT extends
+        EJBTestBase {
+
+    private DataService ds;
+    private BillingDataRetrievalServiceLocal bdr;
+    private Organization supplier;
+    private Organization customer;
+    private Subscription subscription1;
+    private Subscription subscription2;
+    private PlatformUser user;
+    private Collection<Long> subscriptionKeys;
+
+    @Override
+    protected void setup(TestContainer container) throws Exception {
+        container.addBean(new DataServiceBean());
+        container.addBean(new BillingDataRetrievalServiceBean());
+        ds = container.get(DataService.class);
+        bdr = container.get(BillingDataRetrievalServiceLocal.class);
+
+        supplier = runTX(new Callable<Organization>() {
+            @Override
+            public Organization call() throws Exception {
+                return Organizations.createOrganization(ds, "supplier",
+                        OrganizationRoleType.SUPPLIER,
+                        OrganizationRoleType.TECHNOLOGY_PROVIDER);
+            }
+        });
+        customer = runTX(new Callable<Organization>() {
+            @Override
+            public Organization call() throws Exception {
+                return Organizations.createCustomer(ds, supplier, "customer",
+                        false);
+            }
+        });
+        final Product product = runTX(new Callable<Product>() {
+            @Override
+            public Product call() throws Exception {
+                return Products.createProduct(supplier.getOrganizationId(),
+                        "service", "techService", ds, ServiceAccessType.LOGIN);
+            }
+        });
+        subscription1 = createSubscription(product, "sub1", supplier);
+        subscription2 = createSubscription(product, "sub2", supplier);
+        user = runTX(new Callable<PlatformUser>() {
+            @Override
+            public PlatformUser call() throws Exception {
+                return PlatformUsers.createUser(ds, "user", customer);
+            }
+        });
+        subscriptionKeys = Arrays.asList(Long.valueOf(subscription1.getKey()),
+                Long.valueOf(subscription2.getKey()));
+    }
+
+    @Test
+    public void loadPaymentPreviewChangeStamps_unchanged() throws Exception {
+        // given
+        Map<Long, String> before = loadPaymentPreviewChangeStamps(subscriptionKeys);
+
+        // when
+        Map<Long, String> after = loadPaymentPreviewChangeStamps(subscriptionKeys);
+
+        // then
+        assertEquals(2, after.size());
+        assertEquals(before, after);
+    }
+
+    @Test
+    public void loadPaymentPreviewChangeStamps_usageLicense() throws Exception {
+        // given
+        Map<Long, String> before = loadPaymentPreviewChangeStamps(subscriptionKeys);
+
+        // when
+        runTX(new Callable<UsageLicense>() {
+            @Override
+            public UsageLicense call() throws Exception {
+                return Subscriptions.createUsageLicense(ds, user,
+                        subscription1);
+            }
+        });
+
+        // then
+        Map<Long, String> after = loadPaymentPreviewChangeStamps(subscriptionKeys);
+        assertChanged(before, after, subscription1, true);
+        assertChanged(before, after, subscription2, false);
+    }
+
+    @Test
+    public void loadPaymentPreviewChangeStamps_unit() throws Exception {
+        // given
+        final UserGroup unit = createUnit(customer, "unit");
+        Map<Long, String> before = loadPaymentPreviewChangeStamps(subscriptionKeys);
+
+        // when
+        runTX(new Callable<Subscription>() {
+            @Override
+            public Subscription call() throws Exception {
+                return Subscriptions.assignToUnit(ds, subscription2, unit);
+            }
+        });
+
+        // then
+        Map<Long, String> after = loadPaymentPreviewChangeStamps(subscriptionKeys);
+        assertChanged(before, after, subscription1, false);
+        assertChanged(before, after, subscription2, true);
+    }
+
+    @Test
+    public void loadPaymentPreviewChangeStamps_customer() throws Exception {
+        // given
+        Map<Long, String> before = loadPaymentPreviewChangeStamps(subscriptionKeys);
+
+        // when
+        createUnit(customer, "unit");
+
+        // then
+        Map<Long, String> after = loadPaymentPreviewChangeStamps(subscriptionKeys);
+        assertChanged(before, after, subscription1, true);
+        assertChanged(before, after, subscription2, true);
+    }
+
+    @Test
+    public void loadPaymentPreviewChangeStamps_otherCustomer() throws Exception {
+        // given
+        Organization otherCustomer = runTX(new Callable<Organization>() {
+            @Override
+            public Organization call() throws Exception {
+                return Organizations.createCustomer(ds, supplier,
+                        "otherCustomer", false);
+            }
+        });
+        Map<Long, String> before = loadPaymentPreviewChangeStamps(subscriptionKeys);
+
+        // when
+        createUnit(otherCustomer, "unit");
+
+        // then
+        Map<Long, String> after = loadPaymentPreviewChangeStamps(subscriptionKeys);
+        assertEquals(before, after);
+    }
+
+    @Test
+    public void loadPaymentPreviewChangeStamps_empty() throws Exception {
+        // when
+        Map<Long, String> result = loadPaymentPreviewChangeStamps(Collections
+                .<Long> emptyList());
+
+        // then
+        assertTrue(result.isEmpty());
+    }
+
+    private static void assertChanged(Map<Long, String> before,
+            Map<Long, String> after, Subscription subscription,
+            boolean changed) {
+        Long key = Long.valueOf(subscription.getKey());
+        assertEquals(Boolean.valueOf(changed),
+                Boolean.valueOf(!before.get(key).equals(after.get(key))));
+        assertFalse(after.get(key).isEmpty());
+    }
+
+    private Subscription createSubscription(final Product product,
+            final String subscriptionId, final Organization supplier)
+            throws Exception {
+        return runTX(new Callable<Subscription>() {
+            @Override
+            public Subscription call() throws Exception {
+                return Subscriptions.createSubscription(ds,
+                        customer.getOrganizationId(), product.getProductId(),
+                        subscriptionId, supplier);
+            }
+        });
+    }
+
+    private UserGroup createUnit(final Organization organization,
+            final String name) throws Exception {
+        return runTX(new Callable<UserGroup>() {
+            @Override
+            public UserGroup call() throws Exception {
+                return UserGroups.createUserGroup(ds, name, organization, false,
+                        "Description", "refId", null);
+            }
+        });
+    }
+
+    private Map<Long, String> loadPaymentPreviewChangeStamps(
+            final Collection<Long> keys) throws Exception {
+        return runTX(new Callable<Map<Long, String>>() {
+            @Override
+            public Map<Long, String> call() throws Exception {
+                return bdr.loadPaymentPreviewChangeStamps(keys);
+            }
+        });
+    }
+}
@@ -301,6 +301,43 @@ public class CalculateBillingResultsForPaymentPreviewIntIT extends EJBTestBase {
                 overallCosts(billingRun));
     }
 
+    /**
+     * A payment preview requested again within the same quarter hour is
+     * calculated for the same period and must match a new calculation.
+     */
+    @Test
+    public void calculateBillingResultsForPaymentPreview_SameQuarterHour()
+            throws Exception {
+
+        // given
+        defineInvocationTime("2012-12-06 14:05:00");
+        createSubscription(calculateMillis("2012-11-15 08:00:00"), 3,
+                PricingPeriod.HOUR, supplier, product);
+        service.generatePaymentPreviewReport(supplier.getKey());
+        defineInvocationTime("2012-12-06 14:10:00");
+
+        // when
+        BillingRun cached = service.generatePaymentPreviewReport(supplier
+                .getKey());
+        BillingServiceBean.clearPaymentPreviewCache();
+        BillingRun calculated = service.generatePaymentPreviewReport(supplier
+                .getKey());
+
+        // then - 86 hours should be invoiced
+        assertEquals(calculateMillis("2012-12-06 14:00:00"), cached.getEnd());
+        assertEquals(BigDecimal.valueOf(86000).setScale(2),
+                overallCosts(cached));
+        assertEquals(calculated.getEnd(), cached.getEnd());
+        assertEquals(calculated.getBillingResultList().size(), cached
+                .getBillingResultList().size());
+        for (int i = 0; i < calculated.getBillingResultList().size(); i++) {
+            BillingResult expected = calculated.getBillingResultList().get(i);
+            BillingResult actual = cached.getBillingResultList().get(i);
+            assertEquals(expected.getGrossAmount(), actual.getGrossAmount());
+            assertEquals(expected.getResultXML(), actual.getResultXML());
+        }
+    }
+
     /**
      * 
      * @param dateFormat
@@ -401,6 +438,7 @@ public class CalculateBillingResultsForPaymentPreviewIntIT extends EJBTestBase {
     @Override
     protected void setup(TestContainer container) throws Exception {
         subscriptions = new ArrayList<Subscription>();
+        BillingServiceBean.clearPaymentPreviewCache();
 
         setupContainer(container);
 
@@ -11,6 +11,7 @@ package org.oscm.billingservice.service;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.Callable;
@@ -156,6 +157,32 @@ public class SubscriptionsForCustomerIT extends EJBTestBase {
         assertEquals(5, list.size());
     }
 
+    @Test
+    public void getSubscriptionKeysForCustomer_page() throws Exception {
+        // given
+        final long orgKey = 1L;
+        for (long subscriptionKey = 1; subscriptionKey <= 5; subscriptionKey++) {
+            givenSubscriptionHistory(subscriptionKey, orgKey, new Date(2), 0);
+            givenSubscriptionHistory(subscriptionKey, orgKey, new Date(3), 1);
+        }
+        // history of another organization in the period
+        givenSubscriptionHistory(6L, 2, new Date(4), 0);
+
+        // when
+        List<Long> subscriptionKeys = runTX(new Callable<List<Long>>() {
+            @Override
+            public List<Long> call() throws Exception {
+                return bdrs.loadSubscriptionKeysForCustomer(orgKey, 2, 10, 1,
+                        3);
+            }
+        });
+
+        // then
+        assertEquals(
+                Arrays.asList(Long.valueOf(2), Long.valueOf(3),
+                        Long.valueOf(4)), subscriptionKeys);
+    }
+
     private void givenSubscriptionHistory(final long orgKey,
             final Long activationDate) throws Exception {
         runTX(new Callable<Void>() {
@@ -170,11 +197,17 @@ public class SubscriptionsForCustomerIT extends EJBTestBase {
 
     private void givenSubscriptionHistory(final long orgKey,
             final Date modDate, final int version) throws Exception {
+        givenSubscriptionHistory(1L, orgKey, modDate, version);
+    }
+
+    private void givenSubscriptionHistory(final long subscriptionKey,
+            final long orgKey, final Date modDate, final int version)
+            throws Exception {
         runTX(new Callable<Void>() {
             @Override
             public Void call() throws Exception {
-                Subscriptions.createSubscriptionHistory(dm, 1L, modDate,
-                        Long.valueOf(1), version, orgKey);
+                Subscriptions.createSubscriptionHistory(dm, subscriptionKey,
+                        modDate, Long.valueOf(1), version, orgKey);
                 return null;
             }
         });
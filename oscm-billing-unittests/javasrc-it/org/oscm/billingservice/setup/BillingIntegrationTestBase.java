@@ -288,6 +288,7 @@ public class BillingIntegrationTestBase extends StaticEJBTestBase {
         container.addBean(mock(UserLicenseDao.class));
         container.addBean(mock(UserLicenseServiceLocalBean.class));
         container.addBean(new AccountServiceBean());
+        container.addBean(new ServiceListingCacheBean());
         container.addBean(new SearchServiceBean());
         container.addBean(new ImageResourceServiceBean());
         container.addBean(new SharesDataRetrievalServiceBean());
@@ -722,6 +723,7 @@ public class BillingIntegrationTestBase extends StaticEJBTestBase {
     protected BillingRun generatePaymentPreviewReport(long organizationKey,
             String date) {
         setDateFactoryInstance(date);
+        BillingServiceBean.clearPaymentPreviewCache();
         return billingService.generatePaymentPreviewReport(organizationKey);
     }
 
@@ -0,0 +1,231 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.billingservice.business.calculation.share;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ejb.AsyncResult;
+import javax.ejb.SessionContext;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.oscm.billingservice.dao.SharesDataRetrievalServiceLocal;
+import org.oscm.configurationservice.local.ConfigurationServiceLocal;
+import org.oscm.domobjects.BillingSharesResult;
+import org.oscm.internal.types.enumtypes.BillingSharesResultType;
+import org.oscm.internal.types.enumtypes.ConfigurationKey;
+
+public class SharesCalculatorBeanTest {
+
+    private static final long START = 1000L;
+    private static final long END = 2000L;
+
+    private SharesCalculatorBean bean;
+    private SharesCalculatorLocal calculator;
+    private SharesDataRetrievalServiceLocal sharesRetrievalService;
+    private ConfigurationServiceLocal cs;
+
+    @Before
+    public void setup() {
+        bean = spy(new SharesCalculatorBean());
+        calculator = mock(SharesCalculatorLocal.class);
+        sharesRetrievalService = mock(SharesDataRetrievalServiceLocal.class);
+        cs = mock(ConfigurationServiceLocal.class);
+        bean.sharesRetrievalService = sharesRetrievalService;
+        bean.cs = cs;
+        bean.sessionCtx = mock(SessionContext.class);
+        doReturn(calculator).when(bean.sessionCtx).getBusinessObject(
+                SharesCalculatorLocal.class);
+        doReturn(new AsyncResult<Boolean>(Boolean.TRUE)).when(calculator)
+                .performSharesCalculationWorker(any(SharesCalculationRun.class));
+        doReturn(new ArrayList<BillingSharesResult>()).when(
+                sharesRetrievalService).loadBillingSharesResultForOrganization(
+                any(Long.class), any(BillingSharesResultType.class),
+                any(Long.class), any(Long.class));
+        givenWorkers(1);
+    }
+
+    @Test
+    public void performSupplierSharesCalculationRun() throws Exception {
+        // given
+        givenSuppliers(1L, 2L);
+
+        // when
+        boolean result = bean.performSupplierSharesCalculationRun(START, END);
+
+        // then
+        assertTrue(result);
+        verify(calculator).performSupplierSharesCalculationRun(START, END,
+                Long.valueOf(1L));
+        verify(calculator).performSupplierSharesCalculationRun(START, END,
+                Long.valueOf(2L));
+        verify(calculator, never()).performSharesCalculationWorker(
+                any(SharesCalculationRun.class));
+    }
+
+    @Test
+    public void performSupplierSharesCalculationRun_failureIsolated()
+            throws Exception {
+        // given
+        givenSuppliers(1L, 2L, 3L);
+        doThrow(new RuntimeException()).when(calculator)
+                .performSupplierSharesCalculationRun(START, END,
+                        Long.valueOf(2L));
+
+        // when
+        boolean result = bean.performSupplierSharesCalculationRun(START, END);
+
+        // then
+        assertFalse(result);
+        verify(calculator).performSupplierSharesCalculationRun(START, END,
+                Long.valueOf(1L));
+        verify(calculator).performSupplierSharesCalculationRun(START, END,
+                Long.valueOf(3L));
+    }
+
+    @Test
+    public void performSupplierSharesCalculationRun_skipExistingResult()
+            throws Exception {
+        // given
+        givenSuppliers(1L, 2L);
+        doReturn(Arrays.asList(new BillingSharesResult())).when(
+                sharesRetrievalService).loadBillingSharesResultForOrganization(
+                Long.valueOf(1L), BillingSharesResultType.SUPPLIER,
+                Long.valueOf(START), Long.valueOf(END));
+
+        // when
+        boolean result = bean.performSupplierSharesCalculationRun(START, END);
+
+        // then
+        assertTrue(result);
+        verify(calculator, never()).performSupplierSharesCalculationRun(
+                START, END, Long.valueOf(1L));
+        verify(calculator).performSupplierSharesCalculationRun(START, END,
+                Long.valueOf(2L));
+    }
+
+    @Test
+    public void performBrokerSharesCalculationRun_workers() throws Exception {
+        // given
+        givenWorkers(3);
+        doReturn(Arrays.asList(Long.valueOf(1L), Long.valueOf(2L),
+                Long.valueOf(3L), Long.valueOf(4L))).when(
+                sharesRetrievalService).loadAllBrokerKeysWithinPeriod(END);
+
+        // when
+        boolean result = bean.performBrokerSharesCalculationRun(START, END);
+
+        // then
+        assertTrue(result);
+        verify(calculator, times(2)).performSharesCalculationWorker(
+                any(SharesCalculationRun.class));
+        // the mocked workers do not take organizations, so the calling
+        // thread calculates all of them
+        verify(calculator, times(4)).performBrokerShareCalculationRun(
+                eq(START), eq(END), any(Long.class));
+    }
+
+    @Test
+    public void performMarketplacesSharesCalculationRun_workersLimited()
+            throws Exception {
+        // given
+        givenWorkers(10);
+        doReturn(Arrays.asList(Long.valueOf(1L), Long.valueOf(2L))).when(
+                sharesRetrievalService).loadAllMpOwnerKeysWithinPeriod(END);
+
+        // when
+        bean.performMarketplacesSharesCalculationRun(START, END);
+
+        // then
+        verify(calculator, times(1)).performSharesCalculationWorker(
+                any(SharesCalculationRun.class));
+        verify(calculator, times(2)).performMpOwnerSharesCalculationRun(
+                eq(START), eq(END), any(Long.class));
+    }
+
+    @Test
+    public void performResellerSharesCalculationRun_noResellers() {
+        // given
+        givenWorkers(4);
+        doReturn(Collections.emptyList()).when(sharesRetrievalService)
+                .loadAllResellerKeysWithinPeriod(END);
+
+        // when
+        boolean result = bean.performResellerSharesCalculationRun(START, END);
+
+        // then
+        assertTrue(result);
+        verify(calculator, never()).performSharesCalculationWorker(
+                any(SharesCalculationRun.class));
+    }
+
+    @Test
+    public void performSharesCalculationWorker() throws Exception {
+        // given
+        SharesCalculationRun run = new SharesCalculationRun(
+                BillingSharesResultType.RESELLER, START, END, Arrays.asList(
+                        Long.valueOf(1L), Long.valueOf(2L)));
+        doThrow(new RuntimeException()).when(calculator)
+                .performResellerSharesCalculationRun(START, END,
+                        Long.valueOf(1L));
+
+        // when
+        Boolean result = bean.performSharesCalculationWorker(run).get();
+
+        // then
+        assertFalse(result.booleanValue());
+        assertEquals(2, run.getFinished());
+        assertEquals(1, run.getCalculated());
+        assertEquals(1, run.getFailed());
+    }
+
+    @Test
+    public void getWorkerCount_bounded() {
+        // given
+        givenWorkers(0);
+
+        // when
+        int workers = bean.getWorkerCount();
+
+        // then
+        assertEquals(1, workers);
+    }
+
+    private void givenWorkers(long workers) {
+        when(
+                cs.getLongConfigurationSetting(
+                        eq(ConfigurationKey.BILLING_SHARES_CALCULATION_WORKERS),
+                        anyString())).thenReturn(Long.valueOf(workers));
+    }
+
+    private void givenSuppliers(long... keys) {
+        List<Long> result = new ArrayList<Long>();
+        for (long key : keys) {
+            result.add(Long.valueOf(key));
+        }
+        doReturn(result).when(sharesRetrievalService)
+                .loadAllSupplierKeysWithinPeriod(anyLong());
+    }
+}
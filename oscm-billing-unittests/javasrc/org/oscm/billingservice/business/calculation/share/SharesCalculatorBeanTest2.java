@@ -5,16 +5,21 @@
 package org.oscm.billingservice.business.calculation.share;
 
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.io.OutputStream;
 import java.math.BigInteger;
 
+import javax.xml.bind.MarshalException;
 import javax.xml.bind.Marshaller;
 import javax.xml.validation.Schema;
 
@@ -131,4 +136,23 @@ public class SharesCalculatorBeanTest2 {
         // then
         verify(marshaller, times(0)).setSchema((Schema) any());
     }
+
+    @Test
+    public void marshall_releasesMarshaller() throws Exception {
+        // given
+        Marshaller marshaller = mock(Marshaller.class);
+        MarketplaceOwnerRevenueShareResult result = createMPOwnerRevenueShareResult();
+        doReturn(marshaller).when(sharesCalculator).createMarshaller(result);
+        doThrow(new MarshalException("failed")).when(marshaller).marshal(
+                eq(result), any(OutputStream.class));
+
+        // when
+        try {
+            sharesCalculator.marshallRevenueShareResults(result);
+            fail();
+        } catch (MarshalException e) {
+            // then
+            verify(sharesCalculator).releaseMarshaller(result, marshaller);
+        }
+    }
 }
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.billingservice.business.calculation.share;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigInteger;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import org.oscm.billingservice.business.model.suppliershare.SupplierRevenueShareResult;
+
+/**
+ * Compares marshalling share results with a JAXB context created per call
+ * against the shared contexts of the registry used by the shares calculator.
+ */
+@Ignore
+public class SharesResultMarshallingPerformanceTest {
+
+    private static final int RUNS = 500;
+
+    @Test
+    public void marshallRevenueShareResults() throws Exception {
+        SharesCalculatorBean calculator = new SharesCalculatorBean();
+        SupplierRevenueShareResult result = createResult();
+
+        // warm up class loading and the registry
+        calculator.marshallRevenueShareResults(result);
+        marshallWithNewContext(result);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < RUNS; i++) {
+            marshallWithNewContext(result);
+        }
+        long perCall = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        for (int i = 0; i < RUNS; i++) {
+            calculator.marshallRevenueShareResults(result);
+        }
+        long shared = System.currentTimeMillis() - start;
+
+        Assert.assertTrue(RUNS + " share results took " + shared
+                + "ms with shared contexts and " + perCall
+                + "ms with a context per call.", shared * 5 < perCall);
+    }
+
+    private static byte[] marshallWithNewContext(Object obj) throws Exception {
+        Marshaller marshaller = JAXBContext.newInstance(obj.getClass())
+                .createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        marshaller.marshal(obj, bos);
+        return bos.toByteArray();
+    }
+
+    private static SupplierRevenueShareResult createResult() {
+        SupplierRevenueShareResult result = new SupplierRevenueShareResult();
+        result.setOrganizationId("organizationId");
+        result.setOrganizationKey(BigInteger.valueOf(1000));
+        return result;
+    }
+}
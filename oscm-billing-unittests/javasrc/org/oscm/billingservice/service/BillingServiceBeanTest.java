@@ -14,6 +14,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.anySet;
+import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -24,11 +25,15 @@ import static org.mockito.Mockito.verify;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.Before;
@@ -108,6 +113,7 @@ public class BillingServiceBeanTest {
     @Before
     public void setup() {
 
+        BillingServiceBean.clearPaymentPreviewCache();
         currentTime = System.currentTimeMillis();
         billingResult = getSimpleBillingResult();
         validBillingData = getValidSubscriptionDataList();
@@ -525,6 +531,224 @@ public class BillingServiceBeanTest {
                 LogMessageIdentifier.INFO_USER_BILLING_RUN_FINISHED);
     }
 
+    @Test
+    public void executePaymentPreview_cached() throws Exception {
+        // given
+        BillingInput input1 = givenBillingInput(10);
+        BillingInput input2 = givenBillingInput(11);
+        DataProvider provider = givenDataProvider(input1, input2);
+        givenChangeStamps("stamp", "stamp");
+        doReturn(givenBillingResult(10, "<a/>")).when(revenueCalculator)
+                .performBillingRunForSubscription(input1);
+        doReturn(givenBillingResult(11, "<b/>")).when(revenueCalculator)
+                .performBillingRunForSubscription(input2);
+        BillingRun calculated = billingServiceBean
+                .executePaymentPreview(provider);
+
+        // when
+        BillingRun cached = billingServiceBean.executePaymentPreview(provider);
+
+        // then
+        verify(revenueCalculator, times(1)).performBillingRunForSubscription(
+                input1);
+        verify(revenueCalculator, times(1)).performBillingRunForSubscription(
+                input2);
+        assertTrue(cached.isSuccessful());
+        assertSameResults(calculated, cached);
+    }
+
+    @Test
+    public void executePaymentPreview_changed() throws Exception {
+        // given
+        BillingInput input1 = givenBillingInput(10);
+        BillingInput input2 = givenBillingInput(11);
+        DataProvider provider = givenDataProvider(input1, input2);
+        givenChangeStamps("stamp", "stamp");
+        doReturn(givenBillingResult(10, "<a/>")).when(revenueCalculator)
+                .performBillingRunForSubscription(input1);
+        doReturn(givenBillingResult(11, "<b/>")).when(revenueCalculator)
+                .performBillingRunForSubscription(input2);
+        billingServiceBean.executePaymentPreview(provider);
+        givenChangeStamps("stamp", "changed");
+        doReturn(givenBillingResult(11, "<c/>")).when(revenueCalculator)
+                .performBillingRunForSubscription(input2);
+
+        // when
+        BillingRun cached = billingServiceBean.executePaymentPreview(provider);
+
+        // then
+        verify(revenueCalculator, times(1)).performBillingRunForSubscription(
+                input1);
+        verify(revenueCalculator, times(2)).performBillingRunForSubscription(
+                input2);
+        assertSameResults(billingServiceBean.executeBilling(provider), cached);
+        assertEquals("<c/>", cached.getBillingResultList().get(1)
+                .getResultXML());
+    }
+
+    @Test
+    public void executePaymentPreview_periodEndChanged() throws Exception {
+        // given
+        BillingInput input = givenBillingInput(10, "2015-06-15 00:00:00");
+        givenChangeStamps("stamp");
+        doReturn(givenBillingResult(10, "<a/>")).when(revenueCalculator)
+                .performBillingRunForSubscription(input);
+        billingServiceBean.executePaymentPreview(givenDataProvider(
+                "2015-06-15 00:00:00", input));
+        BillingInput laterInput = givenBillingInput(10, "2015-06-15 00:15:00");
+        doReturn(givenBillingResult(10, "<b/>")).when(revenueCalculator)
+                .performBillingRunForSubscription(laterInput);
+
+        // when
+        BillingRun billingRun = billingServiceBean
+                .executePaymentPreview(givenDataProvider("2015-06-15 00:15:00",
+                        laterInput));
+
+        // then
+        verify(revenueCalculator, times(1)).performBillingRunForSubscription(
+                laterInput);
+        assertEquals("<b/>", billingRun.getBillingResultList().get(0)
+                .getResultXML());
+    }
+
+    @Test
+    public void determinePeriodEndForPaymentPreview() {
+        // when
+        long periodEnd = billingServiceBean
+                .determinePeriodEndForPaymentPreview(DateTimeHandling
+                        .calculateMillis("2015-06-15 14:29:59"));
+
+        // then
+        assertEquals(DateTimeHandling.calculateMillis("2015-06-15 14:15:00"),
+                periodEnd);
+    }
+
+    @Test
+    public void determinePeriodEndForPaymentPreview_fullQuarter() {
+        // when
+        long periodEnd = billingServiceBean
+                .determinePeriodEndForPaymentPreview(DateTimeHandling
+                        .calculateMillis("2015-06-15 14:30:00"));
+
+        // then
+        assertEquals(DateTimeHandling.calculateMillis("2015-06-15 14:30:00"),
+                periodEnd);
+    }
+
+    @Test
+    public void determinePeriodEndForPaymentPreview_startOfMonth() {
+        // given
+        long now = DateTimeHandling.calculateMillis("2015-06-01 00:10:00");
+
+        // when
+        long periodEnd = billingServiceBean
+                .determinePeriodEndForPaymentPreview(now);
+
+        // then
+        assertEquals(now, periodEnd);
+    }
+
+    @Test
+    public void executePaymentPreview_noChangeStamp() throws Exception {
+        // given
+        BillingInput input = givenBillingInput(10);
+        DataProvider provider = givenDataProvider(input);
+        doReturn(givenBillingResult(10, "<a/>")).when(revenueCalculator)
+                .performBillingRunForSubscription(input);
+        billingServiceBean.executePaymentPreview(provider);
+
+        // when
+        billingServiceBean.executePaymentPreview(provider);
+
+        // then
+        verify(revenueCalculator, times(2)).performBillingRunForSubscription(
+                input);
+    }
+
+    @Test
+    public void executePaymentPreview_failed() throws Exception {
+        // given
+        BillingInput input = givenBillingInput(10);
+        DataProvider provider = givenDataProvider(input);
+        givenChangeStamps("stamp");
+        doThrow(new ObjectNotFoundException()).when(revenueCalculator)
+                .performBillingRunForSubscription(input);
+
+        // when
+        BillingRun billingRun = billingServiceBean
+                .executePaymentPreview(provider);
+
+        // then
+        assertFalse(billingRun.isSuccessful());
+        assertTrue(billingRun.getBillingResultList().isEmpty());
+    }
+
+    private BillingInput givenBillingInput(long subscriptionKey) {
+        return givenBillingInput(subscriptionKey, "2015-06-15 00:00:00");
+    }
+
+    private BillingInput givenBillingInput(long subscriptionKey,
+            String periodEnd) {
+        return BillingInputFactory.newBillingInput(
+                DateTimeHandling.calculateMillis("2015-06-01 00:00:00"),
+                DateTimeHandling.calculateMillis(periodEnd), subscriptionKey);
+    }
+
+    private DataProvider givenDataProvider(BillingInput... billingInputs) {
+        return givenDataProvider("2015-06-15 00:00:00", billingInputs);
+    }
+
+    private DataProvider givenDataProvider(String periodEnd,
+            BillingInput... billingInputs) {
+        DataProvider provider = new DataProvider() {
+        };
+        provider.periodStart = DateTimeHandling
+                .calculateMillis("2015-06-01 00:00:00");
+        provider.periodEnd = DateTimeHandling.calculateMillis(periodEnd);
+        provider.billingInputList = Arrays.asList(billingInputs);
+        return provider;
+    }
+
+    /**
+     * Returns the given change stamps for the subscriptions 10, 11, ...
+     */
+    private void givenChangeStamps(String... changeStamps) {
+        Map<Long, String> stamps = new HashMap<>();
+        for (int i = 0; i < changeStamps.length; i++) {
+            stamps.put(Long.valueOf(10 + i), changeStamps[i]);
+        }
+        doReturn(stamps).when(bdr).loadPaymentPreviewChangeStamps(
+                anySetOf(Long.class));
+    }
+
+    private BillingResult givenBillingResult(long subscriptionKey, String xml) {
+        BillingResult result = new BillingResult();
+        result.setSubscriptionKey(Long.valueOf(subscriptionKey));
+        result.setChargingOrgKey(1L);
+        result.setNetAmount(BigDecimal.TEN);
+        result.setGrossAmount(BigDecimal.TEN);
+        result.setResultXML(xml);
+        return result;
+    }
+
+    private static void assertSameResults(BillingRun expected,
+            BillingRun actual) {
+        assertEquals(expected.getStart(), actual.getStart());
+        assertEquals(expected.getEnd(), actual.getEnd());
+        List<BillingResult> expectedResults = expected.getBillingResultList();
+        List<BillingResult> actualResults = actual.getBillingResultList();
+        assertEquals(expectedResults.size(), actualResults.size());
+        for (int i = 0; i < expectedResults.size(); i++) {
+            BillingResult e = expectedResults.get(i);
+            BillingResult a = actualResults.get(i);
+            assertEquals(e.getSubscriptionKey(), a.getSubscriptionKey());
+            assertEquals(e.getChargingOrgKey(), a.getChargingOrgKey());
+            assertEquals(e.getNetAmount(), a.getNetAmount());
+            assertEquals(e.getGrossAmount(), a.getGrossAmount());
+            assertEquals(e.getResultXML(), a.getResultXML());
+        }
+    }
+
     private BillingSubscriptionData createBillingSubscriptionData(
             long subscriptionKey, long activationDate, int cutOffDay,
             Long endOfLastBilledPeriod) {
@@ -11,6 +11,7 @@ package org.oscm.billingservice.service;
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
@@ -213,6 +214,66 @@ public class DataProviderAnyPeriodTest {
                 .size());
     }
 
+    @Test
+    public void loadBillingInputList_page() {
+        // given
+        long periodStart = System.currentTimeMillis() - 100000L;
+        long periodEnd = periodStart + 200000L;
+        List<SubscriptionHistory> histories = new ArrayList<>();
+        for (long subscriptionKey = 4; subscriptionKey <= 5; subscriptionKey++) {
+            histories.addAll(createSubscriptionWithHistory(subscriptionKey, 1));
+        }
+        List<Long> subscriptionKeys = Arrays.asList(Long.valueOf(4),
+                Long.valueOf(5));
+        when(
+                bdrMock.loadSubscriptionKeysForCustomer(ORGANIZATION_KEY,
+                        periodStart, periodEnd, 3, 2)).thenReturn(
+                subscriptionKeys);
+        when(
+                bdrMock.loadSubscriptionHistoriesForBillingPeriod(
+                        subscriptionKeys, periodStart, periodEnd)).thenReturn(
+                histories);
+        List<PriceModelHistory> givenPriceModels = givenPriceModelHistories(PriceModelType.PRO_RATA);
+        when(
+                bdrMock.loadPricemodelHistoriesForSubscriptionHistory(
+                        anyLong(), anyLong())).thenReturn(givenPriceModels);
+
+        // when
+        provider = new DataProviderAnyPeriod(bdrMock, periodStart, periodEnd,
+                ORGANIZATION_KEY, null, false, 3, 2, dm);
+
+        // then
+        assertEquals(2, provider.getPageSubscriptionCount());
+        assertEquals(2, provider.getBillingInput().size());
+        assertEquals(4L, provider.getBillingInput().get(0).getSubscriptionKey());
+        assertEquals(5L, provider.getBillingInput().get(1).getSubscriptionKey());
+        verify(bdrMock, times(2)).loadCurrency(anyLong(), eq(periodEnd));
+        verify(bdrMock, never()).loadSubscriptionsForCustomer(anyLong(),
+                anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void loadBillingInputList_pageBeyondLastSubscription() {
+        // given
+        long periodStart = System.currentTimeMillis() - 100000L;
+        long periodEnd = periodStart + 200000L;
+        when(
+                bdrMock.loadSubscriptionKeysForCustomer(anyLong(), anyLong(),
+                        anyLong(), anyInt(), anyInt())).thenReturn(
+                new ArrayList<Long>());
+
+        // when
+        provider = new DataProviderAnyPeriod(bdrMock, periodStart, periodEnd,
+                ORGANIZATION_KEY, null, false, 1, Integer.MAX_VALUE, dm);
+
+        // then
+        assertEquals(0, provider.getPageSubscriptionCount());
+        assertEquals(0, provider.getBillingInput().size());
+        verify(bdrMock, never()).loadSubscriptionHistoriesForBillingPeriod(
+                anyListOf(Long.class), anyLong(), anyLong());
+        verify(bdrMock, never()).loadCurrency(anyLong(), anyLong());
+    }
+
     private List<PriceModelHistory> givenPriceModelHistories(PriceModelType type) {
         List<PriceModelHistory> priceModelHistories = new LinkedList<>();
         PriceModelHistory pmh = new PriceModelHistory();
@@ -20,7 +20,6 @@ import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.validation.Schema;
@@ -77,6 +76,7 @@ import org.oscm.internal.types.enumtypes.ParameterValueType;
 import org.oscm.internal.types.enumtypes.PricingPeriod;
 import org.oscm.internal.types.exception.NonUniqueBusinessKeyException;
 import org.oscm.internal.types.exception.ObjectNotFoundException;
+import org.oscm.xml.JaxbContextRegistry;
 
 /**
  * Session Bean implementation class BillingServiceBean
@@ -173,14 +173,19 @@ public class RevenueCalculatorBean implements RevenueCalculatorLocal {
             BillingDetailsType billingDetails) {
 
         try {
-            final JAXBContext context = JAXBContext
-                    .newInstance(BillingdataType.class);
             final ByteArrayOutputStream out = new ByteArrayOutputStream();
-            final Marshaller marshaller = context.createMarshaller();
-            marshaller.setProperty("jaxb.formatted.output", Boolean.FALSE);
-            final BillingdataType billingdataType = new BillingdataType();
-            billingdataType.getBillingDetails().add(billingDetails);
-            marshaller.marshal(factory.createBillingdata(billingdataType), out);
+            final Marshaller marshaller = JaxbContextRegistry
+                    .acquireMarshaller(BillingdataType.class);
+            try {
+                marshaller.setProperty("jaxb.formatted.output", Boolean.FALSE);
+                final BillingdataType billingdataType = new BillingdataType();
+                billingdataType.getBillingDetails().add(billingDetails);
+                marshaller.marshal(factory.createBillingdata(billingdataType),
+                        out);
+            } finally {
+                JaxbContextRegistry.releaseMarshaller(BillingdataType.class,
+                        marshaller);
+            }
             final String xml = new String(out.toByteArray(), "UTF-8");
             billingResult.setResultXML(xml.substring(
                     xml.indexOf("<Billingdata>") + 13,
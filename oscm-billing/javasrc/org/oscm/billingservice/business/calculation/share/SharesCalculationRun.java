@@ -0,0 +1,111 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.billingservice.business.calculation.share;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.oscm.internal.types.enumtypes.BillingSharesResultType;
+
+/**
+ * The revenue share calculation of one result type for one period. The keys
+ * of the organizations to be calculated are taken one by one by the workers
+ * sharing the run, which also count the calculated, skipped and failed
+ * organizations.
+ */
+public class SharesCalculationRun {
+
+    private final BillingSharesResultType resultType;
+    private final long startOfLastMonth;
+    private final long endOfLastMonth;
+    private final int total;
+    private final Queue<Long> orgKeys;
+
+    private final AtomicInteger calculated = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    public SharesCalculationRun(BillingSharesResultType resultType,
+            long startOfLastMonth, long endOfLastMonth, List<Long> orgKeys) {
+        this.resultType = resultType;
+        this.startOfLastMonth = startOfLastMonth;
+        this.endOfLastMonth = endOfLastMonth;
+        this.total = orgKeys.size();
+        this.orgKeys = new ConcurrentLinkedQueue<Long>(orgKeys);
+    }
+
+    public BillingSharesResultType getResultType() {
+        return resultType;
+    }
+
+    public long getStartOfLastMonth() {
+        return startOfLastMonth;
+    }
+
+    public long getEndOfLastMonth() {
+        return endOfLastMonth;
+    }
+
+    /**
+     * Returns the key of the next organization to be calculated or
+     * <code>null</code> if all organizations have been taken.
+     */
+    public Long nextOrganizationKey() {
+        return orgKeys.poll();
+    }
+
+    /**
+     * Counts an organization whose shares have been calculated and returns the
+     * number of finished organizations.
+     */
+    public int calculated() {
+        calculated.incrementAndGet();
+        return getFinished();
+    }
+
+    /**
+     * Counts an organization which already had a result for the period and
+     * returns the number of finished organizations.
+     */
+    public int skipped() {
+        skipped.incrementAndGet();
+        return getFinished();
+    }
+
+    /**
+     * Counts an organization whose calculation failed and returns the number
+     * of finished organizations.
+     */
+    public int failed() {
+        failed.incrementAndGet();
+        return getFinished();
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getCalculated() {
+        return calculated.get();
+    }
+
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getFinished() {
+        return calculated.get() + skipped.get() + failed.get();
+    }
+
+    public boolean isSuccessful() {
+        return failed.get() == 0;
+    }
+}
@@ -5,16 +5,20 @@
 package org.oscm.billingservice.business.calculation.share;
 
 import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 import javax.annotation.Resource;
+import javax.ejb.AsyncResult;
+import javax.ejb.Asynchronous;
 import javax.ejb.EJB;
 import javax.ejb.Local;
 import javax.ejb.SessionContext;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 
@@ -31,12 +35,16 @@ import org.oscm.billingservice.business.model.suppliershare.SupplierRevenueShare
 import org.oscm.billingservice.business.model.suppliershare.SupplierShareResultAssembler;
 import org.oscm.billingservice.dao.BillingDataRetrievalServiceLocal;
 import org.oscm.billingservice.dao.SharesDataRetrievalServiceLocal;
+import org.oscm.configurationservice.local.ConfigurationServiceLocal;
 import org.oscm.dataservice.local.DataService;
 import org.oscm.domobjects.BillingSharesResult;
 import org.oscm.interceptor.DateFactory;
 import org.oscm.string.Strings;
+import org.oscm.types.constants.Configuration;
 import org.oscm.types.enumtypes.LogMessageIdentifier;
+import org.oscm.xml.JaxbContextRegistry;
 import org.oscm.internal.types.enumtypes.BillingSharesResultType;
+import org.oscm.internal.types.enumtypes.ConfigurationKey;
 import org.oscm.internal.types.exception.NonUniqueBusinessKeyException;
 
 /**
@@ -49,6 +57,14 @@ public class SharesCalculatorBean implements SharesCalculatorLocal {
     private static final Log4jLogger LOGGER = LoggerFactory
             .getLogger(RevenueCalculatorBean.class);
 
+    /**
+     * The number of finished organizations after which the progress of a
+     * calculation run is logged.
+     */
+    static final int PROGRESS_INTERVAL = 100;
+
+    static final long MAX_WORKERS = 64;
+
     @EJB(beanInterface = DataService.class)
     DataService ds;
 
@@ -58,8 +74,11 @@ public class SharesCalculatorBean implements SharesCalculatorLocal {
     @EJB
     BillingDataRetrievalServiceLocal billingRetrievalService;
 
+    @EJB
+    ConfigurationServiceLocal cs;
+
     @Resource
-    private SessionContext sessionCtx;
+    SessionContext sessionCtx;
 
     /**
      * Check if billing shares result for the given organization type and period
@@ -96,54 +115,177 @@ public class SharesCalculatorBean implements SharesCalculatorLocal {
         ds.persist(bsr);
     }
 
+    /**
+     * Acquires a pooled marshaller for the class of the given object, which
+     * must be returned with {@link #releaseMarshaller(Object, Marshaller)}.
+     */
     Marshaller createMarshaller(Object obj) throws JAXBException {
-        JAXBContext context = JAXBContext.newInstance(obj.getClass());
-        return context.createMarshaller();
+        return JaxbContextRegistry.acquireMarshaller(obj.getClass());
+    }
+
+    void releaseMarshaller(Object obj, Marshaller marshaller) {
+        if (obj != null) {
+            JaxbContextRegistry.releaseMarshaller(obj.getClass(), marshaller);
+        }
     }
 
     byte[] marshallRevenueShareResults(Object obj) throws JAXBException {
         Marshaller marshaller = createMarshaller(obj);
-        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        marshaller.marshal(obj, bos);
-        return bos.toByteArray();
+        try {
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
+                    Boolean.TRUE);
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            marshaller.marshal(obj, bos);
+            return bos.toByteArray();
+        } finally {
+            releaseMarshaller(obj, marshaller);
+        }
     }
 
     @Override
     public boolean performBrokerSharesCalculationRun(long startOfLastMonth,
             long endOfLastMonth) {
-        boolean success = true;
-
         // get all brokers for which a shares calculation has to be performed
         // for the given billing period
-        for (Long brokerKey : sharesRetrievalService
-                .loadAllBrokerKeysWithinPeriod(endOfLastMonth)) {
+        return performSharesCalculationRun(new SharesCalculationRun(
+                BillingSharesResultType.BROKER, startOfLastMonth,
+                endOfLastMonth,
+                sharesRetrievalService
+                        .loadAllBrokerKeysWithinPeriod(endOfLastMonth)));
+    }
+
+    /**
+     * Calculates the shares of all organizations of the given run. Additional
+     * workers are started asynchronously if more than one worker is
+     * configured, and the calling thread works on the run as well.
+     */
+    boolean performSharesCalculationRun(SharesCalculationRun run) {
+        int workers = Math.min(getWorkerCount(), run.getTotal());
+        List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+        if (workers > 1) {
+            SharesCalculatorLocal self = sessionCtx
+                    .getBusinessObject(SharesCalculatorLocal.class);
+            for (int i = 1; i < workers; i++) {
+                results.add(self.performSharesCalculationWorker(run));
+            }
+        }
+        calculateShares(run);
+        // the run counts the failures of all workers, the results only
+        // tell whether a worker terminated abnormally
+        boolean success = true;
+        for (Future<Boolean> result : results) {
             try {
-                // run in separate transaction
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                success = false;
+                LOGGER.logError(Log4jLogger.SYSTEM_LOG, e,
+                        LogMessageIdentifier.ERROR);
+            } catch (ExecutionException e) {
+                success = false;
+                LOGGER.logError(Log4jLogger.SYSTEM_LOG, e.getCause(),
+                        LogMessageIdentifier.ERROR);
+            }
+        }
+        logProgress(run);
+        return success && run.isSuccessful();
+    }
 
-                if (existBillingSharesResultEntry(startOfLastMonth,
-                        endOfLastMonth, brokerKey,
-                        BillingSharesResultType.BROKER)) {
+    @Override
+    @Asynchronous
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public Future<Boolean> performSharesCalculationWorker(
+            SharesCalculationRun run) {
+        calculateShares(run);
+        return new AsyncResult<Boolean>(Boolean.valueOf(run.isSuccessful()));
+    }
+
+    /**
+     * Takes organizations from the given run until all of them have been
+     * taken and calculates their shares, each in a separate transaction.
+     */
+    void calculateShares(SharesCalculationRun run) {
+        for (Long orgKey = run.nextOrganizationKey(); orgKey != null; orgKey = run
+                .nextOrganizationKey()) {
+            int finished;
+            try {
+                if (existBillingSharesResultEntry(run.getStartOfLastMonth(),
+                        run.getEndOfLastMonth(), orgKey, run.getResultType())) {
                     // If there is already a billing shares result for the given
                     // organization, type and period, skip calculation for this
                     // organization and continue with the next organization.
-                    continue;
+                    finished = run.skipped();
+                } else {
+                    calculateShares(prepareForNewTransaction(), run, orgKey);
+                    finished = run.calculated();
                 }
-
-                prepareForNewTransaction().performBrokerShareCalculationRun(
-                        startOfLastMonth, endOfLastMonth, brokerKey);
             } catch (Exception e) {
-                success = false;
-                LOGGER.logError(
-                        Log4jLogger.SYSTEM_LOG,
-                        e,
-                        LogMessageIdentifier.ERROR_BROKER_REVENUE_SHARES_CALCULATION_FAILED_NO_BILL_GENERATED,
-                        brokerKey.toString());
+                finished = run.failed();
+                LOGGER.logError(Log4jLogger.SYSTEM_LOG, e,
+                        getFailureMessage(run.getResultType()),
+                        orgKey.toString());
+            }
+            if (finished % PROGRESS_INTERVAL == 0) {
+                logProgress(run);
             }
         }
-        return success;
+    }
+
+    private void calculateShares(SharesCalculatorLocal calculator,
+            SharesCalculationRun run, Long orgKey) throws Exception {
+        long start = run.getStartOfLastMonth();
+        long end = run.getEndOfLastMonth();
+        switch (run.getResultType()) {
+        case BROKER:
+            calculator.performBrokerShareCalculationRun(start, end, orgKey);
+            break;
+        case RESELLER:
+            calculator.performResellerSharesCalculationRun(start, end, orgKey);
+            break;
+        case SUPPLIER:
+            calculator.performSupplierSharesCalculationRun(start, end, orgKey);
+            break;
+        default:
+            calculator.performMpOwnerSharesCalculationRun(start, end, orgKey);
+        }
+    }
+
+    private static LogMessageIdentifier getFailureMessage(
+            BillingSharesResultType resultType) {
+        switch (resultType) {
+        case BROKER:
+            return LogMessageIdentifier.ERROR_BROKER_REVENUE_SHARES_CALCULATION_FAILED_NO_BILL_GENERATED;
+        case RESELLER:
+            return LogMessageIdentifier.ERROR_RESELLER_REVENUE_SHARES_CALCULATION_FAILED_NO_BILL_GENERATED;
+        case SUPPLIER:
+            return LogMessageIdentifier.ERROR_SUPPLIER_REVENUE_SHARES_CALCULATION_FAILED_NO_BILL_GENERATED;
+        default:
+            return LogMessageIdentifier.ERROR_MPOWNER_REVENUE_SHARES_CALCULATION_FAILED_NO_BILL_GENERATED;
+        }
+    }
+
+    private void logProgress(SharesCalculationRun run) {
+        LOGGER.logInfo(Log4jLogger.SYSTEM_LOG,
+                LogMessageIdentifier.INFO_REVENUE_SHARES_CALCULATION_PROGRESS,
+                run.getResultType().name(),
+                String.valueOf(run.getFinished()),
+                String.valueOf(run.getTotal()),
+                String.valueOf(run.getCalculated()),
+                String.valueOf(run.getSkipped()),
+                String.valueOf(run.getFailed()));
+    }
+
+    /**
+     * Returns the configured number of organizations whose shares are
+     * calculated concurrently.
+     */
+    int getWorkerCount() {
+        long workers = cs.getLongConfigurationSetting(
+                ConfigurationKey.BILLING_SHARES_CALCULATION_WORKERS,
+                Configuration.GLOBAL_CONTEXT);
+        return (int) Math.max(1L, Math.min(workers, MAX_WORKERS));
     }
 
     private SharesCalculatorLocal prepareForNewTransaction() {
@@ -171,36 +313,13 @@ public class SharesCalculatorBean implements SharesCalculatorLocal {
     @Override
     public boolean performResellerSharesCalculationRun(long startOfLastMonth,
             long endOfLastMonth) {
-        boolean success = true;
-
         // get all resellers for which a shares calculation has to be performed
         // for the given billing period
-        for (Long resellerKey : sharesRetrievalService
-                .loadAllResellerKeysWithinPeriod(endOfLastMonth)) {
-            try {
-                // run in separate transaction
-
-                if (existBillingSharesResultEntry(startOfLastMonth,
-                        endOfLastMonth, resellerKey,
-                        BillingSharesResultType.RESELLER)) {
-                    // If there is already a billing shares result for the given
-                    // organization, type and period, skip calculation for this
-                    // organization and continue with the next organization.
-                    continue;
-                }
-
-                prepareForNewTransaction().performResellerSharesCalculationRun(
-                        startOfLastMonth, endOfLastMonth, resellerKey);
-            } catch (Exception e) {
-                success = false;
-                LOGGER.logError(
-                        Log4jLogger.SYSTEM_LOG,
-                        e,
-                        LogMessageIdentifier.ERROR_RESELLER_REVENUE_SHARES_CALCULATION_FAILED_NO_BILL_GENERATED,
-                        resellerKey.toString());
-            }
-        }
-        return success;
+        return performSharesCalculationRun(new SharesCalculationRun(
+                BillingSharesResultType.RESELLER, startOfLastMonth,
+                endOfLastMonth,
+                sharesRetrievalService
+                        .loadAllResellerKeysWithinPeriod(endOfLastMonth)));
     }
 
     @Override
@@ -224,36 +343,13 @@ public class SharesCalculatorBean implements SharesCalculatorLocal {
     @Override
     public boolean performSupplierSharesCalculationRun(long startOfLastMonth,
             long endOfLastMonth) {
-        boolean success = true;
-
-        // get all resellers for which a shares calculation has to be performed
+        // get all suppliers for which a shares calculation has to be performed
         // for the given billing period
-        for (Long supplierKey : sharesRetrievalService
-                .loadAllSupplierKeysWithinPeriod(endOfLastMonth)) {
-            try {
-                // run in separate transaction
-
-                if (existBillingSharesResultEntry(startOfLastMonth,
-                        endOfLastMonth, supplierKey,
-                        BillingSharesResultType.SUPPLIER)) {
-                    // If there is already a billing shares result for the given
-                    // organization, type and period, skip calculation for this
-                    // organization and continue with the next organization.
-                    continue;
-                }
-
-                prepareForNewTransaction().performSupplierSharesCalculationRun(
-                        startOfLastMonth, endOfLastMonth, supplierKey);
-            } catch (Exception e) {
-                success = false;
-                LOGGER.logError(
-                        Log4jLogger.SYSTEM_LOG,
-                        e,
-                        LogMessageIdentifier.ERROR_SUPPLIER_REVENUE_SHARES_CALCULATION_FAILED_NO_BILL_GENERATED,
-                        supplierKey.toString());
-            }
-        }
-        return success;
+        return performSharesCalculationRun(new SharesCalculationRun(
+                BillingSharesResultType.SUPPLIER, startOfLastMonth,
+                endOfLastMonth,
+                sharesRetrievalService
+                        .loadAllSupplierKeysWithinPeriod(endOfLastMonth)));
     }
 
     @Override
@@ -276,36 +372,13 @@ public class SharesCalculatorBean implements SharesCalculatorLocal {
     @Override
     public boolean performMarketplacesSharesCalculationRun(
             long startOfLastMonth, long endOfLastMonth) {
-        boolean success = true;
-
         // get a list of all marketplaces references in the billing results of
         // the given period
-        for (Long mpOwnerKey : sharesRetrievalService
-                .loadAllMpOwnerKeysWithinPeriod(endOfLastMonth)) {
-            try {
-                // run in separate transaction
-
-                if (existBillingSharesResultEntry(startOfLastMonth,
-                        endOfLastMonth, mpOwnerKey,
-                        BillingSharesResultType.MARKETPLACE_OWNER)) {
-                    // If there is already a billing shares result for the given
-                    // organization, type and period, skip calculation for this
-                    // organization and continue with the next organization.
-                    continue;
-                }
-
-                prepareForNewTransaction().performMpOwnerSharesCalculationRun(
-                        startOfLastMonth, endOfLastMonth, mpOwnerKey);
-            } catch (Exception e) {
-                success = false;
-                LOGGER.logError(
-                        Log4jLogger.SYSTEM_LOG,
-                        e,
-                        LogMessageIdentifier.ERROR_MPOWNER_REVENUE_SHARES_CALCULATION_FAILED_NO_BILL_GENERATED,
-                        mpOwnerKey.toString());
-            }
-        }
-        return success;
+        return performSharesCalculationRun(new SharesCalculationRun(
+                BillingSharesResultType.MARKETPLACE_OWNER, startOfLastMonth,
+                endOfLastMonth,
+                sharesRetrievalService
+                        .loadAllMpOwnerKeysWithinPeriod(endOfLastMonth)));
     }
 
     @Override
@@ -4,6 +4,8 @@
 
 package org.oscm.billingservice.business.calculation.share;
 
+import java.util.concurrent.Future;
+
 import javax.ejb.Local;
 
 /**
@@ -14,7 +16,13 @@ public interface SharesCalculatorLocal {
 
     /**
      * Calculates all broker revenue shares for the given period and persist
-     * them as BillingSharesResults.
+     * them as BillingSharesResults. Organizations which already have a result
+     * for the period are skipped, so a failed run can be repeated. The
+     * organizations are calculated concurrently, and the failure of one
+     * organization does not stop the calculation of the others.
+     * 
+     * @return <code>false</code> if the calculation failed for at least one
+     *         organization
      */
     public boolean performBrokerSharesCalculationRun(long startDate,
             long endDate);
@@ -40,4 +48,12 @@ public interface SharesCalculatorLocal {
     public void performSupplierSharesCalculationRun(long startOfLastMonth,
             long endOfLastMonth, Long supplierKey) throws Exception;
 
+    /**
+     * Calculates the revenue shares of the organizations of the given run
+     * until all of them have been taken. Used as additional worker of a
+     * calculation run.
+     */
+    public Future<Boolean> performSharesCalculationWorker(
+            SharesCalculationRun run);
+
 }
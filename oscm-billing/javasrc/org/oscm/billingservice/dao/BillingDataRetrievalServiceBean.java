@@ -18,6 +18,7 @@ import java.math.BigDecimal;
 import java.net.URL;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -119,6 +120,44 @@ public class BillingDataRetrievalServiceBean implements
     private static final Log4jLogger LOGGER = LoggerFactory
             .getLogger(BillingDataRetrievalServiceBean.class);
 
+    /**
+     * Selects the change stamp values of the payment preview for each of the
+     * given subscriptions. History objects are never deleted, so counting the
+     * history entries of the subscription, its product, price model,
+     * technical product, customer and supplier detects each change of the data
+     * read by the billing calculation. Gathered events are counted and their
+     * highest key is added.
+     */
+    private static final String PAYMENT_PREVIEW_CHANGE_STAMPS = "SELECT s.key, "
+            + "(SELECT COUNT(h) FROM SubscriptionHistory h WHERE h.objKey = s.key), "
+            + "(SELECT COUNT(h) FROM UsageLicenseHistory h WHERE h.subscriptionObjKey = s.key), "
+            + "(SELECT COUNT(e) FROM GatheredEvent e WHERE e.dataContainer.subscriptionTKey = s.key), "
+            + "(SELECT MAX(e.key) FROM GatheredEvent e WHERE e.dataContainer.subscriptionTKey = s.key), "
+            + "(SELECT COUNT(h) FROM ProductHistory h WHERE h.objKey = p.key), "
+            + "(SELECT COUNT(DISTINCT h.key) FROM ParameterHistory h, ProductHistory ph WHERE ph.objKey = p.key AND h.parameterSetObjKey = ph.parameterSetObjKey), "
+            + "(SELECT COUNT(h) FROM PriceModelHistory h WHERE h.productObjKey = p.key), "
+            + "(SELECT COUNT(DISTINCT h.key) FROM PricedEventHistory h, PriceModelHistory pm WHERE pm.productObjKey = p.key AND h.priceModelObjKey = pm.objKey), "
+            + "(SELECT COUNT(DISTINCT h.key) FROM PricedParameterHistory h, PriceModelHistory pm WHERE pm.productObjKey = p.key AND h.priceModelObjKey = pm.objKey), "
+            + "(SELECT COUNT(DISTINCT h.key) FROM PricedOptionHistory h, PricedParameterHistory pp, PriceModelHistory pm WHERE pm.productObjKey = p.key AND pp.priceModelObjKey = pm.objKey AND h.pricedParameterObjKey = pp.objKey), "
+            + "(SELECT COUNT(DISTINCT h.key) FROM PricedProductRoleHistory h, PriceModelHistory pm WHERE pm.productObjKey = p.key AND h.priceModelObjKey = pm.objKey), "
+            + "(SELECT COUNT(DISTINCT h.key) FROM SteppedPriceHistory h, PriceModelHistory pm WHERE pm.productObjKey = p.key AND h.priceModelObjKey = pm.objKey), "
+            + "(SELECT COUNT(h) FROM EventHistory h WHERE h.technicalProductObjKey = t.key), "
+            + "(SELECT COUNT(h) FROM ParameterDefinitionHistory h WHERE h.technicalProductObjKey = t.key), "
+            + "(SELECT COUNT(DISTINCT h.key) FROM ParameterOptionHistory h, ParameterDefinitionHistory pd WHERE pd.technicalProductObjKey = t.key AND h.parameterDefObjKey = pd.objKey), "
+            + "(SELECT COUNT(h) FROM RoleDefinitionHistory h WHERE h.technicalProductObjKey = t.key), "
+            + "(SELECT COUNT(h) FROM OrganizationHistory h WHERE h.objKey = o.key OR h.objKey = v.key), "
+            + "(SELECT COUNT(h) FROM OrganizationReferenceHistory h WHERE h.sourceObjKey = v.key AND h.targetObjKey = o.key), "
+            + "(SELECT COUNT(DISTINCT h.key) FROM DiscountHistory h, OrganizationReferenceHistory r WHERE r.sourceObjKey = v.key AND r.targetObjKey = o.key AND h.organizationReferenceObjKey = r.objKey), "
+            + "(SELECT COUNT(h) FROM VatRateHistory h WHERE h.owningOrganizationObjKey = v.key), "
+            + "(SELECT COUNT(h) FROM BillingContactHistory h WHERE h.organizationObjKey = o.key), "
+            + "(SELECT COUNT(h) FROM PaymentInfoHistory h WHERE h.organizationObjKey = o.key), "
+            + "(SELECT COUNT(DISTINCT h.key) FROM PaymentTypeHistory h, PaymentInfoHistory pi WHERE pi.organizationObjKey = o.key AND h.objKey = pi.paymentTypeObjKey), "
+            + "(SELECT COUNT(h) FROM UdaDefinitionHistory h WHERE h.organizationObjKey = o.key OR h.organizationObjKey = v.key), "
+            + "(SELECT COUNT(DISTINCT h.key) FROM UdaHistory h, UdaDefinitionHistory d WHERE (d.organizationObjKey = o.key OR d.organizationObjKey = v.key) AND h.udaDefinitionObjKey = d.objKey), "
+            + "(SELECT COUNT(h) FROM UserGroupHistory h WHERE h.organizationObjKey = o.key) "
+            + "FROM Subscription s JOIN s.product p JOIN p.technicalProduct t JOIN s.organization o JOIN p.vendor v "
+            + "WHERE s.key IN (:subscriptionKeys)";
+
     @EJB(beanInterface = DataService.class)
     DataService dm;
 
@@ -999,6 +1038,21 @@ public class BillingDataRetrievalServiceBean implements
         return result;
     }
 
+    @Override
+    @TransactionAttribute(TransactionAttributeType.MANDATORY)
+    public List<Long> loadSubscriptionKeysForCustomer(long organizationKey,
+            long startDate, long endDate, int firstResult, int maxResults) {
+        Query query = dm
+                .createNamedQuery("SubscriptionHistory.getSubscriptionKeysForOrganization");
+        query.setParameter("organizationKey", Long.valueOf(organizationKey));
+        query.setParameter("startDate", new Date(startDate));
+        query.setParameter("endDate", new Date(endDate));
+        query.setParameter("external", true);
+        query.setFirstResult(firstResult);
+        query.setMaxResults(maxResults);
+        return ParameterizedTypes.list(query.getResultList(), Long.class);
+    }
+
     @Override
     @TransactionAttribute(TransactionAttributeType.MANDATORY)
     public List<SubscriptionHistory> loadSubscriptionsForCustomer(
@@ -1454,4 +1508,26 @@ public class BillingDataRetrievalServiceBean implements
             return (UserGroupHistory) qryresult.get(0);
         }
     }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.MANDATORY)
+    public Map<Long, String> loadPaymentPreviewChangeStamps(
+            Collection<Long> subscriptionKeys) {
+        Map<Long, String> changeStamps = new HashMap<Long, String>();
+        if (subscriptionKeys.isEmpty()) {
+            return changeStamps;
+        }
+        Query query = dm.createQuery(PAYMENT_PREVIEW_CHANGE_STAMPS);
+        query.setParameter("subscriptionKeys", subscriptionKeys);
+        for (Object[] row : ParameterizedTypes.list(query.getResultList(),
+                Object[].class)) {
+            StringBuilder stamp = new StringBuilder();
+            for (int i = 1; i < row.length; i++) {
+                stamp.append(i > 1 ? "/" : "").append(row[i]);
+            }
+            changeStamps.put(Long.valueOf(((Number) row[0]).longValue()),
+                    stamp.toString());
+        }
+        return changeStamps;
+    }
 }
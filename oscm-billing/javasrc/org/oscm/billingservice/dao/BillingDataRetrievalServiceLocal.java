@@ -9,6 +9,7 @@
 package org.oscm.billingservice.dao;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -288,6 +289,30 @@ public interface BillingDataRetrievalServiceLocal {
     public List<SubscriptionHistory> loadSubscriptionsForCustomer(
             long organizationKey, long startDate, long endDate, int cutOffDay);
 
+    /**
+     * Loads the keys of a page of the subscriptions of the given organization
+     * which have subscription history objects relevant for the given time
+     * period, in ascending order. Together with
+     * {@link #loadSubscriptionHistoriesForBillingPeriod(List, long, long)} this
+     * loads the same data as
+     * {@link #loadSubscriptionsForCustomer(long, long, long, int)} without a
+     * cutOffDay, but only for the subscriptions of the page.
+     *
+     * @param organizationKey
+     *            The technical key of the organization
+     * @param startDate
+     *            the start date of the billing period in milliseconds
+     * @param endDate
+     *            the end date of the billing period in milliseconds
+     * @param firstResult
+     *            the index of the first subscription of the page
+     * @param maxResults
+     *            the maximum number of subscriptions of the page
+     * @return the sorted subscription keys of the page
+     */
+    public List<Long> loadSubscriptionKeysForCustomer(long organizationKey,
+            long startDate, long endDate, int firstResult, int maxResults);
+
     /**
      * Loads the billing data for the given time period. The billing data
      * contains the the subscription history objects for all subscriptions.
@@ -573,4 +598,20 @@ public interface BillingDataRetrievalServiceLocal {
      */
     public UserGroupHistory getLastValidGroupHistory(long groupKey,
             long endOfBillingPeriod);
+
+    /**
+     * Determines the change stamps of the data the payment preview of the
+     * given subscriptions is calculated from. The change stamp of a
+     * subscription changes whenever the subscription, its usage licenses or
+     * events, or the product, price model, parameter, customer or supplier
+     * data of the subscription read by the billing calculation is changed,
+     * because history objects are never deleted. Changes of other
+     * subscriptions or organizations do not affect the change stamp.
+     *
+     * @param subscriptionKeys
+     *            the technical keys of the subscriptions
+     * @return the change stamps mapped by the subscription keys
+     */
+    public Map<Long, String> loadPaymentPreviewChangeStamps(
+            Collection<Long> subscriptionKeys);
 }
@@ -14,6 +14,7 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.security.RolesAllowed;
@@ -85,6 +86,19 @@ public class BillingServiceBean implements BillingService, BillingServiceLocal {
     private static final Log4jLogger LOGGER = LoggerFactory
             .getLogger(BillingServiceBean.class);
 
+    /**
+     * The billing results calculated for the payment preview, shared by all
+     * bean instances.
+     */
+    private static final PaymentPreviewCache PAYMENT_PREVIEW_CACHE = new PaymentPreviewCache();
+
+    /**
+     * The payment preview is calculated up to the current time truncated to
+     * full quarter hours, so repeated previews within a quarter hour are
+     * calculated for the same period and can be taken from the cache.
+     */
+    static final int PAYMENT_PREVIEW_END_MINUTES = 15;
+
     @EJB(beanInterface = ConfigurationServiceLocal.class)
     protected ConfigurationServiceLocal cfgMgmt;
 
@@ -170,21 +184,18 @@ public class BillingServiceBean implements BillingService, BillingServiceLocal {
     }
 
     boolean performShareCalculationRun(DataProviderTimerBased billingRunProvider) {
+        long start = billingRunProvider.getPeriodRevenueSharesStart();
+        long end = billingRunProvider.getPeriodRevenueSharesEnd();
+        // all share types are calculated even if one of them failed, so only
+        // the failed organizations have to be calculated again
         boolean success = sharesCalculator.performBrokerSharesCalculationRun(
-                billingRunProvider.getPeriodRevenueSharesStart(),
-                billingRunProvider.getPeriodRevenueSharesEnd());
-        success = success
-                && sharesCalculator.performMarketplacesSharesCalculationRun(
-                        billingRunProvider.getPeriodRevenueSharesStart(),
-                        billingRunProvider.getPeriodRevenueSharesEnd());
-        success = success
-                && sharesCalculator.performResellerSharesCalculationRun(
-                        billingRunProvider.getPeriodRevenueSharesStart(),
-                        billingRunProvider.getPeriodRevenueSharesEnd());
-        success = success
-                && sharesCalculator.performSupplierSharesCalculationRun(
-                        billingRunProvider.getPeriodRevenueSharesStart(),
-                        billingRunProvider.getPeriodRevenueSharesEnd());
+                start, end);
+        success &= sharesCalculator.performMarketplacesSharesCalculationRun(
+                start, end);
+        success &= sharesCalculator.performResellerSharesCalculationRun(
+                start, end);
+        success &= sharesCalculator.performSupplierSharesCalculationRun(
+                start, end);
         return success;
     }
 
@@ -292,6 +303,62 @@ public class BillingServiceBean implements BillingService, BillingServiceLocal {
         return result;
     }
 
+    /**
+     * Execute the billing calculation for the payment preview report. The
+     * billing results of subscriptions whose data did not change since the
+     * last payment preview for the same period are taken from the cache, only
+     * the other subscriptions are calculated.
+     */
+    BillingRun executePaymentPreview(DataProvider dataProvider) {
+        BillingRun result = new BillingRun(dataProvider.getPeriodStart(),
+                dataProvider.getPeriodEnd());
+
+        Set<Long> subscriptionKeys = new HashSet<>();
+        for (BillingInput billingInput : dataProvider.getBillingInput()) {
+            subscriptionKeys.add(Long.valueOf(billingInput
+                    .getSubscriptionKey()));
+        }
+        Map<Long, String> changeStamps = bdr
+                .loadPaymentPreviewChangeStamps(subscriptionKeys);
+
+        for (BillingInput billingInput : dataProvider.getBillingInput()) {
+            String changeStamp = changeStamps.get(Long.valueOf(billingInput
+                    .getSubscriptionKey()));
+            if (changeStamp != null) {
+                // the time dependent charges change with the period end
+                changeStamp = dataProvider.getPeriodEnd() + "/" + changeStamp;
+            }
+            try {
+                BillingResult bill = PAYMENT_PREVIEW_CACHE.get(billingInput,
+                        changeStamp);
+                if (bill == null) {
+                    bill = revenueCalculator
+                            .performBillingRunForSubscription(billingInput);
+                    PAYMENT_PREVIEW_CACHE.put(billingInput, changeStamp, bill);
+                }
+
+                if (!Strings.isEmpty(bill.getResultXML())) {
+                    result.addBillingResult(bill);
+                }
+            } catch (Exception e) {
+                logBillingRunFailed(e, billingInput);
+                result.clearBillingResults();
+                result.setSuccessful(false);
+                return result;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes all billing results of the payment preview cache. <b>Should only
+     * be used for unit testing!</b>
+     */
+    public static void clearPaymentPreviewCache() {
+        PAYMENT_PREVIEW_CACHE.clear();
+    }
+
     private void logBillingRunFailed(Exception e, BillingInput billingInput) {
         long billingPeriodStart = billingInput.getBillingPeriodStart();
         long billingPeriodEnd = billingInput.getBillingPeriodEnd();
@@ -319,26 +386,66 @@ public class BillingServiceBean implements BillingService, BillingServiceLocal {
                 : new ArrayList<BillingResult>();
     }
 
+    @Override
+    public List<BillingResult> generateBillingForAnyPeriod(long start,
+            long end, long organizationKey, int firstSubscription,
+            int maxSubscriptions) throws BillingRunFailed {
+        DataProviderAnyPeriod billingAnyPeriodProvider = new DataProviderAnyPeriod(
+                bdr, start, end, organizationKey, null, false,
+                firstSubscription, maxSubscriptions, dm);
+        if (billingAnyPeriodProvider.getPageSubscriptionCount() == 0) {
+            return null;
+        }
+        BillingRun billingRun = executeBilling(billingAnyPeriodProvider);
+        if (!billingRun.isSuccessful()) {
+            throw new BillingRunFailed("Billing data of organization "
+                    + organizationKey + " starting at subscription "
+                    + firstSubscription + " could not be calculated");
+        }
+        return billingRun.getBillingResultList();
+    }
+
     @Override
     public BillingRun generatePaymentPreviewReport(long organizationKey)
             throws BillingRunFailed {
-        final long periodEnd = DateFactory.getInstance().getTransactionTime();
+        final long periodEnd = determinePeriodEndForPaymentPreview(DateFactory
+                .getInstance().getTransactionTime());
         final long periodStart = determinePeriodStartForPaymentPreview(periodEnd);
 
-        return executeBilling(new DataProviderAnyPeriod(bdr, periodStart,
+        return executePaymentPreview(new DataProviderAnyPeriod(bdr, periodStart,
                 periodEnd, organizationKey, null, true, dm));
     }
 
     @Override
     public BillingRun generatePaymentPreviewReport(long organizationKey,
             List<Long> unitKeys) throws BillingRunFailed {
-        final long periodEnd = DateFactory.getInstance().getTransactionTime();
+        final long periodEnd = determinePeriodEndForPaymentPreview(DateFactory
+                .getInstance().getTransactionTime());
         final long periodStart = determinePeriodStartForPaymentPreview(periodEnd);
 
-        return executeBilling(new DataProviderAnyPeriod(bdr, periodStart,
+        return executePaymentPreview(new DataProviderAnyPeriod(bdr, periodStart,
                 periodEnd, organizationKey, unitKeys, true, dm));
     }
 
+    /**
+     * Truncates the current time to the resolution of the payment preview. The
+     * current time is kept if the truncated time would be the start of the
+     * month, which would not be included in the preview.
+     */
+    long determinePeriodEndForPaymentPreview(final long now) {
+        Calendar periodEnd = Calendar.getInstance();
+        periodEnd.setTimeInMillis(now);
+        int minute = periodEnd.get(Calendar.MINUTE);
+        periodEnd.set(Calendar.MINUTE, minute - minute
+                % PAYMENT_PREVIEW_END_MINUTES);
+        periodEnd.set(Calendar.SECOND, 0);
+        periodEnd.set(Calendar.MILLISECOND, 0);
+        if (periodEnd.getTimeInMillis() == determinePeriodStartForPaymentPreview(now)) {
+            return now;
+        }
+        return periodEnd.getTimeInMillis();
+    }
+
     private long determinePeriodStartForPaymentPreview(final long periodEnd) {
         Calendar periodStart = Calendar.getInstance();
         periodStart.setTimeInMillis(periodEnd);
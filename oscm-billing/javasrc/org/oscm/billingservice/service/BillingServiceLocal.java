@@ -67,6 +67,33 @@ public interface BillingServiceLocal {
     public List<BillingResult> generateBillingForAnyPeriod(long startOfPeriod,
             long endOfPeriod, long organizationKey) throws BillingRunFailed;
 
+    /**
+     * Calculates the billing results of a page of the subscriptions of the
+     * organization in the given timeframe. The subscriptions are ordered by
+     * their technical key, so the billing data of all subscriptions can be
+     * read page by page without calculating it at once.
+     * 
+     * @param startOfPeriod
+     *            The start date of the period in milliseconds.
+     * @param endOfPeriod
+     *            The end date of the period in milliseconds.
+     * @param organizationKey
+     *            The technical key of the organization.
+     * @param firstSubscription
+     *            The index of the first subscription of the page.
+     * @param maxSubscriptions
+     *            The maximum number of subscriptions of the page.
+     * @return The billing results of the subscriptions of the page with
+     *         costs, or <code>null</code> if the page starts behind the last
+     *         subscription.
+     * @throws BillingRunFailed
+     *             Thrown in case the billing data of a subscription of the
+     *             page could not be calculated
+     */
+    public List<BillingResult> generateBillingForAnyPeriod(long startOfPeriod,
+            long endOfPeriod, long organizationKey, int firstSubscription,
+            int maxSubscriptions) throws BillingRunFailed;
+
     /**
      * Calculates the billing results for a customer payment preview from
      * current date time until the last invoiced subscriptions.
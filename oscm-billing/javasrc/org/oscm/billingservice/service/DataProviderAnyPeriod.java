@@ -51,16 +51,40 @@ public class DataProviderAnyPeriod extends DataProvider {
     private final boolean preview;
     private final long initialPeriodStart;
     private final long initialPeriodEnd;
+    private final int firstSubscription;
+    private final int maxSubscriptions;
+    private int pageSubscriptionCount;
 
     public DataProviderAnyPeriod(BillingDataRetrievalServiceLocal bdr,
             long periodStart, long periodEnd, long organizationKey,
             List<Long> unitKeys, boolean preview, DataService dm) {
+        this(bdr, periodStart, periodEnd, organizationKey, unitKeys, preview,
+                0, Integer.MAX_VALUE, dm);
+    }
+
+    /**
+     * Provides the billing input of a page of the subscriptions of the
+     * organization, ordered by their technical key. Only the subscription
+     * histories of the page are loaded. Paging is not supported together with
+     * organizational units.
+     * 
+     * @param firstSubscription
+     *            the index of the first subscription to be billed
+     * @param maxSubscriptions
+     *            the maximum number of subscriptions to be billed
+     */
+    public DataProviderAnyPeriod(BillingDataRetrievalServiceLocal bdr,
+            long periodStart, long periodEnd, long organizationKey,
+            List<Long> unitKeys, boolean preview, int firstSubscription,
+            int maxSubscriptions, DataService dm) {
         Invariants.assertNotNull(bdr,
                 "BillingDataRetrievalServiceLocal must not be null!");
         Invariants.assertTrue(periodStart > 0, "period start have to be set!");
         Invariants.assertTrue(periodEnd > 0, "period end have to be set!");
         Invariants.assertTrue(organizationKey > 0,
                 "organization key have to be set!");
+        Invariants.assertTrue(unitKeys == null || !isPaged(firstSubscription,
+                maxSubscriptions), "units can not be billed page by page!");
         this.initialPeriodStart = periodStart;
         this.initialPeriodEnd = periodEnd;
         this.periodStart = periodStart;
@@ -68,6 +92,8 @@ public class DataProviderAnyPeriod extends DataProvider {
         this.organizationKey = organizationKey;
         this.unitKeys = unitKeys;
         this.preview = preview;
+        this.firstSubscription = firstSubscription;
+        this.maxSubscriptions = maxSubscriptions;
         this.billingInputList = loadBillingInputList(bdr, dm);
     }
 
@@ -85,6 +111,18 @@ public class DataProviderAnyPeriod extends DataProvider {
         return initialPeriodEnd;
     }
 
+    /**
+     * Returns the number of subscriptions of the requested page to be billed,
+     * which is zero if the page starts behind the last subscription.
+     */
+    public int getPageSubscriptionCount() {
+        return pageSubscriptionCount;
+    }
+
+    private static boolean isPaged(int firstSubscription, int maxSubscriptions) {
+        return firstSubscription > 0 || maxSubscriptions < Integer.MAX_VALUE;
+    }
+
     private long getMinimumStartDate(List<SubscriptionHistory> subs) {
         long min = Long.MAX_VALUE;
         for (SubscriptionHistory sub : subs) {
@@ -114,6 +152,7 @@ public class DataProviderAnyPeriod extends DataProvider {
             DataService dm) {
         final CustomerData customerData = new CustomerData(
                 loadSubscriptions(bdr));
+        pageSubscriptionCount = customerData.getSubscriptionKeys().size();
         final List<BillingInput> result = new ArrayList<>();
         for (Long subscriptionKey : customerData.getSubscriptionKeys()) {
             processSubscriptionKey(bdr, customerData, result, subscriptionKey);
@@ -143,10 +182,21 @@ public class DataProviderAnyPeriod extends DataProvider {
      * period are overlapping. So, in order to include those subscription we add
      * a little bit more than one month (a precise starting date is not
      * important, because the billing will filter all non relevant data anyway).
+     * For a page, only the keys of its subscriptions are selected and only
+     * their histories are loaded.
      */
     private List<SubscriptionHistory> loadSubscriptions(
             BillingDataRetrievalServiceLocal bdr) {
-        if (unitKeys == null) {
+        if (isPaged(firstSubscription, maxSubscriptions)) {
+            List<Long> subscriptionKeys = bdr.loadSubscriptionKeysForCustomer(
+                    organizationKey, periodStart, periodEnd,
+                    firstSubscription, maxSubscriptions);
+            if (subscriptionKeys.isEmpty()) {
+                return new ArrayList<>();
+            }
+            return bdr.loadSubscriptionHistoriesForBillingPeriod(
+                    subscriptionKeys, periodStart, periodEnd);
+        } else if (unitKeys == null) {
             return bdr.loadSubscriptionsForCustomer(organizationKey,
                     periodStart, periodEnd, -1);
         } else {
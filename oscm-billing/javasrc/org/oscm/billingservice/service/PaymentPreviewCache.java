@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.billingservice.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.oscm.billingservice.dao.BillingDataRetrievalServiceLocal;
+import org.oscm.billingservice.service.model.BillingInput;
+import org.oscm.domobjects.BillingResult;
+
+/**
+ * Cache of the billing results calculated for the customer payment preview.
+ * The results of a subscription are kept together with the change stamp of the
+ * data they were calculated from (see
+ * {@link BillingDataRetrievalServiceLocal#loadPaymentPreviewChangeStamps(java.util.Collection)}
+ * ) and the end of the preview period. The results are mapped by the period
+ * start and the other attributes of the billing input except the period end,
+ * which follows from the change stamp. A cached result is only returned for
+ * the same billing input and the same change stamp, so it is identical to the
+ * result of a new calculation. The results of the least recently used
+ * subscriptions are removed if the cache is full.
+ */
+class PaymentPreviewCache {
+
+    /**
+     * The maximum number of subscriptions whose billing results are cached.
+     */
+    static final int MAX_SUBSCRIPTIONS = 10000;
+
+    private final Map<Long, CachedResults> entries = Collections
+            .synchronizedMap(new LinkedHashMap<Long, CachedResults>(16,
+                    0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<Long, CachedResults> eldest) {
+                    return size() > MAX_SUBSCRIPTIONS;
+                }
+            });
+
+    /**
+     * Returns a copy of the cached billing result for the given billing input,
+     * or <code>null</code> if no result was calculated for the input with the
+     * given change stamp.
+     */
+    BillingResult get(BillingInput billingInput, String changeStamp) {
+        if (changeStamp == null) {
+            return null;
+        }
+        CachedResults entry = entries.get(Long.valueOf(billingInput
+                .getSubscriptionKey()));
+        if (entry == null || !entry.changeStamp.equals(changeStamp)) {
+            return null;
+        }
+        BillingResult result = entry.results.get(getKey(billingInput));
+        return result == null ? null : copy(result);
+    }
+
+    /**
+     * Caches a copy of the billing result calculated for the given billing
+     * input with the given change stamp. The results of the subscription
+     * cached for other change stamps are removed.
+     */
+    void put(BillingInput billingInput, String changeStamp,
+            BillingResult result) {
+        if (changeStamp == null) {
+            return;
+        }
+        Long subscriptionKey = Long.valueOf(billingInput.getSubscriptionKey());
+        synchronized (entries) {
+            CachedResults entry = entries.get(subscriptionKey);
+            Map<String, BillingResult> results = new HashMap<String, BillingResult>();
+            if (entry != null && entry.changeStamp.equals(changeStamp)) {
+                results.putAll(entry.results);
+            }
+            results.put(getKey(billingInput), copy(result));
+            entries.put(subscriptionKey, new CachedResults(changeStamp,
+                    results));
+        }
+    }
+
+    /**
+     * Removes all cached billing results.
+     */
+    void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the key of the billing input among the inputs of its
+     * subscription. The period end is part of the change stamp instead.
+     */
+    private static String getKey(BillingInput billingInput) {
+        return billingInput.getOrganizationKey() + "/"
+                + billingInput.getBillingPeriodStart() + "/"
+                + billingInput.getCutOffDate() + "/"
+                + billingInput.getCurrencyIsoCode() + "/"
+                + billingInput.getUserGroupKey();
+    }
+
+    /**
+     * Copies the billing result, setting the current time as creation time
+     * like a new calculation.
+     */
+    private static BillingResult copy(BillingResult result) {
+        BillingResult copy = new BillingResult();
+        copy.setCreationTime(System.currentTimeMillis());
+        copy.setOrganizationTKey(result.getOrganizationTKey());
+        copy.setPeriodStartTime(result.getPeriodStartTime());
+        copy.setPeriodEndTime(result.getPeriodEndTime());
+        copy.setSubscriptionKey(result.getSubscriptionKey());
+        copy.setUsergroupKey(result.getUsergroupKey());
+        copy.setChargingOrgKey(result.getChargingOrgKey());
+        copy.setVendorKey(result.getVendorKey());
+        copy.setCurrency(result.getCurrency());
+        copy.setNetAmount(result.getNetAmount());
+        copy.setGrossAmount(result.getGrossAmount());
+        copy.setResultXML(result.getResultXML());
+        return copy;
+    }
+
+    private static class CachedResults {
+
+        final String changeStamp;
+        final Map<String, BillingResult> results;
+
+        CachedResults(String changeStamp,
+                Map<String, BillingResult> results) {
+            this.changeStamp = changeStamp;
+            this.results = results;
+        }
+    }
+}
@@ -214,6 +214,7 @@ public class BrandServiceBean implements BrandService {
                 vo = new VOImageResource();
                 vo.setBuffer(imageResource.getBuffer());
                 vo.setContentType(imageResource.getContentType());
+                vo.setContentHash(imageResource.getContentHash());
                 vo.setImageType(imageType);
             }
         }
@@ -0,0 +1,45 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link ContentHashConverter}.
+ */
+public class ContentHashConverterTest {
+
+    @Test
+    public void toContentHash() throws Exception {
+        // when
+        String hash = ContentHashConverter.toContentHash("abc"
+                .getBytes("UTF-8"));
+
+        // then
+        assertEquals(
+                "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad",
+                hash);
+    }
+
+    @Test
+    public void toContentHash_differentContent() throws Exception {
+        // when
+        String hash1 = ContentHashConverter.toContentHash(new byte[] { 1 });
+        String hash2 = ContentHashConverter.toContentHash(new byte[] { 2 });
+
+        // then
+        assertFalse(hash1.equals(hash2));
+    }
+
+    @Test
+    public void toContentHash_null() {
+        // when, then
+        assertNull(ContentHashConverter.toContentHash(null));
+    }
+}
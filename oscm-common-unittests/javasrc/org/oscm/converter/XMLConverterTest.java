@@ -11,6 +11,7 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
@@ -343,6 +344,24 @@ public class XMLConverterTest {
         assertArrayEquals(expected.getBytes("UTF-8"), xml);
     }
 
+    @Test
+    public void testCombine_schemaHeader() throws Exception {
+        final List<String> fragments = Arrays.asList("<a/>");
+        byte[] xml = XMLConverter.combine("root", fragments, "xmlns=\"x\"");
+        String expected = String
+                .format("<?xml version=\"1.0\" encoding=\"UTF-8\"?>%n<root xmlns=\"x\">%n<a/>%n</root>%n");
+        assertArrayEquals(expected.getBytes("UTF-8"), xml);
+    }
+
+    @Test
+    public void testCombine_stream() throws Exception {
+        final List<String> fragments = Arrays.asList("<a>\u00e4</a>", "<b/>");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XMLConverter.combine("root", null, fragments, out);
+        assertArrayEquals(XMLConverter.combine("root", fragments),
+                out.toByteArray());
+    }
+
     @Test
     public void removeEOLCharsfromXML() throws Exception {
         // given
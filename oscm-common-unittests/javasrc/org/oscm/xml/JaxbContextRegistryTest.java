@@ -0,0 +1,200 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class JaxbContextRegistryTest {
+
+    @XmlRootElement
+    public static class Item {
+        public String name;
+    }
+
+    @After
+    public void tearDown() {
+        JaxbContextRegistry.clear();
+    }
+
+    @Test
+    public void getContext_shared() throws Exception {
+        assertSame(JaxbContextRegistry.getContext(Item.class),
+                JaxbContextRegistry.getContext(Item.class));
+    }
+
+    @Test
+    public void acquireMarshaller_reusesReleased() throws Exception {
+        // given
+        Marshaller marshaller = JaxbContextRegistry
+                .acquireMarshaller(Item.class);
+
+        // when
+        JaxbContextRegistry.releaseMarshaller(Item.class, marshaller);
+
+        // then
+        assertSame(marshaller,
+                JaxbContextRegistry.acquireMarshaller(Item.class));
+    }
+
+    @Test
+    public void acquireMarshaller_notReleased() throws Exception {
+        // given
+        Marshaller marshaller = JaxbContextRegistry
+                .acquireMarshaller(Item.class);
+
+        // when
+        Marshaller other = JaxbContextRegistry.acquireMarshaller(Item.class);
+
+        // then
+        assertNotSame(marshaller, other);
+    }
+
+    @Test
+    public void releaseMarshaller_resetsProperties() throws Exception {
+        // given
+        Marshaller marshaller = JaxbContextRegistry
+                .acquireMarshaller(Item.class);
+        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+
+        // when
+        JaxbContextRegistry.releaseMarshaller(Item.class, marshaller);
+
+        // then
+        assertEquals(Boolean.FALSE,
+                marshaller.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+        assertEquals(Boolean.FALSE,
+                marshaller.getProperty(Marshaller.JAXB_FRAGMENT));
+    }
+
+    @Test
+    public void releaseMarshaller_notResettable() throws Exception {
+        // given
+        Marshaller marshaller = mock(Marshaller.class);
+        doThrow(new JAXBException("")).when(marshaller).setProperty(
+                anyString(), any());
+
+        // when
+        JaxbContextRegistry.releaseMarshaller(Item.class, marshaller);
+
+        // then
+        assertNotSame(marshaller,
+                JaxbContextRegistry.acquireMarshaller(Item.class));
+    }
+
+    @Test
+    public void releaseMarshaller_null() throws Exception {
+        JaxbContextRegistry.releaseMarshaller(null, mock(Marshaller.class));
+        JaxbContextRegistry.releaseMarshaller(Item.class, null);
+    }
+
+    @Test
+    public void releaseMarshaller_poolFull() throws Exception {
+        // given
+        for (int i = 0; i < JaxbContextRegistry.MAX_POOL_SIZE; i++) {
+            JaxbContextRegistry.releaseMarshaller(Item.class,
+                    JaxbContextRegistry.getContext(Item.class)
+                            .createMarshaller());
+        }
+        Marshaller marshaller = JaxbContextRegistry.getContext(Item.class)
+                .createMarshaller();
+
+        // when
+        JaxbContextRegistry.releaseMarshaller(Item.class, marshaller);
+
+        // then
+        for (int i = 0; i < JaxbContextRegistry.MAX_POOL_SIZE; i++) {
+            assertNotSame(marshaller,
+                    JaxbContextRegistry.acquireMarshaller(Item.class));
+        }
+    }
+
+    @Test
+    public void marshalAndUnmarshal() throws Exception {
+        // given
+        Item item = new Item();
+        item.name = "test";
+        StringWriter xml = new StringWriter();
+
+        // when
+        Marshaller marshaller = JaxbContextRegistry
+                .acquireMarshaller(Item.class);
+        marshaller.marshal(item, xml);
+        JaxbContextRegistry.releaseMarshaller(Item.class, marshaller);
+        Unmarshaller unmarshaller = JaxbContextRegistry
+                .acquireUnmarshaller(Item.class);
+        Item result = unmarshaller.unmarshal(
+                new StreamSource(new StringReader(xml.toString())), Item.class)
+                .getValue();
+        JaxbContextRegistry.releaseUnmarshaller(Item.class, unmarshaller);
+
+        // then
+        assertEquals("test", result.name);
+        assertSame(unmarshaller,
+                JaxbContextRegistry.acquireUnmarshaller(Item.class));
+    }
+
+    @Test
+    public void clear_classLoader() throws Exception {
+        // given
+        JAXBContext context = JaxbContextRegistry.getContext(Item.class);
+        Marshaller marshaller = JaxbContextRegistry
+                .acquireMarshaller(Item.class);
+        JaxbContextRegistry.releaseMarshaller(Item.class, marshaller);
+
+        // when
+        JaxbContextRegistry.clear(Item.class.getClassLoader());
+
+        // then
+        assertNotSame(context, JaxbContextRegistry.getContext(Item.class));
+        assertNotSame(marshaller,
+                JaxbContextRegistry.acquireMarshaller(Item.class));
+    }
+
+    @Test
+    public void clear_otherClassLoader() throws Exception {
+        // given
+        JAXBContext context = JaxbContextRegistry.getContext(Item.class);
+        ClassLoader other = new URLClassLoader(new URL[0], null);
+
+        // when
+        JaxbContextRegistry.clear(other);
+
+        // then
+        assertSame(context, JaxbContextRegistry.getContext(Item.class));
+    }
+
+    @Test
+    public void isLoadedBy_parentLoader() {
+        ClassLoader loader = Item.class.getClassLoader();
+        ClassLoader child = new URLClassLoader(new URL[0], loader);
+
+        assertTrue(JaxbContextRegistry.isLoadedBy(Item.class, loader));
+        assertFalse(JaxbContextRegistry.isLoadedBy(Item.class, child));
+    }
+}
@@ -0,0 +1,49 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.converter;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Converts binary content into a hash value which identifies the content, e.g.
+ * to be used as HTTP entity tag or as cache key.
+ */
+public class ContentHashConverter {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Calculates the SHA-256 hash of the given content.
+     * 
+     * @param content
+     *            the content, may be <code>null</code>
+     * @return the hash as lower case hexadecimal string with 64 characters, or
+     *         <code>null</code> if the content is <code>null</code>
+     */
+    public static String toContentHash(byte[] content) {
+        if (content == null) {
+            return null;
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance(ALGORITHM).digest(content);
+            return toHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // Must not happen for SHA-256
+            throw new AssertionError(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] result = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            result[2 * i] = HEX_DIGITS[(bytes[i] >> 4) & 0x0f];
+            result[2 * i + 1] = HEX_DIGITS[bytes[i] & 0x0f];
+        }
+        return new String(result);
+    }
+}
@@ -8,11 +8,16 @@
 
 package org.oscm.converter;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
@@ -425,14 +430,7 @@ public class XMLConverter {
      * @return UTF-8 encoded XML file
      */
     public static byte[] combine(String rootname, List<String> fragments) {
-        final StringBuilder buffer = new StringBuilder();
-        buffer.append(HEADER);
-        buffer.append(String.format("<%s>%n", rootname));
-        for (final String f : fragments) {
-            buffer.append(String.format("%s%n", f));
-        }
-        buffer.append(String.format("</%s>%n", rootname));
-        return toUTF8(buffer.toString());
+        return combineToBytes(rootname, null, fragments);
     }
 
     /**
@@ -447,15 +445,106 @@ public class XMLConverter {
      */
     public static byte[] combine(String rootname, List<String> fragments,
             String schemaHeader) {
+        return combineToBytes(rootname, schemaHeader, fragments);
+    }
 
-        final StringBuilder buffer = new StringBuilder();
-        buffer.append(HEADER);
-        buffer.append(String.format("<%s %s>%n", rootname, schemaHeader));
+    private static byte[] combineToBytes(String rootname,
+            String schemaHeader, List<String> fragments) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            combine(rootname, schemaHeader, fragments, out);
+        } catch (IOException e) {
+            // a byte array stream does not fail
+            throw new AssertionError(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes the given fragments as a single UTF-8 encoded XML file with the
+     * given root element to the stream, one fragment after the other. The
+     * written file is the same as the one returned by
+     * {@link #combine(String, List, String)}, but it is not built in memory.
+     * The stream is flushed, but not closed.
+     * 
+     * @param rootname
+     *            name of the root element
+     * @param schemaHeader
+     *            the schema info added to the root element, may be
+     *            <code>null</code>
+     * @param fragments
+     *            XML fragments to include
+     * @param out
+     *            the stream to write to
+     * @throws IOException
+     *             if writing to the stream fails
+     */
+    public static void combine(String rootname, String schemaHeader,
+            Iterable<String> fragments, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out,
+                ENCODING_UTF8));
+        writeCombinedStart(writer, rootname, schemaHeader);
         for (final String f : fragments) {
-            buffer.append(String.format("%s%n", f));
+            writeCombinedFragment(writer, f);
         }
-        buffer.append(String.format("</%s>%n", rootname));
-        return toUTF8(buffer.toString());
+        writeCombinedEnd(writer, rootname);
+    }
+
+    /**
+     * Writes the XML header and the start tag of the root element of a
+     * combined XML file. Together with
+     * {@link #writeCombinedFragment(Writer, String)} and
+     * {@link #writeCombinedEnd(Writer, String)} the file can be written while
+     * the fragments are still being read, e.g. page by page. The writer must
+     * encode UTF-8 as declared by the header.
+     * 
+     * @param writer
+     *            the writer to write to
+     * @param rootname
+     *            name of the root element
+     * @param schemaHeader
+     *            the schema info added to the root element, may be
+     *            <code>null</code>
+     * @throws IOException
+     *             if writing fails
+     */
+    public static void writeCombinedStart(Writer writer, String rootname,
+            String schemaHeader) throws IOException {
+        writer.write(HEADER);
+        writer.write('<');
+        writer.write(rootname);
+        if (schemaHeader != null) {
+            writer.write(' ');
+            writer.write(schemaHeader);
+        }
+        writer.write('>');
+        writer.write(System.lineSeparator());
+    }
+
+    /**
+     * Writes a fragment of a combined XML file.
+     * 
+     * @see #writeCombinedStart(Writer, String, String)
+     */
+    public static void writeCombinedFragment(Writer writer, String fragment)
+            throws IOException {
+        writer.write(String.valueOf(fragment));
+        writer.write(System.lineSeparator());
+    }
+
+    /**
+     * Writes the end tag of the root element of a combined XML file and
+     * flushes the writer.
+     * 
+     * @see #writeCombinedStart(Writer, String, String)
+     */
+    public static void writeCombinedEnd(Writer writer, String rootname)
+            throws IOException {
+        writer.write("</");
+        writer.write(rootname);
+        writer.write('>');
+        writer.write(System.lineSeparator());
+        writer.flush();
     }
 
     /**
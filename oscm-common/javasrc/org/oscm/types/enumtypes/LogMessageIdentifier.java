@@ -42,6 +42,8 @@ public enum LogMessageIdentifier {
     INFO_USER_PAYMENT_RUN_STARTED("00022"), //
     INFO_USER_PAYMENT_RUN_FINISHED("00023"), //
     INFO_INSUFFICIENT_ROLE("00024"), //
+    INFO_REVENUE_SHARES_CALCULATION_PROGRESS("00025"), //
+    INFO_SUBSCRIPTION_INDEX_REBUILT("00026"), //
 
     // User operation log
     INFO_OPERATION_LOG_SUBSCR("30001"), //
@@ -410,6 +412,10 @@ public enum LogMessageIdentifier {
     WARN_GET_FILE_CONTENT_FAILED("40334"), //
     WARN_LDAP_PARTIAL_EXCEPTION("40335"), 
     WARN_TOO_MANY_CHARACTERS_FOR_PRICE_FROM_TAG("40336"), //
+    WARN_SERVICE_LISTING_CACHE("40337"), //
+    WARN_TASK_QUEUE_STATISTICS_NOT_REGISTERED("40338"), //
+    WARN_BILLING_ADAPTER_STATISTICS_NOT_REGISTERED("40339"), //
+    WARN_RATING_AGGREGATES_REPAIRED("40340"), //
 
     // Error log
     ERROR_USER_DELETION_FAILED("70001"), //
@@ -706,6 +712,8 @@ public enum LogMessageIdentifier {
     ERROR_RETRIEVAL_EXTERNAL_PRICE_MODEL_FAILED("70307"), //
     ERROR_SESSION_INDEX_NOT_FOUND("70308"), //
     ERROR_SAML2_INVALID_STATUS_CODE("70309"), //
+    ERROR_BILLING_ADAPTER_UNAVAILABLE("70310"), //
+    ERROR_SET_SUBSCRIPTION_TO_BRIDGE_OF_DOMAIN_OBJECT_FAILED("70311"), //
     ERROR("-00001"), DEBUG("00000"); /* Debug Log */
 
     String msgId;
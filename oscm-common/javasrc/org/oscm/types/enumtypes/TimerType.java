@@ -60,6 +60,14 @@ public enum TimerType {
     DISCOUNT_END_CHECK(Period.DAY,
             ConfigurationKey.TIMER_INTERVAL_DISCOUNT_END_NOTIFICATION_OFFSET),
 
+    /**
+     * Indicates a timer that checks the rating aggregates of all reviewed
+     * products against their reviews every day and repairs them if they
+     * differ.
+     */
+    REVIEW_RATING_CHECK(Period.DAY,
+            ConfigurationKey.TIMER_INTERVAL_REVIEW_RATING_CHECK_OFFSET),
+
     /**
      * Indicates a timer that will scan for inactive on-behalf users regularly
      * and remove them, if they are inactive for a longer time than specified in
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.xml;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * Holds one JAXB context per bound class and pools the marshallers and
+ * unmarshallers created from it. Creating a context is expensive, whereas the
+ * context itself is thread safe and can be shared. Marshallers and
+ * unmarshallers are not thread safe, so they are handed out to one caller at a
+ * time and must be released after use:
+ *
+ * <pre>
+ * Marshaller marshaller = JaxbContextRegistry.acquireMarshaller(type);
+ * try {
+ *     marshaller.marshal(obj, out);
+ * } finally {
+ *     JaxbContextRegistry.releaseMarshaller(type, marshaller);
+ * }
+ * </pre>
+ *
+ * Released instances get their standard properties, schema and event handler
+ * reset, so callers must set the properties they rely on after acquiring.
+ * <p>
+ * The registry is loaded by a class loader shared by the applications of the
+ * domain. Each application has to call {@link #clear(ClassLoader)} when it is
+ * undeployed, otherwise the registry keeps its classes loaded.
+ */
+public class JaxbContextRegistry {
+
+    /**
+     * The maximum number of idle marshallers and unmarshallers kept per class.
+     */
+    static final int MAX_POOL_SIZE = 16;
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final ConcurrentMap<Class<?>, JAXBContext> contexts = new ConcurrentHashMap<Class<?>, JAXBContext>();
+
+    private static final ConcurrentMap<Class<?>, Queue<Marshaller>> marshallers = new ConcurrentHashMap<Class<?>, Queue<Marshaller>>();
+
+    private static final ConcurrentMap<Class<?>, Queue<Unmarshaller>> unmarshallers = new ConcurrentHashMap<Class<?>, Queue<Unmarshaller>>();
+
+    /**
+     * Returns the shared context for the given class, creating it on first
+     * use.
+     */
+    public static JAXBContext getContext(Class<?> type) throws JAXBException {
+        JAXBContext context = contexts.get(type);
+        if (context == null) {
+            // concurrent first calls may create the context more than once,
+            // but only one instance is kept
+            context = JAXBContext.newInstance(type);
+            JAXBContext existing = contexts.putIfAbsent(type, context);
+            if (existing != null) {
+                context = existing;
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Returns an idle marshaller for the given class or creates a new one.
+     */
+    public static Marshaller acquireMarshaller(Class<?> type)
+            throws JAXBException {
+        Marshaller marshaller = pool(marshallers, type).poll();
+        if (marshaller == null) {
+            marshaller = getContext(type).createMarshaller();
+        }
+        return marshaller;
+    }
+
+    /**
+     * Returns a marshaller acquired for the given class to the pool. Nothing
+     * happens if one of the parameters is <code>null</code>, the pool is full
+     * or the marshaller cannot be reset.
+     */
+    public static void releaseMarshaller(Class<?> type, Marshaller marshaller) {
+        if (type == null || marshaller == null) {
+            return;
+        }
+        Queue<Marshaller> pool = pool(marshallers, type);
+        if (pool.size() >= MAX_POOL_SIZE) {
+            return;
+        }
+        try {
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, ENCODING);
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
+                    Boolean.FALSE);
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.FALSE);
+            marshaller.setSchema(null);
+            marshaller.setEventHandler(null);
+        } catch (JAXBException e) {
+            return;
+        }
+        pool.offer(marshaller);
+    }
+
+    /**
+     * Returns an idle unmarshaller for the given class or creates a new one.
+     */
+    public static Unmarshaller acquireUnmarshaller(Class<?> type)
+            throws JAXBException {
+        Unmarshaller unmarshaller = pool(unmarshallers, type).poll();
+        if (unmarshaller == null) {
+            unmarshaller = getContext(type).createUnmarshaller();
+        }
+        return unmarshaller;
+    }
+
+    /**
+     * Returns an unmarshaller acquired for the given class to the pool.
+     * Nothing happens if one of the parameters is <code>null</code>, the pool
+     * is full or the unmarshaller cannot be reset.
+     */
+    public static void releaseUnmarshaller(Class<?> type,
+            Unmarshaller unmarshaller) {
+        if (type == null || unmarshaller == null) {
+            return;
+        }
+        Queue<Unmarshaller> pool = pool(unmarshallers, type);
+        if (pool.size() >= MAX_POOL_SIZE) {
+            return;
+        }
+        try {
+            unmarshaller.setSchema(null);
+            unmarshaller.setEventHandler(null);
+        } catch (JAXBException e) {
+            return;
+        }
+        pool.offer(unmarshaller);
+    }
+
+    private static <T> Queue<T> pool(ConcurrentMap<Class<?>, Queue<T>> pools,
+            Class<?> type) {
+        Queue<T> pool = pools.get(type);
+        if (pool == null) {
+            pool = new ConcurrentLinkedQueue<T>();
+            Queue<T> existing = pools.putIfAbsent(type, pool);
+            if (existing != null) {
+                pool = existing;
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Removes the contexts and pooled instances of all classes loaded by the
+     * given class loader or one of its descendants.
+     */
+    public static void clear(ClassLoader loader) {
+        removeLoadedBy(contexts, loader);
+        removeLoadedBy(marshallers, loader);
+        removeLoadedBy(unmarshallers, loader);
+    }
+
+    private static void removeLoadedBy(ConcurrentMap<Class<?>, ?> map,
+            ClassLoader loader) {
+        Iterator<Class<?>> types = map.keySet().iterator();
+        while (types.hasNext()) {
+            if (isLoadedBy(types.next(), loader)) {
+                types.remove();
+            }
+        }
+    }
+
+    static boolean isLoadedBy(Class<?> type, ClassLoader loader) {
+        for (ClassLoader cl = type.getClassLoader(); cl != null; cl = cl
+                .getParent()) {
+            if (cl == loader) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes all contexts and pooled instances.
+     */
+    static void clear() {
+        contexts.clear();
+        marshallers.clear();
+        unmarshallers.clear();
+    }
+}
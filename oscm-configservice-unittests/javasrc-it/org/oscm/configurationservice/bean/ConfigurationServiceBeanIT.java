@@ -14,13 +14,16 @@ package org.oscm.configurationservice.bean;
 
 import static org.oscm.test.matchers.BesMatchers.hasAnnotation;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -405,8 +408,8 @@ public class ConfigurationServiceBeanIT extends EJBTestBase {
     }
 
     /**
-     * Verify if the cache is refreshed every 10 minutes and the method is
-     * locked properly.
+     * Verify if the cache is refreshed every 10 minutes without blocking the
+     * readers.
      */
     @Test
     public void refreshCache_checkAnnotations() throws Exception {
@@ -418,7 +421,9 @@ public class ConfigurationServiceBeanIT extends EJBTestBase {
         // when
         assertThat(method, hasAnnotation(annotations));
 
-        // then no exception
+        // then
+        assertNull(method.getAnnotation(Lock.class));
+        assertFalse(method.getAnnotation(Schedule.class).persistent());
     }
 
     private List<Annotation> givenRefreshCacheAnnotations() {
@@ -427,11 +432,43 @@ public class ConfigurationServiceBeanIT extends EJBTestBase {
         doReturn(Schedule.class).when(schedule).annotationType();
         doReturn("minute = \"*/10\"").when(schedule).toString();
         result.add(schedule);
-
-        result.add(createLockAnnotation("LockType.WRITE"));
         return result;
     }
 
+    @Test
+    public void refreshCacheIfChanged_checkAnnotations() throws Exception {
+        // given
+        Method method = ConfigurationServiceBean.class
+                .getMethod("refreshCacheIfChanged");
+
+        // when
+        Schedule schedule = method.getAnnotation(Schedule.class);
+
+        // then
+        assertEquals("*/5", schedule.second());
+        assertFalse(schedule.persistent());
+    }
+
+    @Test
+    public void refreshCacheIfChanged() {
+        // given
+        ConfigurationServiceBean service = spy(new ConfigurationServiceBean());
+        doReturn(givenConfigurationSettings()).when(service)
+                .getAllConfigurationSettings();
+        doReturn("[1, 1, 0]").doReturn("[1, 1, 0]").doReturn("[1, 1, 1]")
+                .when(service).getStoredChangeMarker();
+
+        // when
+        service.refreshCacheIfChanged();
+        service.refreshCacheIfChanged();
+        service.refreshCacheIfChanged();
+
+        // then
+        verify(service, times(2)).refreshCache();
+        assertEquals(2, service.getConfigurationCacheVersion());
+        assertTrue(service.getConfigurationCacheRefreshTime() > 0);
+    }
+
     private Annotation createLockAnnotation(String type) {
         Annotation lock = mock(Annotation.class);
         doReturn(Lock.class).when(lock).annotationType();
@@ -440,35 +477,66 @@ public class ConfigurationServiceBeanIT extends EJBTestBase {
     }
 
     @Test
-    public void setConfigurationSetting_refreshCacheCalled() throws Exception {
+    public void setConfigurationSetting_updatesCacheIncrementally()
+            throws Exception {
         // given
         ConfigurationServiceBean service = spy(new ConfigurationServiceBean());
         service.dm = mock(DataService.class);
         doReturn(mock(TypedQuery.class)).when(service.dm).createNamedQuery(
                 anyString(), eq(ConfigurationSetting.class));
+        ConfigurationSetting setting = new ConfigurationSetting(
+                ConfigurationKey.BASE_URL, Configuration.GLOBAL_CONTEXT,
+                "http://host");
 
         // when
-        service.setConfigurationSetting(new ConfigurationSetting());
+        service.setConfigurationSetting(setting);
 
         // then
-        verify(service, times(1)).refreshCache();
+        verify(service, never()).refreshCache();
+        assertEquals(
+                "http://host",
+                service.getConfigurationSetting(ConfigurationKey.BASE_URL,
+                        Configuration.GLOBAL_CONTEXT).getValue());
+        assertEquals(1, service.getConfigurationCacheVersion());
     }
 
     @Test
-    public void setConfigurationSetting_writeLockSet() throws Exception {
+    public void setConfigurationSetting_removesFromCache() throws Exception {
         // given
-        Method method = ConfigurationServiceBean.class.getMethod(
-                "setConfigurationSetting", ConfigurationSetting.class);
-        List<Annotation> annotations = givenSetConfigurationSettingAnnotations();
+        ConfigurationServiceBean service = spy(new ConfigurationServiceBean());
+        service.dm = mock(DataService.class);
+        ConfigurationSetting stored = new ConfigurationSetting(
+                ConfigurationKey.BASE_URL, Configuration.GLOBAL_CONTEXT,
+                "http://host");
+        doReturn(Arrays.asList(stored)).when(service)
+                .getAllConfigurationSettings();
+        service.refreshCache();
+        TypedQuery<?> query = mock(TypedQuery.class);
+        doReturn(stored).when(query).getSingleResult();
+        doReturn(query).when(service.dm).createNamedQuery(anyString(),
+                eq(ConfigurationSetting.class));
 
         // when
-        assertThat(method, hasAnnotation(annotations));
+        service.setConfigurationSetting(new ConfigurationSetting(
+                ConfigurationKey.BASE_URL, Configuration.GLOBAL_CONTEXT, ""));
 
-        // then no exception
+        // then
+        verify(service.dm).remove(stored);
+        assertTrue(service.cache.isEmpty());
+        assertEquals(2, service.getConfigurationCacheVersion());
     }
 
-    private List<Annotation> givenSetConfigurationSettingAnnotations() {
-        return Arrays.asList(createLockAnnotation("LockType.WRITE"));
+    @Test
+    public void setConfigurationSetting_noWriteLock() throws Exception {
+        // given
+        Method method = ConfigurationServiceBean.class.getMethod(
+                "setConfigurationSetting", ConfigurationSetting.class);
+
+        // when
+        Lock lock = method.getAnnotation(Lock.class);
+
+        // then
+        assertNull(lock);
     }
 
     @Test
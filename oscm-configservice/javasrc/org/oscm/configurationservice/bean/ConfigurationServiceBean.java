@@ -6,9 +6,12 @@ package org.oscm.configurationservice.bean;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 import javax.ejb.ConcurrencyManagement;
@@ -65,25 +68,110 @@ public class ConfigurationServiceBean
     @EJB(beanInterface = DataService.class)
     DataService dm;
 
-    Map<String, ConfigurationSetting> cache;
+    /**
+     * The current snapshot of the settings. A snapshot is never modified;
+     * changes replace it with a modified copy, so readers neither lock nor
+     * wait for a refresh.
+     */
+    volatile Map<String, ConfigurationSetting> cache = Collections.emptyMap();
+
+    /**
+     * Serializes the replacement of the snapshot.
+     */
+    private final Object cacheUpdateLock = new Object();
+
+    private final AtomicLong cacheVersion = new AtomicLong();
+
+    private volatile long cacheRefreshTime;
+
+    /**
+     * The change marker of the stored settings when they were checked last.
+     */
+    private volatile String storedChangeMarker;
 
     @PostConstruct
     public void init() {
         refreshCache();
     }
 
-    @Schedule(minute = "*/10")
-    @Lock(LockType.WRITE)
+    /**
+     * Reloads all settings. Besides the change check of
+     * {@link #refreshCacheIfChanged()} this also covers settings changed
+     * directly in the database.
+     */
+    @Schedule(minute = "*/10", hour = "*", persistent = false)
     public void refreshCache() {
-        cache = new HashMap<String, ConfigurationSetting>();
+        Map<String, ConfigurationSetting> newCache = new HashMap<String, ConfigurationSetting>();
         for (ConfigurationSetting configurationSetting : getAllConfigurationSettings()) {
-            addToCache(configurationSetting);
+            newCache.put(getKey(configurationSetting.getInformationId(),
+                    configurationSetting.getContextId()), configurationSetting);
+        }
+        synchronized (cacheUpdateLock) {
+            cache = Collections.unmodifiableMap(newCache);
+            cacheVersion.incrementAndGet();
+            cacheRefreshTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Reloads the settings if they have been changed on another node. The
+     * timer is not persistent, so it runs on every node of the cluster.
+     */
+    @Schedule(second = "*/5", minute = "*", hour = "*", persistent = false)
+    public void refreshCacheIfChanged() {
+        String changeMarker = getStoredChangeMarker();
+        if (!changeMarker.equals(storedChangeMarker)) {
+            refreshCache();
+            storedChangeMarker = changeMarker;
         }
     }
 
+    /**
+     * Returns a marker of the state of the stored settings. Creating or
+     * removing a setting changes the count and mostly the maximum key,
+     * updating one increases its version.
+     */
+    String getStoredChangeMarker() {
+        Object[] marker = (Object[]) dm.createNamedQuery(
+                "ConfigurationSetting.getChangeMarker").getSingleResult();
+        return Arrays.toString(marker);
+    }
+
     private void addToCache(ConfigurationSetting configSetting) {
-        cache.put(getKey(configSetting.getInformationId(),
-                configSetting.getContextId()), configSetting);
+        String key = getKey(configSetting.getInformationId(),
+                configSetting.getContextId());
+        synchronized (cacheUpdateLock) {
+            Map<String, ConfigurationSetting> newCache = new HashMap<String, ConfigurationSetting>(
+                    cache);
+            newCache.put(key, configSetting);
+            cache = Collections.unmodifiableMap(newCache);
+            cacheVersion.incrementAndGet();
+        }
+    }
+
+    private void removeFromCache(ConfigurationKey informationId,
+            String contextId) {
+        String key = getKey(informationId, contextId);
+        synchronized (cacheUpdateLock) {
+            if (!cache.containsKey(key)) {
+                return;
+            }
+            Map<String, ConfigurationSetting> newCache = new HashMap<String, ConfigurationSetting>(
+                    cache);
+            newCache.remove(key);
+            cache = Collections.unmodifiableMap(newCache);
+            cacheVersion.incrementAndGet();
+        }
+    }
+
+    @Override
+    public long getConfigurationCacheVersion() {
+        return cacheVersion.get();
+    }
+
+    @Override
+    public long getConfigurationCacheRefreshTime() {
+        return cacheRefreshTime;
     }
 
     private String getKey(ConfigurationKey informationId, String contextId) {
@@ -184,7 +272,6 @@ public class ConfigurationServiceBean
 
     @Override
     @TransactionAttribute(TransactionAttributeType.MANDATORY)
-    @Lock(LockType.WRITE)
     public void setConfigurationSetting(ConfigurationSetting configSetting) {
         ConfigurationSetting setting = getConfigurationSettingExactMatch(
                 configSetting.getInformationId(), configSetting.getContextId());
@@ -193,10 +280,12 @@ public class ConfigurationServiceBean
             if (setting != null) {
                 // if entry is already present, update it
                 setting.setValue(configSetting.getValue());
+                addToCache(setting);
             } else {
                 // if not, create a new one
                 try {
                     dm.persist(configSetting);
+                    addToCache(configSetting);
                 } catch (NonUniqueBusinessKeyException e) {
                     logger.logError(Log4jLogger.SYSTEM_LOG, e,
                             LogMessageIdentifier.ERROR_PERSIST_CONFIGURATION_SETTING);
@@ -207,13 +296,13 @@ public class ConfigurationServiceBean
             // used again
             if (setting != null) {
                 dm.remove(setting);
+                removeFromCache(setting.getInformationId(),
+                        setting.getContextId());
             }
         }
-        refreshCache();
     }
 
     @Override
-    @Lock(LockType.WRITE)
     public void setConfigurationSetting(String informationId, String value) {
         ConfigurationSetting configSetting = new ConfigurationSetting(
                 ConfigurationKey.valueOf(informationId),
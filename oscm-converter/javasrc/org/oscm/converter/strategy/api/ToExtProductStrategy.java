@@ -43,7 +43,7 @@ public class ToExtProductStrategy extends AbstractConversionStrategy implements
         }
         if (product.getProductFeedback() != null) {
             voService.setAverageRating(product.getProductFeedback().getAverageRating());
-            voService.setNumberOfReviews(product.getProductFeedback().getProductReviews().size());
+            voService.setNumberOfReviews(product.getProductFeedback().getNumberOfReviews());
         }
         voService.setBaseURL(product.getTechnicalProduct().getBaseURL());
         voService.setAccessType(ServiceAccessType.valueOf(product.getTechnicalProduct().getAccessType().name()));
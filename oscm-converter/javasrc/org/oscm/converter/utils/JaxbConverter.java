@@ -12,12 +12,13 @@ import java.io.ByteArrayOutputStream;
 import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.transform.stream.StreamSource;
 
+import org.oscm.xml.JaxbContextRegistry;
+
 public class JaxbConverter {
 
     private static final String JAXB_FORMATTED_OUT = "jaxb.formatted.output";
@@ -26,12 +27,16 @@ public class JaxbConverter {
 
     public static String toXML(Object objToConvert) {
         try {
-            final JAXBContext context = JAXBContext.newInstance(objToConvert.getClass());
+            final Class<?> type = objToConvert.getClass();
             final ByteArrayOutputStream out = new ByteArrayOutputStream();
-            final Marshaller marshaller = context.createMarshaller();
-
-            marshaller.setProperty(JAXB_FORMATTED_OUT, Boolean.FALSE);
-            marshaller.marshal(objToConvert, out);
+            final Marshaller marshaller = JaxbContextRegistry
+                    .acquireMarshaller(type);
+            try {
+                marshaller.setProperty(JAXB_FORMATTED_OUT, Boolean.FALSE);
+                marshaller.marshal(objToConvert, out);
+            } finally {
+                JaxbContextRegistry.releaseMarshaller(type, marshaller);
+            }
 
             return new String(out.toByteArray(), CODING);
         } catch (JAXBException | UnsupportedEncodingException e) {
@@ -41,12 +46,16 @@ public class JaxbConverter {
 
     public static <T> T fromXML(String xmlString, Class<T> targetClass) {
         try {
-            final JAXBContext context = JAXBContext.newInstance(targetClass);
-
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            StreamSource source = new StreamSource(new StringReader(xmlString));
-
-            return unmarshaller.unmarshal(source, targetClass).getValue();
+            Unmarshaller unmarshaller = JaxbContextRegistry
+                    .acquireUnmarshaller(targetClass);
+            try {
+                StreamSource source = new StreamSource(new StringReader(
+                        xmlString));
+                return unmarshaller.unmarshal(source, targetClass).getValue();
+            } finally {
+                JaxbContextRegistry.releaseUnmarshaller(targetClass,
+                        unmarshaller);
+            }
         } catch (JAXBException e) {
             throw new IllegalArgumentException(e);
         }
@@ -369,12 +369,17 @@ public class ProductFeedbackIT extends DomainObjectTestBase {
         assertEquals(new BigDecimal("1.33"), feedback.getAverageRating());
     }
 
+    /**
+     * A review without valid rating is not counted, as with the incremental
+     * updates of the aggregates.
+     */
     @Test
     public void updateAverageRating_zero() {
         ProductFeedback feedback = new ProductFeedback();
         createReview(feedback, 0);
         feedback.updateAverageRating();
-        assertEquals(new BigDecimal("0.00"), feedback.getAverageRating());
+        assertEquals(0, feedback.getNumberOfReviews());
+        assertEquals(new BigDecimal(0), feedback.getAverageRating());
     }
 
     private void createReview(ProductFeedback feedback, int rating) {
@@ -414,7 +419,64 @@ public class ProductFeedbackIT extends DomainObjectTestBase {
     private void createReview(ProductFeedback feedback, PlatformUser user) {
         ProductReview review = new ProductReview();
         review.setPlatformUser(user);
-        feedback.getProductReviews().add(review);
+        review.setRating(3);
+        feedback.addProductReview(review);
+    }
+
+    @Test
+    public void addProductReview() {
+        ProductFeedback feedback = new ProductFeedback();
+        ProductReview review = new ProductReview();
+        review.setRating(2);
+        feedback.addProductReview(review);
+        review = new ProductReview();
+        review.setRating(5);
+        feedback.addProductReview(review);
+        assertEquals(2, feedback.getNumberOfReviews());
+        assertEquals(7, feedback.getRatingSum());
+        assertEquals(1, feedback.getRatingCount(2));
+        assertEquals(1, feedback.getRatingCount(5));
+        assertEquals(new BigDecimal("3.50"), feedback.getAverageRating());
+        assertEquals(5, review.getCountedRating());
+    }
+
+    @Test
+    public void updateProductReview() {
+        ProductFeedback feedback = new ProductFeedback();
+        ProductReview review = new ProductReview();
+        review.setRating(2);
+        feedback.addProductReview(review);
+        review.setRating(4);
+        feedback.updateProductReview(review);
+        assertEquals(1, feedback.getNumberOfReviews());
+        assertEquals(0, feedback.getRatingCount(2));
+        assertEquals(1, feedback.getRatingCount(4));
+        assertEquals(new BigDecimal("4.00"), feedback.getAverageRating());
+    }
+
+    @Test
+    public void removeProductReview() {
+        ProductFeedback feedback = new ProductFeedback();
+        ProductReview review = new ProductReview();
+        review.setRating(2);
+        feedback.addProductReview(review);
+        feedback.removeProductReview(review);
+        assertEquals(0, feedback.getNumberOfReviews());
+        assertEquals(0, feedback.getRatingSum());
+        assertEquals(0, feedback.getProductReviews().size());
+        assertEquals(new BigDecimal(0), feedback.getAverageRating());
+    }
+
+    @Test
+    public void updateAverageRating_repairsAggregates() {
+        ProductFeedback feedback = new ProductFeedback();
+        feedback.setRatingCounts(new int[] { 1, 0, 0, 0, 0 });
+        createReview(feedback, 4);
+        createReview(feedback, 5);
+        feedback.updateAverageRating();
+        assertEquals(2, feedback.getNumberOfReviews());
+        assertEquals(0, feedback.getRatingCount(1));
+        assertEquals(new BigDecimal("4.50"), feedback.getAverageRating());
     }
 
     /**
@@ -7,8 +7,10 @@ package org.oscm.dataservice.bean;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -17,20 +19,30 @@ import static org.mockito.Mockito.verify;
 
 import java.security.Principal;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.ejb.SessionContext;
 import javax.persistence.EntityManager;
+import javax.persistence.NoResultException;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import javax.transaction.TransactionSynchronizationRegistry;
+import javax.xml.ws.WebServiceContext;
 
 import org.hibernate.Session;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import org.oscm.domobjects.*;
+import org.oscm.internal.types.enumtypes.UserRoleType;
 import org.oscm.internal.types.exception.DomainObjectException.ClassEnum;
 import org.oscm.internal.types.exception.SaaSSystemException;
+import org.oscm.types.exceptions.InvalidUserSession;
 
 public class DataServiceBeanTest {
 
@@ -38,6 +50,8 @@ public class DataServiceBeanTest {
     private EntityManager em;
     private Query namedQuery;
     private SessionContext sessionContext;
+    private TransactionSynchronizationRegistry tsr;
+    private final Map<Object, Object> txResources = new HashMap<Object, Object>();
     private final Product domObject_withBusinessKey = new Product();
     private final Discount domObject_withoutBusinessKey = new Discount();
 
@@ -49,6 +63,23 @@ public class DataServiceBeanTest {
         sessionContext = mock(SessionContext.class);
         dataService.em = em;
         dataService.sessionCtx = sessionContext;
+        tsr = mock(TransactionSynchronizationRegistry.class);
+        doAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return txResources.get(invocation.getArguments()[0]);
+            }
+        }).when(tsr).getResource(any());
+        doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) {
+                Object[] args = invocation.getArguments();
+                txResources.put(args[0], args[1]);
+                return null;
+            }
+        }).when(tsr).putResource(any(), any());
+        dataService.tsr = tsr;
+        DataServiceBean.clearDistinguishedNameCache();
         domObject_withBusinessKey.setProductId("productId");
         domObject_withBusinessKey.setVendorKey(1L);
     }
@@ -174,6 +205,115 @@ public class DataServiceBeanTest {
         }
     }
 
+    @Test
+    public void find_identityMap() throws Exception {
+        // given
+        Product found = givenFoundProduct(new Object());
+
+        // when
+        DomainObject<?> result1 = dataService.find(domObject_withBusinessKey);
+        DomainObject<?> result2 = dataService
+                .getReferenceByBusinessKey(domObject_withBusinessKey);
+
+        // then
+        assertSame(found, result1);
+        assertSame(found, result2);
+        verify(em, times(1)).createNamedQuery(any(String.class));
+    }
+
+    @Test
+    public void find_identityMapNotManaged() throws Exception {
+        // given
+        Product found = givenFoundProduct(new Object());
+        dataService.find(domObject_withBusinessKey);
+        doReturn(Boolean.FALSE).when(em).contains(found);
+
+        // when
+        DomainObject<?> result = dataService.find(domObject_withBusinessKey);
+
+        // then
+        assertSame(found, result);
+        verify(em, times(2)).createNamedQuery(any(String.class));
+    }
+
+    @Test
+    public void find_identityMapBusinessKeyChanged() throws Exception {
+        // given
+        Product found = givenFoundProduct(new Object());
+        dataService.find(domObject_withBusinessKey);
+        found.setProductId("otherProductId");
+        doThrow(new NoResultException()).when(namedQuery).getSingleResult();
+
+        // when
+        DomainObject<?> result = dataService.find(domObject_withBusinessKey);
+
+        // then
+        assertNull(result);
+        verify(em, times(2)).createNamedQuery(any(String.class));
+    }
+
+    @Test
+    public void find_identityMapOtherTransaction() throws Exception {
+        // given
+        givenFoundProduct(new Object());
+        dataService.find(domObject_withBusinessKey);
+        givenTransaction(new Object());
+
+        // when
+        dataService.find(domObject_withBusinessKey);
+
+        // then
+        verify(em, times(2)).createNamedQuery(any(String.class));
+    }
+
+    @Test
+    public void find_identityMapCleared() throws Exception {
+        // given
+        givenFoundProduct(new Object());
+        dataService.find(domObject_withBusinessKey);
+        dataService.clear();
+
+        // when
+        dataService.find(domObject_withBusinessKey);
+
+        // then
+        verify(em, times(2)).createNamedQuery(any(String.class));
+    }
+
+    @Test
+    public void find_noTransaction() throws Exception {
+        // given
+        givenFoundProduct(null);
+        dataService.find(domObject_withBusinessKey);
+
+        // when
+        dataService.find(domObject_withBusinessKey);
+
+        // then
+        verify(em, times(2)).createNamedQuery(any(String.class));
+    }
+
+    /**
+     * Starts the given transaction, which has no resources yet.
+     */
+    private void givenTransaction(Object transaction) {
+        txResources.clear();
+        doReturn(transaction).when(tsr).getTransactionKey();
+    }
+
+    private Product givenFoundProduct(Object transaction) {
+        Product found = new Product();
+        found.setProductId(domObject_withBusinessKey.getProductId());
+        found.setVendorKey(domObject_withBusinessKey.getVendorKey());
+        givenTransaction(transaction);
+        doReturn(Boolean.TRUE).when(em).contains(found);
+        doReturn(namedQuery).when(em).createNamedQuery(any(String.class));
+        doReturn(namedQuery).when(namedQuery).setParameter(any(String.class),
+                any());
+        doReturn(found).when(namedQuery).getSingleResult();
+        return found;
+    }
+
     @Test
     public void testFindHistoryNull() throws Exception {
         assertNull(dataService.findHistory(null));
@@ -316,6 +456,109 @@ public class DataServiceBeanTest {
         doReturn(caller).when(sessionContext).getCallerPrincipal();
     }
 
+    @Test
+    public void getCurrentUser_sslContext() throws Exception {
+        // given
+        Organization org = givenSSLContext("CN=customer");
+        PlatformUser admin = givenOrganizationAdmin(org, 2L);
+
+        // when
+        PlatformUser user1 = dataService.getCurrentUser();
+        PlatformUser user2 = dataService.getCurrentUser();
+
+        // then
+        assertSame(admin, user1);
+        assertSame(admin, user2);
+        verify(em, times(1)).createNamedQuery("Organization.getOrgsForDN",
+                Organization.class);
+        verify(em, times(1)).createNamedQuery(
+                "PlatformUser.getOrganizationAdmins", PlatformUser.class);
+    }
+
+    @Test
+    public void getCurrentUser_sslContextAdminRoleRevoked() throws Exception {
+        // given
+        Organization org = givenSSLContext("CN=customer");
+        PlatformUser admin = givenOrganizationAdmin(org, 2L);
+        dataService.getCurrentUser();
+        admin.getAssignedRoles().clear();
+        PlatformUser otherAdmin = givenOrganizationAdmin(org, 3L);
+
+        // when
+        PlatformUser user = dataService.getCurrentUser();
+
+        // then
+        assertSame(otherAdmin, user);
+        verify(em, times(2)).createNamedQuery("Organization.getOrgsForDN",
+                Organization.class);
+    }
+
+    @Test
+    public void getCurrentUser_sslContextDistinguishedNameChanged()
+            throws Exception {
+        // given
+        Organization org = givenSSLContext("CN=customer");
+        givenOrganizationAdmin(org, 2L);
+        dataService.getCurrentUser();
+        org.setDistinguishedName("CN=other");
+
+        // when
+        dataService.getCurrentUser();
+
+        // then
+        verify(em, times(2)).createNamedQuery("Organization.getOrgsForDN",
+                Organization.class);
+    }
+
+    @Test(expected = InvalidUserSession.class)
+    public void getCurrentUser_sslContextDeregistered() throws Exception {
+        // given
+        Organization org = givenSSLContext("CN=customer");
+        givenOrganizationAdmin(org, 2L);
+        dataService.getCurrentUser();
+        org.setDeregistrationDate(Long.valueOf(System.currentTimeMillis()));
+
+        // when
+        dataService.getCurrentUser();
+    }
+
+    private Organization givenSSLContext(String distinguishedName) {
+        Principal principal = mock(Principal.class);
+        doReturn(distinguishedName).when(principal).getName();
+        doReturn(principal).when(sessionContext).getCallerPrincipal();
+        WebServiceContext webServiceContext = mock(WebServiceContext.class);
+        doReturn(principal).when(webServiceContext).getUserPrincipal();
+        dataService.webServiceContext = webServiceContext;
+
+        Organization org = new Organization();
+        org.setKey(1L);
+        org.setDistinguishedName(distinguishedName);
+        @SuppressWarnings("unchecked")
+        TypedQuery<Organization> orgQuery = mock(TypedQuery.class);
+        doReturn(org).when(orgQuery).getSingleResult();
+        doReturn(orgQuery).when(em).createNamedQuery(
+                "Organization.getOrgsForDN", Organization.class);
+        doReturn(org).when(em).find(Organization.class, Long.valueOf(1L));
+        return org;
+    }
+
+    private PlatformUser givenOrganizationAdmin(Organization org, long key) {
+        PlatformUser admin = new PlatformUser();
+        admin.setKey(key);
+        admin.setOrganization(org);
+        RoleAssignment roleAssignment = new RoleAssignment();
+        roleAssignment.setRole(new UserRole(UserRoleType.ORGANIZATION_ADMIN));
+        roleAssignment.setUser(admin);
+        admin.getAssignedRoles().add(roleAssignment);
+        @SuppressWarnings("unchecked")
+        TypedQuery<PlatformUser> adminQuery = mock(TypedQuery.class);
+        doReturn(Arrays.asList(admin)).when(adminQuery).getResultList();
+        doReturn(adminQuery).when(em).createNamedQuery(
+                "PlatformUser.getOrganizationAdmins", PlatformUser.class);
+        doReturn(admin).when(em).find(PlatformUser.class, Long.valueOf(key));
+        return admin;
+    }
+
     @Test
     public void testDelegates() throws Exception {
         String TEST = "test";
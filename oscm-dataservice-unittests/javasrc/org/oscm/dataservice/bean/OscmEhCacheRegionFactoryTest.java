@@ -0,0 +1,61 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.dataservice.bean;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class OscmEhCacheRegionFactoryTest {
+
+    @After
+    public void tearDown() {
+        System.clearProperty(OscmEhCacheRegionFactory.PROPERTY_CLUSTER);
+    }
+
+    @Test
+    public void getConfigurationResourceName_default() {
+        assertEquals(OscmEhCacheRegionFactory.CLUSTER_CONFIGURATION,
+                OscmEhCacheRegionFactory.getConfigurationResourceName());
+    }
+
+    @Test
+    public void getConfigurationResourceName_cluster() {
+        // given
+        System.setProperty(OscmEhCacheRegionFactory.PROPERTY_CLUSTER, "true");
+
+        // when
+        String name = OscmEhCacheRegionFactory.getConfigurationResourceName();
+
+        // then
+        assertEquals(OscmEhCacheRegionFactory.CLUSTER_CONFIGURATION, name);
+    }
+
+    @Test
+    public void getConfigurationResourceName_local() {
+        // given
+        System.setProperty(OscmEhCacheRegionFactory.PROPERTY_CLUSTER, "false");
+
+        // when
+        String name = OscmEhCacheRegionFactory.getConfigurationResourceName();
+
+        // then
+        assertEquals(OscmEhCacheRegionFactory.LOCAL_CONFIGURATION, name);
+    }
+
+    @Test
+    public void getConfigurationResourceName_unresolvedPlaceholder() {
+        // given
+        System.setProperty(OscmEhCacheRegionFactory.PROPERTY_CLUSTER,
+                "${oscm.cache.cluster}");
+
+        // when
+        String name = OscmEhCacheRegionFactory.getConfigurationResourceName();
+
+        // then
+        assertEquals(OscmEhCacheRegionFactory.CLUSTER_CONFIGURATION, name);
+    }
+}
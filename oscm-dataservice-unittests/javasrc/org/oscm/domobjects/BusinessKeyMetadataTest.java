@@ -0,0 +1,88 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.domobjects;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+public class BusinessKeyMetadataTest {
+
+    @Test
+    public void get() throws Exception {
+        // when
+        BusinessKeyMetadata metadata = BusinessKeyMetadata.get(Product.class);
+
+        // then
+        assertEquals("Product.findByBusinessKey", metadata.getQueryName());
+        assertArrayEquals(PersistenceReflection.getBusinessKey(Product.class),
+                metadata.getAttributes());
+        assertSame(metadata, BusinessKeyMetadata.get(Product.class));
+    }
+
+    @Test
+    public void get_noBusinessKey() throws Exception {
+        assertNull(BusinessKeyMetadata.get(Discount.class));
+        assertNull(BusinessKeyMetadata.get(Discount.class));
+    }
+
+    @Test
+    public void getValues() throws Exception {
+        // given
+        Product product = new Product();
+        product.setProductId("productId");
+        product.setVendorKey(1L);
+        BusinessKeyMetadata metadata = BusinessKeyMetadata.get(Product.class);
+
+        // when
+        Object[] values = metadata.getValues(product);
+
+        // then
+        String[] attributes = metadata.getAttributes();
+        assertEquals(attributes.length, values.length);
+        for (int i = 0; i < attributes.length; i++) {
+            assertEquals(PersistenceReflection.getValue(product, attributes[i]),
+                    values[i]);
+        }
+    }
+
+    /**
+     * Compares reading the business key values by looking up the getter
+     * methods on each call with reading them by the methods of the metadata.
+     */
+    @Ignore
+    @Test
+    public void getValues_benchmark() throws Exception {
+        Product product = new Product();
+        product.setProductId("productId");
+        product.setVendorKey(1L);
+        String[] attributes = PersistenceReflection
+                .getBusinessKey(Product.class);
+        int iterations = 1000000;
+
+        for (int run = 0; run < 3; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                for (String attribute : attributes) {
+                    PersistenceReflection.getValue(product, attribute);
+                }
+            }
+            long lookup = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                BusinessKeyMetadata.get(Product.class).getValues(product);
+            }
+            long metadata = System.nanoTime() - start;
+
+            System.out.println("Getter lookup: " + lookup / iterations
+                    + " ns/op, metadata: " + metadata / iterations + " ns/op");
+        }
+    }
+}
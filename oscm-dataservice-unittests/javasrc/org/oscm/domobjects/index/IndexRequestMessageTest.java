@@ -109,6 +109,40 @@ public class IndexRequestMessageTest {
         Assert.assertNull("No message expected", message);
     }
 
+    @Test
+    public void testPriceModel() throws Throwable {
+
+        long key = 12;
+        PriceModel pm = new PriceModel();
+        pm.setKey(key);
+
+        IndexRequestMessage message = IndexRequestMessage.get(pm,
+                ModificationType.MODIFY);
+        Assert.assertNotNull("Message expected", message);
+        assertEquals(PriceModel.class, message.getObjectClass());
+        assertEquals(key, message.getKey());
+
+        message = IndexRequestMessage.get(pm, ModificationType.DELETE);
+        Assert.assertNull("No message expected", message);
+    }
+
+    @Test
+    public void testProductFeedback() throws Throwable {
+
+        long key = 12;
+        ProductFeedback feedback = new ProductFeedback();
+        feedback.setKey(key);
+
+        IndexRequestMessage message = IndexRequestMessage.get(feedback,
+                ModificationType.ADD);
+        Assert.assertNotNull("Message expected", message);
+        assertEquals(ProductFeedback.class, message.getObjectClass());
+        assertEquals(key, message.getKey());
+
+        message = IndexRequestMessage.get(feedback, ModificationType.DELETE);
+        Assert.assertNull("No message expected", message);
+    }
+
     @Test
     public void testNull() throws Throwable {
         IndexRequestMessage message = IndexRequestMessage.get(null,
@@ -0,0 +1,80 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.dataservice.bean;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.oscm.domobjects.DomainObject;
+
+/**
+ * Domain objects found by their business key within one transaction. A
+ * repeated search for the same business key can be answered without a query as
+ * long as the object is still managed by the persistence context and still has
+ * the searched business key, which the caller has to verify.
+ * <p>
+ * The map is kept as a resource of the transaction, so it is released when the
+ * transaction has ended. The objects are only weakly referenced and the map is
+ * cleared when it reaches its maximum size.
+ */
+class BusinessKeyIdentityMap {
+
+    /**
+     * The maximum number of business keys kept for one persistence context.
+     */
+    static final int MAX_SIZE = 1000;
+
+    private final Map<List<Object>, WeakReference<DomainObject<?>>> objects = new HashMap<List<Object>, WeakReference<DomainObject<?>>>();
+
+    /**
+     * Returns the object found for the given business key, or
+     * <code>null</code> if there is none.
+     */
+    DomainObject<?> get(Class<?> domainClass, Object[] values) {
+        WeakReference<DomainObject<?>> ref = objects.get(getKey(domainClass,
+                values));
+        return ref == null ? null : ref.get();
+    }
+
+    /**
+     * Remembers the object found for the given business key.
+     */
+    void put(Class<?> domainClass, Object[] values, DomainObject<?> object) {
+        if (objects.size() >= MAX_SIZE) {
+            objects.clear();
+        }
+        objects.put(getKey(domainClass, values),
+                new WeakReference<DomainObject<?>>(object));
+    }
+
+    /**
+     * Forgets the object found for the given business key.
+     */
+    void remove(Class<?> domainClass, Object[] values) {
+        objects.remove(getKey(domainClass, values));
+    }
+
+    /**
+     * Forgets all objects.
+     */
+    void clear() {
+        objects.clear();
+    }
+
+    int size() {
+        return objects.size();
+    }
+
+    private static List<Object> getKey(Class<?> domainClass, Object[] values) {
+        List<Object> key = new ArrayList<Object>(values.length + 1);
+        key.add(domainClass);
+        key.addAll(Arrays.asList(values));
+        return key;
+    }
+}
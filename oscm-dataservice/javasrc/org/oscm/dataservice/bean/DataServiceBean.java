@@ -18,6 +18,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,7 @@ import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import javax.sql.DataSource;
+import javax.transaction.TransactionSynchronizationRegistry;
 import javax.xml.ws.WebServiceContext;
 
 import org.hibernate.Session;
@@ -52,6 +54,7 @@ import org.oscm.internal.types.exception.DomainObjectException;
 import org.oscm.internal.types.exception.NonUniqueBusinessKeyException;
 import org.oscm.internal.types.exception.ObjectNotFoundException;
 import org.oscm.internal.types.exception.SaaSSystemException;
+import org.oscm.internal.types.enumtypes.UserRoleType;
 
 /**
  * Implementation of DataManager as Stateless Session Bean
@@ -79,6 +82,19 @@ public class DataServiceBean implements DataService {
      */
     private static final ThreadLocal<Long> CURRENT_ASYNC_USER = new ThreadLocal<Long>();
 
+    /**
+     * Key of the transaction resource holding the objects found by their
+     * business key, see {@link #find(DomainObject)}.
+     */
+    private static final String IDENTITY_MAP = DataServiceBean.class
+            .getName() + ".identityMap";
+
+    /**
+     * Callers resolved for the distinguished names of client certificates, see
+     * {@link #loadUserFromSSLContext(boolean)}.
+     */
+    private static final DistinguishedNameCache DN_CACHE = new DistinguishedNameCache();
+
     private static final Log4jLogger logger = LoggerFactory
             .getLogger(DataServiceBean.class);
 
@@ -113,7 +129,7 @@ public class DataServiceBean implements DataService {
     protected EntityManager em;
 
     @Resource
-    private WebServiceContext webServiceContext;
+    WebServiceContext webServiceContext;
 
     /**
      * Session Context to read user key (caller principal)s
@@ -121,6 +137,9 @@ public class DataServiceBean implements DataService {
     @Resource
     protected SessionContext sessionCtx;
 
+    @Resource
+    protected TransactionSynchronizationRegistry tsr;
+
     /**
      * Default constructor.
      */
@@ -242,35 +261,47 @@ public class DataServiceBean implements DataService {
     @TransactionAttribute(TransactionAttributeType.MANDATORY)
     public DomainObject<?> find(DomainObject<?> idobj) {
         setThreadLocals();
-        String[] businessKeyElements = PersistenceReflection
-                .getBusinessKey(DomainObject.getDomainClass(idobj));
-        String className = DomainObject.getDomainClass(idobj).getName();
-        String queryName = className.substring(className.lastIndexOf(".") + 1)
-                + ".findByBusinessKey";
-        if (businessKeyElements == null) {
+        Class<?> domainClass = DomainObject.getDomainClass(idobj);
+        BusinessKeyMetadata metadata = BusinessKeyMetadata.get(domainClass);
+        if (metadata == null) {
             throw new SaaSSystemException("No BusinessKey defined for "
-                    + className);
+                    + domainClass.getName());
+        }
+        String[] businessKeyElements = metadata.getAttributes();
+        Object[] values = metadata.getValues(idobj);
+        BusinessKeyIdentityMap identityMap = getIdentityMap();
+        if (identityMap != null) {
+            DomainObject<?> domobj = identityMap.get(domainClass, values);
+            if (domobj != null) {
+                if (em.contains(domobj)
+                        && Arrays.equals(values, metadata.getValues(domobj))) {
+                    return domobj;
+                }
+                identityMap.remove(domainClass, values);
+            }
         }
         // Parameter names correspond to field names
+        String queryName = metadata.getQueryName();
         Query qry = em.createNamedQuery(queryName);
         if (qry == null) {
             throw new SaaSSystemException("Could not create query " + queryName);
         }
-        for (String par : businessKeyElements) {
-            Object val = PersistenceReflection.getValue(idobj, par);
-            qry = qry.setParameter(par, val);
+        for (int i = 0; i < businessKeyElements.length; i++) {
+            qry = qry.setParameter(businessKeyElements[i], values[i]);
         }
         try {
             DomainObject<?> domobj = (DomainObject<?>) qry.getSingleResult();
+            if (identityMap != null) {
+                identityMap.put(domainClass, values, domobj);
+            }
             return domobj;
         } catch (NoResultException e) {
             return null;
         } catch (NonUniqueResultException e) {
             StringBuffer qrykey = new StringBuffer("(");
-            for (String par : businessKeyElements) {
-                qrykey.append(par + "='");
-                qrykey.append(PersistenceReflection.getValue(idobj, par)
-                        .toString());
+            for (int i = 0; i < businessKeyElements.length; i++) {
+                qrykey.append(businessKeyElements[i] + "='");
+                qrykey.append(values[i]);
                 qrykey.append("',");
             }
             qrykey.append(")");
@@ -283,6 +314,25 @@ public class DataServiceBean implements DataService {
         }
     }
 
+    /**
+     * Returns the identity map of the objects found by their business key in
+     * the current transaction, or <code>null</code> if there is no
+     * transaction. The map is a resource of the transaction, so it is released
+     * with the transaction and not kept by the thread.
+     */
+    private BusinessKeyIdentityMap getIdentityMap() {
+        if (tsr == null || tsr.getTransactionKey() == null) {
+            return null;
+        }
+        BusinessKeyIdentityMap identityMap = (BusinessKeyIdentityMap) tsr
+                .getResource(IDENTITY_MAP);
+        if (identityMap == null) {
+            identityMap = new BusinessKeyIdentityMap();
+            tsr.putResource(IDENTITY_MAP, identityMap);
+        }
+        return identityMap;
+    }
+
     @Override
     @TransactionAttribute(TransactionAttributeType.MANDATORY)
     public DomainObject<?> getReferenceByBusinessKey(
@@ -437,6 +487,10 @@ public class DataServiceBean implements DataService {
     @TransactionAttribute(TransactionAttributeType.MANDATORY)
     public void clear() {
         em.clear();
+        BusinessKeyIdentityMap identityMap = getIdentityMap();
+        if (identityMap != null) {
+            identityMap.clear();
+        }
     }
 
     @Override
@@ -632,11 +686,22 @@ public class DataServiceBean implements DataService {
     }
 
     /**
+     * Returns the administrator of the organization identified by the
+     * distinguished name of the client certificate. The resolved caller is
+     * cached for the distinguished name.
+     * 
      * @param lookupOnly
      * @return
      */
     private PlatformUser loadUserFromSSLContext(boolean lookupOnly) {
-        Organization org = getOrganizationForDistinguishedName(lookupOnly);
+        String distinguishedName = webServiceContext.getUserPrincipal()
+                .getName();
+        PlatformUser cachedUser = getCachedUserForDistinguishedName(distinguishedName);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+        Organization org = getOrganizationForDistinguishedName(
+                distinguishedName, lookupOnly);
         if (lookupOnly && org == null) {
             return null;
         }
@@ -644,11 +709,17 @@ public class DataServiceBean implements DataService {
             // lookup case => org not valid => no user
             return null;
         }
-        List<PlatformUser> platformUsers = org.getVisiblePlatformUsers();
-        for (PlatformUser platformUser : platformUsers) {
-            if (platformUser.isOrganizationAdmin()) {
-                return platformUser;
-            }
+        TypedQuery<PlatformUser> query = createNamedQuery(
+                "PlatformUser.getOrganizationAdmins", PlatformUser.class);
+        query.setParameter("organization", org);
+        query.setParameter("roleName", UserRoleType.ORGANIZATION_ADMIN);
+        query.setMaxResults(1);
+        List<PlatformUser> admins = query.getResultList();
+        if (!admins.isEmpty()) {
+            PlatformUser admin = admins.get(0);
+            DN_CACHE.put(distinguishedName, org.getKey(), admin.getKey(),
+                    System.currentTimeMillis());
+            return admin;
         }
         if (lookupOnly) {
             // no exception when just looking for user object
@@ -661,6 +732,42 @@ public class DataServiceBean implements DataService {
         throw ius;
     }
 
+    /**
+     * Returns the caller cached for the given distinguished name if the
+     * organization still has the distinguished name and is not deregistered
+     * and the user is still its administrator. Otherwise the cached caller is
+     * removed and <code>null</code> is returned.
+     */
+    private PlatformUser getCachedUserForDistinguishedName(
+            String distinguishedName) {
+        DistinguishedNameCache.Caller caller = DN_CACHE.get(
+                distinguishedName, System.currentTimeMillis());
+        if (caller == null) {
+            return null;
+        }
+        Organization org = em.find(Organization.class,
+                Long.valueOf(caller.getOrganizationKey()));
+        PlatformUser user = em.find(PlatformUser.class,
+                Long.valueOf(caller.getUserKey()));
+        if (org == null || user == null
+                || !distinguishedName.equals(org.getDistinguishedName())
+                || org.getDeregistrationDate() != null
+                || user.getOrganization().getKey() != org.getKey()
+                || user.isOnBehalfUser() || !user.isOrganizationAdmin()) {
+            DN_CACHE.remove(distinguishedName);
+            return null;
+        }
+        return user;
+    }
+
+    /**
+     * Removes all callers cached for distinguished names. <b>Should only be
+     * used for unit testing!</b>
+     */
+    public static void clearDistinguishedNameCache() {
+        DN_CACHE.clear();
+    }
+
     private boolean mayBeWebServiceSSLContext() {
         if (webServiceContext == null) {
             return false;
@@ -675,9 +782,10 @@ public class DataServiceBean implements DataService {
         }
     }
 
-    private Organization getOrganizationForDistinguishedName(boolean lookupOnly) {
+    private Organization getOrganizationForDistinguishedName(
+            String distinguishedName, boolean lookupOnly) {
         final Set<String> principalNames = Collections
-                .singleton(webServiceContext.getUserPrincipal().getName());
+                .singleton(distinguishedName);
         final TypedQuery<Organization> query = createNamedQuery(
                 "Organization.getOrgsForDN", Organization.class);
         query.setParameter("dn", principalNames);
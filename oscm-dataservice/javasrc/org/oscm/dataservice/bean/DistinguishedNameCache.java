@@ -0,0 +1,106 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.dataservice.bean;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the callers resolved for the distinguished names of client
+ * certificates used for web service calls. For a distinguished name the key
+ * of the organization and the key of the organization administrator acting as
+ * caller are kept for a limited time. The callers of the least recently used
+ * distinguished names are removed if the cache is full.
+ * <p>
+ * The cached keys only save the queries resolving the caller. The caller has
+ * to verify that the organization still has the distinguished name and that
+ * the user is still an administrator of it.
+ */
+class DistinguishedNameCache {
+
+    /**
+     * The maximum number of distinguished names whose callers are cached.
+     */
+    static final int MAX_SIZE = 1000;
+
+    /**
+     * The time in milliseconds a caller is cached.
+     */
+    static final long TIMEOUT = 5 * 60 * 1000L;
+
+    private final Map<String, Caller> callers = Collections
+            .synchronizedMap(new LinkedHashMap<String, Caller>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, Caller> eldest) {
+                    return size() > MAX_SIZE;
+                }
+            });
+
+    /**
+     * Returns the caller cached for the given distinguished name, or
+     * <code>null</code> if there is none or it has expired at the given time.
+     */
+    Caller get(String distinguishedName, long currentTime) {
+        Caller caller = callers.get(distinguishedName);
+        if (caller == null) {
+            return null;
+        }
+        if (currentTime >= caller.expirationTime) {
+            callers.remove(distinguishedName);
+            return null;
+        }
+        return caller;
+    }
+
+    /**
+     * Caches the caller resolved for the given distinguished name at the given
+     * time.
+     */
+    void put(String distinguishedName, long organizationKey, long userKey,
+            long currentTime) {
+        callers.put(distinguishedName, new Caller(organizationKey, userKey,
+                currentTime + TIMEOUT));
+    }
+
+    /**
+     * Removes the caller cached for the given distinguished name.
+     */
+    void remove(String distinguishedName) {
+        callers.remove(distinguishedName);
+    }
+
+    /**
+     * Removes all cached callers.
+     */
+    void clear() {
+        callers.clear();
+    }
+
+    static class Caller {
+
+        private final long organizationKey;
+        private final long userKey;
+        private final long expirationTime;
+
+        Caller(long organizationKey, long userKey, long expirationTime) {
+            this.organizationKey = organizationKey;
+            this.userKey = userKey;
+            this.expirationTime = expirationTime;
+        }
+
+        long getOrganizationKey() {
+            return organizationKey;
+        }
+
+        long getUserKey() {
+            return userKey;
+        }
+    }
+}
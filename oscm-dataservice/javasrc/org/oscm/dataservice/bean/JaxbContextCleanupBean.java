@@ -0,0 +1,27 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.dataservice.bean;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+
+import org.oscm.xml.JaxbContextRegistry;
+
+/**
+ * Removes the JAXB contexts and pooled marshallers of the application's
+ * classes from the {@link JaxbContextRegistry} when the application is
+ * undeployed. The registry is part of the domain libraries and would otherwise
+ * keep the class loader of the application.
+ */
+@Singleton
+@Startup
+public class JaxbContextCleanupBean {
+
+    @PreDestroy
+    public void clearRegistry() {
+        JaxbContextRegistry.clear(getClass().getClassLoader());
+    }
+}
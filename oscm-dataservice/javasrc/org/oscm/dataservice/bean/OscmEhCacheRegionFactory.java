@@ -0,0 +1,64 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.dataservice.bean;
+
+import java.util.Properties;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.ehcache.EhCacheRegionFactory;
+import org.hibernate.cfg.Settings;
+
+/**
+ * Region factory of the second-level cache of the persistence unit
+ * oscm-domainobjects. By default changes are replicated between the nodes of
+ * a cluster, so no node serves entities or query results changed on another
+ * node. Only installations known to run on a single node may switch the
+ * replication off with the system property {@value #PROPERTY_CLUSTER}
+ * <code>=false</code>.
+ */
+public class OscmEhCacheRegionFactory extends EhCacheRegionFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String PROPERTY_CLUSTER = "oscm.cache.cluster";
+
+    static final String PROPERTY_CONFIGURATION = "net.sf.ehcache.configurationResourceName";
+
+    static final String LOCAL_CONFIGURATION = "/ehcache-oscm.xml";
+    static final String CLUSTER_CONFIGURATION = "/ehcache-oscm-cluster.xml";
+
+    public OscmEhCacheRegionFactory() {
+        super();
+    }
+
+    public OscmEhCacheRegionFactory(Properties properties) {
+        super(properties);
+    }
+
+    @Override
+    public void start(Settings settings, Properties properties)
+            throws CacheException {
+        Properties configured = new Properties();
+        for (String name : properties.stringPropertyNames()) {
+            configured.setProperty(name, properties.getProperty(name));
+        }
+        configured.setProperty(PROPERTY_CONFIGURATION,
+                getConfigurationResourceName());
+        super.start(settings, configured);
+    }
+
+    /**
+     * Returns the Ehcache configuration to be used. The local configuration
+     * is only used if the cluster replication is switched off explicitly, any
+     * other value including an unresolved placeholder keeps it on.
+     */
+    static String getConfigurationResourceName() {
+        if ("false".equalsIgnoreCase(System.getProperty(PROPERTY_CLUSTER, "")
+                .trim())) {
+            return LOCAL_CONFIGURATION;
+        }
+        return CLUSTER_CONFIGURATION;
+    }
+}
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.dbtask;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import org.oscm.dbtask.BillingXmlMigrationTask.MigrationRow;
+
+public class BillingXmlMigrationTaskTest {
+
+    static class UpperCaseMigration extends BillingXmlMigrationTask {
+
+        @Override
+        protected String getTableName() {
+            return TABLE_BILLINGRESULT;
+        }
+
+        @Override
+        protected String migrateXml(String xml) throws Exception {
+            if ("broken".equals(xml)) {
+                throw new IllegalArgumentException(xml);
+            }
+            return xml.toUpperCase();
+        }
+    }
+
+    private BillingXmlMigrationTask task;
+    private Connection connection;
+    private PreparedStatement statement;
+
+    @Before
+    public void setup() throws Exception {
+        System.setProperty(BillingXmlMigrationTask.PROPERTY_THREADS, "4");
+        task = spy(new UpperCaseMigration());
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        doReturn(statement).when(connection).prepareStatement(anyString());
+        task.setConnection(connection);
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(BillingXmlMigrationTask.PROPERTY_THREADS);
+    }
+
+    @Test
+    public void execute_chunks() throws Exception {
+        // given
+        mockCheckpoint(0);
+        doReturn(rows(1, 2)).doReturn(rows(3)).doReturn(rows())
+                .when(task).readRows(anyLong(), anyInt());
+        doNothing().when(task).writeRows(anyListOf(MigrationRow.class));
+
+        // when
+        task.execute();
+
+        // then
+        verify(task).readRows(0, BillingXmlMigrationTask.DEFAULT_CHUNK_SIZE);
+        verify(task).readRows(2, BillingXmlMigrationTask.DEFAULT_CHUNK_SIZE);
+        verify(task).readRows(3, BillingXmlMigrationTask.DEFAULT_CHUNK_SIZE);
+        verify(task, times(2)).writeRows(anyListOf(MigrationRow.class));
+        verify(task).writeCheckpoint(2, 2);
+        verify(task).writeCheckpoint(3, 3);
+        verify(connection, times(2)).commit();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void execute_migratesInParallelKeepingOrder() throws Exception {
+        // given
+        mockCheckpoint(0);
+        List<MigrationRow> chunk = new ArrayList<MigrationRow>();
+        for (int i = 1; i <= 100; i++) {
+            chunk.add(new MigrationRow(i, "<xml" + i + "/>"));
+        }
+        doReturn(chunk).doReturn(rows()).when(task)
+                .readRows(anyLong(), anyInt());
+        doNothing().when(task).writeRows(anyListOf(MigrationRow.class));
+
+        // when
+        task.execute();
+
+        // then
+        ArgumentCaptor<List> rowsArg = ArgumentCaptor.forClass(List.class);
+        verify(task).writeRows(rowsArg.capture());
+        List<MigrationRow> written = rowsArg.getValue();
+        assertEquals(100, written.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertEquals(i + 1, written.get(i).getKey());
+            assertEquals("<XML" + (i + 1) + "/>", written.get(i)
+                    .getMigratedXml());
+        }
+    }
+
+    @Test
+    public void execute_resumesAfterCheckpoint() throws Exception {
+        // given
+        mockCheckpoint(4711);
+        doReturn(rows()).when(task).readRows(anyLong(), anyInt());
+
+        // when
+        task.execute();
+
+        // then
+        verify(task).readRows(4711, BillingXmlMigrationTask.DEFAULT_CHUNK_SIZE);
+        verify(task, never()).writeRows(anyListOf(MigrationRow.class));
+        verify(task, never()).writeCheckpoint(anyLong(), anyLong());
+    }
+
+    @Test
+    public void execute_keepsCheckpoint() throws Exception {
+        // given
+        mockCheckpoint(0);
+        doReturn(rows(1)).doReturn(rows()).when(task)
+                .readRows(anyLong(), anyInt());
+        doNothing().when(task).writeRows(anyListOf(MigrationRow.class));
+
+        // when
+        task.execute();
+
+        // then
+        verify(task).writeCheckpoint(1, 1);
+        verify(connection, never()).createStatement();
+    }
+
+    @Test
+    public void removeCheckpoints() throws Exception {
+        // given
+        Statement stmt = mock(Statement.class);
+        doReturn(stmt).when(connection).createStatement();
+
+        // when
+        BillingXmlMigrationTask.removeCheckpoints(connection);
+
+        // then
+        verify(stmt).execute("DROP TABLE IF EXISTS dbtaskcheckpoint;");
+        verify(stmt).close();
+    }
+
+    @Test
+    public void execute_migrationFails() throws Exception {
+        // given
+        mockCheckpoint(0);
+        List<MigrationRow> chunk = Arrays.asList(new MigrationRow(1, "<a/>"),
+                new MigrationRow(2, "broken"));
+        doReturn(chunk).when(task).readRows(anyLong(), anyInt());
+
+        // when
+        try {
+            task.execute();
+            fail();
+        } catch (Exception e) {
+            // then
+            assertTrue(e.getMessage().contains("tkey '2'"));
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        verify(task, never()).writeRows(anyListOf(MigrationRow.class));
+        verify(task, never()).writeCheckpoint(anyLong(), anyLong());
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    public void readRows() throws Exception {
+        // given
+        ResultSet rs = mock(ResultSet.class);
+        when(Boolean.valueOf(rs.next())).thenReturn(Boolean.TRUE,
+                Boolean.FALSE);
+        when(Long.valueOf(rs.getLong(DatabaseUpgradeTask.COLUMN_TKEY)))
+                .thenReturn(Long.valueOf(12));
+        when(rs.getString(DatabaseUpgradeTask.COLUMN_RESULTXML)).thenReturn(
+                "<a/>");
+        doReturn(rs).when(statement).executeQuery();
+        doReturn("resulttype='SUPPLIER'").when(task).getRowFilter();
+
+        // when
+        List<MigrationRow> result = task.readRows(10, 50);
+
+        // then
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture());
+        assertTrue(sql.getValue().contains("tkey>?"));
+        assertTrue(sql.getValue().contains("AND (resulttype='SUPPLIER')"));
+        assertTrue(sql.getValue().contains("ORDER BY tkey"));
+        verify(statement).setMaxRows(50);
+        verify(statement).setLong(1, 10);
+        assertEquals(1, result.size());
+        assertEquals(12, result.get(0).getKey());
+        assertEquals("<a/>", result.get(0).getXml());
+    }
+
+    @Test
+    public void writeRows() throws Exception {
+        // given
+        doReturn(new int[] { 1, 1 }).when(statement).executeBatch();
+
+        // when
+        task.writeRows(migratedRows());
+
+        // then
+        verify(statement, times(2)).addBatch();
+        verify(statement).executeBatch();
+        verify(statement, never()).executeUpdate();
+        verify(statement).setString(1, "<B/>");
+        verify(statement).setLong(2, 2);
+    }
+
+    @Test(expected = Exception.class)
+    public void writeRows_rowNotUpdated() throws Exception {
+        // given
+        doReturn(new int[] { 1, 0 }).when(statement).executeBatch();
+
+        // when
+        task.writeRows(migratedRows());
+    }
+
+    private void mockCheckpoint(long lastKey) throws Exception {
+        doReturn(Long.valueOf(lastKey)).when(task).readCheckpoint();
+        doNothing().when(task).writeCheckpoint(anyLong(), anyLong());
+    }
+
+    private static List<MigrationRow> rows(long... keys) {
+        List<MigrationRow> result = new ArrayList<MigrationRow>();
+        for (long key : keys) {
+            result.add(new MigrationRow(key, "<xml/>"));
+        }
+        return result;
+    }
+
+    private static List<MigrationRow> migratedRows() {
+        List<MigrationRow> result = rows(1, 2);
+        result.get(0).setMigratedXml("<A/>");
+        result.get(1).setMigratedXml("<B/>");
+        return result;
+    }
+}
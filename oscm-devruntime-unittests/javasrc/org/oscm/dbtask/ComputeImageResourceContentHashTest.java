@@ -0,0 +1,78 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.dbtask;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.sql.Blob;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.oscm.converter.ContentHashConverter;
+
+public class ComputeImageResourceContentHashTest {
+
+    private static final byte[] IMAGE = new byte[] { 'G', 'I', 'F' };
+
+    private ComputeImageResourceContentHash task;
+    private PreparedStatement query;
+    private PreparedStatement update;
+    private ResultSet images;
+
+    @Before
+    public void setup() throws Exception {
+        task = new ComputeImageResourceContentHash();
+        Connection connection = mock(Connection.class);
+        query = mock(PreparedStatement.class);
+        update = mock(PreparedStatement.class);
+        images = mock(ResultSet.class);
+        doReturn(query).when(connection).prepareStatement(
+                ComputeImageResourceContentHash.QUERY_IMAGES);
+        doReturn(update).when(connection).prepareStatement(
+                ComputeImageResourceContentHash.UPDATE_HASH);
+        doReturn(images).when(query).executeQuery();
+        task.setConnection(connection);
+    }
+
+    @Test
+    public void execute() throws Exception {
+        // given
+        Blob blob = mock(Blob.class);
+        doReturn(Long.valueOf(IMAGE.length)).when(blob).length();
+        doReturn(IMAGE).when(blob).getBytes(1, IMAGE.length);
+        doReturn(Boolean.TRUE, Boolean.FALSE).when(images).next();
+        doReturn(blob).when(images).getBlob("buffer");
+        doReturn(Long.valueOf(4711)).when(images).getLong("tkey");
+
+        // when
+        task.execute();
+
+        // then
+        verify(update).setString(1,
+                ContentHashConverter.toContentHash(IMAGE));
+        verify(update).setLong(2, 4711);
+        verify(update).addBatch();
+        verify(update).executeBatch();
+    }
+
+    @Test
+    public void execute_noImages() throws Exception {
+        // given
+        doReturn(Boolean.FALSE).when(images).next();
+
+        // when
+        task.execute();
+
+        // then
+        verify(update, never()).addBatch();
+    }
+}
@@ -9,19 +9,23 @@
 package org.oscm.dbtask;
 
 import static org.junit.Assert.assertEquals;
-import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.sql.ResultSet;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -29,17 +33,16 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.xml.sax.SAXException;
 
+import org.oscm.dbtask.BillingXmlMigrationTask.MigrationRow;
 import org.oscm.stream.Streams;
 import org.oscm.string.Strings;
-import org.oscm.internal.types.enumtypes.BillingSharesResultType;
 
 /**
  * @author baumann
  */
 public class MigrationBillingSharesResultOperatorRevShareTest {
 
-    private static final String BILLING_SHARES_RESULT_SUPPLIER_TKEY = "4711";
-    private static final String BILLING_SHARES_RESULT_DUMMY = "<SupplierRevenueShareResult/>";
+    private static final long BILLING_SHARES_RESULT_SUPPLIER_TKEY = 4711;
     private static String BILLING_SHARES_RESULT_SETUP;
     private static String BILLING_SHARES_RESULT_EXPECTED;
     private MigrationBillingSharesResultOperatorRevShare migrationTask;
@@ -78,48 +81,49 @@ public class MigrationBillingSharesResultOperatorRevShareTest {
         migrationTask.migrateBillingSharesResultXml("invalid xml file");
     }
 
+    @Test
+    public void getRowFilter() {
+        // when, then
+        assertEquals("resulttype='SUPPLIER'", migrationTask.getRowFilter());
+    }
+
+    @SuppressWarnings("unchecked")
     @Test
     public void execute() throws Exception {
         // given
-        mockGetRecordsByTable();
+        mockDatabaseAccess();
 
         // when
         migrationTask.execute();
 
         // then
-        ArgumentCaptor<String> tKeyArg = ArgumentCaptor.forClass(String.class);
-        ArgumentCaptor<String> migratedXmlArg = ArgumentCaptor
-                .forClass(String.class);
-        verify(migrationTask).updateBillingSharesResultTable(tKeyArg.capture(),
-                migratedXmlArg.capture());
-
+        ArgumentCaptor<List> rowsArg = ArgumentCaptor.forClass(List.class);
+        verify(migrationTask).writeRows(rowsArg.capture());
+        List<MigrationRow> rows = rowsArg.getValue();
+        assertEquals(1, rows.size());
         assertEquals("Wrong billing shares result key",
-                BILLING_SHARES_RESULT_SUPPLIER_TKEY, tKeyArg.getValue());
+                BILLING_SHARES_RESULT_SUPPLIER_TKEY, rows.get(0).getKey());
         assertEquals(BILLING_SHARES_RESULT_EXPECTED.replaceAll("[ ,\n]", ""),
-                migratedXmlArg.getValue().replaceAll("[ ,\n,\r]", ""));
+                rows.get(0).getMigratedXml().replaceAll("[ ,\n,\r]", ""));
+        verify(migrationTask).writeCheckpoint(
+                BILLING_SHARES_RESULT_SUPPLIER_TKEY, 1);
+        verify(migrationTask).removeCheckpoint();
     }
 
-    private void mockGetRecordsByTable() throws Exception {
-        ResultSet resultSetMock = mock(ResultSet.class);
-
-        when(Boolean.valueOf(resultSetMock.next())).thenReturn(Boolean.TRUE,
-                Boolean.TRUE, Boolean.FALSE);
-
-        when(resultSetMock.getString(DatabaseUpgradeTask.COLUMN_RESULTTYPE))
-                .thenReturn(BillingSharesResultType.BROKER.name(),
-                        BillingSharesResultType.SUPPLIER.name());
-
-        when(resultSetMock.getString(DatabaseUpgradeTask.COLUMN_RESULTXML))
-                .thenReturn(BILLING_SHARES_RESULT_DUMMY,
-                        BILLING_SHARES_RESULT_SETUP);
-
-        when(resultSetMock.getString(DatabaseUpgradeTask.COLUMN_TKEY))
-                .thenReturn(BILLING_SHARES_RESULT_SUPPLIER_TKEY);
-
-        doReturn(resultSetMock).when(migrationTask).getRecordsByTable(
-                DatabaseUpgradeTask.TABLE_BILLINGSHARESRESULT);
-
-        doNothing().when(migrationTask).updateBillingSharesResultTable(
-                anyString(), anyString());
+    private void mockDatabaseAccess() throws Exception {
+        Connection connection = mock(Connection.class);
+        migrationTask.setConnection(connection);
+
+        doReturn(Long.valueOf(0)).when(migrationTask).readCheckpoint();
+        doReturn(
+                Arrays.asList(new MigrationRow(
+                        BILLING_SHARES_RESULT_SUPPLIER_TKEY,
+                        BILLING_SHARES_RESULT_SETUP))).doReturn(
+                new ArrayList<MigrationRow>()).when(migrationTask)
+                .readRows(anyLong(), anyInt());
+        doNothing().when(migrationTask).writeRows(
+                anyListOf(MigrationRow.class));
+        doNothing().when(migrationTask).writeCheckpoint(anyLong(), anyLong());
+        doNothing().when(migrationTask).removeCheckpoint();
     }
 }
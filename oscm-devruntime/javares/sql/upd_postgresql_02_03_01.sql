@@ -2,23 +2,26 @@
 -- RQ: GPaaS - Flexible billing cut-off day 
 ---------------------------------------------------------------
 
-ALTER TABLE organization ADD COLUMN cutoffday INT;
-ALTER TABLE organizationhistory ADD COLUMN cutoffday INT;
-ALTER TABLE subscription ADD COLUMN cutoffday INT;
-ALTER TABLE subscriptionhistory ADD COLUMN cutoffday INT;
+-- The statements are repeatable, because the following task commits after
+-- each chunk and is resumed by a restarted upgrade.
 
-UPDATE organization SET cutoffday = 1;
-UPDATE organizationhistory SET cutoffday = 1;
-UPDATE subscription SET cutoffday = 1;
-UPDATE subscriptionhistory SET cutoffday = 1;
+DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM information_schema.columns WHERE table_name='organization' AND column_name='cutoffday') THEN ALTER TABLE organization ADD COLUMN cutoffday INT; END IF; END $$;
+DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM information_schema.columns WHERE table_name='organizationhistory' AND column_name='cutoffday') THEN ALTER TABLE organizationhistory ADD COLUMN cutoffday INT; END IF; END $$;
+DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM information_schema.columns WHERE table_name='subscription' AND column_name='cutoffday') THEN ALTER TABLE subscription ADD COLUMN cutoffday INT; END IF; END $$;
+DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM information_schema.columns WHERE table_name='subscriptionhistory' AND column_name='cutoffday') THEN ALTER TABLE subscriptionhistory ADD COLUMN cutoffday INT; END IF; END $$;
+
+UPDATE organization SET cutoffday = 1 WHERE cutoffday IS NULL;
+UPDATE organizationhistory SET cutoffday = 1 WHERE cutoffday IS NULL;
+UPDATE subscription SET cutoffday = 1 WHERE cutoffday IS NULL;
+UPDATE subscriptionhistory SET cutoffday = 1 WHERE cutoffday IS NULL;
 
 ALTER TABLE organization ALTER COLUMN cutoffday SET NOT NULL;
 ALTER TABLE organizationhistory ALTER COLUMN cutoffday SET NOT NULL;
 ALTER TABLE subscription ALTER COLUMN cutoffday SET NOT NULL;
 ALTER TABLE subscriptionhistory ALTER COLUMN cutoffday SET NOT NULL;
-ALTER TABLE organization ADD CONSTRAINT organization_cutoffday CHECK (cutoffday>0 AND cutoffday<29);
-ALTER TABLE organizationhistory ADD CONSTRAINT organizationhistory_cutoffday CHECK (cutoffday>0 AND cutoffday<29);
-ALTER TABLE subscription ADD CONSTRAINT subscription_cutoffday CHECK (cutoffday>0 AND cutoffday<29);
-ALTER TABLE subscriptionhistory ADD CONSTRAINT subscriptionhistory_cutoffday CHECK (cutoffday>0 AND cutoffday<29);
+DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM information_schema.table_constraints WHERE table_name='organization' AND constraint_name='organization_cutoffday') THEN ALTER TABLE organization ADD CONSTRAINT organization_cutoffday CHECK (cutoffday>0 AND cutoffday<29); END IF; END $$;
+DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM information_schema.table_constraints WHERE table_name='organizationhistory' AND constraint_name='organizationhistory_cutoffday') THEN ALTER TABLE organizationhistory ADD CONSTRAINT organizationhistory_cutoffday CHECK (cutoffday>0 AND cutoffday<29); END IF; END $$;
+DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM information_schema.table_constraints WHERE table_name='subscription' AND constraint_name='subscription_cutoffday') THEN ALTER TABLE subscription ADD CONSTRAINT subscription_cutoffday CHECK (cutoffday>0 AND cutoffday<29); END IF; END $$;
+DO $$ BEGIN IF NOT EXISTS (SELECT 1 FROM information_schema.table_constraints WHERE table_name='subscriptionhistory' AND constraint_name='subscriptionhistory_cutoffday') THEN ALTER TABLE subscriptionhistory ADD CONSTRAINT subscriptionhistory_cutoffday CHECK (cutoffday>0 AND cutoffday<29); END IF; END $$;
 
 run:MigrationBillingSharesResultSubscriptionPeriod;
@@ -0,0 +1,3 @@
+ALTER TABLE "imageresource" ADD "contenthash" VARCHAR(64);
+
+run:ComputeImageResourceContentHash;
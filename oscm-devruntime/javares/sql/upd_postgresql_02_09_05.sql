@@ -0,0 +1,23 @@
+CREATE TABLE "timerpartition" (
+		"tkey" BIGINT NOT NULL,
+		"version" INTEGER DEFAULT 0 NOT NULL,
+		"timertype" VARCHAR(255) NOT NULL,
+		"starttime" BIGINT NOT NULL,
+		"partitionindex" INTEGER NOT NULL,
+		"lowerkey" BIGINT NOT NULL,
+		"upperkey" BIGINT NOT NULL,
+		"itemcount" INTEGER NOT NULL,
+		"nodename" VARCHAR(255),
+		"leaseexpiry" BIGINT NOT NULL,
+		"finished" BOOLEAN NOT NULL,
+		"success" BOOLEAN NOT NULL
+	)
+;
+
+ALTER TABLE "timerpartition" ADD CONSTRAINT "timerpartition_pk" PRIMARY KEY ("tkey");
+
+CREATE UNIQUE INDEX "timerpartition_uc_uidx" ON "timerpartition" ("timertype" asc, "starttime" asc, "partitionindex" asc);
+
+CREATE INDEX "timerpartition_claim_nuidx" ON "timerpartition" ("timertype", "finished", "leaseexpiry");
+
+insert into hibernate_sequences ("sequence_name", "sequence_next_hi_value") select 'TimerPartition', COALESCE((MAX(tkey)/1000),0)+10 from timerpartition;
@@ -0,0 +1,48 @@
+CREATE TABLE "servicelisting" (
+		"tkey" BIGINT NOT NULL,
+		"version" INTEGER DEFAULT 0 NOT NULL,
+		"productkey" BIGINT NOT NULL,
+		"templatekey" BIGINT,
+		"productversion" INTEGER NOT NULL,
+		"locale" VARCHAR(255) NOT NULL,
+		"timestamp" TIMESTAMP NOT NULL,
+		"serviceid" VARCHAR(255) NOT NULL,
+		"serviceidtodisplay" TEXT,
+		"name" TEXT,
+		"shortdescription" TEXT,
+		"status" VARCHAR(255),
+		"autoassignuserenabled" BOOLEAN,
+		"sellerkey" BIGINT NOT NULL,
+		"sellerid" VARCHAR(255),
+		"sellername" TEXT,
+		"offeringtype" VARCHAR(255),
+		"averagerating" NUMERIC,
+		"numberofreviews" INTEGER NOT NULL,
+		"technicalid" VARCHAR(255),
+		"tags" TEXT,
+		"accesstype" VARCHAR(255),
+		"baseurl" TEXT,
+		"billingidentifier" VARCHAR(255),
+		"pricemodelkey" BIGINT,
+		"pricemodelversion" INTEGER NOT NULL,
+		"pricemodelexternal" BOOLEAN NOT NULL,
+		"pricemodeltype" VARCHAR(255),
+		"pricemodeluuid" VARCHAR(64),
+		"period" VARCHAR(255),
+		"onetimefee" NUMERIC,
+		"priceperperiod" NUMERIC,
+		"priceperuserassignment" NUMERIC,
+		"currencyisocode" VARCHAR(3),
+		"license" TEXT
+	)
+;
+
+ALTER TABLE "servicelisting" ADD CONSTRAINT "servicelisting_pk" PRIMARY KEY ("tkey");
+
+CREATE UNIQUE INDEX "servicelisting_uc_uidx" ON "servicelisting" ("productkey" asc, "locale" asc);
+
+CREATE INDEX "servicelisting_template_nuidx" ON "servicelisting" ("templatekey");
+
+CREATE INDEX "servicelisting_timestamp_nuidx" ON "servicelisting" ("timestamp");
+
+insert into hibernate_sequences ("sequence_name", "sequence_next_hi_value") select 'ServiceListing', COALESCE((MAX(tkey)/1000),0)+10 from servicelisting;
@@ -0,0 +1 @@
+CREATE INDEX "session_subscription_nuidx" ON "session" ("subscriptiontkey", "sessiontype");
@@ -0,0 +1,26 @@
+ALTER TABLE "productfeedback" ADD COLUMN "numberofreviews" INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE "productfeedback" ADD COLUMN "ratingsum" BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE "productfeedback" ADD COLUMN "ratingcount1" INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE "productfeedback" ADD COLUMN "ratingcount2" INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE "productfeedback" ADD COLUMN "ratingcount3" INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE "productfeedback" ADD COLUMN "ratingcount4" INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE "productfeedback" ADD COLUMN "ratingcount5" INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE "productfeedback" f SET
+	"numberofreviews" = r."numberofreviews",
+	"ratingsum" = r."ratingsum",
+	"ratingcount1" = r."ratingcount1",
+	"ratingcount2" = r."ratingcount2",
+	"ratingcount3" = r."ratingcount3",
+	"ratingcount4" = r."ratingcount4",
+	"ratingcount5" = r."ratingcount5"
+FROM (SELECT "productfeedback_tkey",
+		COUNT(*) AS "numberofreviews",
+		SUM("rating") AS "ratingsum",
+		SUM(CASE WHEN "rating" = 1 THEN 1 ELSE 0 END) AS "ratingcount1",
+		SUM(CASE WHEN "rating" = 2 THEN 1 ELSE 0 END) AS "ratingcount2",
+		SUM(CASE WHEN "rating" = 3 THEN 1 ELSE 0 END) AS "ratingcount3",
+		SUM(CASE WHEN "rating" = 4 THEN 1 ELSE 0 END) AS "ratingcount4",
+		SUM(CASE WHEN "rating" = 5 THEN 1 ELSE 0 END) AS "ratingcount5"
+	FROM "productreview" GROUP BY "productfeedback_tkey") r
+WHERE f."tkey" = r."productfeedback_tkey";
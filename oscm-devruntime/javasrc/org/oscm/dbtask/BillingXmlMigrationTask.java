@@ -0,0 +1,355 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.dbtask;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Base class for database upgrade tasks which rewrite the result XML of the
+ * billing tables ('billingresult', 'billingsharesresult').
+ * <p>
+ * The rows are read in chunks ordered by their technical key, so only one
+ * chunk is held in memory. The XML of a chunk is migrated on a pool of worker
+ * threads and written back with a single JDBC batch. After each chunk the key
+ * of the last migrated row is stored in the table
+ * {@value #TABLE_CHECKPOINT} and the transaction is committed. If the upgrade
+ * is aborted, a restarted task continues with the first row after the stored
+ * key. The checkpoint is kept when the task has finished, so a task that
+ * completed before a later command of the same script failed does not migrate
+ * its rows again. The checkpoints are removed by
+ * {@link #removeCheckpoints(Connection)} together with the update of the
+ * schema version, i.e. only when the whole script has been committed. Because
+ * the surrounding transaction is committed after each chunk, the statements
+ * of an upgrade script preceding a task of this type must be repeatable, or
+ * the task must be placed in a script file of its own.
+ * <p>
+ * The worker count, the chunk size and the JDBC fetch size can be configured
+ * with the system properties {@value #PROPERTY_THREADS},
+ * {@value #PROPERTY_CHUNK_SIZE} and {@value #PROPERTY_FETCH_SIZE}.
+ */
+public abstract class BillingXmlMigrationTask extends DatabaseUpgradeTask {
+
+    static final String TABLE_CHECKPOINT = "dbtaskcheckpoint";
+
+    static final String PROPERTY_THREADS = "oscm.dbtask.threads";
+    static final String PROPERTY_CHUNK_SIZE = "oscm.dbtask.chunksize";
+    static final String PROPERTY_FETCH_SIZE = "oscm.dbtask.fetchsize";
+
+    static final int DEFAULT_CHUNK_SIZE = 500;
+    static final int DEFAULT_FETCH_SIZE = 100;
+
+    /**
+     * A row of the migrated table.
+     */
+    static class MigrationRow {
+
+        private final long key;
+        private final String xml;
+        private String migratedXml;
+
+        MigrationRow(long key, String xml) {
+            this.key = key;
+            this.xml = xml;
+        }
+
+        long getKey() {
+            return key;
+        }
+
+        String getXml() {
+            return xml;
+        }
+
+        String getMigratedXml() {
+            return migratedXml;
+        }
+
+        void setMigratedXml(String migratedXml) {
+            this.migratedXml = migratedXml;
+        }
+    }
+
+    /**
+     * Returns the name of the table whose result XML is migrated.
+     */
+    protected abstract String getTableName();
+
+    /**
+     * Migrates the result XML of a single row. This method is called
+     * concurrently from several worker threads and must not access the
+     * database connection or any other shared state of the task.
+     *
+     * @param xml
+     *            the result XML, never <code>null</code> or empty
+     * @return the migrated result XML
+     */
+    protected abstract String migrateXml(String xml) throws Exception;
+
+    /**
+     * Returns an additional SQL condition restricting the rows to be migrated,
+     * or <code>null</code> if all rows with a result XML are migrated.
+     */
+    protected String getRowFilter() {
+        return null;
+    }
+
+    /**
+     * Prepares the migration before the first row is read, e.g. to read
+     * configuration settings. The default implementation does nothing.
+     */
+    protected void prepare() throws Exception {
+    }
+
+    @Override
+    public void execute() throws Exception {
+        Locale backup = Locale.getDefault();
+        Locale.setDefault(Locale.ENGLISH);
+        ExecutorService executor = Executors
+                .newFixedThreadPool(getThreadCount());
+        try {
+            prepare();
+            migrate(executor);
+        } finally {
+            executor.shutdownNow();
+            Locale.setDefault(backup);
+        }
+    }
+
+    private void migrate(ExecutorService executor) throws Exception {
+        int chunkSize = getIntProperty(PROPERTY_CHUNK_SIZE, DEFAULT_CHUNK_SIZE);
+        long lastKey = readCheckpoint();
+        long processed = 0;
+        long start = System.currentTimeMillis();
+        List<MigrationRow> rows = readRows(lastKey, chunkSize);
+        while (!rows.isEmpty()) {
+            migrateRows(executor, rows);
+            writeRows(rows);
+            lastKey = rows.get(rows.size() - 1).getKey();
+            processed += rows.size();
+            writeCheckpoint(lastKey, processed);
+            commit();
+            rows = readRows(lastKey, chunkSize);
+        }
+        report(processed, System.currentTimeMillis() - start);
+    }
+
+    void migrateRows(ExecutorService executor, List<MigrationRow> rows)
+            throws Exception {
+        List<Future<String>> results = new ArrayList<Future<String>>();
+        for (final MigrationRow row : rows) {
+            results.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return migrateXml(row.getXml());
+                }
+            }));
+        }
+        for (int i = 0; i < rows.size(); i++) {
+            MigrationRow row = rows.get(i);
+            try {
+                row.setMigratedXml(results.get(i).get());
+            } catch (ExecutionException e) {
+                String message = "The migration of %s with tkey '%s' failed.";
+                throw new Exception(String.format(message, getTableName(),
+                        Long.valueOf(row.getKey())), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Reads the next chunk of rows with a result XML, starting after the given
+     * key.
+     */
+    List<MigrationRow> readRows(long afterKey, int chunkSize)
+            throws Exception {
+        StringBuffer sql = new StringBuffer();
+        sql.append(String.format("SELECT %s, %s FROM %s WHERE %s>?",
+                COLUMN_TKEY, COLUMN_RESULTXML, getTableName(), COLUMN_TKEY));
+        sql.append(String.format(" AND %s IS NOT NULL AND %s<>''",
+                COLUMN_RESULTXML, COLUMN_RESULTXML));
+        if (getRowFilter() != null) {
+            sql.append(" AND (").append(getRowFilter()).append(")");
+        }
+        sql.append(String.format(" ORDER BY %s;", COLUMN_TKEY));
+
+        List<MigrationRow> rows = new ArrayList<MigrationRow>();
+        PreparedStatement stmt = getPreparedStatement(sql.toString());
+        try {
+            stmt.setFetchSize(getIntProperty(PROPERTY_FETCH_SIZE,
+                    DEFAULT_FETCH_SIZE));
+            stmt.setMaxRows(chunkSize);
+            stmt.setLong(1, afterKey);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                rows.add(new MigrationRow(rs.getLong(COLUMN_TKEY), rs
+                        .getString(COLUMN_RESULTXML)));
+            }
+            rs.close();
+        } finally {
+            stmt.close();
+        }
+        return rows;
+    }
+
+    /**
+     * Writes the migrated result XML of the given rows with a single JDBC
+     * batch.
+     */
+    void writeRows(List<MigrationRow> rows) throws Exception {
+        String sql = String.format("UPDATE %s SET %s=? WHERE %s=?;",
+                getTableName(), COLUMN_RESULTXML, COLUMN_TKEY);
+        PreparedStatement stmt = getPreparedStatement(sql);
+        try {
+            for (MigrationRow row : rows) {
+                stmt.setString(1, row.getMigratedXml());
+                stmt.setLong(2, row.getKey());
+                stmt.addBatch();
+            }
+            int[] counts = stmt.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    String message = "The update of %s failed for a row of the batch starting with tkey '%s'.";
+                    throw new Exception(String.format(message, getTableName(),
+                            Long.valueOf(rows.get(0).getKey())));
+                }
+            }
+        } finally {
+            stmt.close();
+        }
+    }
+
+    /**
+     * Returns the key of the last row migrated by a previous, aborted run of
+     * this task, or <code>0</code> if the task has not been started before.
+     */
+    long readCheckpoint() throws Exception {
+        createCheckpointTable();
+        PreparedStatement stmt = getPreparedStatement(String.format(
+                "SELECT lastkey, processed FROM %s WHERE taskname=?;",
+                TABLE_CHECKPOINT));
+        try {
+            stmt.setString(1, getTaskName());
+            ResultSet rs = stmt.executeQuery();
+            long lastKey = 0;
+            if (rs.next()) {
+                lastKey = rs.getLong("lastkey");
+                System.out.println(String.format(
+                        "%s: resuming after tkey %s, %s rows already migrated",
+                        getTaskName(), Long.valueOf(lastKey),
+                        Long.valueOf(rs.getLong("processed"))));
+            }
+            rs.close();
+            return lastKey;
+        } finally {
+            stmt.close();
+        }
+    }
+
+    void writeCheckpoint(long lastKey, long processed) throws Exception {
+        PreparedStatement stmt = getPreparedStatement(String.format(
+                "UPDATE %s SET lastkey=?, processed=? WHERE taskname=?;",
+                TABLE_CHECKPOINT));
+        try {
+            stmt.setLong(1, lastKey);
+            stmt.setLong(2, processed);
+            stmt.setString(3, getTaskName());
+            if (stmt.executeUpdate() > 0) {
+                return;
+            }
+        } finally {
+            stmt.close();
+        }
+        stmt = getPreparedStatement(String.format(
+                "INSERT INTO %s (taskname, lastkey, processed) VALUES (?, ?, ?);",
+                TABLE_CHECKPOINT));
+        try {
+            stmt.setString(1, getTaskName());
+            stmt.setLong(2, lastKey);
+            stmt.setLong(3, processed);
+            stmt.executeUpdate();
+        } finally {
+            stmt.close();
+        }
+    }
+
+    /**
+     * Removes the checkpoints of all tasks. Must be called in the transaction
+     * finishing an upgrade script which invoked tasks of this type.
+     */
+    public static void removeCheckpoints(Connection connection)
+            throws SQLException {
+        Statement stmt = connection.createStatement();
+        try {
+            stmt.execute(String.format("DROP TABLE IF EXISTS %s;",
+                    TABLE_CHECKPOINT));
+        } finally {
+            stmt.close();
+        }
+    }
+
+    private void createCheckpointTable() throws Exception {
+        Statement stmt = getStatement();
+        try {
+            stmt.execute(String.format("CREATE TABLE IF NOT EXISTS %s "
+                    + "(taskname VARCHAR(255) NOT NULL PRIMARY KEY, "
+                    + "lastkey BIGINT NOT NULL, processed BIGINT NOT NULL);",
+                    TABLE_CHECKPOINT));
+        } finally {
+            stmt.close();
+        }
+    }
+
+    private void commit() throws SQLException {
+        Connection connection = getConnection();
+        if (!connection.getAutoCommit()) {
+            connection.commit();
+        }
+    }
+
+    void report(long processed, long duration) {
+        long rowsPerSecond = duration > 0 ? processed * 1000 / duration
+                : processed;
+        System.out.println(String.format(
+                "%s: %s rows of %s migrated in %s ms (%s rows/s)",
+                getTaskName(), Long.valueOf(processed), getTableName(),
+                Long.valueOf(duration), Long.valueOf(rowsPerSecond)));
+    }
+
+    String getTaskName() {
+        return getClass().getSimpleName();
+    }
+
+    int getThreadCount() {
+        return getIntProperty(PROPERTY_THREADS, Runtime.getRuntime()
+                .availableProcessors());
+    }
+
+    static int getIntProperty(String key, int defaultValue) {
+        String value = System.getProperty(key);
+        if (value != null) {
+            try {
+                int result = Integer.parseInt(value.trim());
+                if (result > 0) {
+                    return result;
+                }
+            } catch (NumberFormatException e) {
+                // use default value
+            }
+        }
+        return defaultValue;
+    }
+}
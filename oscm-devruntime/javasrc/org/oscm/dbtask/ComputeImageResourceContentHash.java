@@ -0,0 +1,42 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.dbtask;
+
+import java.sql.Blob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.oscm.converter.ContentHashConverter;
+
+/**
+ * Calculates the content hash of all stored images which have been created
+ * before the column 'contenthash' was introduced (upd_postgresql_02_09_04.sql).
+ */
+public class ComputeImageResourceContentHash extends DatabaseUpgradeTask {
+
+    static final String QUERY_IMAGES = "SELECT tkey, buffer FROM imageresource WHERE contenthash IS NULL;";
+    static final String UPDATE_HASH = "UPDATE imageresource SET contenthash=? WHERE tkey=?;";
+
+    @Override
+    public void execute() throws Exception {
+        ResultSet images = getPreparedStatement(QUERY_IMAGES).executeQuery();
+        PreparedStatement update = getPreparedStatement(UPDATE_HASH);
+        while (images.next()) {
+            update.setString(1, calculateHash(images.getBlob("buffer")));
+            update.setLong(2, images.getLong(COLUMN_TKEY));
+            update.addBatch();
+        }
+        images.close();
+        update.executeBatch();
+    }
+
+    String calculateHash(Blob buffer) throws Exception {
+        if (buffer == null) {
+            return null;
+        }
+        return ContentHashConverter.toContentHash(buffer.getBytes(1,
+                (int) buffer.length()));
+    }
+}
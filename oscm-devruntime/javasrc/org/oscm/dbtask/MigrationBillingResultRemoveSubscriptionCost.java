@@ -12,9 +12,6 @@
 
 package org.oscm.dbtask;
 
-import java.sql.ResultSet;
-import java.util.Locale;
-
 import javax.xml.xpath.XPathExpressionException;
 
 import org.w3c.dom.Document;
@@ -29,33 +26,15 @@ import org.oscm.converter.XMLConverter;
  * @author held
  */
 public class MigrationBillingResultRemoveSubscriptionCost extends
-        DatabaseUpgradeTask {
-    /*
-     * (non-Javadoc)
-     * 
-     * @see org.oscm.dbtask.DatabaseUpgradeTask#execute()
-     */
+        BillingXmlMigrationTask {
     @Override
-    public void execute() throws Exception {
-        Locale backup = Locale.getDefault();
-        Locale.setDefault(Locale.ENGLISH);
-        try {
-            ResultSet billingResults = getRecordsByTable(TABLE_BILLINGRESULT);
-            if (billingResults != null) {
-                while (billingResults.next()) {
-                    String billingXml = billingResults
-                            .getString(COLUMN_RESULTXML);
-                    if (billingXml != null && billingXml.length() > 0) {
-                        String migratedXml = migrateBillingResultXml(billingXml);
-                        updateBillingResultTable(
-                                billingResults.getString(COLUMN_TKEY),
-                                migratedXml);
-                    }
-                }
-            }
-        } finally {
-            Locale.setDefault(backup);
-        }
+    protected String getTableName() {
+        return TABLE_BILLINGRESULT;
+    }
+
+    @Override
+    protected String migrateXml(String xml) throws Exception {
+        return migrateBillingResultXml(xml);
     }
 
     protected String migrateBillingResultXml(String billingXml)
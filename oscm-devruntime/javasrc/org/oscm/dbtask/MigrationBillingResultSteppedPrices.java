@@ -15,8 +15,6 @@ package org.oscm.dbtask;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.sql.ResultSet;
-import java.util.Locale;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -36,7 +34,8 @@ import org.oscm.types.constants.BillingResultXMLTags;
 /**
  * @author kulle
  */
-public class MigrationBillingResultSteppedPrices extends DatabaseUpgradeTask {
+public class MigrationBillingResultSteppedPrices extends
+        BillingXmlMigrationTask {
 
     private static final String XPATH_STEPPEDPRICES = "//"
             + BillingResultXMLTags.STEPPED_PRICES_NODE_NAME;
@@ -83,26 +82,13 @@ public class MigrationBillingResultSteppedPrices extends DatabaseUpgradeTask {
     }
 
     @Override
-    public void execute() throws Exception {
-        Locale backup = Locale.getDefault();
-        Locale.setDefault(Locale.ENGLISH);
-        try {
-            ResultSet billingResults = getRecordsByTable(TABLE_BILLINGRESULT);
-            if (billingResults != null) {
-                while (billingResults.next()) {
-                    String billingXml = billingResults
-                            .getString(COLUMN_RESULTXML);
-                    if (billingXml != null && billingXml.length() > 0) {
-                        String migratedXml = migrateBillingResultXml(billingXml);
-                        updateBillingResultTable(
-                                billingResults.getString(COLUMN_TKEY),
-                                migratedXml);
-                    }
-                }
-            }
-        } finally {
-            Locale.setDefault(backup);
-        }
+    protected String getTableName() {
+        return TABLE_BILLINGRESULT;
+    }
+
+    @Override
+    protected String migrateXml(String xml) throws Exception {
+        return migrateBillingResultXml(xml);
     }
 
     protected String migrateBillingResultXml(String billingXml)
@@ -13,8 +13,6 @@
 package org.oscm.dbtask;
 
 import java.io.IOException;
-import java.sql.ResultSet;
-import java.util.Locale;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
@@ -36,29 +34,16 @@ import org.oscm.types.constants.BillingResultXMLTags;
  * @author stavreva
  */
 public class MigrationBillingSharesResultSubscriptionPeriod extends
-        DatabaseUpgradeTask {
+        BillingXmlMigrationTask {
 
     @Override
-    public void execute() throws Exception {
-        Locale backup = Locale.getDefault();
-        Locale.setDefault(Locale.ENGLISH);
-        try {
-            ResultSet billingSharesResults = getRecordsByTable(TABLE_BILLINGSHARESRESULT);
-            if (billingSharesResults != null) {
-                while (billingSharesResults.next()) {
-                    String billingXml = billingSharesResults
-                            .getString(COLUMN_RESULTXML);
-                    if (billingXml != null && billingXml.length() > 0) {
-                        String migratedXml = migrateBillingSharesResultXml(billingXml);
-                        updateBillingSharesResultTable(
-                                billingSharesResults.getString(COLUMN_TKEY),
-                                migratedXml);
-                    }
-                }
-            }
-        } finally {
-            Locale.setDefault(backup);
-        }
+    protected String getTableName() {
+        return TABLE_BILLINGSHARESRESULT;
+    }
+
+    @Override
+    protected String migrateXml(String xml) throws Exception {
+        return migrateBillingSharesResultXml(xml);
     }
 
     protected String migrateBillingSharesResultXml(String billingXml)
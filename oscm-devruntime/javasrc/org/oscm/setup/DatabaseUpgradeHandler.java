@@ -29,6 +29,7 @@ import java.util.List;
 import java.util.Properties;
 import java.util.regex.Pattern;
 
+import org.oscm.dbtask.BillingXmlMigrationTask;
 import org.oscm.dbtask.DatabaseUpgradeTask;
 import org.oscm.logging.Log4jLogger;
 import org.oscm.logging.LoggerFactory;
@@ -166,12 +167,14 @@ public class DatabaseUpgradeHandler {
             // check database connection
             conn.setAutoCommit(false);
             Statement stmt = conn.createStatement();
+            boolean tasksInvoked = false;
             try {
                 List<String> commands = getSQLCommandsFromFile(scriptFile);
                 for (String command : commands) {
                     try {
                         if (DatabaseUpgradeTask.isExecutableCommand(command)) {
                             DatabaseUpgradeTask.invoke(command, conn);
+                            tasksInvoked = true;
                         } else {
                             stmt.execute(command);
                         }
@@ -184,6 +187,10 @@ public class DatabaseUpgradeHandler {
             } finally {
                 closeStatement(stmt);
             }
+            if (tasksInvoked) {
+                // the whole script succeeded, so no task has to be resumed
+                BillingXmlMigrationTask.removeCheckpoints(conn);
+            }
             setSchemaVersion(conn, scriptFile);
             conn.commit();
         }
@@ -13,9 +13,12 @@
 package org.oscm.domobjects;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 
 import org.junit.Test;
 
+import org.oscm.converter.ContentHashConverter;
 import org.oscm.internal.types.enumtypes.ImageType;
 
 public class ImageResourceTest {
@@ -34,6 +37,32 @@ public class ImageResourceTest {
         assertEquals("Wrong image type", ImageType.SERVICE_IMAGE,
                 ir.getImageType());
         assertEquals("Wrong buffer content", bufferContent, ir.getBuffer());
+        assertEquals("Wrong content hash",
+                ContentHashConverter.toContentHash(bufferContent),
+                ir.getContentHash());
+    }
+
+    @Test
+    public void setBuffer_updatesContentHash() {
+        ImageResource ir = new ImageResource();
+        ir.setBuffer("buffer".getBytes());
+        String hash = ir.getContentHash();
+
+        ir.setBuffer("other".getBytes());
+
+        assertNotNull(ir.getContentHash());
+        assertFalse("Content hash not updated",
+                hash.equals(ir.getContentHash()));
+    }
+
+    @Test
+    public void copy_keepsContentHash() {
+        ImageResource ir = new ImageResource(1L, ImageType.SERVICE_IMAGE);
+        ir.setBuffer("buffer".getBytes());
+
+        ImageResource copy = ir.copy(2L);
+
+        assertEquals(ir.getContentHash(), copy.getContentHash());
     }
 
 }
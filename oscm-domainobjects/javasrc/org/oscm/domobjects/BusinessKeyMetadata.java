@@ -0,0 +1,106 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.domobjects;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.oscm.domobjects.annotations.BusinessKey;
+import org.oscm.internal.types.exception.SaaSSystemException;
+
+/**
+ * The business key of a domain object class, i.e. the attributes of its
+ * {@link BusinessKey} annotation, their getter methods and the name of the
+ * query finding an object by its business key. The metadata is determined
+ * once per class.
+ */
+public final class BusinessKeyMetadata {
+
+    private static final ConcurrentMap<Class<?>, BusinessKeyMetadata> METADATA = new ConcurrentHashMap<Class<?>, BusinessKeyMetadata>();
+
+    /**
+     * Placeholder for classes without business key, which cannot be stored in
+     * the concurrent map as <code>null</code>.
+     */
+    private static final BusinessKeyMetadata NONE = new BusinessKeyMetadata(
+            Object.class, null);
+
+    private final String queryName;
+    private final String[] attributes;
+    private final Method[] getters;
+
+    private BusinessKeyMetadata(Class<?> clazz, String[] attributes) {
+        String className = clazz.getName();
+        this.queryName = className.substring(className.lastIndexOf(".") + 1)
+                + ".findByBusinessKey";
+        this.attributes = attributes;
+        if (attributes == null) {
+            this.getters = null;
+            return;
+        }
+        this.getters = new Method[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            try {
+                getters[i] = clazz.getMethod(
+                        PersistenceReflection.getGetterName(attributes[i]),
+                        (Class<?>[]) null);
+            } catch (NoSuchMethodException e) {
+                // reported when the value is read
+            }
+        }
+    }
+
+    /**
+     * Returns the business key metadata of the given class, or
+     * <code>null</code> if the class does not define a business key.
+     */
+    public static BusinessKeyMetadata get(Class<?> clazz) {
+        BusinessKeyMetadata metadata = METADATA.get(clazz);
+        if (metadata == null) {
+            metadata = new BusinessKeyMetadata(clazz,
+                    PersistenceReflection.getBusinessKey(clazz));
+            if (metadata.attributes == null) {
+                metadata = NONE;
+            }
+            METADATA.putIfAbsent(clazz, metadata);
+        }
+        return metadata == NONE ? null : metadata;
+    }
+
+    /**
+     * Returns the name of the named query finding an object by its business
+     * key, whose parameters are named like the business key attributes.
+     */
+    public String getQueryName() {
+        return queryName;
+    }
+
+    /**
+     * Returns the names of the business key attributes.
+     */
+    public String[] getAttributes() {
+        return attributes.clone();
+    }
+
+    /**
+     * Returns the values of the business key attributes of the given object
+     * in the order of the attributes. Throws a SaaSSystemException if a getter
+     * method does not exist or cannot be invoked.
+     */
+    public Object[] getValues(DomainObject<?> obj) {
+        Object[] values = new Object[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            try {
+                values[i] = getters[i].invoke(obj, (Object[]) null);
+            } catch (Exception e) {
+                throw new SaaSSystemException(
+                        "Exception in BusinessKeyMetadata.getValues(" + obj
+                                + "," + attributes[i] + ")", e);
+            }
+        }
+        return values;
+    }
+}
@@ -12,12 +12,16 @@
 
 package org.oscm.domobjects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.oscm.internal.types.enumtypes.ConfigurationKey;
 import org.oscm.internal.types.exception.SaaSSystemException;
 
@@ -25,11 +29,14 @@ import org.oscm.internal.types.exception.SaaSSystemException;
  * @author jaeger
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "oscm.configuration")
 @Table(uniqueConstraints = { @UniqueConstraint(columnNames = {
         "INFORMATION_ID", "CONTEXT_ID" }) })
 @NamedQueries( {
-        @NamedQuery(name = "ConfigurationSetting.findByInfoAndContext", query = "SELECT cs FROM ConfigurationSetting cs WHERE cs.dataContainer.informationId = :informationId AND cs.dataContainer.contextId = :contextId"),
+        @NamedQuery(name = "ConfigurationSetting.findByInfoAndContext", query = "SELECT cs FROM ConfigurationSetting cs WHERE cs.dataContainer.informationId = :informationId AND cs.dataContainer.contextId = :contextId", hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
         @NamedQuery(name = "ConfigurationSetting.getAll", query = "SELECT cs FROM ConfigurationSetting cs"),
+        @NamedQuery(name = "ConfigurationSetting.getChangeMarker", query = "SELECT COUNT(cs), MAX(cs.key), SUM(cs.version) FROM ConfigurationSetting cs"),
         @NamedQuery(name = "ConfigurationSetting.getSettingsForNode", query = "SELECT cs FROM ConfigurationSetting cs WHERE cs.dataContainer.contextId IN (:context1, :globalContext)") })
 public class ConfigurationSetting extends
         DomainObjectWithVersioning<ConfigurationSettingData> {
@@ -17,6 +17,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -27,9 +28,12 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderBy;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.oscm.domobjects.annotations.BusinessKey;
 import org.oscm.domobjects.enums.LocalizedObjectTypes;
 import org.oscm.internal.types.enumtypes.EventType;
@@ -43,12 +47,14 @@ import org.oscm.internal.types.enumtypes.EventType;
  * 
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "oscm.technicalProduct")
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = {
         "technicalProduct_tkey", "eventIdentifier", "eventType" }))
 @NamedQueries({
         @NamedQuery(name = "Event.getPlatformEvent", query = "select c from Event c where c.technicalProduct is NULL AND c.dataContainer.eventType=:eventType AND c.dataContainer.eventIdentifier=:eventIdentifier ORDER BY c.key ASC"),
         @NamedQuery(name = "Event.getAllPlatformEvents", query = "select c from Event c where c.technicalProduct is NULL AND c.dataContainer.eventType=:eventType ORDER BY c.key ASC"),
-        @NamedQuery(name = "Event.findByBusinessKey", query = "select c from Event c where c.dataContainer.eventIdentifier=:eventIdentifier AND c.dataContainer.eventType=:eventType AND c.technicalProduct_tkey=:technicalProduct_tkey") })
+        @NamedQuery(name = "Event.findByBusinessKey", query = "select c from Event c where c.dataContainer.eventIdentifier=:eventIdentifier AND c.dataContainer.eventType=:eventType AND c.technicalProduct_tkey=:technicalProduct_tkey", hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")) })
 @BusinessKey(attributes = { "technicalProduct_tkey", "eventIdentifier",
         "eventType" })
 public class Event extends DomainObjectWithHistory<EventData> {
@@ -22,6 +22,7 @@ import javax.persistence.NamedQuery;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.oscm.converter.ContentHashConverter;
 import org.oscm.domobjects.annotations.BusinessKey;
 import org.oscm.internal.types.enumtypes.ImageType;
 
@@ -32,7 +33,9 @@ import org.oscm.internal.types.enumtypes.ImageType;
  * 
  */
 @Entity
-@NamedQueries({ @NamedQuery(name = "ImageResource.findByBusinessKey", query = "SELECT ir FROM ImageResource ir WHERE imageType = :imageType AND objectKey = :objectKey") })
+@NamedQueries({
+        @NamedQuery(name = "ImageResource.findByBusinessKey", query = "SELECT ir FROM ImageResource ir WHERE imageType = :imageType AND objectKey = :objectKey"),
+        @NamedQuery(name = "ImageResource.getContentHash", query = "SELECT ir.contentHash FROM ImageResource ir WHERE ir.imageType = :imageType AND ir.objectKey = :objectKey") })
 @BusinessKey(attributes = { "objectKey", "imageType" })
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = { "objectKey",
         "imageType" }))
@@ -57,6 +60,13 @@ public class ImageResource extends
 
     private String contentType;
 
+    /**
+     * SHA-256 hash of the buffer, used to validate cached copies of the image
+     * without reading the buffer.
+     */
+    @Column(length = 64)
+    private String contentHash;
+
     @Enumerated(EnumType.STRING)
     private ImageType imageType;
 
@@ -66,6 +76,10 @@ public class ImageResource extends
         return buffer;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
     public String getContentType() {
         return contentType;
     }
@@ -80,6 +94,7 @@ public class ImageResource extends
 
     public void setBuffer(byte[] value) {
         this.buffer = value;
+        this.contentHash = ContentHashConverter.toContentHash(value);
     }
 
     public void setContentType(String locale) {
@@ -15,6 +15,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
@@ -23,9 +24,12 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.oscm.domobjects.annotations.BusinessKey;
 import org.oscm.domobjects.enums.LocalizedObjectTypes;
 
@@ -36,7 +40,7 @@ import org.oscm.domobjects.enums.LocalizedObjectTypes;
 @BusinessKey(attributes = { "marketplaceId" })
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = { "marketplaceId" }))
 @NamedQueries({
-        @NamedQuery(name = "Marketplace.findByBusinessKey", query = "SELECT mp FROM Marketplace mp WHERE mp.dataContainer.marketplaceId = :marketplaceId"),
+        @NamedQuery(name = "Marketplace.findByBusinessKey", query = "SELECT mp FROM Marketplace mp WHERE mp.dataContainer.marketplaceId = :marketplaceId", hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
         @NamedQuery(name = "Marketplace.getAll", query = "SELECT mp FROM Marketplace mp"),
         @NamedQuery(name = "Marketplace.getAllAccessible", query = "SELECT mp FROM Marketplace mp WHERE mp"
             + ".dataContainer.restricted = FALSE OR EXISTS (SELECT ma FROM MarketplaceAccess ma WHERE ma"
@@ -52,6 +56,8 @@ import org.oscm.domobjects.enums.LocalizedObjectTypes;
                 + "WHERE mp.key = mto.marketplace_tkey AND mto.organization_tkey=:organization_tkey "
                 + "AND mto.dataContainer.publishingAccess=:publishingAccessDenied)) )") })
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "oscm.marketplace")
 public class Marketplace extends DomainObjectWithHistory<MarketplaceData> {
 
     private static final long serialVersionUID = -3734874169454511010L;
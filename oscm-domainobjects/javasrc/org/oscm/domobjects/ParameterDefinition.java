@@ -17,6 +17,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -27,9 +28,12 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderBy;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.oscm.domobjects.annotations.BusinessKey;
 import org.oscm.domobjects.enums.LocalizedObjectTypes;
 import org.oscm.internal.types.enumtypes.ParameterModificationType;
@@ -44,12 +48,14 @@ import org.oscm.internal.types.enumtypes.ParameterValueType;
  * 
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "oscm.technicalProduct")
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = {
         "technicalProduct_tkey", "parameterId", "parameterType" }))
 @NamedQueries({
         @NamedQuery(name = "ParameterDefinition.getPlatformParameterDefinition", query = "SELECT c FROM ParameterDefinition c WHERE c.technicalProduct IS NULL AND c.dataContainer.parameterType=:parameterType AND c.dataContainer.parameterId=:parameterId ORDER BY c.key ASC"),
         @NamedQuery(name = "ParameterDefinition.getAllPlatformParameterDefinitions", query = "SELECT c FROM ParameterDefinition c WHERE c.technicalProduct IS NULL AND c.dataContainer.parameterType=:parameterType ORDER BY c.key ASC"),
-        @NamedQuery(name = "ParameterDefinition.findByBusinessKey", query = "select c from ParameterDefinition c where c.dataContainer.parameterId=:parameterId AND c.dataContainer.parameterType=:parameterType AND c.technicalProduct_tkey=:technicalProduct_tkey") })
+        @NamedQuery(name = "ParameterDefinition.findByBusinessKey", query = "select c from ParameterDefinition c where c.dataContainer.parameterId=:parameterId AND c.dataContainer.parameterType=:parameterType AND c.technicalProduct_tkey=:technicalProduct_tkey", hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")) })
 @BusinessKey(attributes = { "technicalProduct_tkey", "parameterId",
         "parameterType" })
 public class ParameterDefinition extends
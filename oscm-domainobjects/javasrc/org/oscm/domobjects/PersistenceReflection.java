@@ -99,18 +99,19 @@ public class PersistenceReflection {
      * @return
      */
     public static Map<String, String> getBusinessKeys(DomainObject<?> obj) {
-        String[] keyAttributes = getBusinessKey(obj.getClass());
-        if (keyAttributes == null) {
+        BusinessKeyMetadata metadata = BusinessKeyMetadata.get(obj.getClass());
+        if (metadata == null) {
             return null;
         }
+        String[] keyAttributes = metadata.getAttributes();
+        Object[] values = metadata.getValues(obj);
         HashMap<String, String> businessKeyMap = new HashMap<String, String>();
-        for (String attName : keyAttributes) {
+        for (int i = 0; i < keyAttributes.length; i++) {
             String toSting = null;
-            Object value = getValue(obj, attName);
-            if (value != null) {
-                toSting = value.toString();
+            if (values[i] != null) {
+                toSting = values[i].toString();
             }
-            businessKeyMap.put(attName, toSting);
+            businessKeyMap.put(keyAttributes[i], toSting);
         }
         return businessKeyMap;
     }
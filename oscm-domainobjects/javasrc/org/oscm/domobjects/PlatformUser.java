@@ -50,13 +50,15 @@ import org.oscm.internal.types.enumtypes.UserRoleType;
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = { "userId" }))
 @NamedQueries({
         @NamedQuery(name = "PlatformUser.findByBusinessKey", query = "select obj from PlatformUser obj where obj.dataContainer.userId=:userId"),
+        @NamedQuery(name = "PlatformUser.findByUserIds", query = "select obj from PlatformUser obj where obj.dataContainer.userId in (:userIds)"),
         @NamedQuery(name = "PlatformUser.getOverdueOrganizationAdmins", query = "select obj from PlatformUser obj where obj.dataContainer.status = :status and obj.dataContainer.creationDate < :date"),
         @NamedQuery(name = "PlatformUser.getVisibleForOrganization", query = "SELECT DISTINCT pu FROM PlatformUser pu LEFT JOIN FETCH pu.assignedRoles LEFT JOIN FETCH pu.master WHERE pu.organization = :organization AND NOT EXISTS (SELECT ref FROM OnBehalfUserReference ref WHERE ref.slaveUser = pu)"),
         @NamedQuery(name = "PlatformUser.countRegisteredUsers", query = "select count(obj) from PlatformUser obj "),
         @NamedQuery(name = "PlatformUser.listByEmail", query = "select obj from PlatformUser obj where lower(obj.dataContainer.email) = lower(:email)"),
         @NamedQuery(name = "PlatformUser.findByIdPattern", query = "SELECT DISTINCT obj FROM PlatformUser obj where obj.dataContainer.userId like :userId order by obj.dataContainer.userId"),
         @NamedQuery(name = "PlatformUser.findByOrgAndReamUserId", query = "select obj from PlatformUser obj where obj.organization = :organization and obj.dataContainer.realmUserId=:realmUserId"),
-        @NamedQuery(name = "PlatformUser.findUnassignedByOrg", query = "select obj from PlatformUser obj left join obj.licenses lic where ((obj.licenses is empty) or lic.subscription.key != :subscriptionKey) and obj.organization.key=:organizationKey") })
+        @NamedQuery(name = "PlatformUser.findUnassignedByOrg", query = "select obj from PlatformUser obj left join obj.licenses lic where ((obj.licenses is empty) or lic.subscription.key != :subscriptionKey) and obj.organization.key=:organizationKey"),
+        @NamedQuery(name = "PlatformUser.getOrganizationAdmins", query = "SELECT ra.user FROM RoleAssignment ra WHERE ra.user.organization = :organization AND ra.userRole.dataContainer.roleName = :roleName AND NOT EXISTS (SELECT ref FROM OnBehalfUserReference ref WHERE ref.slaveUser = ra.user) ORDER BY ra.user.key") })
 @BusinessKey(attributes = { "userId" })
 public class PlatformUser extends DomainObjectWithHistory<PlatformUserData> {
     private static final long serialVersionUID = 150016765620902326L;
@@ -118,6 +118,7 @@ import org.oscm.internal.types.enumtypes.ServiceType;
         @NamedQuery(name = "Product.getCustomerSpecificProducts", query = "select p from Product p where p.vendorKey=:vendorKey AND p.template IS NOT NULL AND p.targetCustomer = :customer AND NOT EXISTS (SELECT sub FROM Subscription sub WHERE sub.product = p) ORDER BY p.key ASC"),
         @NamedQuery(name = "Product.getSpecificCustomerProduct", query = "SELECT p FROM Product p WHERE p.template = :template AND p.targetCustomer = :customer AND p.dataContainer.type='CUSTOMER_TEMPLATE' ORDER BY p.key ASC"),
         @NamedQuery(name = "Product.getForCustomerAndTemplate", query = "SELECT prod FROM Product prod WHERE prod.targetCustomer = :customer AND prod.template = :template AND NOT EXISTS (SELECT sub FROM Subscription sub WHERE sub.product = prod) ORDER BY prod.key ASC"),
+        @NamedQuery(name = "Product.getForKeys", query = "SELECT p FROM Product p WHERE p.key IN (:keys)"),
         @NamedQuery(name = "Product.getForTemplate", query = "SELECT prod FROM Product prod WHERE prod.template = :template AND EXISTS (SELECT sub FROM Subscription sub WHERE sub.product = prod) ORDER BY prod.key ASC"),
         @NamedQuery(name = "Product.getForCustomerOnly", query = "select p from Product p where p.vendorKey=:vendorKey AND p.targetCustomer = :customer AND NOT EXISTS (SELECT sub FROM Subscription sub WHERE sub.product = p) ORDER BY p.key ASC"),
         @NamedQuery(name = "Product.getForCustomerAndSubId", query = "SELECT prod FROM Product prod, Subscription sub WHERE prod = sub.product AND sub.dataContainer.subscriptionId = :subscriptionId AND sub.organization = :customer"),
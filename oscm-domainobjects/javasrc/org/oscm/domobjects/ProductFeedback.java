@@ -15,16 +15,26 @@ import java.util.List;
 import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.OrderBy;
 
+import org.hibernate.Hibernate;
+
 /**
- * The collection of all user reviews for a <code>Product</code>.
+ * The collection of all user reviews for a <code>Product</code>. The number of
+ * reviews, the rating sum, the number of reviews per rating and the average
+ * rating are kept as aggregates, which are updated whenever a review is added,
+ * changed or removed, so they can be read without loading the reviews.
  * 
  * @author barzu
  */
 @Entity
+@NamedQueries({
+        @NamedQuery(name = "ProductFeedback.findAll", query = "select f from ProductFeedback f"),
+        @NamedQuery(name = "ProductFeedback.findByKey", query = "select f from ProductFeedback f where f.key=:key") })
 public class ProductFeedback extends
         DomainObjectWithVersioning<ProductFeedbackData> {
 
@@ -90,20 +100,187 @@ public class ProductFeedback extends
     }
 
     /**
-     * Calculates the current average value of all reviews.
+     * Refer to {@link ProductFeedbackData#numberOfReviews}
      */
-    public void updateAverageRating() {
-        BigDecimal result = new BigDecimal(0);
-        for (ProductReview review : getProductReviews()) {
-            result = result.add(new BigDecimal(review.getRating()));
+    public int getNumberOfReviews() {
+        return dataContainer.getNumberOfReviews();
+    }
+
+    /**
+     * Refer to {@link ProductFeedbackData#ratingSum}
+     */
+    public long getRatingSum() {
+        return dataContainer.getRatingSum();
+    }
+
+    /**
+     * Returns the number of reviews with the given rating.
+     * 
+     * @param rating
+     *            the rating between 1 and 5
+     * @return the number of reviews, 0 for an invalid rating
+     */
+    public int getRatingCount(int rating) {
+        switch (rating) {
+        case 1:
+            return dataContainer.getRatingCount1();
+        case 2:
+            return dataContainer.getRatingCount2();
+        case 3:
+            return dataContainer.getRatingCount3();
+        case 4:
+            return dataContainer.getRatingCount4();
+        case 5:
+            return dataContainer.getRatingCount5();
+        default:
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the number of reviews per rating, the number of reviews with a
+     * rating of one star at index 0.
+     */
+    public int[] getRatingCounts() {
+        int[] ratingCounts = new int[5];
+        for (int i = 0; i < ratingCounts.length; i++) {
+            ratingCounts[i] = getRatingCount(i + 1);
         }
-        if (getProductReviews().size() > 0) {
-            result = result.divide(new BigDecimal(getProductReviews().size()),
-                    2, BigDecimal.ROUND_HALF_UP);
+        return ratingCounts;
+    }
+
+    /**
+     * Sets the number of reviews per rating, the number of reviews with a
+     * rating of one star at index 0, and calculates the number of reviews, the
+     * rating sum and the average rating from it.
+     */
+    public void setRatingCounts(int[] ratingCounts) {
+        dataContainer.setRatingCount1(ratingCounts[0]);
+        dataContainer.setRatingCount2(ratingCounts[1]);
+        dataContainer.setRatingCount3(ratingCounts[2]);
+        dataContainer.setRatingCount4(ratingCounts[3]);
+        dataContainer.setRatingCount5(ratingCounts[4]);
+        int numberOfReviews = 0;
+        long ratingSum = 0;
+        for (int i = 0; i < ratingCounts.length; i++) {
+            numberOfReviews += ratingCounts[i];
+            ratingSum += (long) (i + 1) * ratingCounts[i];
+        }
+        dataContainer.setNumberOfReviews(numberOfReviews);
+        dataContainer.setRatingSum(ratingSum);
+        calculateAverageRating();
+    }
+
+    /**
+     * Adds a new review and counts its rating.
+     * 
+     * @param review
+     *            the review to add
+     */
+    public void addProductReview(ProductReview review) {
+        // an inverse bag only queues the added element if it is not loaded
+        getProductReviews().add(review);
+        countRating(review.getRating(), 1);
+        review.setCountedRating(review.getRating());
+        calculateAverageRating();
+    }
+
+    /**
+     * Counts the changed rating of an existing review instead of the rating
+     * counted before.
+     * 
+     * @param review
+     *            the changed review
+     */
+    public void updateProductReview(ProductReview review) {
+        if (review.getCountedRating() == review.getRating()) {
+            return;
+        }
+        countRating(review.getCountedRating(), -1);
+        countRating(review.getRating(), 1);
+        review.setCountedRating(review.getRating());
+        calculateAverageRating();
+    }
+
+    /**
+     * Removes a review and its counted rating.
+     * 
+     * @param review
+     *            the review to remove
+     */
+    public void removeProductReview(ProductReview review) {
+        // removing would load all reviews, so only loaded ones are updated
+        if (Hibernate.isInitialized(productReviews)) {
+            getProductReviews().remove(review);
+        }
+        countRating(review.getCountedRating(), -1);
+        review.setCountedRating(0);
+        calculateAverageRating();
+    }
+
+    private void countRating(int rating, int delta) {
+        switch (rating) {
+        case 1:
+            dataContainer.setRatingCount1(dataContainer.getRatingCount1()
+                    + delta);
+            break;
+        case 2:
+            dataContainer.setRatingCount2(dataContainer.getRatingCount2()
+                    + delta);
+            break;
+        case 3:
+            dataContainer.setRatingCount3(dataContainer.getRatingCount3()
+                    + delta);
+            break;
+        case 4:
+            dataContainer.setRatingCount4(dataContainer.getRatingCount4()
+                    + delta);
+            break;
+        case 5:
+            dataContainer.setRatingCount5(dataContainer.getRatingCount5()
+                    + delta);
+            break;
+        default:
+            // a review without valid rating is not counted
+            return;
+        }
+        dataContainer.setNumberOfReviews(dataContainer.getNumberOfReviews()
+                + delta);
+        dataContainer.setRatingSum(dataContainer.getRatingSum() + rating
+                * delta);
+    }
+
+    /**
+     * Calculates the average rating from the number of reviews and the rating
+     * sum.
+     */
+    private void calculateAverageRating() {
+        BigDecimal result = new BigDecimal(getRatingSum());
+        if (getNumberOfReviews() > 0) {
+            result = result.divide(new BigDecimal(getNumberOfReviews()), 2,
+                    BigDecimal.ROUND_HALF_UP);
         }
         setAverageRating(result);
     }
 
+    /**
+     * Calculates all rating aggregates from the reviews. As this loads all
+     * reviews, it is only used to repair the aggregates. Like the incremental
+     * updates, the number of reviews only counts the reviews with a valid
+     * rating.
+     */
+    public void updateAverageRating() {
+        int[] ratingCounts = new int[5];
+        for (ProductReview review : getProductReviews()) {
+            int rating = review.getRating();
+            if (rating >= 1 && rating <= ratingCounts.length) {
+                ratingCounts[rating - 1]++;
+            }
+            review.setCountedRating(rating);
+        }
+        setRatingCounts(ratingCounts);
+    }
+
     /**
      * Returns true if the given user has created a review.
      * 
@@ -112,6 +289,10 @@ public class ProductFeedback extends
      * @return boolean
      */
     public boolean hasReview(PlatformUser user) {
+        if (getNumberOfReviews() == 0) {
+            // no need to load the reviews
+            return false;
+        }
         return (getProductReview(user) != null);
     }
 
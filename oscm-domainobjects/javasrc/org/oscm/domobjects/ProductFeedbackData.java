@@ -30,6 +30,37 @@ public class ProductFeedbackData extends DomainDataContainer {
     @Column(nullable = true)
     private BigDecimal averageRating;
 
+    /**
+     * The number of reviews for the <code>Product</code>.
+     */
+    @Column(nullable = false)
+    private int numberOfReviews;
+
+    /**
+     * The sum of the ratings of all reviews for the <code>Product</code>.
+     */
+    @Column(nullable = false)
+    private long ratingSum;
+
+    /**
+     * The number of reviews with a rating of one to five, used to check and
+     * repair the other aggregates.
+     */
+    @Column(nullable = false)
+    private int ratingCount1;
+
+    @Column(nullable = false)
+    private int ratingCount2;
+
+    @Column(nullable = false)
+    private int ratingCount3;
+
+    @Column(nullable = false)
+    private int ratingCount4;
+
+    @Column(nullable = false)
+    private int ratingCount5;
+
     public BigDecimal getAverageRating() {
         return averageRating;
     }
@@ -38,4 +69,60 @@ public class ProductFeedbackData extends DomainDataContainer {
         this.averageRating = averageRating;
     }
 
+    public int getNumberOfReviews() {
+        return numberOfReviews;
+    }
+
+    public void setNumberOfReviews(int numberOfReviews) {
+        this.numberOfReviews = numberOfReviews;
+    }
+
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public int getRatingCount1() {
+        return ratingCount1;
+    }
+
+    public void setRatingCount1(int ratingCount1) {
+        this.ratingCount1 = ratingCount1;
+    }
+
+    public int getRatingCount2() {
+        return ratingCount2;
+    }
+
+    public void setRatingCount2(int ratingCount2) {
+        this.ratingCount2 = ratingCount2;
+    }
+
+    public int getRatingCount3() {
+        return ratingCount3;
+    }
+
+    public void setRatingCount3(int ratingCount3) {
+        this.ratingCount3 = ratingCount3;
+    }
+
+    public int getRatingCount4() {
+        return ratingCount4;
+    }
+
+    public void setRatingCount4(int ratingCount4) {
+        this.ratingCount4 = ratingCount4;
+    }
+
+    public int getRatingCount5() {
+        return ratingCount5;
+    }
+
+    public void setRatingCount5(int ratingCount5) {
+        this.ratingCount5 = ratingCount5;
+    }
+
 }
@@ -18,8 +18,10 @@ import javax.persistence.FetchType;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.PostLoad;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
+import javax.persistence.Transient;
 
 import org.oscm.domobjects.annotations.BusinessKey;
 
@@ -33,7 +35,9 @@ import org.oscm.domobjects.annotations.BusinessKey;
 @BusinessKey(attributes = { "platformUser", "productFeedback" })
 @NamedQueries({
         @NamedQuery(name = "ProductReview.findByUser", query = "select r from ProductReview r where r.platformUser=:platformUser"),
-        @NamedQuery(name = "ProductReview.findByBusinessKey", query = "select r from ProductReview r where r.platformUser=:platformUser and r.productFeedback=:productFeedback") })
+        @NamedQuery(name = "ProductReview.findByBusinessKey", query = "select r from ProductReview r where r.platformUser=:platformUser and r.productFeedback=:productFeedback"),
+        @NamedQuery(name = "ProductReview.countRatings", query = "select r.productFeedback.key, r.dataContainer.rating, count(r) from ProductReview r group by r.productFeedback.key, r.dataContainer.rating"),
+        @NamedQuery(name = "ProductReview.countRatingsForFeedback", query = "select r.productFeedback.key, r.dataContainer.rating, count(r) from ProductReview r where r.productFeedback.key=:productFeedbackKey group by r.productFeedback.key, r.dataContainer.rating") })
 public class ProductReview extends
         DomainObjectWithVersioning<ProductReviewData> {
 
@@ -49,6 +53,13 @@ public class ProductReview extends
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
     private ProductFeedback productFeedback;
 
+    /**
+     * The rating counted in the aggregates of the product feedback, 0 if the
+     * review is not counted yet.
+     */
+    @Transient
+    private int countedRating;
+
     public PlatformUser getPlatformUser() {
         return platformUser;
     }
@@ -79,6 +90,23 @@ public class ProductReview extends
         dataContainer.setRating(rating);
     }
 
+    public int getCountedRating() {
+        return countedRating;
+    }
+
+    public void setCountedRating(int countedRating) {
+        this.countedRating = countedRating;
+    }
+
+    /**
+     * Remembers the stored rating, which is counted in the aggregates of the
+     * product feedback. Method is call by JPA.
+     */
+    @PostLoad
+    public void initCountedRating() {
+        setCountedRating(getRating());
+    }
+
     /**
      * Refer to {@link ProductReviewData#title}
      */
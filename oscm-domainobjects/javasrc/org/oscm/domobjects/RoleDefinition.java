@@ -16,6 +16,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -26,16 +27,21 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderBy;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.oscm.domobjects.annotations.BusinessKey;
 import org.oscm.domobjects.enums.LocalizedObjectTypes;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "oscm.technicalProduct")
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = {
         "technicalProduct_tkey", "roleId" }))
-@NamedQueries({ @NamedQuery(name = "RoleDefinition.findByBusinessKey", query = "select c from RoleDefinition c where c.dataContainer.roleId=:roleId AND c.technicalProduct_tkey=:technicalProduct_tkey") })
+@NamedQueries({ @NamedQuery(name = "RoleDefinition.findByBusinessKey", query = "select c from RoleDefinition c where c.dataContainer.roleId=:roleId AND c.technicalProduct_tkey=:technicalProduct_tkey", hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")) })
 @BusinessKey(attributes = { "technicalProduct_tkey", "roleId" })
 public class RoleDefinition extends DomainObjectWithHistory<RoleDefinitionData> {
 
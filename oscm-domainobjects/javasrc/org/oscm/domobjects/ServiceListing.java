@@ -0,0 +1,446 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.domobjects;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import org.hibernate.annotations.Type;
+import org.oscm.domobjects.annotations.BusinessKey;
+import org.oscm.internal.types.enumtypes.OfferingType;
+import org.oscm.internal.types.enumtypes.PriceModelType;
+import org.oscm.internal.types.enumtypes.PricingPeriod;
+import org.oscm.internal.types.enumtypes.ServiceAccessType;
+import org.oscm.internal.types.enumtypes.ServiceStatus;
+
+/**
+ * Read model of the marketplace service listings. Holds the fields of the
+ * listing representation of a service in one locale, so service lists can be
+ * shown without assembling each service from its price model, supplier,
+ * feedback and localized texts. The entries are removed by the master indexer
+ * when one of these objects changes.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "productKey",
+        "locale" }))
+@NamedQueries({
+        @NamedQuery(name = "ServiceListing.findByBusinessKey", query = "SELECT sl FROM ServiceListing sl WHERE sl.productKey=:productKey AND sl.locale=:locale"),
+        @NamedQuery(name = "ServiceListing.findByProductKeys", query = "SELECT sl FROM ServiceListing sl WHERE sl.productKey IN (:productKeys) AND sl.locale=:locale AND sl.timestamp>=:timestamp"),
+        @NamedQuery(name = "ServiceListing.removeByProductKeys", query = "DELETE FROM ServiceListing sl WHERE sl.productKey IN (:productKeys) AND sl.locale=:locale"),
+        @NamedQuery(name = "ServiceListing.removeForProduct", query = "DELETE FROM ServiceListing sl WHERE sl.productKey=:productKey OR sl.templateKey=:productKey"),
+        @NamedQuery(name = "ServiceListing.removeOldEntries", query = "DELETE FROM ServiceListing sl WHERE sl.timestamp<:timestamp") })
+@BusinessKey(attributes = { "productKey", "locale" })
+public class ServiceListing extends
+        DomainObjectWithVersioning<EmptyDataContainer> {
+
+    private static final long serialVersionUID = 4921667731503806411L;
+
+    /**
+     * Separates the tags stored in one column.
+     */
+    public static final String TAG_SEPARATOR = "\n";
+
+    /**
+     * The key of the listed product.
+     */
+    @Column(insertable = true, updatable = false, nullable = false)
+    private long productKey;
+
+    /**
+     * The key of the template of the listed product, as the listing of a copy
+     * also contains data of its template.
+     */
+    @Column(insertable = true, updatable = false, nullable = true)
+    private Long templateKey;
+
+    /**
+     * The version of the listed product the listing was created from.
+     */
+    @Column(insertable = true, updatable = false, nullable = false)
+    private int productVersion;
+
+    @Column(insertable = true, updatable = false, nullable = false)
+    private String locale;
+
+    @Column(insertable = true, updatable = false, nullable = false)
+    private Date timestamp;
+
+    @Column(insertable = true, updatable = false, nullable = false)
+    private String serviceId;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private String serviceIdToDisplay;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private String name;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private String shortDescription;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    @Enumerated(EnumType.STRING)
+    private ServiceStatus status;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private Boolean autoAssignUserEnabled;
+
+    @Column(insertable = true, updatable = false, nullable = false)
+    private long sellerKey;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private String sellerId;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private String sellerName;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    @Enumerated(EnumType.STRING)
+    private OfferingType offeringType;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private BigDecimal averageRating;
+
+    @Column(insertable = true, updatable = false, nullable = false)
+    private int numberOfReviews;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private String technicalId;
+
+    /**
+     * The tags of the technical service in the locale of the listing,
+     * separated by {@link #TAG_SEPARATOR}.
+     */
+    @Column(insertable = true, updatable = false, nullable = true)
+    private String tags;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    @Enumerated(EnumType.STRING)
+    private ServiceAccessType accessType;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private String baseURL;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private String billingIdentifier;
+
+    /**
+     * The key of the listed price model, <code>null</code> if the listing has
+     * no price model.
+     */
+    @Column(insertable = true, updatable = false, nullable = true)
+    private Long priceModelKey;
+
+    @Column(insertable = true, updatable = false, nullable = false)
+    private int priceModelVersion;
+
+    @Column(insertable = true, updatable = false, nullable = false)
+    private boolean priceModelExternal;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    @Enumerated(EnumType.STRING)
+    private PriceModelType priceModelType;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    @Type(type = "uuid-char")
+    private UUID priceModelUuid;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    @Enumerated(EnumType.STRING)
+    private PricingPeriod period;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private BigDecimal oneTimeFee;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private BigDecimal pricePerPeriod;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private BigDecimal pricePerUserAssignment;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private String currencyISOCode;
+
+    @Column(insertable = true, updatable = false, nullable = true)
+    private String license;
+
+    public ServiceListing() {
+        super();
+    }
+
+    public long getProductKey() {
+        return productKey;
+    }
+
+    public void setProductKey(long productKey) {
+        this.productKey = productKey;
+    }
+
+    public Long getTemplateKey() {
+        return templateKey;
+    }
+
+    public void setTemplateKey(Long templateKey) {
+        this.templateKey = templateKey;
+    }
+
+    public int getProductVersion() {
+        return productVersion;
+    }
+
+    public void setProductVersion(int productVersion) {
+        this.productVersion = productVersion;
+    }
+
+    public String getLocale() {
+        return locale;
+    }
+
+    public void setLocale(String locale) {
+        this.locale = locale;
+    }
+
+    public Date getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Date timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public void setServiceId(String serviceId) {
+        this.serviceId = serviceId;
+    }
+
+    public String getServiceIdToDisplay() {
+        return serviceIdToDisplay;
+    }
+
+    public void setServiceIdToDisplay(String serviceIdToDisplay) {
+        this.serviceIdToDisplay = serviceIdToDisplay;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getShortDescription() {
+        return shortDescription;
+    }
+
+    public void setShortDescription(String shortDescription) {
+        this.shortDescription = shortDescription;
+    }
+
+    public ServiceStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ServiceStatus status) {
+        this.status = status;
+    }
+
+    public Boolean getAutoAssignUserEnabled() {
+        return autoAssignUserEnabled;
+    }
+
+    public void setAutoAssignUserEnabled(Boolean autoAssignUserEnabled) {
+        this.autoAssignUserEnabled = autoAssignUserEnabled;
+    }
+
+    public long getSellerKey() {
+        return sellerKey;
+    }
+
+    public void setSellerKey(long sellerKey) {
+        this.sellerKey = sellerKey;
+    }
+
+    public String getSellerId() {
+        return sellerId;
+    }
+
+    public void setSellerId(String sellerId) {
+        this.sellerId = sellerId;
+    }
+
+    public String getSellerName() {
+        return sellerName;
+    }
+
+    public void setSellerName(String sellerName) {
+        this.sellerName = sellerName;
+    }
+
+    public OfferingType getOfferingType() {
+        return offeringType;
+    }
+
+    public void setOfferingType(OfferingType offeringType) {
+        this.offeringType = offeringType;
+    }
+
+    public BigDecimal getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(BigDecimal averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    public int getNumberOfReviews() {
+        return numberOfReviews;
+    }
+
+    public void setNumberOfReviews(int numberOfReviews) {
+        this.numberOfReviews = numberOfReviews;
+    }
+
+    public String getTechnicalId() {
+        return technicalId;
+    }
+
+    public void setTechnicalId(String technicalId) {
+        this.technicalId = technicalId;
+    }
+
+    public String getTags() {
+        return tags;
+    }
+
+    public void setTags(String tags) {
+        this.tags = tags;
+    }
+
+    public ServiceAccessType getAccessType() {
+        return accessType;
+    }
+
+    public void setAccessType(ServiceAccessType accessType) {
+        this.accessType = accessType;
+    }
+
+    public String getBaseURL() {
+        return baseURL;
+    }
+
+    public void setBaseURL(String baseURL) {
+        this.baseURL = baseURL;
+    }
+
+    public String getBillingIdentifier() {
+        return billingIdentifier;
+    }
+
+    public void setBillingIdentifier(String billingIdentifier) {
+        this.billingIdentifier = billingIdentifier;
+    }
+
+    public Long getPriceModelKey() {
+        return priceModelKey;
+    }
+
+    public void setPriceModelKey(Long priceModelKey) {
+        this.priceModelKey = priceModelKey;
+    }
+
+    public int getPriceModelVersion() {
+        return priceModelVersion;
+    }
+
+    public void setPriceModelVersion(int priceModelVersion) {
+        this.priceModelVersion = priceModelVersion;
+    }
+
+    public boolean isPriceModelExternal() {
+        return priceModelExternal;
+    }
+
+    public void setPriceModelExternal(boolean priceModelExternal) {
+        this.priceModelExternal = priceModelExternal;
+    }
+
+    public PriceModelType getPriceModelType() {
+        return priceModelType;
+    }
+
+    public void setPriceModelType(PriceModelType priceModelType) {
+        this.priceModelType = priceModelType;
+    }
+
+    public UUID getPriceModelUuid() {
+        return priceModelUuid;
+    }
+
+    public void setPriceModelUuid(UUID priceModelUuid) {
+        this.priceModelUuid = priceModelUuid;
+    }
+
+    public PricingPeriod getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(PricingPeriod period) {
+        this.period = period;
+    }
+
+    public BigDecimal getOneTimeFee() {
+        return oneTimeFee;
+    }
+
+    public void setOneTimeFee(BigDecimal oneTimeFee) {
+        this.oneTimeFee = oneTimeFee;
+    }
+
+    public BigDecimal getPricePerPeriod() {
+        return pricePerPeriod;
+    }
+
+    public void setPricePerPeriod(BigDecimal pricePerPeriod) {
+        this.pricePerPeriod = pricePerPeriod;
+    }
+
+    public BigDecimal getPricePerUserAssignment() {
+        return pricePerUserAssignment;
+    }
+
+    public void setPricePerUserAssignment(BigDecimal pricePerUserAssignment) {
+        this.pricePerUserAssignment = pricePerUserAssignment;
+    }
+
+    public String getCurrencyISOCode() {
+        return currencyISOCode;
+    }
+
+    public void setCurrencyISOCode(String currencyISOCode) {
+        this.currencyISOCode = currencyISOCode;
+    }
+
+    public String getLicense() {
+        return license;
+    }
+
+    public void setLicense(String license) {
+        this.license = license;
+    }
+
+}
@@ -31,6 +31,7 @@ import org.oscm.internal.types.enumtypes.SessionType;
 @NamedQueries( {
         @NamedQuery(name = "Session.findEntriesForSessionId", query = "SELECT session FROM Session session WHERE session.dataContainer.sessionId = :sessionId AND session.dataContainer.sessionType = :sessionType"),
         @NamedQuery(name = "Session.findEntriesForSubscription", query = "SELECT session FROM Session session WHERE session.dataContainer.subscriptionTKey = :subscriptionTKey AND session.dataContainer.sessionType = :sessionType"),
+        @NamedQuery(name = "Session.countEntriesForSubscription", query = "SELECT COUNT(session) FROM Session session WHERE session.dataContainer.subscriptionTKey = :subscriptionTKey AND session.dataContainer.sessionType = :sessionType"),
         @NamedQuery(name = "Session.deleteAllEntriesForNode", query = "DELETE FROM Session session WHERE session.dataContainer.nodeName = :nodeName"),
         @NamedQuery(name = "Session.getAllEntriesForNode", query = "SELECT session FROM Session session WHERE session.dataContainer.nodeName = :nodeName"),
         @NamedQuery(name = "Session.getActiveSessionsForUser", query = "SELECT session FROM Session session WHERE session.dataContainer.platformUserKey = :userKey"),
@@ -37,6 +37,7 @@ import javax.persistence.UniqueConstraint;
 import org.apache.solr.analysis.*;
 import org.hibernate.search.annotations.*;
 import org.oscm.domobjects.annotations.BusinessKey;
+import org.oscm.domobjects.bridge.SubscriptionClassBridge;
 import org.oscm.domobjects.enums.LocalizedObjectTypes;
 import org.oscm.interceptor.DateFactory;
 import org.oscm.internal.types.enumtypes.SubscriptionStatus;
@@ -63,12 +64,16 @@ import org.oscm.types.exceptions.UserNotAssignedException;
                 @TokenFilterDef(factory = LowerCaseFilterFactory.class),
                 @TokenFilterDef(factory = StandardFilterFactory.class) })
 @Indexed
+@ClassBridge(name = SubscriptionClassBridge.SEARCH_TEXT, analyzer = @Analyzer(definition = "customanalyzer"), impl = SubscriptionClassBridge.class)
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = { "subscriptionId",
         "organizationKey" }))
 @NamedQueries({
         @NamedQuery(name = "Subscription.hasSubscriptionsBasedOnOnBehalfServicesForTp", query = "SELECT COUNT(su) FROM Subscription su, TechnicalProduct tp, Product p WHERE tp.organizationKey=:tpOrgKey and tp.dataContainer.allowingOnBehalfActing=true and su.dataContainer.status='ACTIVE' and su.product.key=p.key and p.technicalProduct.key=tp.key)"),
         @NamedQuery(name = "Subscription.findByBusinessKey", query = "select obj from Subscription obj where obj.dataContainer.subscriptionId=:subscriptionId and obj.organizationKey=:organizationKey"),
+        @NamedQuery(name = "Subscription.findByKey", query = "SELECT sub FROM Subscription sub WHERE sub.key = :key"),
         @NamedQuery(name = "Subscription.getByStatus", query = "select obj from Subscription obj where obj.dataContainer.status = :status"),
+        @NamedQuery(name = "Subscription.getKeysByStatus", query = "select obj.key from Subscription obj where obj.dataContainer.status = :status order by obj.key"),
+        @NamedQuery(name = "Subscription.getByStatusAndKeyRange", query = "select obj from Subscription obj where obj.dataContainer.status = :status and obj.key >= :lowerKey and obj.key <= :upperKey"),
         @NamedQuery(name = "Subscription.getForProduct", query = "SELECT s FROM Subscription s WHERE s.dataContainer.status IN (:status)"
                 + " AND (s.product.template = :product OR s.product.template.template = :product)"),
         @NamedQuery(name = "Subscription.getByInstanceIdOfTechProd", query = "select s from Subscription s, Product p, TechnicalProduct tp"
@@ -138,8 +143,10 @@ public class Subscription extends DomainObjectWithHistory<SubscriptionData> {
     /**
      * In order to form a complete business key the Organization key is needed
      * as explicit field inside this class. This field is also used as
-     * JoinColumn for the n:1 relation to Organization.
+     * JoinColumn for the n:1 relation to Organization. It is indexed to
+     * restrict the subscription search to the organization of the caller.
      */
+    @Field(analyze = Analyze.NO)
     @Column(name = "organizationKey", insertable = false, updatable = false, nullable = false)
     private long organizationKey;
 
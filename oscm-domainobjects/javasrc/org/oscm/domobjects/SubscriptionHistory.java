@@ -32,6 +32,7 @@ import org.oscm.internal.types.enumtypes.SubscriptionStatus;
 @NamedQueries({
         @NamedQuery(name = "SubscriptionHistory.findByObject", query = "select c from SubscriptionHistory c where c.objKey=:objKey order by objversion"),
         @NamedQuery(name = "SubscriptionHistory.getSubscriptionsForOrganization_VersionDesc", query = "SELECT c FROM SubscriptionHistory c WHERE c.dataContainer.external<>:external AND c.organizationObjKey=:organizationKey AND (SELECT count(*) FROM BillingResult br WHERE to_timestamp(br.dataContainer.periodStartTime/1000) = :startDate AND to_timestamp(br.dataContainer.periodEndTime/1000) = :endDate AND br.dataContainer.subscriptionKey = c.objKey) = 0 AND c.dataContainer.activationDate IS NOT NULL AND (0 > :cutOffDay OR c.dataContainer.cutOffDay = :cutOffDay) AND ((c.modDate < :endDate AND c.modDate + '35 days' >= :startDate) OR (c.objVersion = (SELECT max(ish.objVersion) FROM SubscriptionHistory ish WHERE ish.objKey=c.objKey AND ish.dataContainer.activationDate IS NOT NULL AND ish.modDate + '35 days' < :startDate))) ORDER BY c.objKey ASC, c.objVersion DESC, c.modDate DESC"),
+        @NamedQuery(name = "SubscriptionHistory.getSubscriptionKeysForOrganization", query = "SELECT DISTINCT c.objKey FROM SubscriptionHistory c WHERE c.dataContainer.external<>:external AND c.organizationObjKey=:organizationKey AND (SELECT count(*) FROM BillingResult br WHERE to_timestamp(br.dataContainer.periodStartTime/1000) = :startDate AND to_timestamp(br.dataContainer.periodEndTime/1000) = :endDate AND br.dataContainer.subscriptionKey = c.objKey) = 0 AND c.dataContainer.activationDate IS NOT NULL AND ((c.modDate < :endDate AND c.modDate + '35 days' >= :startDate) OR (c.objVersion = (SELECT max(ish.objVersion) FROM SubscriptionHistory ish WHERE ish.objKey=c.objKey AND ish.dataContainer.activationDate IS NOT NULL AND ish.modDate + '35 days' < :startDate))) ORDER BY c.objKey ASC"),
         @NamedQuery(name = "SubscriptionHistory.getSubscriptionsForOrganizationAndUnits_VersionDesc", query = "SELECT c FROM SubscriptionHistory c, Subscription s WHERE c.dataContainer.external<>:external AND c.organizationObjKey=:organizationKey AND c.objKey=s.key AND s.userGroup.key IN (:units) AND (SELECT count(*) FROM BillingResult br WHERE to_timestamp(br.dataContainer.periodStartTime/1000) = :startDate AND to_timestamp(br.dataContainer.periodEndTime/1000) = :endDate AND br.dataContainer.subscriptionKey = c.objKey) = 0 AND c.dataContainer.activationDate IS NOT NULL AND (0 > :cutOffDay OR c.dataContainer.cutOffDay = :cutOffDay) AND ((c.modDate < :endDate AND c.modDate + '35 days' >= :startDate) OR (c.objVersion = (SELECT max(ish.objVersion) FROM SubscriptionHistory ish WHERE ish.objKey=c.objKey AND ish.dataContainer.activationDate IS NOT NULL AND ish.modDate + '35 days' < :startDate))) ORDER BY c.objKey ASC, c.objVersion DESC, c.modDate DESC"),
         @NamedQuery(name = "SubscriptionHistory.getHistoriesForSubscriptionsAndBillingPeriod", query = "SELECT c FROM SubscriptionHistory c WHERE c.dataContainer.external<>:external AND c.objKey IN (:subscriptionKeys) AND c.dataContainer.activationDate IS NOT NULL AND ((c.modDate < :endDate AND c.modDate + '35 days' >= :startDate) OR (c.objVersion = (SELECT max(ish.objVersion) FROM SubscriptionHistory ish WHERE ish.objKey=c.objKey AND ish.dataContainer.activationDate IS NOT NULL AND ish.modDate + '35 days' < :startDate))) ORDER BY c.objKey ASC, c.objVersion DESC, c.modDate DESC"),
         @NamedQuery(name = "SubscriptionHistory.findCurrency", query = "SELECT sc FROM SubscriptionHistory c, PriceModelHistory pmh, ProductHistory ph, SupportedCurrency sc WHERE c.objKey=:subscriptionKey AND ph.objKey = c.productObjKey AND ph.priceModelObjKey = pmh.objKey AND pmh.currencyObjKey = sc.key AND pmh.objKey = ph.priceModelObjKey AND ph.objKey = c.productObjKey AND ph.key = (SELECT max(innerPh.key) FROM ProductHistory innerPh WHERE innerPh.objKey = ph.objKey AND innerPh.modDate < :endDate) AND pmh.key = (SELECT max(innerPmh.key) FROM PriceModelHistory innerPmh WHERE innerPmh.objKey = pmh.objKey AND innerPmh.modDate < :endDate)"),
@@ -10,12 +10,16 @@ package org.oscm.domobjects;
 
 import java.util.Currency;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.oscm.domobjects.annotations.BusinessKey;
 
 /**
@@ -32,10 +36,12 @@ import org.oscm.domobjects.annotations.BusinessKey;
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = { "currencyISOCode" }))
 @BusinessKey(attributes = { "currencyISOCode" })
 @NamedQueries({
-        @NamedQuery(name = "SupportedCurrency.findByBusinessKey", query = "SELECT sc FROM SupportedCurrency sc WHERE sc.dataContainer.currencyISOCode = :currencyISOCode"),
+        @NamedQuery(name = "SupportedCurrency.findByBusinessKey", query = "SELECT sc FROM SupportedCurrency sc WHERE sc.dataContainer.currencyISOCode = :currencyISOCode", hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
         @NamedQuery(name = "SupportedCurrency.getAll", query = "SELECT sc FROM SupportedCurrency sc"),
         @NamedQuery(name = "SupportedCurrency.findAllCodes", query = "SELECT sc.dataContainer.currencyISOCode FROM SupportedCurrency sc ORDER BY sc.dataContainer.currencyISOCode") })
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "oscm.referenceData")
 public class SupportedCurrency extends
         DomainObjectWithVersioning<SupportedCurrencyData> {
 
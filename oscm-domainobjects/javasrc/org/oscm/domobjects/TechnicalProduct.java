@@ -17,6 +17,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -27,9 +28,12 @@ import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderBy;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.oscm.domobjects.annotations.BusinessKey;
 import org.oscm.domobjects.enums.BillingAdapterIdentifier;
 import org.oscm.domobjects.enums.LocalizedObjectTypes;
@@ -43,10 +47,12 @@ import org.oscm.types.enumtypes.ProvisioningType;
  * @author Mike J&auml;ger
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "oscm.technicalProduct")
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = {
         "technicalProductId", "organizationKey" }) )
 @NamedQueries({
-        @NamedQuery(name = "TechnicalProduct.findByBusinessKey", query = "SELECT obj FROM TechnicalProduct obj WHERE obj.dataContainer.technicalProductId = :technicalProductId AND obj.organizationKey = :organizationKey"),
+        @NamedQuery(name = "TechnicalProduct.findByBusinessKey", query = "SELECT obj FROM TechnicalProduct obj WHERE obj.dataContainer.technicalProductId = :technicalProductId AND obj.organizationKey = :organizationKey", hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
         @NamedQuery(name = "TechnicalProduct.getTechnicalProductsById", query = "SELECT p FROM TechnicalProduct p WHERE p.dataContainer.technicalProductId = :technicalProductId") })
 @BusinessKey(attributes = { "technicalProductId", "organizationKey" })
 public class TechnicalProduct
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.domobjects;
+
+import javax.persistence.Entity;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import org.oscm.types.enumtypes.TimerType;
+
+/**
+ * A key range of the work of a timer run. The partitions of a run are claimed
+ * by the cluster nodes through a lease, so all nodes share the work and the
+ * partitions of a failed node are taken over after its lease has expired.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "timerType",
+        "startTime", "partitionIndex" }))
+@NamedQueries({
+        @NamedQuery(name = "TimerPartition.findClaimable", query = "SELECT tp FROM TimerPartition tp WHERE tp.dataContainer.timerType = :timerType AND tp.dataContainer.finished = false AND tp.dataContainer.leaseExpiry < :now ORDER BY tp.dataContainer.startTime, tp.dataContainer.partitionIndex"),
+        @NamedQuery(name = "TimerPartition.claim", query = "UPDATE TimerPartition tp SET tp.dataContainer.nodeName = :nodeName, tp.dataContainer.leaseExpiry = :leaseExpiry WHERE tp.key = :key AND tp.dataContainer.finished = false AND tp.dataContainer.leaseExpiry < :now"),
+        @NamedQuery(name = "TimerPartition.finish", query = "UPDATE TimerPartition tp SET tp.dataContainer.finished = true, tp.dataContainer.success = :success WHERE tp.key = :key AND tp.dataContainer.nodeName = :nodeName AND tp.dataContainer.finished = false"),
+        @NamedQuery(name = "TimerPartition.findLatestRun", query = "SELECT tp FROM TimerPartition tp WHERE tp.dataContainer.timerType = :timerType AND tp.dataContainer.startTime = (SELECT MAX(tp2.dataContainer.startTime) FROM TimerPartition tp2 WHERE tp2.dataContainer.timerType = :timerType) ORDER BY tp.dataContainer.partitionIndex"),
+        @NamedQuery(name = "TimerPartition.deleteFinishedRuns", query = "DELETE FROM TimerPartition tp WHERE tp.dataContainer.timerType = :timerType AND tp.dataContainer.startTime < :startTime AND tp.dataContainer.finished = true") })
+public class TimerPartition extends
+        DomainObjectWithVersioning<TimerPartitionData> {
+
+    private static final long serialVersionUID = -1869217468014474383L;
+
+    public TimerPartition() {
+        super();
+        dataContainer = new TimerPartitionData();
+    }
+
+    public TimerType getTimerType() {
+        return dataContainer.getTimerType();
+    }
+
+    public void setTimerType(TimerType timerType) {
+        dataContainer.setTimerType(timerType);
+    }
+
+    public long getStartTime() {
+        return dataContainer.getStartTime();
+    }
+
+    public void setStartTime(long startTime) {
+        dataContainer.setStartTime(startTime);
+    }
+
+    public int getPartitionIndex() {
+        return dataContainer.getPartitionIndex();
+    }
+
+    public void setPartitionIndex(int partitionIndex) {
+        dataContainer.setPartitionIndex(partitionIndex);
+    }
+
+    public long getLowerKey() {
+        return dataContainer.getLowerKey();
+    }
+
+    public void setLowerKey(long lowerKey) {
+        dataContainer.setLowerKey(lowerKey);
+    }
+
+    public long getUpperKey() {
+        return dataContainer.getUpperKey();
+    }
+
+    public void setUpperKey(long upperKey) {
+        dataContainer.setUpperKey(upperKey);
+    }
+
+    public int getItemCount() {
+        return dataContainer.getItemCount();
+    }
+
+    public void setItemCount(int itemCount) {
+        dataContainer.setItemCount(itemCount);
+    }
+
+    public String getNodeName() {
+        return dataContainer.getNodeName();
+    }
+
+    public void setNodeName(String nodeName) {
+        dataContainer.setNodeName(nodeName);
+    }
+
+    public long getLeaseExpiry() {
+        return dataContainer.getLeaseExpiry();
+    }
+
+    public void setLeaseExpiry(long leaseExpiry) {
+        dataContainer.setLeaseExpiry(leaseExpiry);
+    }
+
+    public boolean isFinished() {
+        return dataContainer.isFinished();
+    }
+
+    public void setFinished(boolean finished) {
+        dataContainer.setFinished(finished);
+    }
+
+    public boolean isSuccess() {
+        return dataContainer.isSuccess();
+    }
+
+    public void setSuccess(boolean success) {
+        dataContainer.setSuccess(success);
+    }
+
+}
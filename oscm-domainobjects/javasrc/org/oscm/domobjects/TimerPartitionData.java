@@ -0,0 +1,164 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.domobjects;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+
+import org.oscm.types.enumtypes.TimerType;
+
+/**
+ * JPA managed entity to represent a key range of the work of a timer run,
+ * which is claimed by one cluster node at a time.
+ */
+@Embeddable
+public class TimerPartitionData extends DomainDataContainer {
+
+    private static final long serialVersionUID = 2866124520613498034L;
+
+    /**
+     * The timer type.
+     */
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TimerType timerType;
+
+    /**
+     * The start time of the timer run the partition belongs to.
+     */
+    @Column(nullable = false)
+    private long startTime;
+
+    /**
+     * The position of the partition within the timer run.
+     */
+    @Column(nullable = false)
+    private int partitionIndex;
+
+    /**
+     * The lowest key of the objects handled by the partition.
+     */
+    @Column(nullable = false)
+    private long lowerKey;
+
+    /**
+     * The highest key of the objects handled by the partition.
+     */
+    @Column(nullable = false)
+    private long upperKey;
+
+    /**
+     * The number of objects in the key range when the run was started.
+     */
+    @Column(nullable = false)
+    private int itemCount;
+
+    /**
+     * The name of the cluster node that claimed the partition last.
+     */
+    private String nodeName;
+
+    /**
+     * The time until the partition is leased by the claiming node. Once the
+     * lease has expired, another node may take the partition over.
+     */
+    @Column(nullable = false)
+    private long leaseExpiry;
+
+    /**
+     * Flag to indicate that the partition has been processed.
+     */
+    @Column(nullable = false)
+    private boolean finished;
+
+    /**
+     * Flag to indicate the result of the partition processing.
+     */
+    @Column(nullable = false)
+    private boolean success;
+
+    public TimerType getTimerType() {
+        return timerType;
+    }
+
+    public void setTimerType(TimerType timerType) {
+        this.timerType = timerType;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public int getPartitionIndex() {
+        return partitionIndex;
+    }
+
+    public void setPartitionIndex(int partitionIndex) {
+        this.partitionIndex = partitionIndex;
+    }
+
+    public long getLowerKey() {
+        return lowerKey;
+    }
+
+    public void setLowerKey(long lowerKey) {
+        this.lowerKey = lowerKey;
+    }
+
+    public long getUpperKey() {
+        return upperKey;
+    }
+
+    public void setUpperKey(long upperKey) {
+        this.upperKey = upperKey;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public String getNodeName() {
+        return nodeName;
+    }
+
+    public void setNodeName(String nodeName) {
+        this.nodeName = nodeName;
+    }
+
+    public long getLeaseExpiry() {
+        return leaseExpiry;
+    }
+
+    public void setLeaseExpiry(long leaseExpiry) {
+        this.leaseExpiry = leaseExpiry;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public void setFinished(boolean finished) {
+        this.finished = finished;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+}
@@ -12,12 +12,16 @@
 
 package org.oscm.domobjects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.oscm.domobjects.annotations.BusinessKey;
 import org.oscm.internal.types.enumtypes.UserRoleType;
 
@@ -29,10 +33,12 @@ import org.oscm.internal.types.enumtypes.UserRoleType;
  * 
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "oscm.referenceData")
 @BusinessKey(attributes = "roleName")
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = { "roleName" }))
 @NamedQueries({
-        @NamedQuery(name = "UserRole.findByBusinessKey", query = "SELECT userRole FROM UserRole userRole WHERE userRole.dataContainer.roleName = :roleName"),
+        @NamedQuery(name = "UserRole.findByBusinessKey", query = "SELECT userRole FROM UserRole userRole WHERE userRole.dataContainer.roleName = :roleName", hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
         @NamedQuery(name = "UserRole.getAllUserRoles", query = "SELECT userRole FROM UserRole userRole") })
 public class UserRole extends DomainObjectWithVersioning<UserRoleData> {
 
@@ -0,0 +1,141 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.domobjects.bridge;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.apache.lucene.document.Document;
+import org.hibernate.search.bridge.FieldBridge;
+import org.hibernate.search.bridge.LuceneOptions;
+
+import org.oscm.converter.ParameterizedTypes;
+import org.oscm.domobjects.Organization;
+import org.oscm.domobjects.Parameter;
+import org.oscm.domobjects.ParameterSet;
+import org.oscm.domobjects.Product;
+import org.oscm.domobjects.Subscription;
+import org.oscm.domobjects.Uda;
+import org.oscm.domobjects.UdaDefinition;
+import org.oscm.internal.types.enumtypes.ParameterValueType;
+import org.oscm.internal.types.enumtypes.UdaConfigurationType;
+import org.oscm.logging.Log4jLogger;
+import org.oscm.logging.LoggerFactory;
+import org.oscm.types.enumtypes.LogMessageIdentifier;
+import org.oscm.types.enumtypes.UdaTargetType;
+
+/**
+ * Custom class bridge writing all texts a subscription can be searched for
+ * into one index field, so a subscription search needs a single query on the
+ * subscription index. The field contains
+ * <ul>
+ * <li>the subscription id and purchase order number,</li>
+ * <li>the values of the string parameters of the subscription,</li>
+ * <li>the values of the subscription UDAs which are not hidden from the
+ * customer, or the default value of the supplier's UDA definition if the
+ * subscription has no value for it.</li>
+ * </ul>
+ * The subscription must be indexed again if one of these values changes.
+ */
+public class SubscriptionClassBridge implements FieldBridge {
+
+    private final static Log4jLogger logger = LoggerFactory
+            .getLogger(SubscriptionClassBridge.class);
+
+    public static final String SEARCH_TEXT = "searchText";
+
+    @Override
+    public void set(String name, Object value, Document document,
+            LuceneOptions luceneOptions) {
+        if (!(value instanceof Subscription)) {
+            return;
+        }
+        Subscription subscription = (Subscription) value;
+        StringBuilder text = new StringBuilder();
+        append(text, subscription.getSubscriptionId());
+        append(text, subscription.getPurchaseOrderNumber());
+        try {
+            appendParameterValues(text, subscription.getProduct());
+            appendUdaValues(text, subscription);
+        } catch (Exception e) {
+            logger.logError(
+                    Log4jLogger.SYSTEM_LOG,
+                    e,
+                    LogMessageIdentifier.ERROR_SET_SUBSCRIPTION_TO_BRIDGE_OF_DOMAIN_OBJECT_FAILED,
+                    String.valueOf(subscription.getKey()));
+        }
+        luceneOptions.addFieldToDocument(name, text.toString(), document);
+    }
+
+    private void appendParameterValues(StringBuilder text, Product product) {
+        if (product == null) {
+            return;
+        }
+        ParameterSet parameterSet = product.getParameterSet();
+        if (parameterSet == null) {
+            return;
+        }
+        for (Parameter parameter : parameterSet.getParameters()) {
+            if (parameter.getParameterDefinition().getValueType() == ParameterValueType.STRING) {
+                append(text, parameter.getValue());
+            }
+        }
+    }
+
+    private void appendUdaValues(StringBuilder text, Subscription subscription) {
+        EntityManager em = BridgeDataManager.getEntityManager();
+        if (em == null) {
+            return;
+        }
+        Set<Long> definitionsWithValue = new HashSet<Long>();
+        Query query = em.createNamedQuery("Uda.getByTargetTypeAndKey");
+        query.setParameter("targetKey", Long.valueOf(subscription.getKey()));
+        query.setParameter("targetType", UdaTargetType.CUSTOMER_SUBSCRIPTION);
+        for (Uda uda : ParameterizedTypes.iterable(query.getResultList(),
+                Uda.class)) {
+            if (isSearchable(uda.getUdaDefinition())
+                    && !isEmpty(uda.getUdaValue())) {
+                append(text, uda.getUdaValue());
+                definitionsWithValue.add(Long.valueOf(uda
+                        .getUdaDefinitionKey()));
+            }
+        }
+
+        Product product = subscription.getProduct();
+        Organization vendor = product == null ? null : product.getVendor();
+        if (vendor == null) {
+            return;
+        }
+        for (UdaDefinition definition : vendor.getUdaDefinitions()) {
+            if (definition.getTargetType() == UdaTargetType.CUSTOMER_SUBSCRIPTION
+                    && isSearchable(definition)
+                    && !definitionsWithValue.contains(Long.valueOf(definition
+                            .getKey()))) {
+                append(text, definition.getDefaultValue());
+            }
+        }
+    }
+
+    private static boolean isSearchable(UdaDefinition definition) {
+        return definition.getConfigurationType() != UdaConfigurationType.SUPPLIER;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.trim().length() == 0;
+    }
+
+    private static void append(StringBuilder text, String value) {
+        if (isEmpty(value)) {
+            return;
+        }
+        if (text.length() > 0) {
+            text.append(' ');
+        }
+        text.append(value);
+    }
+}
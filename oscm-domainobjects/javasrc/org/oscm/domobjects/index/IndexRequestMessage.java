@@ -100,6 +100,21 @@ public class IndexRequestMessage implements Serializable {
                     (Product) object, Product.class, modType);
             return message;
         }
+        if (object instanceof PriceModel) {
+            if (ModificationType.DELETE.equals(modType)) {
+                // the product is deleted as well
+                return null;
+            }
+            return new IndexRequestMessage((PriceModel) object,
+                    PriceModel.class, modType);
+        }
+        if (object instanceof ProductFeedback) {
+            if (ModificationType.DELETE.equals(modType)) {
+                return null;
+            }
+            return new IndexRequestMessage((ProductFeedback) object,
+                    ProductFeedback.class, modType);
+        }
         if (object instanceof Subscription) {
             IndexRequestMessage message = new IndexRequestMessage(
                     (Subscription) object, Subscription.class, modType);
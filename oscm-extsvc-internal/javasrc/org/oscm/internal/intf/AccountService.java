@@ -37,6 +37,7 @@ import org.oscm.internal.types.exception.TechnicalServiceNotAliveException;
 import org.oscm.internal.types.exception.TechnicalServiceOperationException;
 import org.oscm.internal.types.exception.ValidationException;
 import org.oscm.internal.vo.LdapProperties;
+import org.oscm.internal.vo.ListCriteria;
 import org.oscm.internal.vo.VOBillingContact;
 import org.oscm.internal.vo.VOImageResource;
 import org.oscm.internal.vo.VOOrganization;
@@ -316,6 +317,29 @@ public interface AccountService {
     public List<VOOrganization> getMyCustomers()
             throws OrganizationAuthoritiesException;
 
+    /**
+     * Returns a page of the registered customers of the supplier, broker, or
+     * reseller organization the calling user is a member of, including the
+     * discounts granted to them. The customers are ordered by their technical
+     * key.
+     * <p>
+     * Required role: service manager of a supplier organization, broker or a
+     * broker organization, or reseller of a reseller organization
+     * 
+     * @param listCriteria
+     *            the offset and maximum number of customers to return, and an
+     *            optional filter matching the beginning of the ID or name of
+     *            the customers (not case-sensitive, <code>%</code> and
+     *            <code>_</code> are no wildcards); a limit less than or equal
+     *            to <code>0</code> returns all remaining customers
+     * @return the customers of the organization
+     * @throws OrganizationAuthoritiesException
+     *             if the calling user's organization does not have the
+     *             supplier, broker, or reseller role
+     */
+    public List<VOOrganization> getMyCustomersByCriteria(
+            ListCriteria listCriteria) throws OrganizationAuthoritiesException;
+
     /**
      * Returns the suppliers who are authorized to offer marketable services
      * based on the specified technical service.
@@ -79,4 +79,20 @@ public interface ConfigurationService {
      */
     public boolean isPaymentInfoAvailable();
 
+    /**
+     * Returns the version of the configuration cache of this node. The
+     * version is increased with every change of the cached settings.
+     * 
+     * @return the cache version
+     */
+    public long getConfigurationCacheVersion();
+
+    /**
+     * Returns the time the configuration cache of this node was last reloaded
+     * from the database.
+     * 
+     * @return the time in milliseconds
+     */
+    public long getConfigurationCacheRefreshTime();
+
 }
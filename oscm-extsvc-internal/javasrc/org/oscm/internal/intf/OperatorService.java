@@ -271,27 +271,36 @@ public interface OperatorService {
             ValidationException;
 
     /**
-     * Exports the billing data of the provided organization for the specified
-     * time frame in the saved raw XML format.
+     * Exports the billing data of a page of the subscriptions of the provided
+     * organization for the specified time frame. The subscriptions are
+     * ordered by their technical key. Combining the returned XML fragments of
+     * all pages into the root element <code>Billingdata</code> results in the
+     * billing data of the organization in the saved raw XML format. Only one
+     * page is calculated and held in memory at a time, so clients write each
+     * page before requesting the next one.
      * 
      * @param from
      *            Specifies the start of the time frame for the billing data.
-     *            Can be <code>null</code> if no start limit is wanted.
      * @param to
-     *            Specifies the end of the time frame for the billing data. Can
-     *            be <code>null</code> if no end limit is wanted.
+     *            Specifies the end of the time frame for the billing data.
      * @param organizationId
      *            The id of the organization to export the billing data for.
-     * @return The billing data xml as byte array.
+     * @param firstSubscription
+     *            The index of the first subscription of the page.
+     * @param maxSubscriptions
+     *            The maximum number of subscriptions of the page.
+     * @return The billing data XML fragments of the subscriptions of the page
+     *         with costs, or <code>null</code> if the page starts behind the
+     *         last subscription.
      * @throws ObjectNotFoundException
      *             Thrown in case the organization was not found.
      * @throws OrganizationAuthoritiesException
      *             Thrown in case the caller does not have the platform operator
      *             role.
      */
-    public byte[] getOrganizationBillingData(long from, long to,
-            String organizationId) throws ObjectNotFoundException,
-            OrganizationAuthoritiesException;
+    public List<String> getOrganizationBillingData(long from, long to,
+            String organizationId, int firstSubscription, int maxSubscriptions)
+            throws ObjectNotFoundException, OrganizationAuthoritiesException;
 
     /**
      * Resets the password of a specified user and sends an email with the new
@@ -698,15 +707,23 @@ public interface OperatorService {
             ValidationException, ConcurrentModificationException;
 
     /**
-     * Exports the revenue list of the suppliers for the specified time frame in
-     * the saved csv format.
+     * Exports a page of the revenue list of the suppliers for the specified
+     * month in the saved csv format. The rows are ordered by supplier,
+     * currency and marketplace, the first page starts with the header line.
+     * Concatenating all pages results in the complete revenue list, which
+     * clients write page by page instead of holding it in memory.
      * 
      * @param month
      *            Specifies the month for which the revenues of the suppliers
      *            are listed.
-     * @return The revenue data csv as byte array.
-     */
-    public byte[] getSupplierRevenueList(long month);
+     * @param firstRow
+     *            The index of the first row of the page.
+     * @param maxRows
+     *            The maximum number of rows of the page.
+     * @return The csv lines of the page as byte array, or <code>null</code>
+     *         if the page is not the first one and starts behind the last row.
+     */
+    public byte[] getSupplierRevenueList(long month, int firstRow, int maxRows);
 
     /**
      * @param subscriptionKey
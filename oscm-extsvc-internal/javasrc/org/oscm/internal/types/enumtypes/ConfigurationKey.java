@@ -131,6 +131,12 @@ public enum ConfigurationKey {
     TIMER_INTERVAL_DISCOUNT_END_NOTIFICATION_OFFSET(false, "0", "long", Long
             .valueOf(0L), null, false),
 
+    @Doc({ "The offset of the timer for checking and repairing the rating",
+            "aggregates of all reviewed services. The timer interval is one day.",
+            "The offset is in milliseconds, based on January 1, 00:00." })
+    TIMER_INTERVAL_REVIEW_RATING_CHECK_OFFSET(false, "0", "long", Long
+            .valueOf(0L), null, false),
+
     @Doc({
             "The URL template of the report engine. If this value is not",
             "configured, reporting will not be available.",
@@ -182,6 +188,13 @@ public enum ConfigurationKey {
     TIMER_INTERVAL_BILLING_OFFSET(false, "345600000", "long", Long.valueOf(0L),
             null, false),
 
+    @Doc({
+            "The number of organizations whose revenue shares are calculated",
+            "concurrently during the billing run. The value must be between 1 and 64." })
+    @Example("4")
+    BILLING_SHARES_CALCULATION_WORKERS(false, "4", "long", Long.valueOf(1L),
+            Long.valueOf(64L), false),
+
     @Doc({
             "The list of menus and groups of fields in dialogs, which are",
             "hidden. These values are allowed:",
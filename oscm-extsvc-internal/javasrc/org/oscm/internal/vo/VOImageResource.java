@@ -33,6 +33,8 @@ public class VOImageResource implements Serializable {
 
     private ImageType imageType;
 
+    private String contentHash;
+
     /**
      * @param a1
      *            array
@@ -132,4 +134,23 @@ public class VOImageResource implements Serializable {
         this.imageType = imageType;
     }
 
+    /**
+     * Retrieves the hash value identifying the content of the image.
+     * 
+     * @return the content hash, or <code>null</code> if it is not known
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Sets the hash value identifying the content of the image.
+     * 
+     * @param contentHash
+     *            the content hash
+     */
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
 }
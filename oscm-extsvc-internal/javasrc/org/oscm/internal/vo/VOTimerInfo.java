@@ -13,7 +13,9 @@
 package org.oscm.internal.vo;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 
 /**
  * @author weiser
@@ -25,6 +27,9 @@ public class VOTimerInfo implements Serializable {
 
     private Date expirationDate;
     private String timerType;
+    private int partitions;
+    private int finishedPartitions;
+    private List<String> processingNodes = new ArrayList<String>();
 
     public Date getExpirationDate() {
         return expirationDate;
@@ -41,4 +46,39 @@ public class VOTimerInfo implements Serializable {
     public void setTimerType(String timerType) {
         this.timerType = timerType;
     }
+
+    /**
+     * Returns the number of partitions of the latest run, if the work of the
+     * timer is shared by the cluster nodes, <code>0</code> otherwise.
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(int partitions) {
+        this.partitions = partitions;
+    }
+
+    /**
+     * Returns the number of finished partitions of the latest run.
+     */
+    public int getFinishedPartitions() {
+        return finishedPartitions;
+    }
+
+    public void setFinishedPartitions(int finishedPartitions) {
+        this.finishedPartitions = finishedPartitions;
+    }
+
+    /**
+     * Returns the names of the cluster nodes currently working on partitions
+     * of the latest run.
+     */
+    public List<String> getProcessingNodes() {
+        return processingNodes;
+    }
+
+    public void setProcessingNodes(List<String> processingNodes) {
+        this.processingNodes = processingNodes;
+    }
 }
@@ -26,6 +26,7 @@ import org.oscm.types.exceptions.OrganizationAuthoritiesException;
 import org.oscm.types.exceptions.PaymentDeregistrationException;
 import org.oscm.types.exceptions.ValidationException;
 import org.oscm.vo.LdapProperties;
+import org.oscm.vo.ListCriteria;
 import org.oscm.vo.VOBillingContact;
 import org.oscm.vo.VOImageResource;
 import org.oscm.vo.VOOrganization;
@@ -83,6 +84,12 @@ public class AccountServiceImpl implements AccountService {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public List<VOOrganization> getMyCustomersByCriteria(
+            ListCriteria listCriteria) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public Set<VOPaymentType> getDefaultPaymentConfiguration() {
         throw new UnsupportedOperationException();
@@ -39,6 +39,7 @@ import org.oscm.types.exceptions.TechnicalServiceNotAliveException;
 import org.oscm.types.exceptions.TechnicalServiceOperationException;
 import org.oscm.types.exceptions.ValidationException;
 import org.oscm.vo.LdapProperties;
+import org.oscm.vo.ListCriteria;
 import org.oscm.vo.VOBillingContact;
 import org.oscm.vo.VOImageResource;
 import org.oscm.vo.VOOrganization;
@@ -313,6 +314,31 @@ public interface AccountService {
     public List<VOOrganization> getMyCustomers()
             throws OrganizationAuthoritiesException;
 
+    /**
+     * Returns a page of the registered customers of the supplier, broker, or
+     * reseller organization the calling user is a member of, including the
+     * discounts granted to them. The customers are ordered by their technical
+     * key.
+     * <p>
+     * Required role: service manager of a supplier organization, broker or a
+     * broker organization, or reseller of a reseller organization
+     * 
+     * @param listCriteria
+     *            the offset and maximum number of customers to return, and an
+     *            optional filter matching the beginning of the ID or name of
+     *            the customers (not case-sensitive, <code>%</code> and
+     *            <code>_</code> are no wildcards); a limit less than or equal
+     *            to <code>0</code> returns all remaining customers
+     * @return the customers of the organization
+     * @throws OrganizationAuthoritiesException
+     *             if the calling user's organization does not have the
+     *             supplier, broker, or reseller role
+     */
+    @WebMethod
+    public List<VOOrganization> getMyCustomersByCriteria(
+            @WebParam(name = "listCriteria") ListCriteria listCriteria)
+            throws OrganizationAuthoritiesException;
+
     /**
      * Returns the suppliers who are authorized to offer marketable services
      * based on the specified technical service.
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.i18nservice.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.oscm.domobjects.ImageResource;
+import org.oscm.internal.types.enumtypes.ImageType;
+
+public class ImageResourceCacheTest {
+
+    private ImageResourceCache cache;
+
+    @Before
+    public void setup() {
+        cache = new ImageResourceCache(10);
+    }
+
+    @Test
+    public void put_get() {
+        // given
+        ImageResource image = image(1, "abcd");
+
+        // when
+        ImageResource cached = cache.put(image);
+
+        // then
+        assertNotSame(image, cached);
+        assertSame(cached, cache.get(1, ImageType.SERVICE_IMAGE,
+                image.getContentHash()));
+        assertEquals(4, cache.getSize());
+    }
+
+    @Test
+    public void get_changedContentHash() {
+        // given
+        cache.put(image(1, "abcd"));
+
+        // when
+        ImageResource cached = cache.get(1, ImageType.SERVICE_IMAGE,
+                image(1, "efgh").getContentHash());
+
+        // then
+        assertNull(cached);
+    }
+
+    @Test
+    public void get_otherImageType() {
+        // given
+        ImageResource image = image(1, "abcd");
+        cache.put(image);
+
+        // when
+        ImageResource cached = cache.get(1, ImageType.ORGANIZATION_IMAGE,
+                image.getContentHash());
+
+        // then
+        assertNull(cached);
+    }
+
+    @Test
+    public void put_replacesEntry() {
+        // given
+        cache.put(image(1, "abcd"));
+        ImageResource image = image(1, "ef");
+
+        // when
+        cache.put(image);
+
+        // then
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(2, cache.getSize());
+        assertNotNull(cache.get(1, ImageType.SERVICE_IMAGE,
+                image.getContentHash()));
+    }
+
+    @Test
+    public void put_evictsLeastRecentlyUsed() {
+        // given
+        ImageResource image1 = image(1, "abcd");
+        ImageResource image2 = image(2, "efgh");
+        cache.put(image1);
+        cache.put(image2);
+        cache.get(1, ImageType.SERVICE_IMAGE, image1.getContentHash());
+
+        // when
+        cache.put(image(3, "ijkl"));
+
+        // then
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(8, cache.getSize());
+        assertNotNull(cache.get(1, ImageType.SERVICE_IMAGE,
+                image1.getContentHash()));
+        assertNull(cache.get(2, ImageType.SERVICE_IMAGE,
+                image2.getContentHash()));
+    }
+
+    @Test
+    public void put_tooLarge() {
+        // when
+        ImageResource cached = cache.put(image(1, "abcdefghijk"));
+
+        // then
+        assertNotNull(cached);
+        assertEquals(0, cache.getEntryCount());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void remove() {
+        // given
+        ImageResource image = image(1, "abcd");
+        cache.put(image);
+
+        // when
+        cache.remove(1, ImageType.SERVICE_IMAGE);
+
+        // then
+        assertNull(cache.get(1, ImageType.SERVICE_IMAGE,
+                image.getContentHash()));
+        assertEquals(0, cache.getSize());
+    }
+
+    private static ImageResource image(long objectKey, String content) {
+        ImageResource image = new ImageResource(objectKey,
+                ImageType.SERVICE_IMAGE);
+        image.setContentType("image/png");
+        image.setBuffer(content.getBytes());
+        return image;
+    }
+}
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.i18nservice.bean;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.oscm.domobjects.ImageResource;
+import org.oscm.internal.types.enumtypes.ImageType;
+
+/**
+ * Node local cache of image resources, bounded by the total size of the cached
+ * image buffers. The least recently used images are evicted first.
+ * <p>
+ * An entry is only valid as long as its content hash matches the content hash
+ * stored in the database, so the cache can be shared by all nodes of a cluster
+ * without further notification. The cached instances are detached copies and
+ * must not be modified.
+ */
+class ImageResourceCache {
+
+    static final long DEFAULT_MAX_SIZE = 32 * 1024 * 1024;
+
+    private final long maxSize;
+
+    private long size;
+
+    private final LinkedHashMap<String, ImageResource> entries = new LinkedHashMap<String, ImageResource>(
+            16, 0.75f, true);
+
+    ImageResourceCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the cached image if its content hash matches the given one.
+     */
+    synchronized ImageResource get(long objectKey, ImageType imageType,
+            String contentHash) {
+        ImageResource cached = entries.get(key(objectKey, imageType));
+        if (cached != null && cached.getContentHash().equals(contentHash)) {
+            return cached;
+        }
+        return null;
+    }
+
+    /**
+     * Stores a detached copy of the given image and returns it.
+     */
+    synchronized ImageResource put(ImageResource imageResource) {
+        ImageResource copy = imageResource.copy(imageResource.getObjectKey());
+        int length = copy.getBuffer().length;
+        if (length > maxSize) {
+            return copy;
+        }
+        remove(copy.getObjectKey(), copy.getImageType());
+        entries.put(key(copy.getObjectKey(), copy.getImageType()), copy);
+        size += length;
+        Iterator<Map.Entry<String, ImageResource>> it = entries.entrySet()
+                .iterator();
+        while (size > maxSize && it.hasNext()) {
+            size -= it.next().getValue().getBuffer().length;
+            it.remove();
+        }
+        return copy;
+    }
+
+    synchronized void remove(long objectKey, ImageType imageType) {
+        ImageResource removed = entries.remove(key(objectKey, imageType));
+        if (removed != null) {
+            size -= removed.getBuffer().length;
+        }
+    }
+
+    synchronized long getSize() {
+        return size;
+    }
+
+    synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    private static String key(long objectKey, ImageType imageType) {
+        return imageType + ":" + objectKey;
+    }
+}
@@ -12,11 +12,14 @@
 
 package org.oscm.i18nservice.bean;
 
+import java.util.List;
+
 import javax.ejb.EJB;
 import javax.ejb.Local;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.persistence.TypedQuery;
 
 import org.oscm.logging.Log4jLogger;
 import org.oscm.logging.LoggerFactory;
@@ -41,6 +44,9 @@ public class ImageResourceServiceBean implements ImageResourceServiceLocal {
     private static final Log4jLogger logger = LoggerFactory
             .getLogger(ImageResourceServiceBean.class);
 
+    private static final ImageResourceCache CACHE = new ImageResourceCache(
+            ImageResourceCache.DEFAULT_MAX_SIZE);
+
     @EJB(beanInterface = DataService.class)
     private DataService ds;
 
@@ -53,21 +59,47 @@ public class ImageResourceServiceBean implements ImageResourceServiceLocal {
             if (imageResource != null) {
                 ds.remove(imageResource);
             }
+            CACHE.remove(objectKey, imageType);
         }
         
     }
 
+    /**
+     * Reads the image with the given key and type. Only the content hash is
+     * read from the database if the image is cached already, in this case a
+     * detached copy of the image is returned.
+     */
     @TransactionAttribute(TransactionAttributeType.MANDATORY)
     public ImageResource read(long objectKey, ImageType imageType) {
-        
+        List<String> contentHashes = readContentHash(objectKey, imageType);
+        if (contentHashes.isEmpty()) {
+            return null;
+        }
+        String contentHash = contentHashes.get(0);
+        if (contentHash != null) {
+            ImageResource cached = CACHE.get(objectKey, imageType,
+                    contentHash);
+            if (cached != null) {
+                return cached;
+            }
+        }
 
         ImageResource template = new ImageResource(objectKey, imageType);
         ImageResource imageResource = (ImageResource) ds.find(template);
-
-        
+        if (imageResource != null && imageResource.getContentHash() != null) {
+            return CACHE.put(imageResource);
+        }
         return imageResource;
     }
 
+    private List<String> readContentHash(long objectKey, ImageType imageType) {
+        TypedQuery<String> query = ds.createNamedQuery(
+                "ImageResource.getContentHash", String.class);
+        query.setParameter("objectKey", Long.valueOf(objectKey));
+        query.setParameter("imageType", imageType);
+        return query.getResultList();
+    }
+
     @TransactionAttribute(TransactionAttributeType.MANDATORY)
     public void save(ImageResource imageResource) {
         
@@ -98,8 +130,8 @@ public class ImageResourceServiceBean implements ImageResourceServiceLocal {
                 throw sse;
             }
         }
-
-        
+        CACHE.remove(imageResource.getObjectKey(),
+                imageResource.getImageType());
     }
 
 }
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.jmx.internal.mbean;
+
+import java.util.Date;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InvalidAttributeValueException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+
+import org.oscm.jmx.internal.bean.EJBClientFacade;
+import org.oscm.jmx.internal.common.MBean;
+
+/**
+ * Shows the state of the configuration cache of this node.
+ */
+@MBean
+public class ConfigurationCache implements DynamicMBean {
+
+    private final EJBClientFacade ejbClientFacade;
+    private static final String VERSION = "Version";
+    private static final String LAST_REFRESH = "LastRefresh";
+
+    public ConfigurationCache(EJBClientFacade clientFacade) {
+        this.ejbClientFacade = clientFacade;
+    }
+
+    @Override
+    public synchronized MBeanInfo getMBeanInfo() {
+        MBeanAttributeInfo[] attributes = {
+                new MBeanAttributeInfo(VERSION, "java.lang.Long",
+                        "The version of the cache, increased with every change",
+                        true, false, false),
+                new MBeanAttributeInfo(LAST_REFRESH, "java.util.Date",
+                        "The time the cache was last reloaded from the database",
+                        true, false, false) };
+
+        return new MBeanInfo(this.getClass().getName(),
+                "Configuration Cache MBean", attributes, null, null, null);
+    }
+
+    @Override
+    public synchronized Object getAttribute(String attribute)
+            throws AttributeNotFoundException, MBeanException {
+        if (VERSION.equals(attribute)) {
+            return Long.valueOf(ejbClientFacade.getConfigurationService()
+                    .getConfigurationCacheVersion());
+        }
+        if (LAST_REFRESH.equals(attribute)) {
+            return new Date(ejbClientFacade.getConfigurationService()
+                    .getConfigurationCacheRefreshTime());
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public synchronized AttributeList getAttributes(String[] names) {
+        AttributeList result = new AttributeList();
+        for (String name : names) {
+            try {
+                result.add(new Attribute(name, getAttribute(name)));
+            } catch (Exception e) {
+                // unknown attributes are not returned
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature)
+            throws MBeanException, ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public synchronized void setAttribute(Attribute attribute)
+            throws AttributeNotFoundException, InvalidAttributeValueException,
+            MBeanException {
+        throw new AttributeNotFoundException(attribute.getName());
+    }
+
+    @Override
+    public synchronized AttributeList setAttributes(AttributeList list) {
+        return new AttributeList();
+    }
+}
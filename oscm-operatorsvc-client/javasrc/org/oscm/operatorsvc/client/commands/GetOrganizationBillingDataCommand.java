@@ -12,11 +12,13 @@
 
 package org.oscm.operatorsvc.client.commands;
 
+import java.io.PrintWriter;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 import java.util.List;
 
 import org.oscm.converter.DateConverter;
+import org.oscm.converter.XMLConverter;
 import org.oscm.operatorsvc.client.CommandContext;
 import org.oscm.operatorsvc.client.IOperatorCommand;
 
@@ -30,6 +32,13 @@ public class GetOrganizationBillingDataCommand implements IOperatorCommand {
     private static final String ARG_FROM = "from";
     private static final String ARG_TO = "to";
 
+    private static final String ROOT_ELEMENT = "Billingdata";
+
+    /**
+     * The number of subscriptions whose billing data is requested at a time.
+     */
+    static final int PAGE_SIZE = 50;
+
     public List<String> getArgumentNames() {
         return Arrays.asList(ARG_ORGID, ARG_FROM, ARG_TO);
     }
@@ -55,14 +64,24 @@ public class GetOrganizationBillingDataCommand implements IOperatorCommand {
         long to = DateConverter.getBeginningOfNextDayInCurrentTimeZone(sdf
                 .parse(toStr).getTime());
 
-        byte[] result = ctx.getService().getOrganizationBillingData(from, to,
-                orgId);
-        String xml = "";
-        if (result != null) {
-            xml = new String(result, "UTF-8");
+        // each page is printed before the next one is requested, so the
+        // billing data is never held in memory as a whole
+        PrintWriter out = ctx.out();
+        XMLConverter.writeCombinedStart(out, ROOT_ELEMENT, null);
+        for (int first = 0;; first += PAGE_SIZE) {
+            List<String> fragments = ctx.getService()
+                    .getOrganizationBillingData(from, to, orgId, first,
+                            PAGE_SIZE);
+            if (fragments == null) {
+                break;
+            }
+            for (String fragment : fragments) {
+                XMLConverter.writeCombinedFragment(out, fragment);
+            }
+            out.flush();
         }
-        ctx.out().print(xml);
-        ctx.out().flush();
+        XMLConverter.writeCombinedEnd(out, ROOT_ELEMENT);
+        out.flush();
         return true;
     }
 
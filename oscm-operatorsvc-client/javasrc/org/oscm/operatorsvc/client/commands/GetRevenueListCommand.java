@@ -28,6 +28,11 @@ public class GetRevenueListCommand implements IOperatorCommand {
 
     private static final String ARG_MONTH = "month";
 
+    /**
+     * The number of rows of the revenue list requested at a time.
+     */
+    static final int PAGE_SIZE = 1000;
+
     public List<String> getArgumentNames() {
         return Arrays.asList(ARG_MONTH);
     }
@@ -47,14 +52,17 @@ public class GetRevenueListCommand implements IOperatorCommand {
         String monthStr = ctx.getString(ARG_MONTH);
         long month = setTimeToZeroInCurrentTimeZone(sdf.parse(monthStr)
                 .getTime());
-        byte[] result = ctx.getService().getSupplierRevenueList(month);
-
-        String csv = "";
-        if (result != null) {
-            csv = new String(result, "UTF-8");
+        // each page is printed before the next one is requested, so the
+        // revenue list is never held in memory as a whole
+        for (int firstRow = 0;; firstRow += PAGE_SIZE) {
+            byte[] page = ctx.getService().getSupplierRevenueList(month,
+                    firstRow, PAGE_SIZE);
+            if (page == null) {
+                break;
+            }
+            ctx.out().print(new String(page, "UTF-8"));
+            ctx.out().flush();
         }
-        ctx.out().print(csv);
-        ctx.out().flush();
         return true;
     }
 
@@ -241,14 +241,30 @@ public class OperatorServiceBeanIT extends EJBTestBase {
             public Query createNativeQuery(String arg0) {
                 return new QueryStub() {
 
+                    private int firstResult;
+                    private int maxResults = Integer.MAX_VALUE;
+
                     @Override
                     public List<?> getResultList() {
-                        return query_getResultList;
+                        if (query_getResultList == null) {
+                            return null;
+                        }
+                        int size = query_getResultList.size();
+                        int from = Math.min(firstResult, size);
+                        return query_getResultList.subList(from,
+                                (int) Math.min((long) from + maxResults, size));
+                    }
+
+                    @Override
+                    public Query setFirstResult(int arg0) {
+                        firstResult = arg0;
+                        return this;
                     }
 
                     @Override
                     public Query setMaxResults(int arg0) {
-                        return null;
+                        maxResults = arg0;
+                        return this;
                     }
 
                     @Override
@@ -349,6 +365,13 @@ public class OperatorServiceBeanIT extends EJBTestBase {
                 return billingResultList;
             }
 
+            @Override
+            public List<BillingResult> generateBillingForAnyPeriod(
+                    long startOfPeriod, long endOfPeriod, long organizationKey,
+                    int firstSubscription, int maxSubscriptions) {
+                return firstSubscription == 0 ? billingResultList : null;
+            }
+
         });
 
         container.addBean(cs = new ConfigurationServiceStub() {
@@ -1071,14 +1094,11 @@ public class OperatorServiceBeanIT extends EJBTestBase {
         billingResultList.add(billingResult);
         long to = 234567890;
         long from = 123456789;
-        byte[] result = operatorService.getOrganizationBillingData(from, to,
-                "id");
-        final String expected = String
-                .format("<?xml version=\"1.0\" encoding=\"UTF-8\"?>%n"
-                        + "<Billingdata>%n"
-                        + "<Parent><Child></Child></Parent>%n"
-                        + "</Billingdata>%n");
-        Assert.assertEquals(expected, new String(result, "UTF-8"));
+        List<String> result = operatorService.getOrganizationBillingData(from,
+                to, "id", 0, 50);
+        Assert.assertEquals(Arrays.asList(xml), result);
+        Assert.assertNull(operatorService.getOrganizationBillingData(from, to,
+                "id", 50, 50));
     }
 
     @Test
@@ -1101,28 +1121,22 @@ public class OperatorServiceBeanIT extends EJBTestBase {
 
         long to = 234567890;
         long from = 123456789;
-        byte[] result = operatorService.getOrganizationBillingData(from, to,
-                "id");
-        final String expected = String
-                .format("<?xml version=\"1.0\" encoding=\"UTF-8\"?>%n"
-                        + "<Billingdata>%n"
-                        + "<Parent><Child></Child></Parent>%n"
-                        + "<Parent><Child></Child></Parent>%n"
-                        + "</Billingdata>%n");
+        List<String> result = operatorService.getOrganizationBillingData(from,
+                to, "id", 0, 50);
 
-        Assert.assertEquals(expected, new String(result, "UTF-8"));
+        Assert.assertEquals(Arrays.asList(xml, xml), result);
     }
 
     @Test(expected = EJBException.class)
     public void testGetOrganizationBillingData_OrgNotFound() throws Exception {
         container.login("1");
         callerRolles.add(OrganizationRoleType.PLATFORM_OPERATOR);
-        operatorService.getOrganizationBillingData(0, 0, "id");
+        operatorService.getOrganizationBillingData(0, 0, "id", 0, 50);
     }
 
     @Test(expected = EJBException.class)
     public void testGetOrganizationBillingData_WithoutRole() throws Exception {
-        operatorService.getOrganizationBillingData(0, 0, "id");
+        operatorService.getOrganizationBillingData(0, 0, "id", 0, 50);
     }
 
     @Test(expected = EJBException.class)
@@ -1537,7 +1551,7 @@ public class OperatorServiceBeanIT extends EJBTestBase {
 
         long month = 1273156744630L;
 
-        byte[] result = operatorService.getSupplierRevenueList(month);
+        byte[] result = operatorService.getSupplierRevenueList(month, 0, 1000);
         String header = "FROM,TO,ID,NAME,AMOUNT,CURRENCY,MARKETPLACE";
         String line1 = "1272664800000,1273156744630,supplieridA,suppliernameA,1231.11,EUR,MP1";
         String line2 = "1272764800000,1273256744630,\"supplierid\"\"B\",\"suppliername,B\",123.0012,JPY,MP2";
@@ -204,7 +204,8 @@ public class SupplierRevenueSqlResultIT extends EJBTestBase {
         runTX(new Callable<Void>() {
             @Override
             public Void call() {
-                sqlResult = SupplierRevenueSqlResult.executeQuery(dm, month);
+                sqlResult = SupplierRevenueSqlResult.executeQuery(dm, month,
+                        0, Integer.MAX_VALUE);
                 return null;
             }
         });
@@ -244,6 +245,33 @@ public class SupplierRevenueSqlResultIT extends EJBTestBase {
                 "USD", MP_ID_S1);
     }
 
+    @Test
+    public void testExecuteQuery_page() throws Exception {
+
+        final String expectedStart = "2011-07-01 00:00:00.0";
+        final String expectedEnd = "2011-08-01 00:00:00.0";
+        final long month = createTimestamp("2011-07");
+
+        runTX(new Callable<Void>() {
+            @Override
+            public Void call() {
+                sqlResult = SupplierRevenueSqlResult.executeQuery(dm, month,
+                        4, 2);
+                return null;
+            }
+        });
+
+        List<SupplierRevenueSqlResult.RowData> resultList = sqlResult
+                .getRowData();
+        assertEquals(2, resultList.size());
+        verifyResult(resultList.get(0), expectedStart, expectedEnd,
+                supplier1.getOrganizationId(), supplier1.getName(), "100.00",
+                "USD", MP_ID_S1);
+        verifyResult(resultList.get(1), expectedStart, expectedEnd,
+                supplier2.getOrganizationId(), supplier2.getName(), "10.00",
+                "EUR", MP_ID_S2);
+    }
+
     /**
      * Verify the result of the SQL for supplier revenue list.
      * 
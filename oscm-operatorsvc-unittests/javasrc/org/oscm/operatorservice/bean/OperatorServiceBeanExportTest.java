@@ -0,0 +1,285 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.operatorservice.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import javax.persistence.Query;
+
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import org.oscm.billingservice.service.BillingServiceLocal;
+import org.oscm.converter.PriceConverter;
+import org.oscm.dataservice.local.DataService;
+import org.oscm.domobjects.BillingResult;
+import org.oscm.domobjects.DomainObject;
+import org.oscm.domobjects.Organization;
+import org.oscm.domobjects.PlatformUser;
+
+public class OperatorServiceBeanExportTest {
+
+    private OperatorServiceBean bean;
+    private Query query;
+
+    @Before
+    public void setup() {
+        bean = new OperatorServiceBean();
+        bean.dm = mock(DataService.class);
+        bean.billing = mock(BillingServiceLocal.class);
+        PlatformUser user = new PlatformUser();
+        user.setLocale("en");
+        when(bean.dm.getCurrentUser()).thenReturn(user);
+        query = mock(Query.class);
+        when(bean.dm.createNativeQuery(anyString())).thenReturn(query);
+    }
+
+    @Test
+    public void writeSupplierRevenueList() throws Exception {
+        // given
+        List<SupplierRevenueSqlResult.RowData> rows = Arrays.asList(
+                givenRow("supplier1", "Supplier, Inc.", "10.5"),
+                givenRow("supplier2", "Supplier 2", "3"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        OperatorServiceBean.writeSupplierRevenueList(rows, new PriceConverter(
+                Locale.ENGLISH), true, out);
+
+        // then
+        String expected = String
+                .format("FROM,TO,ID,NAME,AMOUNT,CURRENCY,MARKETPLACE%n"
+                        + "2016-01-01,2016-02-01,supplier1,\"Supplier, Inc.\",10.50,EUR,mp%n"
+                        + "2016-01-01,2016-02-01,supplier2,Supplier 2,3.00,EUR,mp%n");
+        assertEquals(expected, out.toString("UTF-8"));
+    }
+
+    @Test
+    public void writeSupplierRevenueList_noHeader() throws Exception {
+        // given
+        List<SupplierRevenueSqlResult.RowData> rows = Arrays
+                .asList(givenRow("supplier1", "Supplier 1", "1"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        OperatorServiceBean.writeSupplierRevenueList(rows, new PriceConverter(
+                Locale.ENGLISH), false, out);
+
+        // then
+        assertEquals(
+                String.format("2016-01-01,2016-02-01,supplier1,Supplier 1,1.00,EUR,mp%n"),
+                out.toString("UTF-8"));
+    }
+
+    @Test
+    public void getSupplierRevenueList_page() throws Exception {
+        // given
+        when(query.getResultList()).thenReturn(
+                Collections.singletonList(givenResultRow("supplier1")));
+
+        // when
+        byte[] page = bean.getSupplierRevenueList(1L, 1000, 1000);
+
+        // then
+        verify(query).setFirstResult(1000);
+        verify(query).setMaxResults(1000);
+        assertEquals(
+                String.format("2016-01-01,2016-02-01,supplier1,Supplier,1.00,EUR,mp%n"),
+                new String(page, "UTF-8"));
+    }
+
+    @Test
+    public void getSupplierRevenueList_firstPageEmpty() throws Exception {
+        // given
+        when(query.getResultList()).thenReturn(new ArrayList<Object[]>());
+
+        // when
+        byte[] page = bean.getSupplierRevenueList(1L, 0, 1000);
+
+        // then
+        assertEquals(
+                String.format("FROM,TO,ID,NAME,AMOUNT,CURRENCY,MARKETPLACE%n"),
+                new String(page, "UTF-8"));
+    }
+
+    @Test
+    public void getSupplierRevenueList_behindLastRow() throws Exception {
+        // given
+        when(query.getResultList()).thenReturn(new ArrayList<Object[]>());
+
+        // when
+        byte[] page = bean.getSupplierRevenueList(1L, 1000, 1000);
+
+        // then
+        assertNull(page);
+    }
+
+    @Test
+    public void getOrganizationBillingData_page() throws Exception {
+        // given
+        givenOrganization(11L);
+        when(
+                bean.billing.generateBillingForAnyPeriod(0, 1, 11L, 50, 50))
+                .thenReturn(
+                        Arrays.asList(givenBillingResult("<a/>"),
+                                givenBillingResult("<b/>")));
+
+        // when
+        List<String> fragments = bean.getOrganizationBillingData(0, 1, "org",
+                50, 50);
+
+        // then
+        assertEquals(Arrays.asList("<a/>", "<b/>"), fragments);
+    }
+
+    @Test
+    public void getOrganizationBillingData_behindLastSubscription()
+            throws Exception {
+        // given
+        givenOrganization(11L);
+
+        // when
+        List<String> fragments = bean.getOrganizationBillingData(0, 1, "org",
+                50, 50);
+
+        // then
+        assertNull(fragments);
+    }
+
+    /**
+     * Exports a supplier revenue list of 4 GB page by page to a stream which
+     * only counts the bytes, as a client of the paged export does, not run by
+     * default. The heap still in use after a garbage collection must not grow
+     * with the size of the list.
+     * <p>
+     * The rows come from a mocked query, so this only shows that the bean and
+     * the CSV writing do not keep earlier pages. The memory used by the JDBC
+     * driver and the database for the paged native query is not covered.
+     */
+    @Ignore
+    @Test
+    public void writeSupplierRevenueList_4GB() throws Exception {
+        // given
+        final long size = 4L * 1024 * 1024 * 1024;
+        final long maxHeapGrowth = 64L * 1024 * 1024;
+        final int pageSize = 1000;
+        final CountingOutputStream out = new CountingOutputStream();
+        when(query.getResultList()).thenAnswer(new Answer<List<Object[]>>() {
+            private int pages;
+
+            @Override
+            public List<Object[]> answer(InvocationOnMock invocation) {
+                if (++pages % 1000 == 0) {
+                    out.checkHeap();
+                }
+                List<Object[]> rows = new ArrayList<Object[]>(pageSize);
+                if (out.count < size) {
+                    for (int i = 0; i < pageSize; i++) {
+                        rows.add(givenResultRow("supplier" + i));
+                    }
+                }
+                return rows;
+            }
+        });
+        Runtime.getRuntime().gc();
+        long heapBefore = usedHeap();
+
+        // when
+        long start = System.currentTimeMillis();
+        for (int firstRow = 0;; firstRow += pageSize) {
+            byte[] page = bean.getSupplierRevenueList(1L, firstRow, pageSize);
+            if (page == null) {
+                break;
+            }
+            out.write(page, 0, page.length);
+        }
+        long time = System.currentTimeMillis() - start;
+
+        // then
+        System.out.println("Wrote " + out.count + " bytes in " + time
+                + " ms, heap used before " + heapBefore / 1024
+                + " KB, max. used while writing " + out.maxHeap / 1024
+                + " KB");
+        assertTrue(out.count >= size);
+        assertTrue(out.maxHeap - heapBefore < maxHeapGrowth);
+    }
+
+    private void givenOrganization(long key) throws Exception {
+        Organization organization = new Organization();
+        organization.setKey(key);
+        when(bean.dm.getReferenceByBusinessKey(any(DomainObject.class)))
+                .thenReturn(organization);
+        when(
+                bean.billing.generateBillingForAnyPeriod(anyLong(), anyLong(),
+                        anyLong(), anyInt(), anyInt())).thenReturn(null);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static SupplierRevenueSqlResult.RowData givenRow(String id,
+            String name, String amount) {
+        return new SupplierRevenueSqlResult.RowData("2016-01-01",
+                "2016-02-01", name, id, amount, "EUR", "mp");
+    }
+
+    private static Object[] givenResultRow(String id) {
+        return new Object[] { "2016-01-01", "2016-02-01", id, "Supplier", "1",
+                "EUR", "mp" };
+    }
+
+    private static BillingResult givenBillingResult(String xml) {
+        BillingResult result = new BillingResult();
+        result.setResultXML(xml);
+        return result;
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        long count;
+        long maxHeap;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        /**
+         * Records the heap in use after a garbage collection, i.e. without
+         * the garbage of the pages already written.
+         */
+        void checkHeap() {
+            Runtime.getRuntime().gc();
+            maxHeap = Math.max(maxHeap, usedHeap());
+        }
+    }
+}
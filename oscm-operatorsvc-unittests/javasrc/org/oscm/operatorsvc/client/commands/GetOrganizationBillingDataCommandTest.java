@@ -15,8 +15,11 @@ package org.oscm.operatorsvc.client.commands;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.Method;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.junit.Test;
 
@@ -28,6 +31,8 @@ import org.oscm.operatorsvc.client.IOperatorCommand;
  */
 public class GetOrganizationBillingDataCommandTest extends CommandTestBase {
 
+    private List<List<String>> pages = Collections.emptyList();
+
     @Override
     protected IOperatorCommand createCommand() {
         return new GetOrganizationBillingDataCommand();
@@ -60,9 +65,41 @@ public class GetOrganizationBillingDataCommandTest extends CommandTestBase {
         assertEquals(fromLong, stubCallArgs[0]);
         assertEquals(toLong, stubCallArgs[1]);
         assertEquals("est", stubCallArgs[2]);
+        assertEquals(Integer.valueOf(0), stubCallArgs[3]);
+
+        assertOut("<?xml version=\"1.0\" encoding=\"UTF-8\"?>%n"
+                + "<Billingdata>%n</Billingdata>%n");
+        assertErr("");
+    }
+
+    @Test
+    public void testSuccess_multiplePages() throws Exception {
+        args.put("orgid", "est");
+        args.put("from", "1991-02-14");
+        args.put("to", "2003-07-21");
+        pages = Arrays.asList(Arrays.asList("<a/>", "<b/>"),
+                Arrays.asList("<c/>"));
+        assertTrue(command.run(ctx));
+        assertEquals("getOrganizationBillingData", stubMethodName);
+        assertEquals(
+                Integer.valueOf(2 * GetOrganizationBillingDataCommand.PAGE_SIZE),
+                stubCallArgs[3]);
+        assertEquals(
+                Integer.valueOf(GetOrganizationBillingDataCommand.PAGE_SIZE),
+                stubCallArgs[4]);
 
-        assertOut("");
+        assertOut("<?xml version=\"1.0\" encoding=\"UTF-8\"?>%n"
+                + "<Billingdata>%n<a/>%n<b/>%n<c/>%n</Billingdata>%n");
         assertErr("");
     }
 
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable {
+        super.invoke(proxy, method, args);
+        int page = ((Integer) args[3]).intValue()
+                / GetOrganizationBillingDataCommand.PAGE_SIZE;
+        return page < pages.size() ? pages.get(page) : null;
+    }
+
 }
@@ -15,6 +15,7 @@ package org.oscm.operatorsvc.client.commands;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.lang.reflect.Method;
 import java.text.SimpleDateFormat;
 import java.util.Arrays;
 
@@ -28,6 +29,8 @@ import org.oscm.operatorsvc.client.IOperatorCommand;
  */
 public class GetRevenueListCommandTest extends CommandTestBase {
 
+    private byte[][] pages;
+
     @Override
     protected IOperatorCommand createCommand() {
         return new GetRevenueListCommand();
@@ -56,8 +59,38 @@ public class GetRevenueListCommandTest extends CommandTestBase {
         Long monthLong = Long.valueOf(sdf.parse(month).getTime());
         assertEquals(monthLong, stubCallArgs[0]);
 
+        assertEquals(Integer.valueOf(GetRevenueListCommand.PAGE_SIZE),
+                stubCallArgs[1]);
+
         assertOut("1272664800000,1273156744630,supplierA,10000,123000,EUR\n1272764800000,1273256744630,\"supplier,S\",10000,1230000,JPY\n");
         assertErr("");
     }
 
+    @Test
+    public void testSuccess_multiplePages() throws Exception {
+        args.put("month", "2011-02");
+        pages = new byte[][] { "header\nrow1\n".getBytes(),
+                "row2\n".getBytes() };
+        assertTrue(command.run(ctx));
+        assertEquals("getSupplierRevenueList", stubMethodName);
+        assertEquals(
+                Integer.valueOf(2 * GetRevenueListCommand.PAGE_SIZE),
+                stubCallArgs[1]);
+
+        assertOut("header\nrow1\nrow2\n");
+        assertErr("");
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable {
+        super.invoke(proxy, method, args);
+        int page = ((Integer) args[1]).intValue()
+                / GetRevenueListCommand.PAGE_SIZE;
+        if (pages != null) {
+            return page < pages.length ? pages[page] : null;
+        }
+        return page == 0 ? stubCallReturn : null;
+    }
+
 }
@@ -8,8 +8,15 @@
 
 package org.oscm.operatorservice.bean;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -42,7 +49,6 @@ import org.oscm.converter.CsvCreator;
 import org.oscm.converter.LocaleHandler;
 import org.oscm.converter.ParameterizedTypes;
 import org.oscm.converter.PriceConverter;
-import org.oscm.converter.XMLConverter;
 import org.oscm.dataservice.local.DataService;
 import org.oscm.domobjects.BillingResult;
 import org.oscm.domobjects.ConfigurationSetting;
@@ -754,24 +760,26 @@ public class OperatorServiceBean implements OperatorService {
 
     @Override
     @RolesAllowed("PLATFORM_OPERATOR")
-    public byte[] getOrganizationBillingData(long from, long to,
-            String organizationId) throws ObjectNotFoundException,
+    public List<String> getOrganizationBillingData(long from, long to,
+            String organizationId, int firstSubscription, int maxSubscriptions)
+                    throws ObjectNotFoundException,
                     OrganizationAuthoritiesException {
 
         Organization organization = getOrganizationInt(organizationId);
 
-        final List<String> fragments = new ArrayList<String>();
         try {
             List<BillingResult> resultList = billing
                     .generateBillingForAnyPeriod(from, to,
-                            organization.getKey());
-            if (resultList != null) {
-                for (BillingResult billingResult : resultList) {
-                    fragments.add(billingResult.getResultXML());
-                }
+                            organization.getKey(), firstSubscription,
+                            maxSubscriptions);
+            if (resultList == null) {
+                return null;
             }
-
-            return XMLConverter.combine("Billingdata", fragments);
+            List<String> fragments = new ArrayList<String>(resultList.size());
+            for (BillingResult billingResult : resultList) {
+                fragments.add(billingResult.getResultXML());
+            }
+            return fragments;
         } catch (BillingRunFailed ex) {
             throw new SaaSSystemException(ex);
         }
@@ -1510,33 +1518,56 @@ public class OperatorServiceBean implements OperatorService {
 
     @Override
     @RolesAllowed("PLATFORM_OPERATOR")
-    public byte[] getSupplierRevenueList(long month) {
+    public byte[] getSupplierRevenueList(long month, int firstRow,
+            int maxRows) {
 
         PriceConverter priceConverter = new PriceConverter(LocaleHandler
                 .getLocaleFromString(dm.getCurrentUser().getLocale()));
-        SupplierRevenueSqlResult result = SupplierRevenueSqlResult
-                .executeQuery(dm, month);
-        String header = String
-                .format("FROM,TO,ID,NAME,AMOUNT,CURRENCY,MARKETPLACE%n");
-        StringBuffer csvResult = new StringBuffer(header);
-        List<SupplierRevenueSqlResult.RowData> rowDataList = result
-                .getRowData();
-        for (SupplierRevenueSqlResult.RowData rowData : rowDataList) {
-            String[] row = new String[7];
-            row[0] = rowData.fromDate;
-            row[1] = rowData.toDate;
-            row[2] = rowData.supplierId;
-            row[3] = rowData.supplierName;
-            row[4] = priceConverter
-                    .getValueToDisplay(new BigDecimal(rowData.amount), false);
-            row[5] = rowData.currency;
-            row[6] = rowData.marketplace;
-            csvResult.append(
-                    String.format("%s%n", CsvCreator.createCsvLine(row)));
+        List<SupplierRevenueSqlResult.RowData> rowData = SupplierRevenueSqlResult
+                .executeQuery(dm, month, firstRow, maxRows).getRowData();
+        if (rowData.isEmpty() && firstRow > 0) {
+            return null;
         }
-        byte[] resultCsv = XMLConverter.toUTF8(csvResult.toString());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            writeSupplierRevenueList(rowData, priceConverter, firstRow == 0,
+                    out);
+        } catch (IOException e) {
+            throw new SaaSSystemException(e);
+        }
+        return out.toByteArray();
+    }
 
-        return resultCsv;
+    /**
+     * Writes the rows of the supplier revenue list as UTF-8 encoded CSV to the
+     * stream, one row after the other, preceded by the header line if
+     * requested. The stream is flushed, but not closed.
+     */
+    static void writeSupplierRevenueList(
+            Iterable<SupplierRevenueSqlResult.RowData> rowData,
+            PriceConverter priceConverter, boolean header, OutputStream out)
+            throws IOException {
+        String lineSeparator = System.lineSeparator();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out,
+                StandardCharsets.UTF_8));
+        if (header) {
+            writer.write("FROM,TO,ID,NAME,AMOUNT,CURRENCY,MARKETPLACE");
+            writer.write(lineSeparator);
+        }
+        String[] row = new String[7];
+        for (SupplierRevenueSqlResult.RowData data : rowData) {
+            row[0] = data.fromDate;
+            row[1] = data.toDate;
+            row[2] = data.supplierId;
+            row[3] = data.supplierName;
+            row[4] = priceConverter
+                    .getValueToDisplay(new BigDecimal(data.amount), false);
+            row[5] = data.currency;
+            row[6] = data.marketplace;
+            writer.write(CsvCreator.createCsvLine(row));
+            writer.write(lineSeparator);
+        }
+        writer.flush();
     }
 
 }
@@ -79,20 +79,29 @@ class SupplierRevenueSqlResult {
     }
 
     /**
-     * Executes the query and returns the result object.
+     * Executes the query for a page of the rows and returns the result
+     * object.
      * 
      * @param dm
      *            Data Manager to be used
+     * @param month
+     *            the month of the revenue list
+     * @param firstRow
+     *            the index of the first row to be read
+     * @param maxRows
+     *            the maximum number of rows to be read
      * @return PlatformRevenueSqlResult result of the query
      */
     public static SupplierRevenueSqlResult executeQuery(DataService dm,
-            long month) {
+            long month, int firstRow, int maxRows) {
 
         try {
             String locale = dm.getCurrentUser().getLocale();
             String sql = createSqlQuery(month,
                     LocaleHandler.getLocaleFromString(locale));
             Query query = dm.createNativeQuery(sql);
+            query.setFirstResult(firstRow);
+            query.setMaxResults(maxRows);
             @SuppressWarnings("unchecked")
             List<Object[]> resultList = query.getResultList();
             return readData(resultList);
@@ -145,7 +154,6 @@ class SupplierRevenueSqlResult {
         sb.append("sub.tkey = billingresult.subscriptionkey ");
         sb.append("GROUP BY periodstarttime, periodendtime, supplier.tkey, supplier.organizationid, supplier.name, currency, mp ");
         sb.append("ORDER BY organizationid, currency, mp");
-        System.out.println(sb.toString());
         return sb.toString();
     }
 
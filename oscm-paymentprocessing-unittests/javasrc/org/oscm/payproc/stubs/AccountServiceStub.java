@@ -97,6 +97,12 @@ public class AccountServiceStub implements AccountServiceLocal {
 
     }
 
+    @Override
+    public boolean sendDiscountEndNotificationMail(long currentTimeMillis,
+            long lowerKey, long upperKey) throws MailOperationException {
+        return true;
+    }
+
     @Override
     public void checkDistinguishedName(Organization organization)
             throws DistinguishedNameException {
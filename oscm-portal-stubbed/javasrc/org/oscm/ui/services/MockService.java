@@ -1400,6 +1400,12 @@ public class MockService implements IdentityService, SubscriptionService,
         return new ArrayList<>(customers);
     }
 
+    @Override
+    public List<VOOrganization> getMyCustomersByCriteria(
+            ListCriteria listCriteria) {
+        return new ArrayList<>(customers);
+    }
+
     @Override
     public VOOrganization getMyCustomer(VOOrganization org, String locale) {
         return new VOOrganization();
@@ -14,6 +14,7 @@ package org.oscm.ui.beans.operator;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
@@ -26,16 +27,19 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
 import java.util.Date;
 
 import javax.faces.application.FacesMessage;
 import javax.faces.component.UIComponent;
 import javax.faces.context.FacesContext;
 import javax.faces.validator.ValidatorException;
+import javax.servlet.http.HttpServletRequest;
 
 import org.junit.Before;
 import org.junit.Test;
 
+import org.oscm.converter.DateConverter;
 import org.oscm.test.stubs.OperatorServiceStub;
 import org.oscm.ui.beans.ApplicationBean;
 import org.oscm.ui.beans.BaseBean;
@@ -43,8 +47,6 @@ import org.oscm.ui.beans.SelectOrganizationIncludeBean;
 import org.oscm.ui.common.UiDelegate;
 import org.oscm.ui.validator.DateFromToValidator;
 import org.oscm.internal.intf.OperatorService;
-import org.oscm.internal.types.exception.ObjectNotFoundException;
-import org.oscm.internal.types.exception.OrganizationAuthoritiesException;
 
 /**
  * @author weiser
@@ -59,11 +61,11 @@ public class BillingBeanTest {
     private Object value;
     private DateFromToValidator validator;
 
-    protected byte[] responseContent;
+    protected String redirectUrl;
     protected String messageKey;
     protected boolean serviceCalled;
     protected boolean serviceResult;
-    protected byte[] billingData = new byte[] { 1, 2, 3, 4, 5 };
+    private final HttpServletRequest request = mock(HttpServletRequest.class);
     private final ApplicationBean appBean = mock(ApplicationBean.class);
     private final OperatorService operatorService = mock(OperatorService.class);
 
@@ -71,6 +73,7 @@ public class BillingBeanTest {
 
     @Before
     public void setup() {
+        when(request.getContextPath()).thenReturn("/oscm-portal");
         final OperatorServiceStub stub = new OperatorServiceStub() {
 
             @Override
@@ -91,13 +94,6 @@ public class BillingBeanTest {
                 return serviceResult;
             }
 
-            @Override
-            public byte[] getOrganizationBillingData(long from, long to,
-                    String organizationId) {
-                serviceCalled = true;
-                return billingData;
-            }
-
         };
 
         bean = new BillingBean() {
@@ -110,9 +106,13 @@ public class BillingBeanTest {
             }
 
             @Override
-            protected void writeContentToResponse(byte[] content,
-                    String filename, String contentType) throws IOException {
-                responseContent = content;
+            protected HttpServletRequest getRequest() {
+                return request;
+            }
+
+            @Override
+            protected void redirect(String url) throws IOException {
+                redirectUrl = url;
             }
 
             @Override
@@ -179,22 +179,11 @@ public class BillingBeanTest {
         assertFalse(bean.isBillingDataAvailable());
     }
 
-    @Test
-    public void testGetBillingData_NullReturned() throws Exception {
-        billingData = null;
-        String result = getBillingData();
-        assertEquals(BaseBean.OUTCOME_ERROR, result);
-        assertEquals(BaseOperatorBean.ERROR_SHOW_BILLING_DATA, messageKey);
-        assertTrue(serviceCalled);
-        assertFalse(bean.isBillingDataAvailable());
-    }
-
     @Test
     public void testGetBillingData() throws Exception {
         String result = getBillingData();
         assertEquals(BaseBean.OUTCOME_SUCCESS, result);
         assertEquals(null, messageKey);
-        assertTrue(serviceCalled);
         assertTrue(bean.isBillingDataAvailable());
     }
 
@@ -203,6 +192,7 @@ public class BillingBeanTest {
         String result = bean.showBillingData();
         assertEquals(BaseBean.OUTCOME_ERROR, result);
         assertEquals(BaseOperatorBean.ERROR_SHOW_BILLING_DATA, messageKey);
+        assertNull(redirectUrl);
     }
 
     @Test
@@ -212,7 +202,13 @@ public class BillingBeanTest {
         result = bean.showBillingData();
         assertEquals(BaseBean.OUTCOME_SUCCESS, result);
         assertEquals(null, messageKey);
-        assertEquals(billingData, responseContent);
+        long from = DateConverter.getBeginningOfDayInCurrentTimeZone(bean
+                .getFromDate().getTime());
+        long to = DateConverter.getBeginningOfNextDayInCurrentTimeZone(bean
+                .getToDate().getTime());
+        assertEquals("/oscm-portal/operator/billingData?from=" + from
+                + "&to=" + to + "&organizationId=" + ORG_ID, redirectUrl);
+        assertFalse(bean.isBillingDataAvailable());
     }
 
     @Test
@@ -286,8 +282,7 @@ public class BillingBeanTest {
         assertEquals(date, bean.getToDate());
     }
 
-    private String getBillingData() throws ObjectNotFoundException,
-            OrganizationAuthoritiesException {
+    private String getBillingData() throws UnsupportedEncodingException {
         Date date = new Date(System.currentTimeMillis());
         bean.setFromDate(date);
         bean.setToDate(date);
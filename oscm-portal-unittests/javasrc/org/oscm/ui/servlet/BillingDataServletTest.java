@@ -0,0 +1,151 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.ui.servlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.oscm.converter.XMLConverter;
+import org.oscm.internal.intf.OperatorService;
+import org.oscm.internal.types.exception.ObjectNotFoundException;
+
+public class BillingDataServletTest {
+
+    private static final int PAGE_SIZE = BillingDataServlet.PAGE_SIZE;
+
+    private BillingDataServlet servlet;
+    private OperatorService operatorService;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private ByteArrayOutputStream content;
+
+    @Before
+    public void setup() throws Exception {
+        operatorService = mock(OperatorService.class);
+        servlet = new BillingDataServlet() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            OperatorService getOperatorService(HttpSession session) {
+                return operatorService;
+            }
+        };
+        request = mock(HttpServletRequest.class);
+        when(request.getParameter(BillingDataServlet.PARAM_FROM)).thenReturn(
+                "1000");
+        when(request.getParameter(BillingDataServlet.PARAM_TO)).thenReturn(
+                "2000");
+        when(request.getParameter(BillingDataServlet.PARAM_ORGANIZATION_ID))
+                .thenReturn("org");
+        response = mock(HttpServletResponse.class);
+        content = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                content.write(b);
+            }
+        });
+        when(
+                operatorService.getOrganizationBillingData(anyLong(),
+                        anyLong(), anyString(), anyInt(), anyInt()))
+                .thenReturn(null);
+    }
+
+    @Test
+    public void getUrl() throws Exception {
+        assertEquals(
+                "/operator/billingData?from=1&to=2&organizationId=a+b%26c",
+                BillingDataServlet.getUrl(1, 2, "a b&c"));
+    }
+
+    @Test
+    public void doGet() throws Exception {
+        // given
+        when(
+                operatorService.getOrganizationBillingData(1000, 2000, "org",
+                        0, PAGE_SIZE)).thenReturn(Arrays.asList("<a/>", "<b/>"));
+        when(
+                operatorService.getOrganizationBillingData(1000, 2000, "org",
+                        PAGE_SIZE, PAGE_SIZE)).thenReturn(
+                Collections.<String> emptyList());
+        when(
+                operatorService.getOrganizationBillingData(1000, 2000, "org",
+                        2 * PAGE_SIZE, PAGE_SIZE)).thenReturn(
+                Arrays.asList("<c>\u00e4</c>"));
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(operatorService).getOrganizationBillingData(1000, 2000, "org",
+                3 * PAGE_SIZE, PAGE_SIZE);
+        verify(response).setContentType("text/xml");
+        assertEquals(new String(XMLConverter.combine("Billingdata",
+                Arrays.asList("<a/>", "<b/>", "<c>\u00e4</c>")), "UTF-8"),
+                content.toString("UTF-8"));
+    }
+
+    @Test
+    public void doGet_noSubscriptions() throws Exception {
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        assertEquals(new String(XMLConverter.combine("Billingdata",
+                Collections.<String> emptyList()), "UTF-8"),
+                content.toString("UTF-8"));
+    }
+
+    @Test
+    public void doGet_organizationNotFound() throws Exception {
+        // given
+        when(
+                operatorService.getOrganizationBillingData(anyLong(),
+                        anyLong(), eq("org"), eq(0), anyInt())).thenThrow(
+                new ObjectNotFoundException());
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response).sendError(HttpServletResponse.SC_NOT_FOUND);
+        verify(response, never()).getOutputStream();
+    }
+
+    @Test
+    public void doGet_invalidParameter() throws Exception {
+        // given
+        when(request.getParameter(BillingDataServlet.PARAM_FROM)).thenReturn(
+                "x");
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response).sendError(HttpServletResponse.SC_BAD_REQUEST);
+        verify(operatorService, never()).getOrganizationBillingData(
+                anyLong(), anyLong(), anyString(), anyInt(), anyInt());
+    }
+}
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.ui.servlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+
+import javax.ejb.EJBAccessException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.oscm.internal.intf.OperatorService;
+
+public class RevenueListServletTest {
+
+    private static final int PAGE_SIZE = RevenueListServlet.PAGE_SIZE;
+
+    private RevenueListServlet servlet;
+    private OperatorService operatorService;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private ByteArrayOutputStream content;
+
+    @Before
+    public void setup() throws Exception {
+        operatorService = mock(OperatorService.class);
+        servlet = new RevenueListServlet() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            OperatorService getOperatorService(HttpSession session) {
+                return operatorService;
+            }
+        };
+        request = mock(HttpServletRequest.class);
+        when(request.getParameter(RevenueListServlet.PARAM_MONTH)).thenReturn(
+                "1000");
+        response = mock(HttpServletResponse.class);
+        content = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                content.write(b);
+            }
+        });
+    }
+
+    @Test
+    public void getUrl() {
+        assertEquals("/operator/revenueList?month=1000",
+                RevenueListServlet.getUrl(1000));
+    }
+
+    @Test
+    public void doGet() throws Exception {
+        // given
+        when(operatorService.getSupplierRevenueList(1000, 0, PAGE_SIZE))
+                .thenReturn("header\nrow1\n".getBytes("UTF-8"));
+        when(operatorService.getSupplierRevenueList(1000, PAGE_SIZE, PAGE_SIZE))
+                .thenReturn("row2\n".getBytes("UTF-8"));
+        when(
+                operatorService.getSupplierRevenueList(1000, 2 * PAGE_SIZE,
+                        PAGE_SIZE)).thenReturn("r\u00e4w3\n".getBytes("UTF-8"));
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(operatorService).getSupplierRevenueList(1000, 3 * PAGE_SIZE,
+                PAGE_SIZE);
+        verify(response).setContentType("text/csv");
+        assertEquals("header\nrow1\nrow2\nr\u00e4w3\n",
+                content.toString("UTF-8"));
+    }
+
+    @Test
+    public void doGet_noRows() throws Exception {
+        // given
+        when(operatorService.getSupplierRevenueList(1000, 0, PAGE_SIZE))
+                .thenReturn("header\n".getBytes("UTF-8"));
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(operatorService).getSupplierRevenueList(1000, PAGE_SIZE,
+                PAGE_SIZE);
+        assertEquals("header\n", content.toString("UTF-8"));
+    }
+
+    @Test
+    public void doGet_notAuthorized() throws Exception {
+        // given
+        when(
+                operatorService.getSupplierRevenueList(anyLong(), eq(0),
+                        anyInt())).thenThrow(new EJBAccessException());
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response).sendError(HttpServletResponse.SC_FORBIDDEN);
+        verify(response, never()).getOutputStream();
+    }
+
+    @Test
+    public void doGet_invalidParameter() throws Exception {
+        // given
+        when(request.getParameter(RevenueListServlet.PARAM_MONTH)).thenReturn(
+                "x");
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response).sendError(HttpServletResponse.SC_BAD_REQUEST);
+        verify(operatorService, never()).getSupplierRevenueList(anyLong(),
+                anyInt(), anyInt());
+    }
+}
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.ui.servlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ThumbnailCacheTest {
+
+    private ThumbnailCache cache;
+
+    @Before
+    public void setup() {
+        cache = new ThumbnailCache(80, 80, 2);
+    }
+
+    @Test
+    public void get_scalesKeepingAspectRatio() throws Exception {
+        // when
+        byte[] thumbnail = cache.get("hash", image(400, 200));
+
+        // then
+        BufferedImage result = ImageIO.read(new ByteArrayInputStream(
+                thumbnail));
+        assertEquals(80, result.getWidth());
+        assertEquals(40, result.getHeight());
+    }
+
+    @Test
+    public void get_cached() throws Exception {
+        // given
+        byte[] first = cache.get("hash", image(400, 200));
+
+        // when
+        byte[] second = cache.get("hash", new byte[0]);
+
+        // then
+        assertSame(first, second);
+    }
+
+    @Test
+    public void get_smallImage() throws Exception {
+        assertNull(cache.get("hash", image(80, 60)));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void get_noImage() throws Exception {
+        assertNull(cache.get("hash", new byte[] { 1, 2, 3 }));
+    }
+
+    @Test
+    public void get_bounded() throws Exception {
+        // given
+        byte[] image = image(160, 160);
+
+        // when
+        cache.get("a", image);
+        cache.get("b", image);
+        cache.get("c", image);
+
+        // then
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("c", new byte[0]));
+    }
+
+    private static byte[] image(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
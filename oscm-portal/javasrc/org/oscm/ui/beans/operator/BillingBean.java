@@ -14,8 +14,7 @@ package org.oscm.ui.beans.operator;
 
 import java.io.IOException;
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.io.UnsupportedEncodingException;
 import java.util.Date;
 
 import javax.faces.application.FacesMessage;
@@ -30,8 +29,9 @@ import org.oscm.logging.Log4jLogger;
 import org.oscm.logging.LoggerFactory;
 import org.oscm.converter.DateConverter;
 import org.oscm.types.enumtypes.LogMessageIdentifier;
+import org.oscm.ui.common.JSFUtils;
+import org.oscm.ui.servlet.BillingDataServlet;
 import org.oscm.ui.validator.DateFromToValidator;
-import org.oscm.internal.types.exception.ObjectNotFoundException;
 import org.oscm.internal.types.exception.OrganizationAuthoritiesException;
 
 /**
@@ -59,7 +59,7 @@ public class BillingBean extends BaseOperatorBean implements Serializable {
     
     private DateFromToValidator validator = new DateFromToValidator();
 
-    private byte[] billingData;
+    private String billingDataUrl;
 
     public OperatorSelectOrgBean getOperatorSelectOrgBean() {
         return operatorSelectOrgBean;
@@ -127,16 +127,15 @@ public class BillingBean extends BaseOperatorBean implements Serializable {
     }
 
     /**
-     * Exports the billing data for the specified start and end date and the
-     * supplier id. The read data will be written to the response as type
-     * text/xml.
+     * Prepares the export of the billing data for the specified start and end
+     * date and the supplier id. The billing data is written to the response
+     * as type text/xml by the {@link BillingDataServlet}, which is requested
+     * by {@link #showBillingData()}.
      * 
      * @return the logical outcome.
-     * @throws ObjectNotFoundException
-     * @throws OrganizationAuthoritiesException
+     * @throws UnsupportedEncodingException
      */
-    public String getBillingData() throws ObjectNotFoundException,
-            OrganizationAuthoritiesException {
+    public String getBillingData() throws UnsupportedEncodingException {
         
         String orgId = operatorSelectOrgBean.getOrganizationId();
         if (fromDate == null || toDate == null || orgId == null
@@ -155,38 +154,34 @@ public class BillingBean extends BaseOperatorBean implements Serializable {
         long to = DateConverter.getBeginningOfNextDayInCurrentTimeZone(toDate
                 .getTime());
 
-        billingData = getOperatorService().getOrganizationBillingData(from, to,
-                orgId);
-        if (billingData == null) {
-            addMessage(null, FacesMessage.SEVERITY_ERROR,
-                    ERROR_SHOW_BILLING_DATA);
-            logger.logError(LogMessageIdentifier.ERROR_GET_ORGANIZATION_BILLING_DATA_RETURN_NULL);
-            
-            return OUTCOME_ERROR;
-        }
+        billingDataUrl = BillingDataServlet.getUrl(from, to, orgId);
         
         return OUTCOME_SUCCESS;
     }
 
     public String showBillingData() throws IOException {
         
-        if (billingData == null) {
+        if (billingDataUrl == null) {
             addMessage(null, FacesMessage.SEVERITY_ERROR,
                     ERROR_SHOW_BILLING_DATA);
             logger.logError(LogMessageIdentifier.ERROR_EXECUTE_SHOW_BILLING_DATA_WITH_NULL_DATA);
             
             return OUTCOME_ERROR;
         }
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy_MM_dd");
-        String filename = sdf.format(Calendar.getInstance().getTime())
-                + "_BillingData.xml";
-        String contentType = "text/xml";
-        writeContentToResponse(billingData, filename, contentType);
-        billingData = null;
+        redirect(getRequest().getContextPath() + billingDataUrl);
+        billingDataUrl = null;
         
         return OUTCOME_SUCCESS;
     }
 
+    /**
+     * Redirects the browser to the given URL.
+     */
+    protected void redirect(String url) throws IOException {
+        JSFUtils.redirect(FacesContext.getCurrentInstance()
+                .getExternalContext(), url);
+    }
+
     public void validateFromAndToDate(final FacesContext context,
             final UIComponent toValidate, final Object value) {
         validator.setToDate(toDate);
@@ -226,12 +221,12 @@ public class BillingBean extends BaseOperatorBean implements Serializable {
     }
 
     /**
-     * Checks if billing data has been read.
+     * Checks if the export of billing data has been prepared.
      * 
      * @return <code>true</code> if billing data is available otherwise
      *         <code>false</code>.
      */
     public boolean isBillingDataAvailable() {
-        return billingData != null;
+        return billingDataUrl != null;
     }
 }
@@ -87,6 +87,8 @@ public class Constants {
 
     public static final String REQ_PARAM_SERVICE_KEY = "serviceKey";
 
+    public static final String REQ_PARAM_IMAGE_VARIANT = "variant";
+
     public static final String REQ_PARAM_SELECTED_SERVICE_KEY = "selectedServiceKey";
 
     public static final String REQ_PARAM_USER_ID = "userId";
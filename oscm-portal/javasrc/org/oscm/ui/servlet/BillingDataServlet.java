@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.ui.servlet;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+import javax.ejb.EJBAccessException;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.oscm.converter.XMLConverter;
+import org.oscm.internal.intf.OperatorService;
+import org.oscm.internal.types.exception.ObjectNotFoundException;
+import org.oscm.internal.types.exception.OrganizationAuthoritiesException;
+import org.oscm.ui.common.Constants;
+import org.oscm.ui.common.ServiceAccess;
+
+/**
+ * Writes the billing data of an organization exported by the operator to the
+ * response. The billing data is read page by page from the operator service
+ * and each page is written before the next one is requested, so neither the
+ * portal nor the server hold the whole export in memory.
+ */
+public class BillingDataServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 5071537930485452436L;
+
+    /**
+     * The path of the servlet within the portal.
+     */
+    public static final String PATH = "/operator/billingData";
+
+    static final String PARAM_FROM = "from";
+    static final String PARAM_TO = "to";
+    static final String PARAM_ORGANIZATION_ID = "organizationId";
+
+    static final String ROOT_ELEMENT = "Billingdata";
+
+    /**
+     * The number of subscriptions whose billing data is requested at a time.
+     */
+    static final int PAGE_SIZE = 50;
+
+    /**
+     * Returns the path and query of the request for the billing data of the
+     * given organization and time frame, relative to the context root.
+     */
+    public static String getUrl(long from, long to, String organizationId)
+            throws UnsupportedEncodingException {
+        return PATH + "?" + PARAM_FROM + "=" + from + "&" + PARAM_TO + "=" + to
+                + "&" + PARAM_ORGANIZATION_ID + "="
+                + URLEncoder.encode(organizationId,
+                        Constants.CHARACTER_ENCODING_UTF8);
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse res)
+            throws ServletException, IOException {
+        long from;
+        long to;
+        String organizationId = req.getParameter(PARAM_ORGANIZATION_ID);
+        try {
+            from = Long.parseLong(req.getParameter(PARAM_FROM));
+            to = Long.parseLong(req.getParameter(PARAM_TO));
+        } catch (NumberFormatException e) {
+            res.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        if (organizationId == null || organizationId.trim().length() == 0) {
+            res.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        OperatorService operatorService = getOperatorService(req.getSession());
+        // the first page is read before the response is committed, so
+        // errors can still be sent
+        List<String> fragments;
+        try {
+            fragments = operatorService.getOrganizationBillingData(from, to,
+                    organizationId, 0, PAGE_SIZE);
+        } catch (ObjectNotFoundException e) {
+            res.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        } catch (OrganizationAuthoritiesException | EJBAccessException e) {
+            res.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        String filename = new SimpleDateFormat("yyyy_MM_dd").format(new Date())
+                + "_BillingData.xml";
+        res.setContentType("text/xml");
+        res.setCharacterEncoding(Constants.CHARACTER_ENCODING_UTF8);
+        res.setHeader("Content-disposition", "attachment; filename=\""
+                + filename + "\"");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                res.getOutputStream(), Constants.CHARACTER_ENCODING_UTF8));
+        try {
+            writeBillingData(operatorService, from, to, organizationId,
+                    fragments, writer);
+        } catch (ObjectNotFoundException | OrganizationAuthoritiesException e) {
+            // the organization or the role was removed after the first page
+            throw new ServletException(e);
+        }
+    }
+
+    /**
+     * Writes the billing data starting with the given first page and reading
+     * the following pages until the last subscription has been reached.
+     */
+    static void writeBillingData(OperatorService operatorService, long from,
+            long to, String organizationId, List<String> firstPage,
+            Writer writer) throws IOException, ObjectNotFoundException,
+            OrganizationAuthoritiesException {
+        XMLConverter.writeCombinedStart(writer, ROOT_ELEMENT, null);
+        List<String> fragments = firstPage;
+        for (int first = PAGE_SIZE; fragments != null; first += PAGE_SIZE) {
+            for (String fragment : fragments) {
+                XMLConverter.writeCombinedFragment(writer, fragment);
+            }
+            writer.flush();
+            fragments = operatorService.getOrganizationBillingData(from, to,
+                    organizationId, first, PAGE_SIZE);
+        }
+        XMLConverter.writeCombinedEnd(writer, ROOT_ELEMENT);
+    }
+
+    OperatorService getOperatorService(HttpSession session) {
+        return ServiceAccess.getServiceAcccessFor(session).getService(
+                OperatorService.class);
+    }
+}
@@ -21,6 +21,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.http.HttpSession;
 
+import org.oscm.converter.ContentHashConverter;
 import org.oscm.logging.Log4jLogger;
 import org.oscm.logging.LoggerFactory;
 import org.oscm.types.enumtypes.LogMessageIdentifier;
@@ -54,6 +55,20 @@ public class ImageServlet extends HttpServlet {
             0x00, 0x00, 0x01, 0x00, 0x01, 0x00, 0x00, 0x02, 0x02, 0x4c, 0x01,
             0x00, 0x3b };
 
+    /**
+     * Value of the request parameter
+     * {@link Constants#REQ_PARAM_IMAGE_VARIANT} requesting the thumbnail of an
+     * image as shown in the service tiles of the marketplace.
+     */
+    static final String VARIANT_THUMBNAIL = "thumbnail";
+
+    private static final int THUMBNAIL_SIZE = 80;
+
+    private static final int MAX_THUMBNAILS = 2000;
+
+    private static final ThumbnailCache THUMBNAILS = new ThumbnailCache(
+            THUMBNAIL_SIZE, THUMBNAIL_SIZE, MAX_THUMBNAILS);
+
     private Captcha createCaptcha(final String key, final Color bgColor) {
         final int wordLength = 4;
         final Captcha cap = new Captcha(wordLength);
@@ -96,7 +111,9 @@ public class ImageServlet extends HttpServlet {
 
     /**
      * Writes the image with the requested id to the output stream of the
-     * response
+     * response. The content hash of the image is sent as entity tag, so a
+     * client revalidating an unchanged image only gets the status
+     * <code>304 Not Modified</code>.
      * 
      * @param req
      *            the HttpServletRequest
@@ -107,8 +124,8 @@ public class ImageServlet extends HttpServlet {
     private void process(final HttpServletRequest req,
             final HttpServletResponse res) throws IOException {
         try {
-            final byte[] img;
-            final String imgType;
+            byte[] img;
+            String imgType;
             if (req.getParameter(Constants.REQ_PARAM_TYPE) == null) {
                 imgType = "image/jpeg";
                 img = createCaptcha(req);
@@ -125,9 +142,28 @@ public class ImageServlet extends HttpServlet {
                 } else {
                     imgType = imageResource.getContentType();
                     img = imageResource.getBuffer();
+                    String contentHash = getContentHash(imageResource);
+                    boolean thumbnail = VARIANT_THUMBNAIL.equals(req
+                            .getParameter(Constants.REQ_PARAM_IMAGE_VARIANT));
+                    String eTag = "\"" + contentHash
+                            + (thumbnail ? "-" + VARIANT_THUMBNAIL : "")
+                            + "\"";
+                    res.setHeader("ETag", eTag);
+                    if (isNotModified(req, eTag)) {
+                        res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                        return;
+                    }
+                    if (thumbnail) {
+                        byte[] scaled = THUMBNAILS.get(contentHash, img);
+                        if (scaled != null) {
+                            imgType = ThumbnailCache.CONTENT_TYPE;
+                            img = scaled;
+                        }
+                    }
                 }
             }
             res.setContentType(imgType);
+            res.setContentLength(img.length);
             res.getOutputStream().write(img);
         } catch (Throwable ex) {
             logger.logError(Log4jLogger.SYSTEM_LOG, ex,
@@ -135,6 +171,32 @@ public class ImageServlet extends HttpServlet {
         }
     }
 
+    private String getContentHash(VOImageResource imageResource) {
+        if (imageResource.getContentHash() != null) {
+            return imageResource.getContentHash();
+        }
+        return ContentHashConverter.toContentHash(imageResource.getBuffer());
+    }
+
+    /**
+     * Checks whether the client already has the image with the given entity
+     * tag.
+     */
+    boolean isNotModified(HttpServletRequest req, String eTag) {
+        String ifNoneMatch = req.getHeader("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || tag.equals(eTag)
+                    || tag.equals("W/" + eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @param req
      * @param imageTypeStr
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.ui.servlet;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import javax.ejb.EJBAccessException;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.oscm.internal.intf.OperatorService;
+import org.oscm.ui.common.Constants;
+import org.oscm.ui.common.ServiceAccess;
+
+/**
+ * Writes the revenue list of the suppliers of a month to the response. The
+ * rows are read page by page from the operator service and each page is
+ * written before the next one is requested, so neither the portal nor the
+ * server hold the whole list in memory.
+ */
+public class RevenueListServlet extends HttpServlet {
+
+    private static final long serialVersionUID = -3207740923312553474L;
+
+    /**
+     * The path of the servlet within the portal.
+     */
+    public static final String PATH = "/operator/revenueList";
+
+    static final String PARAM_MONTH = "month";
+
+    /**
+     * The number of rows of the revenue list requested at a time.
+     */
+    static final int PAGE_SIZE = 1000;
+
+    /**
+     * Returns the path and query of the request for the revenue list of the
+     * given month, relative to the context root.
+     */
+    public static String getUrl(long month) {
+        return PATH + "?" + PARAM_MONTH + "=" + month;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse res)
+            throws ServletException, IOException {
+        long month;
+        try {
+            month = Long.parseLong(req.getParameter(PARAM_MONTH));
+        } catch (NumberFormatException e) {
+            res.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        OperatorService operatorService = getOperatorService(req.getSession());
+        // the first page is read before the response is committed, so
+        // errors can still be sent
+        byte[] page;
+        try {
+            page = operatorService.getSupplierRevenueList(month, 0, PAGE_SIZE);
+        } catch (EJBAccessException e) {
+            res.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        String filename = new SimpleDateFormat("yyyy_MM_dd").format(new Date())
+                + "_RevenueList.csv";
+        res.setContentType("text/csv");
+        res.setCharacterEncoding(Constants.CHARACTER_ENCODING_UTF8);
+        res.setHeader("Content-disposition", "attachment; filename=\""
+                + filename + "\"");
+        writeRevenueList(operatorService, month, page, res.getOutputStream());
+    }
+
+    /**
+     * Writes the revenue list starting with the given first page and reading
+     * the following pages until the last row has been reached.
+     */
+    static void writeRevenueList(OperatorService operatorService, long month,
+            byte[] firstPage, OutputStream out) throws IOException {
+        byte[] page = firstPage;
+        for (int firstRow = PAGE_SIZE; page != null; firstRow += PAGE_SIZE) {
+            out.write(page);
+            out.flush();
+            page = operatorService.getSupplierRevenueList(month, firstRow,
+                    PAGE_SIZE);
+        }
+    }
+
+    OperatorService getOperatorService(HttpSession session) {
+        return ServiceAccess.getServiceAcccessFor(session).getService(
+                OperatorService.class);
+    }
+}
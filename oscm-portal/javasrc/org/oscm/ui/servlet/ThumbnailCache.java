@@ -0,0 +1,104 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.ui.servlet;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Bounded cache of thumbnail variants of images, as shown in the service tiles
+ * of the marketplace. The thumbnails are addressed by the content hash of the
+ * original image, so a changed image never hits an outdated thumbnail.
+ */
+class ThumbnailCache {
+
+    static final String CONTENT_TYPE = "image/png";
+
+    private final int maxWidth;
+
+    private final int maxHeight;
+
+    private final Map<String, byte[]> thumbnails;
+
+    ThumbnailCache(int maxWidth, int maxHeight, final int maxEntries) {
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+        this.thumbnails = new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the thumbnail of the given image, which is scaled to fit into
+     * the thumbnail bounds keeping its aspect ratio.
+     * 
+     * @param contentHash
+     *            the content hash of the original image
+     * @param image
+     *            the original image
+     * @return the thumbnail in PNG format, or <code>null</code> if the image
+     *         cannot be decoded or already fits into the thumbnail bounds
+     */
+    byte[] get(String contentHash, byte[] image) throws IOException {
+        synchronized (thumbnails) {
+            if (thumbnails.containsKey(contentHash)) {
+                return thumbnails.get(contentHash);
+            }
+        }
+        byte[] thumbnail = scale(image);
+        synchronized (thumbnails) {
+            thumbnails.put(contentHash, thumbnail);
+        }
+        return thumbnail;
+    }
+
+    byte[] scale(byte[] image) throws IOException {
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(image));
+        if (original == null || original.getWidth() <= maxWidth
+                && original.getHeight() <= maxHeight) {
+            return null;
+        }
+        double factor = Math.min((double) maxWidth / original.getWidth(),
+                (double) maxHeight / original.getHeight());
+        int width = Math.max(1, (int) Math.round(original.getWidth() * factor));
+        int height = Math.max(1,
+                (int) Math.round(original.getHeight() * factor));
+
+        BufferedImage scaled = new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                    RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING,
+                    RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(original, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(scaled, "png", out);
+        return out.toByteArray();
+    }
+
+    int size() {
+        synchronized (thumbnails) {
+            return thumbnails.size();
+        }
+    }
+}
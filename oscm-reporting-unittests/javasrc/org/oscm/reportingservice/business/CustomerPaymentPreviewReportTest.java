@@ -292,6 +292,26 @@ public class CustomerPaymentPreviewReportTest {
                 .getSupplierAddress());
     }
 
+    @Test
+    public void build_supplierDetailsReadOnce() throws Exception {
+        // given
+        PlatformUser user = givenUser(false, true,
+                OrganizationRoleType.CUSTOMER);
+        mockCalculateBillingResultsForPaymentPreview(
+                Arrays.asList(XML_FILE_UPGRADE, XML_FILE_UPGRADE), user
+                        .getOrganization().getKey());
+        mockReportDaoData("MyOrganization", "Main Street Munich", "productId");
+
+        // when
+        RDOCustomerPaymentPreview result = reporting.buildReport(user);
+
+        // then
+        verify(billingDao, times(1)).retrieveOrganizationDetails(anyLong());
+        assertEquals(2, result.getSubscriptions().size());
+        assertEquals("MyOrganization", result.getSummaries().get(1)
+                .getSupplierName());
+    }
+
     @Test
     public void buildReport_CallParserForPaymentPreview() throws Exception {
         // given
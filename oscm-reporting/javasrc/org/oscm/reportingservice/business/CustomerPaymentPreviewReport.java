@@ -10,8 +10,10 @@ package org.oscm.reportingservice.business;
 
 import java.io.IOException;
 import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.TimeZone;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -32,6 +34,7 @@ import org.oscm.reportingservice.business.model.billing.RDOPaymentPreviewSummary
 import org.oscm.reportingservice.business.model.billing.RDOSubscription;
 import org.oscm.reportingservice.business.model.billing.RDOSummary;
 import org.oscm.reportingservice.dao.BillingDao;
+import org.oscm.reportingservice.dao.BillingDao.ReportData;
 import org.oscm.reportingservice.dao.UnitDao;
 import org.oscm.types.exceptions.BillingRunFailed;
 import org.oscm.usergroupservice.bean.UserGroupServiceLocalBean;
@@ -89,6 +92,9 @@ public class CustomerPaymentPreviewReport {
             PriceConverter formatter = new PriceConverter(
                     new Locale(user.getLocale()));
 
+            // the details of each supplier are read only once
+            Map<Long, ReportData> supplierDetails = new HashMap<>();
+
             // process billing result
             for (BillingResult br : billingResultList) {
                 RDOSummary summaryTemplate = new RDOSummary();
@@ -97,11 +103,17 @@ public class CustomerPaymentPreviewReport {
                                 br.getCreationTime(), timeZoneServer,
                                 DateConverter.DTP_WITHOUT_MILLIS));
 
-                billingDao.retrieveOrganizationDetails(br.getChargingOrgKey());
-                summaryTemplate.setSupplierName(billingDao.getReportData()
-                        .getName());
-                summaryTemplate.setSupplierAddress(billingDao.getReportData()
-                        .getAddress());
+                ReportData supplierData = supplierDetails.get(Long.valueOf(br
+                        .getChargingOrgKey()));
+                if (supplierData == null) {
+                    billingDao.retrieveOrganizationDetails(br
+                            .getChargingOrgKey());
+                    supplierData = billingDao.getReportData();
+                    supplierDetails.put(Long.valueOf(br.getChargingOrgKey()),
+                            supplierData);
+                }
+                summaryTemplate.setSupplierName(supplierData.getName());
+                summaryTemplate.setSupplierAddress(supplierData.getAddress());
                 Document document = XMLConverter.convertToDocument(
                         br.getResultXML(), true);
 
@@ -9,6 +9,7 @@
 package org.oscm.reviewservice.bean;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
@@ -20,10 +21,13 @@ import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.ejb.EJBTransactionRolledbackException;
@@ -398,6 +402,136 @@ public class ReviewServiceLocalBeanTest {
         }
     }
 
+    @Test
+    public void writeReview_CreateCountsRating() throws Exception {
+        // given
+        initProduct(1l);
+        productReview.setRating(4);
+        doReturn(product).when(dm).getReference(Product.class, 1l);
+
+        // when
+        reviewBean.writeReview(productReview, Long.valueOf(product.getKey()));
+
+        // then
+        ProductFeedback result = product.getProductFeedback();
+        assertEquals(1, result.getNumberOfReviews());
+        assertEquals(1, result.getRatingCount(4));
+        assertEquals(new BigDecimal("4.00"), result.getAverageRating());
+        assertEquals(4, productReview.getCountedRating());
+    }
+
+    @Test
+    public void writeReview_UpdateCountsChangedRating() throws Exception {
+        // given
+        initProduct(1l);
+        initProductReview(2l);
+        productReview.setPlatformUser(currentUser);
+        feedback.setRatingCounts(new int[] { 0, 1, 0, 0, 1 });
+        productReview.setCountedRating(2);
+        productReview.setRating(4);
+        doReturn(product).when(dm).getReference(Product.class, 1l);
+
+        // when
+        reviewBean.writeReview(productReview, Long.valueOf(product.getKey()));
+
+        // then
+        assertEquals(2, feedback.getNumberOfReviews());
+        assertEquals(0, feedback.getRatingCount(2));
+        assertEquals(1, feedback.getRatingCount(4));
+        assertEquals(new BigDecimal("4.50"), feedback.getAverageRating());
+    }
+
+    @Test
+    public void deleteReview_RemovesRating() throws Exception {
+        // given
+        initProductReview(2l);
+        productReview.setPlatformUser(currentUser);
+        feedback.setRatingCounts(new int[] { 0, 1, 0, 0, 1 });
+        productReview.setRating(5);
+        productReview.setCountedRating(5);
+
+        // when
+        reviewBean.deleteReview(reviewKey);
+
+        // then
+        assertEquals(1, feedback.getNumberOfReviews());
+        assertEquals(0, feedback.getRatingCount(5));
+        assertEquals(new BigDecimal("2.00"), feedback.getAverageRating());
+        assertEquals(0, feedback.getProductReviews().size());
+    }
+
+    @Test
+    public void checkRatingAggregates_Consistent() throws Exception {
+        // given
+        feedback.setKey(10l);
+        feedback.setRatingCounts(new int[] { 0, 1, 0, 0, 1 });
+        Map<Long, int[]> ratingCounts = new HashMap<Long, int[]>();
+        ratingCounts.put(Long.valueOf(10l), new int[] { 0, 1, 0, 0, 1 });
+        doReturn(ratingCounts).when(productReviewDao).getRatingCounts();
+        doReturn(Arrays.asList(feedback)).when(productReviewDao)
+                .getProductFeedbacks();
+
+        // when
+        boolean result = reviewBean.checkRatingAggregates();
+
+        // then
+        assertTrue(result);
+        assertEquals(2, feedback.getNumberOfReviews());
+        assertEquals(7, feedback.getRatingSum());
+    }
+
+    @Test
+    public void checkRatingAggregates_Repair() throws Exception {
+        // given
+        feedback.setKey(10l);
+        feedback.setRatingCounts(new int[] { 0, 1, 0, 0, 1 });
+        ProductFeedback other = new ProductFeedback();
+        other.setKey(11l);
+        other.setRatingCounts(new int[] { 1, 0, 0, 0, 0 });
+        Map<Long, int[]> ratingCounts = new HashMap<Long, int[]>();
+        ratingCounts.put(Long.valueOf(10l), new int[] { 0, 1, 3, 0, 1 });
+        doReturn(ratingCounts).when(productReviewDao).getRatingCounts();
+        doReturn(Arrays.asList(feedback, other)).when(productReviewDao)
+                .getProductFeedbacks();
+        doReturn(new int[] { 0, 1, 3, 0, 1 }).when(productReviewDao)
+                .getRatingCounts(feedback);
+        doReturn(new int[5]).when(productReviewDao).getRatingCounts(other);
+
+        // when
+        reviewBean.checkRatingAggregates();
+
+        // then
+        verify(productReviewDao).lockProductFeedback(feedback);
+        verify(productReviewDao).lockProductFeedback(other);
+        assertEquals(5, feedback.getNumberOfReviews());
+        assertEquals(16, feedback.getRatingSum());
+        assertEquals(new BigDecimal("3.20"), feedback.getAverageRating());
+        assertEquals(0, other.getNumberOfReviews());
+        assertEquals(new BigDecimal(0), other.getAverageRating());
+    }
+
+    @Test
+    public void checkRatingAggregates_ConcurrentReview() throws Exception {
+        // given a review written after the snapshot of the counts
+        feedback.setKey(10l);
+        feedback.setRatingCounts(new int[] { 0, 1, 0, 0, 1 });
+        Map<Long, int[]> ratingCounts = new HashMap<Long, int[]>();
+        ratingCounts.put(Long.valueOf(10l), new int[] { 0, 1, 0, 0, 0 });
+        doReturn(ratingCounts).when(productReviewDao).getRatingCounts();
+        doReturn(Arrays.asList(feedback)).when(productReviewDao)
+                .getProductFeedbacks();
+        doReturn(new int[] { 0, 1, 0, 0, 1 }).when(productReviewDao)
+                .getRatingCounts(feedback);
+
+        // when
+        reviewBean.checkRatingAggregates();
+
+        // then
+        verify(productReviewDao).lockProductFeedback(feedback);
+        assertEquals(2, feedback.getNumberOfReviews());
+        assertEquals(7, feedback.getRatingSum());
+    }
+
     @Test
     public void createOrFindDomainObject_Create() throws Exception {
         // given
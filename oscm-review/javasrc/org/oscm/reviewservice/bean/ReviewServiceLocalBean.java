@@ -9,7 +9,9 @@
 package org.oscm.reviewservice.bean;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.ejb.EJB;
@@ -109,8 +111,6 @@ public class ReviewServiceLocalBean {
         } else {
             createReview(review, product);
         }
-
-        product.getProductFeedback().updateAverageRating();
         return review;
     }
 
@@ -196,6 +196,39 @@ public class ReviewServiceLocalBean {
 
     }
 
+    /**
+     * Compares the rating aggregates of all product feedbacks with the ratings
+     * of the stored reviews and repairs the aggregates which differ. A
+     * feedback is only repaired if it still differs after it has been locked
+     * and its reviews have been counted again.
+     * 
+     * @return <code>true</code> if the check was completed
+     */
+    public boolean checkRatingAggregates() {
+        Map<Long, int[]> ratingCounts = productReviewDao.getRatingCounts();
+        for (ProductFeedback feedback : productReviewDao.getProductFeedbacks()) {
+            int[] counts = ratingCounts.get(Long.valueOf(feedback.getKey()));
+            if (counts == null) {
+                counts = new int[5];
+            }
+            if (Arrays.equals(counts, feedback.getRatingCounts())) {
+                continue;
+            }
+            // the counts may have been read before a review was written
+            // concurrently, so they are compared again with the locked
+            // feedback before it is repaired
+            productReviewDao.lockProductFeedback(feedback);
+            counts = productReviewDao.getRatingCounts(feedback);
+            if (!Arrays.equals(counts, feedback.getRatingCounts())) {
+                logger.logWarn(Log4jLogger.SYSTEM_LOG,
+                        LogMessageIdentifier.WARN_RATING_AGGREGATES_REPAIRED,
+                        String.valueOf(feedback.getKey()));
+                feedback.setRatingCounts(counts);
+            }
+        }
+        return true;
+    }
+
     /**
      * Create a new review domain object or retrieve the existing one
      * 
@@ -276,9 +309,8 @@ public class ReviewServiceLocalBean {
         }
 
         ProductFeedback feedback = reviewToBeRemoved.getProductFeedback();
-        feedback.getProductReviews().remove(reviewToBeRemoved);
+        feedback.removeProductReview(reviewToBeRemoved);
         dm.remove(reviewToBeRemoved);
-        feedback.updateAverageRating();
 
         if (mplMarketplaceOwnerDelete) {
 
@@ -439,6 +471,7 @@ public class ReviewServiceLocalBean {
             throws ObjectNotFoundException, ConcurrentModificationException,
             OperationNotPermittedException {
         checkIfAllowedToModify(productReview);
+        productReview.getProductFeedback().updateProductReview(productReview);
         try {
             dm.flush();
         } catch (EJBTransactionRolledbackException e) {
@@ -469,7 +502,7 @@ public class ReviewServiceLocalBean {
         review.setPlatformUser(getLoggedInUser());
         review.setProductFeedback(product.getProductFeedback());
         dm.persist(review);
-        product.getProductFeedback().getProductReviews().add(review);
+        product.getProductFeedback().addProductReview(review);
     }
 
     /**
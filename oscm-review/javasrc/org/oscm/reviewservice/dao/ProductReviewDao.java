@@ -8,16 +8,20 @@
 
 package org.oscm.reviewservice.dao;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.ejb.EJB;
 import javax.ejb.LocalBean;
 import javax.ejb.Stateless;
+import javax.persistence.LockModeType;
 import javax.persistence.Query;
 
 import org.oscm.converter.ParameterizedTypes;
 import org.oscm.dataservice.local.DataService;
 import org.oscm.domobjects.PlatformUser;
+import org.oscm.domobjects.ProductFeedback;
 import org.oscm.domobjects.ProductReview;
 
 /**
@@ -38,4 +42,69 @@ public class ProductReviewDao {
                 query.getResultList(), ProductReview.class);
         return reviews;
     }
+
+    public List<ProductFeedback> getProductFeedbacks() {
+        Query query = dm.createNamedQuery("ProductFeedback.findAll");
+        return ParameterizedTypes.list(query.getResultList(),
+                ProductFeedback.class);
+    }
+
+    /**
+     * Counts the stored reviews per product feedback and rating.
+     * 
+     * @return the number of reviews per rating, the number of reviews with a
+     *         rating of one star at index 0, mapped by the key of the product
+     *         feedback
+     */
+    public Map<Long, int[]> getRatingCounts() {
+        Query query = dm.createNamedQuery("ProductReview.countRatings");
+        return toRatingCounts(query);
+    }
+
+    /**
+     * Counts the stored reviews of the given product feedback per rating.
+     * 
+     * @return the number of reviews per rating, the number of reviews with a
+     *         rating of one star at index 0
+     */
+    public int[] getRatingCounts(ProductFeedback feedback) {
+        Query query = dm
+                .createNamedQuery("ProductReview.countRatingsForFeedback");
+        query.setParameter("productFeedbackKey",
+                Long.valueOf(feedback.getKey()));
+        int[] counts = toRatingCounts(query).get(
+                Long.valueOf(feedback.getKey()));
+        return counts == null ? new int[5] : counts;
+    }
+
+    /**
+     * Locks the row of the given product feedback until the end of the
+     * transaction and reads its current state, so its rating aggregates
+     * cannot be changed by concurrent reviews meanwhile.
+     */
+    public void lockProductFeedback(ProductFeedback feedback) {
+        Query query = dm.createNamedQuery("ProductFeedback.findByKey");
+        query.setParameter("key", Long.valueOf(feedback.getKey()));
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        query.getResultList();
+        dm.refresh(feedback);
+    }
+
+    private static Map<Long, int[]> toRatingCounts(Query query) {
+        Map<Long, int[]> result = new HashMap<Long, int[]>();
+        for (Object[] row : ParameterizedTypes.list(query.getResultList(),
+                Object[].class)) {
+            Long feedbackKey = (Long) row[0];
+            int rating = ((Number) row[1]).intValue();
+            int[] counts = result.get(feedbackKey);
+            if (counts == null) {
+                counts = new int[5];
+                result.put(feedbackKey, counts);
+            }
+            if (rating >= 1 && rating <= counts.length) {
+                counts[rating - 1] = ((Number) row[2]).intValue();
+            }
+        }
+        return result;
+    }
 }
@@ -8,13 +8,14 @@
 
 package org.oscm.saml2.api;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.Marshaller;
 import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.w3c.dom.Document;
 
+import org.oscm.xml.JaxbContextRegistry;
+
 /**
  * @author roderus
  * 
@@ -24,10 +25,13 @@ public class Marshalling<T> {
         Document finalDocument = DocumentBuilderFactory.newInstance()
                 .newDocumentBuilder().newDocument();
 
-        Marshaller marshaller = JAXBContext.newInstance(
-                element.getDeclaredType()).createMarshaller();
-
-        marshaller.marshal(element, finalDocument);
+        Class<T> type = element.getDeclaredType();
+        Marshaller marshaller = JaxbContextRegistry.acquireMarshaller(type);
+        try {
+            marshaller.marshal(element, finalDocument);
+        } finally {
+            JaxbContextRegistry.releaseMarshaller(type, marshaller);
+        }
 
         return finalDocument;
     }
@@ -141,7 +141,8 @@ public class IndexRequestMasterListenerIT extends EJBTestBase {
                     ProductClassBridge.MP_ID);
     private static final List<String> expectedIndexedAttributesForSubscription = Arrays
             .asList("dataContainer.purchaseOrderNumber",
-                    "dataContainer.subscriptionId");
+                    "dataContainer.subscriptionId", "organizationKey",
+                    "searchText");
     private static final List<String> expectedIndexedAttributesForParameter = Arrays
             .asList("dataContainer.value");
     private static final List<String> expectedIndexedAttributesForUda = Arrays
@@ -30,6 +30,7 @@ import javax.jms.ObjectMessage;
 import javax.persistence.Query;
 
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.util.ReaderUtil;
 import org.hibernate.CacheMode;
 import org.hibernate.FlushMode;
 import org.hibernate.ScrollMode;
@@ -54,6 +55,7 @@ import org.oscm.internal.types.exception.ObjectNotFoundException;
 import org.oscm.logging.Log4jLogger;
 import org.oscm.logging.LoggerFactory;
 import org.oscm.types.enumtypes.LogMessageIdentifier;
+import org.oscm.types.enumtypes.UdaTargetType;
 
 /**
  * Message driven bean to handle the index request objects sent by the business
@@ -72,6 +74,11 @@ public class IndexRequestMasterListener extends
     // to avoid OutOfMemoryException)
     private static final int BATCH_SIZE = 1000;
 
+    /**
+     * The index field added last to the subscription documents.
+     */
+    static final String ORGANIZATION_KEY_FIELD = "organizationKey";
+
     @EJB(beanInterface = DataService.class)
     public DataService dm;
 
@@ -155,11 +162,19 @@ public class IndexRequestMasterListener extends
                         Product.class));
                 return;
             }
+            removeServiceListings(product);
             handleObjectIndexing(object);
             return;
         }
         if (object instanceof PriceModel) {
-            handleObjectIndexing(((PriceModel) object).getProduct());
+            Product product = ((PriceModel) object).getProduct();
+            removeServiceListings(product);
+            handleObjectIndexing(product);
+            return;
+        }
+        if (object instanceof ProductFeedback) {
+            // the feedback is not indexed, but is part of the service listing
+            removeServiceListings(((ProductFeedback) object).getProduct());
             return;
         }
         if (object instanceof CatalogEntry) {
@@ -203,17 +218,34 @@ public class IndexRequestMasterListener extends
                     if (subscription != null
                             && isSubscriptionDeactivatedOrInvalid(subscription)) {
                         handleObjectIndexing(parameter);
+                        // the parameter values are part of the search text
+                        handleObjectIndexing(subscription);
                     }
                 }
                 return;
             }
         }
         if (object instanceof Uda) {
+            Uda uda = (Uda) object;
             handleObjectIndexing(object);
+            if (uda.getUdaDefinition().getTargetType() == UdaTargetType.CUSTOMER_SUBSCRIPTION) {
+                Subscription subscription = dm.find(Subscription.class,
+                        uda.getTargetObjectKey());
+                if (subscription != null
+                        && isSubscriptionDeactivatedOrInvalid(subscription)) {
+                    handleObjectIndexing(subscription);
+                }
+            }
             return;
         }
         if (object instanceof UdaDefinition) {
+            UdaDefinition definition = (UdaDefinition) object;
             handleObjectIndexing(object);
+            if (definition.getTargetType() == UdaTargetType.CUSTOMER_SUBSCRIPTION) {
+                // the default value is part of the search text of all
+                // subscriptions without own value
+                handleSubscriptionIndexing(definition.getOrganization());
+            }
             return;
         }
     }
@@ -223,7 +255,24 @@ public class IndexRequestMasterListener extends
                 && subscription.getStatus() != SubscriptionStatus.INVALID;
     }
 
+    /**
+     * Removes the entries of the service listing read model for the given
+     * product and its copies, so they are created again from the changed data
+     * with the next listing request.
+     */
+    void removeServiceListings(Product product) {
+        if (product == null) {
+            return;
+        }
+        Query query = dm.createNamedQuery("ServiceListing.removeForProduct");
+        query.setParameter("productKey", Long.valueOf(product.getKey()));
+        query.executeUpdate();
+    }
+
     private void handleProductIndexing(Collection<Product> products) {
+        for (Product p : products) {
+            removeServiceListings(p);
+        }
         Session session = getSession();
         if (session != null) {
             FullTextSession fts = Search.getFullTextSession(session);
@@ -235,6 +284,34 @@ public class IndexRequestMasterListener extends
         }
     }
 
+    /**
+     * Indexes the subscriptions to the services of the given vendor which are
+     * contained in the subscription index. The subscriptions are read in
+     * batches, which are written to the index and removed from the session
+     * one after the other, as a vendor may have many subscriptions.
+     */
+    private void handleSubscriptionIndexing(Organization vendor) {
+        Session session = getSession();
+        if (session != null) {
+            FullTextSession fts = Search.getFullTextSession(session);
+            fts.setCacheMode(CacheMode.IGNORE);
+            org.hibernate.Query objectQuery = fts
+                    .createQuery("SELECT s FROM Subscription s WHERE s.product.vendor.key = :vendorKey AND s.dataContainer.status NOT IN ('"
+                            + SubscriptionStatus.DEACTIVATED.name()
+                            + "','"
+                            + SubscriptionStatus.INVALID.name() + "')");
+            objectQuery.setLong("vendorKey", vendor.getKey());
+            objectQuery.setFetchSize(BATCH_SIZE);
+            ScrollableResults results = objectQuery
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                indexObject(fts, results);
+            } finally {
+                results.close();
+            }
+        }
+    }
+
     private void handleObjectIndexing(Object parameter) {
         if (parameter == null) {
             return;
@@ -278,7 +355,17 @@ public class IndexRequestMasterListener extends
         if (!isIndexEmpty) {
             if (!force) {
                 // if so and force is NOT set, return without
-                // indexing
+                // indexing, unless the subscriptions were indexed by a
+                // version without the fields of the subscription search
+                if (isSubscriptionIndexOutdated(searchFactory)) {
+                    logger.logInfo(Log4jLogger.SYSTEM_LOG,
+                            LogMessageIdentifier.INFO_SUBSCRIPTION_INDEX_REBUILT);
+                    fullTextSession.setFlushMode(FlushMode.MANUAL);
+                    fullTextSession.setCacheMode(CacheMode.IGNORE);
+                    fullTextSession.purgeAll(Subscription.class);
+                    indexSubscriptions(fullTextSession);
+                    tx.commit();
+                }
                 return;
             } else {
                 // otherwise delete previous index
@@ -334,6 +421,23 @@ public class IndexRequestMasterListener extends
         tx.commit(); // index is written at commit time
     }
 
+    /**
+     * Returns <code>true</code> if the subscription index contains documents,
+     * but none of them has the organization key, i.e. the subscriptions have
+     * been indexed before the field was introduced.
+     */
+    boolean isSubscriptionIndexOutdated(SearchFactory searchFactory) {
+        IndexReader reader = searchFactory.getIndexReaderAccessor().open(
+                Subscription.class);
+        try {
+            return reader.numDocs() > 0
+                    && ReaderUtil.getMergedFieldInfos(reader).fieldInfo(
+                            ORGANIZATION_KEY_FIELD) == null;
+        } finally {
+            searchFactory.getIndexReaderAccessor().close(reader);
+        }
+    }
+
     protected void indexUdaDefs(FullTextSession fullTextSession) {
         org.hibernate.Query objectQuery = fullTextSession
                 .createQuery("SELECT udaD FROM UdaDefinition udaD, Uda uda where " +
@@ -652,6 +652,66 @@ public class PermissionCheckTest {
         verifyZeroInteractions(sessionMock);
     }
 
+    @Test
+    public void supplierOfCustomer_customerSideOnly() throws Exception {
+        // given
+        Organization sup = new Organization();
+        sup.setKey(11);
+        Organization cust = new Organization();
+        cust.setKey(12);
+        cust.getSources().add(
+                new OrganizationReference(sup, cust,
+                        OrganizationReferenceType.SUPPLIER_TO_CUSTOMER));
+
+        // when
+        PermissionCheck.supplierOfCustomer(sup, cust, loggerMock, sessionMock);
+
+        // then
+        assertTrue(sup.getTargets().isEmpty());
+        verifyZeroInteractions(loggerMock);
+        verifyZeroInteractions(sessionMock);
+    }
+
+    @Test
+    public void isReferenced_otherSource() throws Exception {
+        // given
+        Organization sup = new Organization();
+        sup.setKey(11);
+        Organization otherSup = new Organization();
+        otherSup.setKey(13);
+        Organization cust = new Organization();
+        cust.setKey(12);
+        cust.getSources().add(
+                new OrganizationReference(otherSup, cust,
+                        OrganizationReferenceType.SUPPLIER_TO_CUSTOMER));
+
+        // when
+        boolean result = PermissionCheck.isReferenced(sup, cust,
+                OrganizationReferenceType.SUPPLIER_TO_CUSTOMER);
+
+        // then
+        assertFalse(result);
+    }
+
+    @Test
+    public void isReferenced_otherType() throws Exception {
+        // given
+        Organization broker = new Organization();
+        broker.setKey(11);
+        Organization cust = new Organization();
+        cust.setKey(12);
+        cust.getSources().add(
+                new OrganizationReference(broker, cust,
+                        OrganizationReferenceType.BROKER_TO_CUSTOMER));
+
+        // when
+        boolean result = PermissionCheck.isReferenced(broker, cust,
+                OrganizationReferenceType.RESELLER_TO_CUSTOMER);
+
+        // then
+        assertFalse(result);
+    }
+
     @Test
     public void canPublish() throws Exception {
         Marketplace mp = new Marketplace();
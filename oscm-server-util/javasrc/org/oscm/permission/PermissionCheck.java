@@ -26,6 +26,7 @@ import org.oscm.domobjects.BillingContact;
 import org.oscm.domobjects.Marketplace;
 import org.oscm.domobjects.MarketplaceToOrganization;
 import org.oscm.domobjects.Organization;
+import org.oscm.domobjects.OrganizationReference;
 import org.oscm.domobjects.PaymentInfo;
 import org.oscm.domobjects.PlatformUser;
 import org.oscm.domobjects.Product;
@@ -266,8 +267,8 @@ public class PermissionCheck {
     public static void supplierOfCustomer(Organization sup, Organization cust,
             Log4jLogger logger, SessionContext context)
             throws OperationNotPermittedException {
-        List<Organization> customers = sup.getCustomersOfSupplier();
-        if (!customers.contains(cust)) {
+        if (!isReferenced(sup, cust,
+                OrganizationReferenceType.SUPPLIER_TO_CUSTOMER)) {
             String message = String.format(
                     "Organization '%s' is not supplier of customer '%s'",
                     sup.getOrganizationId(), cust.getOrganizationId());
@@ -307,8 +308,8 @@ public class PermissionCheck {
     public static void brokerOfCustomer(Organization broker, Organization cust,
             Log4jLogger logger, SessionContext context)
             throws OperationNotPermittedException {
-        List<Organization> customers = broker.getCustomersOfBroker();
-        if (!customers.contains(cust)) {
+        if (!isReferenced(broker, cust,
+                OrganizationReferenceType.BROKER_TO_CUSTOMER)) {
             String message = String.format(
                     "Organization '%s' is not broker of customer '%s'",
                     broker.getOrganizationId(), cust.getOrganizationId());
@@ -348,8 +349,8 @@ public class PermissionCheck {
     public static void resellerOfCustomer(Organization reseller,
             Organization cust, Log4jLogger logger, SessionContext context)
             throws OperationNotPermittedException {
-        List<Organization> customers = reseller.getCustomersOfReseller();
-        if (!customers.contains(cust)) {
+        if (!isReferenced(reseller, cust,
+                OrganizationReferenceType.RESELLER_TO_CUSTOMER)) {
             String message = String.format(
                     "Organization '%s' is not reseller of customer '%s'",
                     reseller.getOrganizationId(), cust.getOrganizationId());
@@ -367,6 +368,33 @@ public class PermissionCheck {
         }
     }
 
+    /**
+     * Checks if the source {@link Organization} refers to the target
+     * {@link Organization} with the given reference type. The references are
+     * read from the target side, which only holds the few references to the
+     * vendors of the target. So neither the possibly huge customer list of the
+     * source is read nor are its customer organizations loaded. Repeated
+     * checks within one transaction work on the already loaded references.
+     * 
+     * @param source
+     *            the source of the reference, e.g. the supplier
+     * @param target
+     *            the target of the reference, e.g. the customer
+     * @param type
+     *            the reference type
+     * @return <code>true</code> if the reference exists
+     */
+    static boolean isReferenced(Organization source, Organization target,
+            OrganizationReferenceType type) {
+        for (OrganizationReference ref : target.getSources()) {
+            if (ref.getReferenceType() == type
+                    && ref.getSourceKey() == source.getKey()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks if the provided seller {@link Organization} is supplier, broker or
      * reseller of the provided customer {@link Organization} and throws an
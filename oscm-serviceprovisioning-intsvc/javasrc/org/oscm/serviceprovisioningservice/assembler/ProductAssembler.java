@@ -107,7 +107,7 @@ public class ProductAssembler extends BaseAssembler {
                 .getProductFeedback();
         if (feedback != null) {
             voProduct.setAverageRating(feedback.getAverageRating());
-            voProduct.setNumberOfReviews(feedback.getProductReviews().size());
+            voProduct.setNumberOfReviews(feedback.getNumberOfReviews());
         } else {
             voProduct.setAverageRating(BigDecimal.ZERO);
         }
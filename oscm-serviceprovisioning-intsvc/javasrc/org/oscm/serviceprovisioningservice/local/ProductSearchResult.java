@@ -9,18 +9,28 @@
 package org.oscm.serviceprovisioningservice.local;
 
 import java.util.List;
+import java.util.Map;
 
 import org.oscm.domobjects.Product;
 
 public class ProductSearchResult {
 
     private List<Product> services;
+    private Map<Long, Integer> serviceVersions;
     private int resultSize;
 
     public List<Product> getServices() {
         return services;
     }
 
+    /**
+     * Returns the keys of the found services mapped to their versions, in the
+     * order of the search result. Only set if just the keys were searched.
+     */
+    public Map<Long, Integer> getServiceVersions() {
+        return serviceVersions;
+    }
+
     public int getResultSize() {
         return resultSize;
     }
@@ -29,6 +39,10 @@ public class ProductSearchResult {
         this.services = services;
     }
 
+    public void setServiceVersions(Map<Long, Integer> serviceVersions) {
+        this.serviceVersions = serviceVersions;
+    }
+
     public void setResultSize(int resultSize) {
         this.resultSize = resultSize;
     }
@@ -384,6 +384,7 @@ public class SearchServiceBeanListIT extends StaticEJBTestBase {
         container.addBean(new TagServiceBean());
         container.addBean(new ServiceProvisioningServiceBean());
         container.addBean(new SearchServiceInternalBean());
+        container.addBean(new ServiceListingCacheBean());
         container.addBean(new SearchServiceBean());
         container.addBean(new MarketplaceServiceLocalBean());
         container.addBean(new MarketplaceServiceBean());
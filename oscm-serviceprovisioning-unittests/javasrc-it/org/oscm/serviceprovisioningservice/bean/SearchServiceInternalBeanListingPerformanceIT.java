@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.serviceprovisioningservice.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.Callable;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import org.oscm.dataservice.bean.DataServiceBean;
+import org.oscm.dataservice.local.DataService;
+import org.oscm.domobjects.Marketplace;
+import org.oscm.domobjects.Organization;
+import org.oscm.domobjects.TechnicalProduct;
+import org.oscm.i18nservice.bean.LocalizerServiceBean;
+import org.oscm.internal.intf.SearchServiceInternal;
+import org.oscm.internal.types.enumtypes.OrganizationRoleType;
+import org.oscm.internal.types.enumtypes.PerformanceHint;
+import org.oscm.internal.types.enumtypes.ServiceAccessType;
+import org.oscm.internal.vo.ListCriteria;
+import org.oscm.internal.vo.VOServiceListResult;
+import org.oscm.test.EJBTestBase;
+import org.oscm.test.data.Marketplaces;
+import org.oscm.test.data.Organizations;
+import org.oscm.test.data.Products;
+import org.oscm.test.data.TechnicalProducts;
+import org.oscm.test.ejb.TestContainer;
+import org.oscm.usergroupservice.bean.UserGroupServiceLocalBean;
+
+/**
+ * Measures the latency of service listing pages of a marketplace with 10000
+ * services, first assembling the listings and then reading them from the
+ * listing read model.
+ */
+@Ignore
+public class SearchServiceInternalBeanListingPerformanceIT extends EJBTestBase {
+
+    private static final String MARKETPLACE_ID = "perfMarketplace";
+    private static final int SERVICES = 10000;
+    private static final int BATCH_SIZE = 500;
+    private static final int PAGE_SIZE = 20;
+    private static final int PAGES = 50;
+
+    private DataService ds;
+    private SearchServiceInternal search;
+    private long supplierKey;
+    private long marketplaceKey;
+    private long technicalProductKey;
+
+    @Override
+    protected void setup(TestContainer container) throws Exception {
+        container.enableInterfaceMocking(true);
+        container.addBean(new DataServiceBean());
+        container.addBean(new LocalizerServiceBean());
+        container.addBean(mock(UserGroupServiceLocalBean.class));
+        container.addBean(new ServiceListingCacheBean());
+        container.addBean(new SearchServiceInternalBean());
+        ds = container.get(DataService.class);
+        search = container.get(SearchServiceInternal.class);
+
+        runTX(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                createOrganizationRoles(ds);
+                createSupportedCurrencies(ds);
+                Organization supplier = Organizations.createOrganization(ds,
+                        OrganizationRoleType.SUPPLIER,
+                        OrganizationRoleType.TECHNOLOGY_PROVIDER);
+                supplierKey = supplier.getKey();
+                marketplaceKey = Marketplaces.createMarketplace(supplier,
+                        MARKETPLACE_ID, true, ds).getKey();
+                technicalProductKey = TechnicalProducts
+                        .createTechnicalProduct(ds, supplier, "perfTP", false,
+                                ServiceAccessType.LOGIN).getKey();
+                return null;
+            }
+        });
+
+        for (int i = 0; i < SERVICES / BATCH_SIZE; i++) {
+            final int batch = i;
+            runTX(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    Organization supplier = ds.getReference(
+                            Organization.class, supplierKey);
+                    Marketplace marketplace = ds.getReference(
+                            Marketplace.class, marketplaceKey);
+                    TechnicalProduct technicalProduct = ds.getReference(
+                            TechnicalProduct.class, technicalProductKey);
+                    for (int j = 0; j < BATCH_SIZE; j++) {
+                        Products.createProduct(supplier, technicalProduct,
+                                true, "perf_" + batch + "_" + j, null,
+                                marketplace, ds);
+                    }
+                    ds.flush();
+                    ds.clear();
+                    return null;
+                }
+            });
+        }
+    }
+
+    @Test
+    public void getServicesByCriteria_listings() throws Exception {
+        // cold: the listings of each page are assembled and stored
+        long coldTime = listPages();
+
+        // warm: the listings of each page are read from the read model
+        long warmTime = listPages();
+
+        System.out.println(PAGES + " listing pages of " + PAGE_SIZE
+                + " services on a marketplace with " + SERVICES
+                + " services took " + coldTime + " ms when assembled and "
+                + warmTime + " ms when read from the listing read model.");
+        assertTrue("Average warm page latency " + warmTime / PAGES + " ms.",
+                warmTime / PAGES < 200);
+    }
+
+    /**
+     * Requests pages spread over all services and returns the total time.
+     */
+    private long listPages() throws Exception {
+        long time = 0;
+        for (int i = 0; i < PAGES; i++) {
+            ListCriteria criteria = new ListCriteria();
+            criteria.setOffset(i * (SERVICES / PAGES));
+            criteria.setLimit(PAGE_SIZE);
+            long start = System.currentTimeMillis();
+            VOServiceListResult result = search.getServicesByCriteria(
+                    MARKETPLACE_ID, "en", criteria,
+                    PerformanceHint.ONLY_FIELDS_FOR_LISTINGS);
+            time += System.currentTimeMillis() - start;
+            assertEquals(SERVICES, result.getResultSize());
+            assertEquals(PAGE_SIZE, result.getServices().size());
+        }
+        return time;
+    }
+}
@@ -164,10 +164,11 @@ public class ProductAssemblerTest {
 
         ProductFeedback feedback = new ProductFeedback();
         feedback.setProduct(product);
-        feedback.setAverageRating(new BigDecimal("2.5"));
         ProductReview review = new ProductReview();
+        review.setRating(3);
         review.setProductFeedback(feedback);
-        feedback.getProductReviews().add(review);
+        feedback.addProductReview(review);
+        feedback.setAverageRating(new BigDecimal("2.5"));
         product.setProductFeedback(feedback);
 
         user = new PlatformUser();
@@ -9,9 +9,20 @@
 package org.oscm.serviceprovisioningservice.bean;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.startsWith;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.Query;
+
 import org.junit.Before;
 import org.junit.Test;
 
@@ -19,6 +30,7 @@ import org.oscm.dataservice.local.DataService;
 import org.oscm.domobjects.Marketplace;
 import org.oscm.domobjects.Organization;
 import org.oscm.domobjects.PlatformUser;
+import org.oscm.serviceprovisioningservice.local.ProductSearchResult;
 import org.oscm.test.data.UserRoles;
 import org.oscm.internal.types.enumtypes.UserRoleType;
 import org.oscm.internal.vo.ListCriteria;
@@ -108,4 +120,29 @@ public class ProductSearchTest {
         String actual = ps.prepareCategoryRestriction();
         assertEquals(RESTRICTION_CATEGORY, actual);
     }
+
+    @Test
+    public void executeKeySearch() throws Exception {
+        // given
+        Query query = mock(Query.class);
+        when(ds.createNativeQuery(anyString())).thenReturn(query);
+        List<Object[]> rows = new ArrayList<Object[]>();
+        rows.add(new Object[] { BigInteger.valueOf(2), Integer.valueOf(3),
+                "name2" });
+        rows.add(new Object[] { BigInteger.valueOf(1), Integer.valueOf(0),
+                "name1" });
+        when(query.getResultList()).thenReturn(rows);
+
+        // when
+        ProductSearchResult result = ps.executeKeySearch();
+
+        // then
+        assertEquals(2, result.getResultSize());
+        assertEquals(Arrays.asList(Long.valueOf(2), Long.valueOf(1)),
+                new ArrayList<Long>(result.getServiceVersions().keySet()));
+        assertEquals(Integer.valueOf(3),
+                result.getServiceVersions().get(Long.valueOf(2)));
+        assertTrue(result.getServices().isEmpty());
+        verify(ds).createNativeQuery(startsWith("SELECT p.tkey, p.version, "));
+    }
 }
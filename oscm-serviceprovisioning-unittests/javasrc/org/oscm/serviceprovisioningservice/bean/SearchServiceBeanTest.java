@@ -15,13 +15,25 @@ package org.oscm.serviceprovisioningservice.bean;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -29,7 +41,14 @@ import org.mockito.ArgumentCaptor;
 
 import org.oscm.dataservice.bean.IndexMQSender;
 import org.oscm.dataservice.local.DataService;
+import org.oscm.domobjects.Product;
+import org.oscm.domobjects.ServiceListing;
 import org.oscm.domobjects.index.IndexReinitRequestMessage;
+import org.oscm.i18nservice.bean.LocalizerFacade;
+import org.oscm.internal.types.enumtypes.PerformanceHint;
+import org.oscm.internal.vo.VOService;
+import org.oscm.internal.vo.VOServiceListResult;
+import org.oscm.serviceprovisioningservice.local.ProductSearchResult;
 import org.oscm.usergroupservice.bean.UserGroupServiceLocalBean;
 
 public class SearchServiceBeanTest {
@@ -44,6 +63,7 @@ public class SearchServiceBeanTest {
         searchServiceBean.setDm(mock(DataService.class));
         searchServiceBean.userGroupService = mock(UserGroupServiceLocalBean.class);
         doReturn(indexMQSender).when(searchServiceBean).getMQSender();
+        searchServiceBean.listingCache = mock(ServiceListingCacheBean.class);
     }
 
     @Test
@@ -97,4 +117,120 @@ public class SearchServiceBeanTest {
         System.setProperty("ON_MESSAGE_DELAY", "22");
         assertEquals(22, IndexRequestListener.readDelayTime());
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void convertToVoServiceListings_allCached() throws Exception {
+        // given
+        Map<Long, VOService> cached = new HashMap<Long, VOService>();
+        cached.put(Long.valueOf(2), service("s2"));
+        cached.put(Long.valueOf(1), service("s1"));
+        doReturn(cached).when(searchServiceBean.listingCache).getListings(
+                anyMap(), eq("en"));
+
+        // when
+        VOServiceListResult result = searchServiceBean
+                .convertToVoServiceListings(keySearchResult(1, 2), "en");
+
+        // then
+        assertEquals(2, result.getResultSize());
+        assertEquals("s1", result.getServices().get(0).getServiceId());
+        assertEquals("s2", result.getServices().get(1).getServiceId());
+        verify(searchServiceBean, never()).loadProducts(
+                anyListOf(Long.class));
+        verify(searchServiceBean.listingCache, never()).storeListings(
+                any(List.class), anyString());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void convertToVoServiceListings_assemblesMissing() throws Exception {
+        // given
+        Product p1 = product(1);
+        Map<Long, VOService> cached = new HashMap<Long, VOService>();
+        cached.put(Long.valueOf(2), service("s2"));
+        doReturn(cached).when(searchServiceBean.listingCache).getListings(
+                anyMap(), eq("en"));
+        doReturn(Arrays.asList(p1)).when(searchServiceBean).loadProducts(
+                Arrays.asList(Long.valueOf(1)));
+        doReturn(Arrays.asList(service("s1"))).when(searchServiceBean)
+                .convertToVoServices(eq(Arrays.asList(p1)),
+                        any(LocalizerFacade.class),
+                        eq(PerformanceHint.ONLY_FIELDS_FOR_LISTINGS));
+
+        // when
+        VOServiceListResult result = searchServiceBean
+                .convertToVoServiceListings(keySearchResult(1, 2), "en");
+
+        // then
+        assertEquals("s1", result.getServices().get(0).getServiceId());
+        assertEquals("s2", result.getServices().get(1).getServiceId());
+        ArgumentCaptor<List> stored = ArgumentCaptor.forClass(List.class);
+        verify(searchServiceBean.listingCache).storeListings(stored.capture(),
+                eq("en"));
+        assertEquals(1, stored.getValue().size());
+        assertEquals(1, ((ServiceListing) stored.getValue().get(0))
+                .getProductKey());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void convertToVoServiceListings_productDeleted() throws Exception {
+        // given
+        doReturn(new HashMap<Long, VOService>()).when(
+                searchServiceBean.listingCache).getListings(
+                anyMap(), eq("en"));
+        doReturn(new ArrayList<Product>()).when(searchServiceBean)
+                .loadProducts(anyListOf(Long.class));
+
+        // when
+        VOServiceListResult result = searchServiceBean
+                .convertToVoServiceListings(keySearchResult(1), "en");
+
+        // then
+        assertTrue(result.getServices().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void convertToVoServiceList_allFields() throws Exception {
+        // given
+        ProductSearchResult searchResult = new ProductSearchResult();
+        searchResult.setServices(Arrays.asList(product(1)));
+        doReturn(Arrays.asList(service("s1"))).when(searchServiceBean)
+                .convertToVoServices(anyListOf(Product.class),
+                        any(LocalizerFacade.class),
+                        eq(PerformanceHint.ALL_FIELDS));
+
+        // when
+        searchServiceBean.convertToVoServiceList(searchResult, "en",
+                PerformanceHint.ALL_FIELDS);
+
+        // then
+        verify(searchServiceBean.listingCache, never()).getListings(
+                anyMap(), anyString());
+    }
+
+    private static ProductSearchResult keySearchResult(long... keys) {
+        Map<Long, Integer> versions = new LinkedHashMap<Long, Integer>();
+        for (long key : keys) {
+            versions.put(Long.valueOf(key), Integer.valueOf(0));
+        }
+        ProductSearchResult result = new ProductSearchResult();
+        result.setServiceVersions(versions);
+        result.setResultSize(keys.length);
+        return result;
+    }
+
+    private static Product product(long key) {
+        Product product = new Product();
+        product.setKey(key);
+        return product;
+    }
+
+    private static VOService service(String serviceId) {
+        VOService service = new VOService();
+        service.setServiceId(serviceId);
+        return service;
+    }
 }
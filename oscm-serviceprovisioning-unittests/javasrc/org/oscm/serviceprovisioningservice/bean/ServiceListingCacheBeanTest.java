@@ -0,0 +1,288 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.serviceprovisioningservice.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.persistence.Query;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.oscm.dataservice.local.DataService;
+import org.oscm.domobjects.Product;
+import org.oscm.domobjects.ServiceListing;
+import org.oscm.internal.types.enumtypes.OfferingType;
+import org.oscm.internal.types.enumtypes.PriceModelType;
+import org.oscm.internal.types.enumtypes.PricingPeriod;
+import org.oscm.internal.types.enumtypes.ServiceAccessType;
+import org.oscm.internal.types.enumtypes.ServiceStatus;
+import org.oscm.internal.types.exception.NonUniqueBusinessKeyException;
+import org.oscm.internal.vo.VOPriceModel;
+import org.oscm.internal.vo.VOService;
+
+public class ServiceListingCacheBeanTest {
+
+    private ServiceListingCacheBean cache;
+    private DataService dm;
+    private Query query;
+
+    @Before
+    public void setup() {
+        cache = new ServiceListingCacheBean();
+        dm = mock(DataService.class);
+        query = mock(Query.class);
+        doReturn(query).when(dm).createNamedQuery(anyString());
+        cache.dm = dm;
+    }
+
+    @Test
+    public void getListings() {
+        // given
+        ServiceListing listing = ServiceListingCacheBean.createListing(
+                product(1), "de", service("s1"));
+        doReturn(Arrays.asList(listing)).when(query).getResultList();
+
+        // when
+        Map<Long, VOService> result = cache.getListings(versions(1, 2), "de");
+
+        // then
+        assertEquals(1, result.size());
+        assertEquals("s1", result.get(Long.valueOf(1)).getServiceId());
+        verify(query).setParameter("locale", "de");
+    }
+
+    @Test
+    public void getListings_otherProductVersion() {
+        // given
+        Product p1 = product(1);
+        ServiceListing listing = ServiceListingCacheBean.createListing(p1,
+                "de", service("s1"));
+        listing.setProductVersion(p1.getVersion() + 1);
+        doReturn(Arrays.asList(listing)).when(query).getResultList();
+
+        // when
+        Map<Long, VOService> result = cache.getListings(versions(1), "de");
+
+        // then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    public void storeListings() throws Exception {
+        // given
+        ServiceListing l1 = ServiceListingCacheBean.createListing(product(1),
+                "en", service("s1"));
+        ServiceListing l2 = ServiceListingCacheBean.createListing(product(2),
+                "en", service("s2"));
+
+        // when
+        cache.storeListings(Arrays.asList(l1, l2), "en");
+
+        // then
+        verify(dm).createNamedQuery("ServiceListing.removeOldEntries");
+        verify(dm).createNamedQuery("ServiceListing.removeByProductKeys");
+        verify(query).setParameter("productKeys",
+                Arrays.asList(Long.valueOf(1), Long.valueOf(2)));
+        verify(dm).persist(l1);
+        verify(dm).persist(l2);
+    }
+
+    @Test
+    public void storeListings_concurrentlyStored() throws Exception {
+        // given
+        ServiceListing l1 = ServiceListingCacheBean.createListing(product(1),
+                "en", service("s1"));
+        doThrow(new NonUniqueBusinessKeyException()).when(dm).persist(
+                any(ServiceListing.class));
+
+        // when
+        cache.storeListings(Arrays.asList(l1), "en");
+
+        // then no exception
+        verify(dm).persist(eq(l1));
+    }
+
+    @Test
+    public void createListing_copy() {
+        // given
+        Product template = product(1);
+        Product copy = product(2);
+        copy.setTemplate(template);
+
+        // when
+        ServiceListing listing = ServiceListingCacheBean.createListing(copy,
+                "ja", service("s2"));
+
+        // then
+        assertEquals(2, listing.getProductKey());
+        assertEquals(Long.valueOf(1), listing.getTemplateKey());
+        assertEquals("ja", listing.getLocale());
+        assertEquals("s2", listing.getServiceId());
+    }
+
+    @Test
+    public void toVOService() {
+        // given
+        Product product = product(3);
+        VOService service = service("s3");
+        service.setKey(3);
+        service.setVersion(product.getVersion());
+        service.setServiceIdToDisplay("s3 (supplier)");
+        service.setName("name");
+        service.setShortDescription("description");
+        service.setStatus(ServiceStatus.ACTIVE);
+        service.setAutoAssignUserEnabled(Boolean.TRUE);
+        service.setSellerKey(4);
+        service.setSellerId("supplier");
+        service.setSellerName("supplier name");
+        service.setOfferingType(OfferingType.BROKER);
+        service.setAverageRating(new BigDecimal("3.50"));
+        service.setNumberOfReviews(2);
+        service.setTechnicalId("technical");
+        service.setTags(Arrays.asList("tag1", "tag2"));
+        service.setAccessType(ServiceAccessType.LOGIN);
+        service.setBaseURL("http://host/service");
+        service.setBillingIdentifier("NATIVE_BILLING");
+        VOPriceModel priceModel = new VOPriceModel();
+        priceModel.setKey(5);
+        priceModel.setVersion(6);
+        priceModel.setExternal(true);
+        priceModel.setType(PriceModelType.PRO_RATA);
+        priceModel.setUuid(UUID.randomUUID());
+        priceModel.setPeriod(PricingPeriod.MONTH);
+        priceModel.setOneTimeFee(new BigDecimal("1.00"));
+        priceModel.setPricePerPeriod(new BigDecimal("2.00"));
+        priceModel.setPricePerUserAssignment(new BigDecimal("3.00"));
+        priceModel.setCurrencyISOCode("EUR");
+        priceModel.setLicense("license");
+        service.setPriceModel(priceModel);
+
+        // when
+        VOService result = ServiceListingCacheBean
+                .toVOService(ServiceListingCacheBean.createListing(product,
+                        "en", service));
+
+        // then
+        assertEquals(3, result.getKey());
+        assertEquals(product.getVersion(), result.getVersion());
+        assertEquals("s3", result.getServiceId());
+        assertEquals("s3 (supplier)", result.getServiceIdToDisplay());
+        assertEquals("name", result.getName());
+        assertEquals("description", result.getShortDescription());
+        assertEquals(ServiceStatus.ACTIVE, result.getStatus());
+        assertEquals(Boolean.TRUE, result.isAutoAssignUserEnabled());
+        assertEquals(4, result.getSellerKey());
+        assertEquals("supplier", result.getSellerId());
+        assertEquals("supplier name", result.getSellerName());
+        assertEquals(OfferingType.BROKER, result.getOfferingType());
+        assertEquals(new BigDecimal("3.50"), result.getAverageRating());
+        assertEquals(2, result.getNumberOfReviews());
+        assertEquals("technical", result.getTechnicalId());
+        assertEquals(Arrays.asList("tag1", "tag2"), result.getTags());
+        assertEquals(ServiceAccessType.LOGIN, result.getAccessType());
+        assertEquals("http://host/service", result.getBaseURL());
+        assertEquals("NATIVE_BILLING", result.getBillingIdentifier());
+        VOPriceModel resultPriceModel = result.getPriceModel();
+        assertEquals(5, resultPriceModel.getKey());
+        assertEquals(6, resultPriceModel.getVersion());
+        assertTrue(resultPriceModel.isExternal());
+        assertEquals(PriceModelType.PRO_RATA, resultPriceModel.getType());
+        assertEquals(priceModel.getUuid(), resultPriceModel.getUuid());
+        assertEquals(PricingPeriod.MONTH, resultPriceModel.getPeriod());
+        assertEquals(new BigDecimal("1.00"), resultPriceModel.getOneTimeFee());
+        assertEquals(new BigDecimal("2.00"),
+                resultPriceModel.getPricePerPeriod());
+        assertEquals(new BigDecimal("3.00"),
+                resultPriceModel.getPricePerUserAssignment());
+        assertEquals("EUR", resultPriceModel.getCurrencyISOCode());
+        assertEquals("license", resultPriceModel.getLicense());
+    }
+
+    @Test
+    public void toVOService_noPriceModelNoTags() {
+        // when
+        VOService result = ServiceListingCacheBean
+                .toVOService(ServiceListingCacheBean.createListing(product(1),
+                        "en", service("s1")));
+
+        // then
+        assertNull(result.getPriceModel());
+        assertTrue(result.getTags().isEmpty());
+    }
+
+    @Test
+    public void split() {
+        // given
+        List<Long> keys = new ArrayList<Long>();
+        for (int i = 0; i < ServiceListingCacheBean.MAX_KEYS_PER_QUERY * 2 + 1; i++) {
+            keys.add(Long.valueOf(i));
+        }
+
+        // when
+        List<List<Long>> result = ServiceListingCacheBean.split(keys);
+
+        // then
+        assertEquals(3, result.size());
+        assertEquals(ServiceListingCacheBean.MAX_KEYS_PER_QUERY, result.get(0)
+                .size());
+        assertEquals(1, result.get(2).size());
+    }
+
+    @Test
+    public void getListings_manyProducts() {
+        // given
+        Map<Long, Integer> versions = new HashMap<Long, Integer>();
+        for (int i = 0; i < ServiceListingCacheBean.MAX_KEYS_PER_QUERY + 1; i++) {
+            versions.put(Long.valueOf(i), Integer.valueOf(0));
+        }
+        doReturn(new ArrayList<ServiceListing>()).when(query).getResultList();
+
+        // when
+        cache.getListings(versions, "en");
+
+        // then
+        verify(query, times(2)).getResultList();
+    }
+
+    private static Map<Long, Integer> versions(long... keys) {
+        Map<Long, Integer> result = new LinkedHashMap<Long, Integer>();
+        for (long key : keys) {
+            result.put(Long.valueOf(key), Integer.valueOf(0));
+        }
+        return result;
+    }
+
+    private static Product product(long key) {
+        Product product = new Product();
+        product.setKey(key);
+        return product;
+    }
+
+    private static VOService service(String serviceId) {
+        VOService service = new VOService();
+        service.setServiceId(serviceId);
+        return service;
+    }
+}
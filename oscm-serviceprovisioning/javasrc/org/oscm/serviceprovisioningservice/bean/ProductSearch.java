@@ -6,7 +6,9 @@ package org.oscm.serviceprovisioningservice.bean;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.persistence.Query;
@@ -47,6 +49,7 @@ public class ProductSearch {
     Set<Long> inVisibleProductKeys;
     private Tag tag;
     private boolean doObjectQuery;
+    private boolean keysOnly;
     private boolean doCountQuery;
     private boolean sortingRequired;
     private String categoryId;
@@ -165,6 +168,7 @@ public class ProductSearch {
      *             Thrown if the marketplace or category was not found
      */
     public ProductSearchResult execute() throws ObjectNotFoundException {
+        keysOnly = false;
         List<Product> foundServices = new ArrayList<Product>();
         int resultSize = 0;
 
@@ -189,6 +193,39 @@ public class ProductSearch {
         return result;
     }
 
+    /**
+     * Executes the product search, but only reads the keys and versions of the
+     * found services instead of loading the products.
+     * 
+     * @return Result instance containing the keys and versions of the found
+     *         services and the number of services in the database
+     * @throws ObjectNotFoundException
+     *             Thrown if the marketplace or category was not found
+     */
+    public ProductSearchResult executeKeySearch()
+            throws ObjectNotFoundException {
+        keysOnly = true;
+        Map<Long, Integer> foundServices = new LinkedHashMap<Long, Integer>();
+        int resultSize = 0;
+
+        prepareSql();
+
+        if (doObjectQuery) {
+            foundServices = executeKeyQuery();
+            resultSize = foundServices.size();
+        }
+
+        if (doCountQuery) {
+            resultSize = executeCountQuery();
+        }
+
+        ProductSearchResult result = new ProductSearchResult();
+        result.setResultSize(resultSize);
+        result.setServices(new ArrayList<Product>());
+        result.setServiceVersions(foundServices);
+        return result;
+    }
+
     /**
      * Searches for products
      * 
@@ -198,7 +235,39 @@ public class ProductSearch {
     private List<Product> executeObjectQuery() {
         Query query = dm.createNativeQuery(sql, Product.class);
         setParameters(query);
+        setRange(query);
 
+        List<Product> result = query.getResultList();
+        return result;
+    }
+
+    /**
+     * Searches for the keys and versions of products
+     * 
+     * @return the keys of the found services mapped to their versions
+     */
+    private Map<Long, Integer> executeKeyQuery() {
+        Query query = dm.createNativeQuery(sql);
+        setParameters(query);
+        setRange(query);
+
+        Map<Long, Integer> result = new LinkedHashMap<Long, Integer>();
+        for (Object row : query.getResultList()) {
+            Object[] columns = (Object[]) row;
+            result.put(Long.valueOf(((Number) columns[0]).longValue()),
+                    Integer.valueOf(((Number) columns[1]).intValue()));
+        }
+        return result;
+    }
+
+    /**
+     * Restricts the query to the requested page. A count query is required
+     * for paged results.
+     * 
+     * @param query
+     *            Jpa Query instance
+     */
+    private void setRange(Query query) {
         if (listCriteria.getOffset() > 0) {
             query.setFirstResult(listCriteria.getOffset());
             doCountQuery = true;
@@ -208,9 +277,6 @@ public class ProductSearch {
             query.setMaxResults(listCriteria.getLimit());
             doCountQuery = true;
         }
-
-        List<Product> result = query.getResultList();
-        return result;
     }
 
     /**
@@ -290,8 +356,12 @@ public class ProductSearch {
     private String generateProjectionStmt() {
         StringBuffer buffer = new StringBuffer("SELECT ");
 
-        // First column 'p' : All product data
-        buffer.append("p.*");
+        // First column 'p' : All product data, or just the key and version
+        if (keysOnly) {
+            buffer.append("p.tkey, p.version");
+        } else {
+            buffer.append("p.*");
+        }
 
         // Second column 'localName' : localized product name resp. product id
         // if no localization exists
@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.ejb.EJB;
@@ -25,6 +26,7 @@ import javax.ejb.Stateless;
 import javax.inject.Inject;
 import javax.interceptor.Interceptors;
 import javax.jms.JMSException;
+import javax.persistence.Query;
 
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.index.Term;
@@ -43,11 +45,13 @@ import org.hibernate.search.SearchException;
 
 import org.oscm.logging.Log4jLogger;
 import org.oscm.logging.LoggerFactory;
+import org.oscm.converter.ParameterizedTypes;
 import org.oscm.dataservice.bean.IndexMQSender;
 import org.oscm.dataservice.local.DataService;
 import org.oscm.domobjects.Marketplace;
 import org.oscm.domobjects.PlatformUser;
 import org.oscm.domobjects.Product;
+import org.oscm.domobjects.ServiceListing;
 import org.oscm.domobjects.bridge.ProductClassBridge;
 import org.oscm.domobjects.index.IndexReinitRequestMessage;
 import org.oscm.i18nservice.bean.LocalizerFacade;
@@ -94,6 +98,9 @@ public class SearchServiceBean implements SearchService, SearchServiceLocal {
     @Inject
     UserGroupServiceLocalBean userGroupService;
 
+    @EJB
+    ServiceListingCacheBean listingCache;
+
     private static String DEFAULT_LOCALE = "en";
 
     @Override
@@ -289,7 +296,7 @@ public class SearchServiceBean implements SearchService, SearchServiceLocal {
         ProductSearch search = new ProductSearch(getDm(), marketplaceId,
                 listCriteria, DEFAULT_LOCALE, locale, invisibleKeys);
 
-        return convertToVoServiceList(search.execute(), locale, performanceHint);
+        return executeSearch(search, locale, performanceHint);
     }
 
     public VOServiceListResult getAccesibleServices(
@@ -313,7 +320,22 @@ public class SearchServiceBean implements SearchService, SearchServiceLocal {
         ProductSearch search = new ProductSearch(getDm(), marketplaceId,
                 listCriteria, DEFAULT_LOCALE, locale, invisibleKeys);
 
-        return convertToVoServiceList(search.execute(), locale, performanceHint);
+        return executeSearch(search, locale, performanceHint);
+    }
+
+    /**
+     * Executes the product search. Listings are read from the listing read
+     * model, so the search only reads the keys of the found services.
+     */
+    private VOServiceListResult executeSearch(ProductSearch search,
+            String locale, PerformanceHint performanceHint)
+            throws ObjectNotFoundException {
+        if (performanceHint == PerformanceHint.ONLY_FIELDS_FOR_LISTINGS) {
+            return convertToVoServiceListings(search.executeKeySearch(),
+                    locale);
+        }
+        return convertToVoServiceList(search.execute(), locale,
+                performanceHint);
     }
 
     VOServiceListResult convertToVoServiceList(ProductSearchResult services,
@@ -326,6 +348,85 @@ public class SearchServiceBean implements SearchService, SearchServiceLocal {
         return result;
     }
 
+    /**
+     * Converts the keys found by a key search to transfer objects for
+     * listings. The transfer objects are taken from the listing read model,
+     * only the missing ones are assembled from their products and then added
+     * to the read model.
+     * 
+     * @param services
+     *            the result of the key search
+     * @param locale
+     *            the locale of the listings
+     * @return found VO services
+     */
+    VOServiceListResult convertToVoServiceListings(
+            ProductSearchResult services, String locale) {
+        Map<Long, Integer> versions = services.getServiceVersions();
+        Map<Long, VOService> listings = listingCache.getListings(versions,
+                locale);
+
+        List<Long> missingKeys = new ArrayList<Long>();
+        for (Long key : versions.keySet()) {
+            if (!listings.containsKey(key)) {
+                missingKeys.add(key);
+            }
+        }
+        if (!missingKeys.isEmpty()) {
+            LocalizerFacade facade = new LocalizerFacade(localizer, locale);
+            List<Product> missing = loadProducts(missingKeys);
+            List<VOService> assembled = convertToVoServices(missing, facade,
+                    PerformanceHint.ONLY_FIELDS_FOR_LISTINGS);
+            List<ServiceListing> newListings = new ArrayList<ServiceListing>();
+            for (int i = 0; i < missing.size(); i++) {
+                Product product = missing.get(i);
+                listings.put(Long.valueOf(product.getKey()), assembled.get(i));
+                newListings.add(ServiceListingCacheBean.createListing(product,
+                        locale, assembled.get(i)));
+            }
+            storeListings(newListings, locale);
+        }
+
+        List<VOService> resultList = new ArrayList<VOService>();
+        for (Long key : versions.keySet()) {
+            VOService service = listings.get(key);
+            if (service != null) {
+                resultList.add(service);
+            }
+        }
+        VOServiceListResult result = new VOServiceListResult();
+        result.setResultSize(services.getResultSize());
+        result.setServices(resultList);
+        return result;
+    }
+
+    /**
+     * Loads the products with the given keys.
+     */
+    List<Product> loadProducts(List<Long> keys) {
+        List<Product> result = new ArrayList<Product>();
+        for (List<Long> chunk : ServiceListingCacheBean.split(keys)) {
+            Query query = getDm().createNamedQuery("Product.getForKeys");
+            query.setParameter("keys", chunk);
+            result.addAll(ParameterizedTypes.list(query.getResultList(),
+                    Product.class));
+        }
+        return result;
+    }
+
+    private void storeListings(List<ServiceListing> listings, String locale) {
+        if (listings.isEmpty()) {
+            return;
+        }
+        try {
+            listingCache.storeListings(listings, locale);
+        } catch (RuntimeException e) {
+            // the listings are assembled again with the next request
+            logger.logWarn(Log4jLogger.SYSTEM_LOG, e,
+                    LogMessageIdentifier.WARN_SERVICE_LISTING_CACHE);
+        }
+    }
+
     /**
      * Converts the product list to transfer objects.
      * 
@@ -333,7 +434,7 @@ public class SearchServiceBean implements SearchService, SearchServiceLocal {
      *            List of domain products
      * @return found VO services
      */
-    private List<VOService> convertToVoServices(List<Product> productList,
+    List<VOService> convertToVoServices(List<Product> productList,
             LocalizerFacade facade, PerformanceHint performanceHint) {
         List<VOService> resultList = new ArrayList<VOService>();
         ProductAssembler.prefetchData(productList, facade, performanceHint);
@@ -0,0 +1,264 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.serviceprovisioningservice.bean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.ejb.EJB;
+import javax.ejb.LocalBean;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.Query;
+
+import org.oscm.converter.ParameterizedTypes;
+import org.oscm.dataservice.local.DataService;
+import org.oscm.domobjects.Product;
+import org.oscm.domobjects.ServiceListing;
+import org.oscm.internal.types.exception.NonUniqueBusinessKeyException;
+import org.oscm.internal.vo.VOPriceModel;
+import org.oscm.internal.vo.VOService;
+import org.oscm.logging.Log4jLogger;
+import org.oscm.logging.LoggerFactory;
+import org.oscm.types.enumtypes.LogMessageIdentifier;
+
+/**
+ * Reads and writes the service listing read model. A listing is only used if
+ * it was created from the current version of the product and is younger than
+ * {@link #TIME_TO_LIVE}. Changes of the price model, the feedback, the
+ * localized texts or the template of a product remove its listings through the
+ * master indexer; the time to live limits the staleness for changes which are
+ * not reported to the indexer, e.g. a renamed supplier.
+ */
+@Stateless
+@LocalBean
+public class ServiceListingCacheBean {
+
+    private static final Log4jLogger logger = LoggerFactory
+            .getLogger(ServiceListingCacheBean.class);
+
+    static final long TIME_TO_LIVE = 30 * 60 * 1000L;
+
+    /**
+     * The maximum number of product keys passed to one query.
+     */
+    static final int MAX_KEYS_PER_QUERY = 1000;
+
+    @EJB(beanInterface = DataService.class)
+    protected DataService dm;
+
+    /**
+     * Returns the valid listings of the given products in the given locale.
+     *
+     * @param productVersions
+     *            the keys of the products to read the listings for, mapped to
+     *            the current versions of the products
+     * @param locale
+     *            the locale of the listings
+     * @return the listings found, mapped by product key
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public Map<Long, VOService> getListings(Map<Long, Integer> productVersions,
+            String locale) {
+        Map<Long, VOService> result = new HashMap<Long, VOService>();
+        Date validFrom = new Date(System.currentTimeMillis() - TIME_TO_LIVE);
+        for (List<Long> keys : split(productVersions.keySet())) {
+            Query query = dm.createNamedQuery("ServiceListing.findByProductKeys");
+            query.setParameter("productKeys", keys);
+            query.setParameter("locale", locale);
+            query.setParameter("timestamp", validFrom);
+            for (ServiceListing listing : ParameterizedTypes.list(
+                    query.getResultList(), ServiceListing.class)) {
+                Long key = Long.valueOf(listing.getProductKey());
+                Integer version = productVersions.get(key);
+                if (version != null
+                        && version.intValue() == listing.getProductVersion()) {
+                    result.put(key, toVOService(listing));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stores the given listings, replacing the existing listings of the same
+     * products. The listings are written in a transaction of their own, so a
+     * failure - e.g. if another node stores the same listings concurrently -
+     * does not affect the calling transaction.
+     *
+     * @param listings
+     *            the listings to store
+     * @param locale
+     *            the locale of the listings
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void storeListings(List<ServiceListing> listings, String locale) {
+        Query query = dm.createNamedQuery("ServiceListing.removeOldEntries");
+        query.setParameter("timestamp",
+                new Date(System.currentTimeMillis() - TIME_TO_LIVE));
+        query.executeUpdate();
+
+        List<Long> productKeys = new ArrayList<Long>();
+        for (ServiceListing listing : listings) {
+            productKeys.add(Long.valueOf(listing.getProductKey()));
+        }
+        for (List<Long> keys : split(productKeys)) {
+            query = dm.createNamedQuery("ServiceListing.removeByProductKeys");
+            query.setParameter("productKeys", keys);
+            query.setParameter("locale", locale);
+            query.executeUpdate();
+        }
+
+        try {
+            for (ServiceListing listing : listings) {
+                dm.persist(listing);
+            }
+        } catch (NonUniqueBusinessKeyException e) {
+            logger.logWarn(Log4jLogger.SYSTEM_LOG, e,
+                    LogMessageIdentifier.WARN_SERVICE_LISTING_CACHE);
+        }
+    }
+
+    /**
+     * Creates the listing entry for the given product from its listing
+     * representation.
+     */
+    static ServiceListing createListing(Product product, String locale,
+            VOService service) {
+        ServiceListing listing = new ServiceListing();
+        listing.setProductKey(product.getKey());
+        if (product.getTemplate() != null) {
+            listing.setTemplateKey(Long.valueOf(product.getTemplate().getKey()));
+        }
+        listing.setProductVersion(product.getVersion());
+        listing.setLocale(locale);
+        listing.setTimestamp(new Date());
+
+        listing.setServiceId(service.getServiceId());
+        listing.setServiceIdToDisplay(service.getServiceIdToDisplay());
+        listing.setName(service.getName());
+        listing.setShortDescription(service.getShortDescription());
+        listing.setStatus(service.getStatus());
+        listing.setAutoAssignUserEnabled(service.isAutoAssignUserEnabled());
+        listing.setSellerKey(service.getSellerKey());
+        listing.setSellerId(service.getSellerId());
+        listing.setSellerName(service.getSellerName());
+        listing.setOfferingType(service.getOfferingType());
+        listing.setAverageRating(service.getAverageRating());
+        listing.setNumberOfReviews(service.getNumberOfReviews());
+        listing.setTechnicalId(service.getTechnicalId());
+        listing.setTags(joinTags(service.getTags()));
+        listing.setAccessType(service.getAccessType());
+        listing.setBaseURL(service.getBaseURL());
+        listing.setBillingIdentifier(service.getBillingIdentifier());
+
+        VOPriceModel priceModel = service.getPriceModel();
+        if (priceModel != null) {
+            listing.setPriceModelKey(Long.valueOf(priceModel.getKey()));
+            listing.setPriceModelVersion(priceModel.getVersion());
+            listing.setPriceModelExternal(priceModel.isExternal());
+            listing.setPriceModelType(priceModel.getType());
+            listing.setPriceModelUuid(priceModel.getUuid());
+            listing.setPeriod(priceModel.getPeriod());
+            listing.setOneTimeFee(priceModel.getOneTimeFee());
+            listing.setPricePerPeriod(priceModel.getPricePerPeriod());
+            listing.setPricePerUserAssignment(priceModel
+                    .getPricePerUserAssignment());
+            listing.setCurrencyISOCode(priceModel.getCurrencyISOCode());
+            listing.setLicense(priceModel.getLicense());
+        }
+        return listing;
+    }
+
+    /**
+     * Creates the listing representation of a service from its listing entry.
+     */
+    static VOService toVOService(ServiceListing listing) {
+        VOService service = new VOService();
+        service.setKey(listing.getProductKey());
+        service.setVersion(listing.getProductVersion());
+
+        service.setServiceId(listing.getServiceId());
+        service.setServiceIdToDisplay(listing.getServiceIdToDisplay());
+        service.setName(listing.getName());
+        service.setShortDescription(listing.getShortDescription());
+        service.setStatus(listing.getStatus());
+        service.setAutoAssignUserEnabled(listing.getAutoAssignUserEnabled());
+        service.setSellerKey(listing.getSellerKey());
+        service.setSellerId(listing.getSellerId());
+        service.setSellerName(listing.getSellerName());
+        service.setOfferingType(listing.getOfferingType());
+        service.setAverageRating(listing.getAverageRating());
+        service.setNumberOfReviews(listing.getNumberOfReviews());
+        service.setTechnicalId(listing.getTechnicalId());
+        service.setTags(splitTags(listing.getTags()));
+        service.setAccessType(listing.getAccessType());
+        service.setBaseURL(listing.getBaseURL());
+        service.setBillingIdentifier(listing.getBillingIdentifier());
+
+        if (listing.getPriceModelKey() != null) {
+            VOPriceModel priceModel = new VOPriceModel();
+            priceModel.setKey(listing.getPriceModelKey().longValue());
+            priceModel.setVersion(listing.getPriceModelVersion());
+            priceModel.setExternal(listing.isPriceModelExternal());
+            priceModel.setType(listing.getPriceModelType());
+            priceModel.setUuid(listing.getPriceModelUuid());
+            priceModel.setPeriod(listing.getPeriod());
+            priceModel.setOneTimeFee(listing.getOneTimeFee());
+            priceModel.setPricePerPeriod(listing.getPricePerPeriod());
+            priceModel.setPricePerUserAssignment(listing
+                    .getPricePerUserAssignment());
+            priceModel.setCurrencyISOCode(listing.getCurrencyISOCode());
+            priceModel.setLicense(listing.getLicense());
+            service.setPriceModel(priceModel);
+        }
+        return service;
+    }
+
+    private static String joinTags(List<String> tags) {
+        if (tags == null || tags.isEmpty()) {
+            return null;
+        }
+        StringBuilder result = new StringBuilder();
+        for (String tag : tags) {
+            if (result.length() > 0) {
+                result.append(ServiceListing.TAG_SEPARATOR);
+            }
+            result.append(tag);
+        }
+        return result.toString();
+    }
+
+    private static List<String> splitTags(String tags) {
+        List<String> result = new ArrayList<String>();
+        if (tags != null) {
+            result.addAll(Arrays.asList(tags
+                    .split(ServiceListing.TAG_SEPARATOR)));
+        }
+        return result;
+    }
+
+    static List<List<Long>> split(Collection<Long> keys) {
+        List<List<Long>> result = new ArrayList<List<Long>>();
+        List<Long> chunk = new ArrayList<Long>();
+        for (Long key : keys) {
+            if (chunk.size() == MAX_KEYS_PER_QUERY) {
+                result.add(chunk);
+                chunk = new ArrayList<Long>();
+            }
+            chunk.add(key);
+        }
+        if (!chunk.isEmpty()) {
+            result.add(chunk);
+        }
+        return result;
+    }
+}
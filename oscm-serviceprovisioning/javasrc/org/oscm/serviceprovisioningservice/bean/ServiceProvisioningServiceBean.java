@@ -4229,6 +4229,7 @@ public class ServiceProvisioningServiceBean
                 vo = new VOImageResource();
                 vo.setBuffer(imageResource.getBuffer());
                 vo.setContentType(imageResource.getContentType());
+                vo.setContentHash(imageResource.getContentHash());
                 vo.setImageType(ImageType.SERVICE_IMAGE);
             }
         }
@@ -4261,6 +4262,7 @@ public class ServiceProvisioningServiceBean
                 vo = new VOImageResource();
                 vo.setBuffer(imageResource.getBuffer());
                 vo.setContentType(imageResource.getContentType());
+                vo.setContentHash(imageResource.getContentHash());
                 vo.setImageType(ImageType.SERVICE_IMAGE);
             }
         }
@@ -14,8 +14,14 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import javax.ejb.EJBException;
 
@@ -511,6 +517,55 @@ public class SessionServiceBeanIT extends EJBTestBase {
         assertEquals(1, result.size());
     }
 
+    @Test
+    public void verifyParameterConcurrentUser_concurrentLogins()
+            throws Exception {
+        // given
+        paramValue = Long.valueOf(3L);
+        final Subscription sub = createSubscription();
+        final int logins = 20;
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(logins);
+        List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+        for (int i = 0; i < logins; i++) {
+            final String sessionId = "session" + i;
+            results.add(executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    start.await();
+                    try {
+                        sessionMgmt.createServiceSession(sub.getKey(),
+                                sessionId, "someToken");
+                        return Boolean.TRUE;
+                    } catch (ServiceParameterException e) {
+                        return Boolean.FALSE;
+                    }
+                }
+            }));
+        }
+
+        // when
+        start.countDown();
+        int created = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(60, TimeUnit.SECONDS).booleanValue()) {
+                created++;
+            }
+        }
+        executor.shutdown();
+
+        // then
+        assertEquals(3, created);
+        List<Session> sessions = runTX(new Callable<List<Session>>() {
+            @Override
+            public List<Session> call() throws Exception {
+                return sessionMgmtLocal
+                        .getProductSessionsForSubscriptionTKey(sub.getKey());
+            }
+        });
+        assertEquals(3, sessions.size());
+    }
+
     @Test
     public void deleteAllSessions_ForDifferentNodes() throws Exception {
         nodeName = "node1";
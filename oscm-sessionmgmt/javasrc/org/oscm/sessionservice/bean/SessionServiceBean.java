@@ -17,6 +17,7 @@ import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 import javax.interceptor.Interceptors;
+import javax.persistence.LockModeType;
 import javax.persistence.Query;
 
 import org.oscm.logging.Log4jLogger;
@@ -486,6 +487,11 @@ public class SessionServiceBean implements SessionServiceLocal, SessionService {
      * Checks if the session count for the subscription is lower or equal to the
      * value of the product parameter CONCURRENT_USER. If this condition does
      * not hold, an ProductParameterException will be thrown.
+     * <p>
+     * The subscription row is locked before the sessions are counted, so
+     * concurrent logins to the same subscription - also on other cluster nodes
+     * - are checked one after the other and cannot exceed the limit together.
+     * The lock is held until the new session is committed.
      * 
      * @param subscription
      *            The subscription to be checked.
@@ -510,9 +516,9 @@ public class SessionServiceBean implements SessionServiceLocal, SessionService {
                             .equals(parameter.getParameterDefinition()
                                     .getParameterId())
                     && parameter.getValue() != null) {
-                List<Session> list = getProductSessionsForSubscriptionTKey(subscription
-                        .getKey());
-                if (list != null && list.size() >= parameter.getLongValue()) {
+                lockSubscription(subscription.getKey());
+                long sessionCount = countServiceSessions(subscription.getKey());
+                if (sessionCount >= parameter.getLongValue()) {
                     sessionCtx.setRollbackOnly();
                     String text = "Subscription '"
                             + subscription.getSubscriptionId() + "'/Product '"
@@ -534,6 +540,29 @@ public class SessionServiceBean implements SessionServiceLocal, SessionService {
 
     }
 
+    /**
+     * Locks the row of the subscription with the given key until the end of
+     * the transaction.
+     */
+    void lockSubscription(long subscriptionKey) {
+        Query query = dm.createNamedQuery("Subscription.findByKey");
+        query.setParameter("key", Long.valueOf(subscriptionKey));
+        query.setLockMode(LockModeType.PESSIMISTIC_WRITE);
+        query.getResultList();
+    }
+
+    /**
+     * Returns the number of service sessions of the subscription with the
+     * given key without loading them.
+     */
+    long countServiceSessions(long subscriptionKey) {
+        Query query = dm
+                .createNamedQuery("Session.countEntriesForSubscription");
+        query.setParameter("subscriptionTKey", Long.valueOf(subscriptionKey));
+        query.setParameter("sessionType", SessionType.SERVICE_SESSION);
+        return ((Long) query.getSingleResult()).longValue();
+    }
+
     @Override
     @RolesAllowed({"ORGANIZATION_ADMIN", "SUBSCRIPTION_MANAGER", "UNIT_ADMINISTRATOR" })
     public void deleteServiceSessionsForSubscription(long subscriptionKey)
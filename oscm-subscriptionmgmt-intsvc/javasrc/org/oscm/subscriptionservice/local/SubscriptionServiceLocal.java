@@ -212,6 +212,30 @@ public interface SubscriptionServiceLocal {
      */
     public boolean expireOverdueSubscriptions(long currentTime);
 
+    /**
+     * Returns the keys of all active subscriptions in ascending order, as
+     * required to split the check for overdue subscriptions into key ranges.
+     * 
+     * @return the keys of the active subscriptions
+     */
+    public List<Long> getActiveSubscriptionKeys();
+
+    /**
+     * Checks the active subscriptions with a key in the given range like
+     * {@link #expireOverdueSubscriptions(long)}.
+     * 
+     * @param currentTime
+     *            The time the timer expired.
+     * @param lowerKey
+     *            The lowest subscription key to be checked.
+     * @param upperKey
+     *            The highest subscription key to be checked.
+     * @return <code>true</code> in case the operation passed without problems,
+     *         <code>false</code> as soon as one handling step failed.
+     */
+    public boolean expireOverdueSubscriptions(long currentTime, long lowerKey,
+            long upperKey);
+
     /**
      * Expires the given subscription, no matter if it is currently in use or
      * not. This method will be executed within a new transaction, the used
@@ -24,7 +24,9 @@ import org.mockito.Spy;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.oscm.dataservice.bean.DataServiceBean;
 import org.oscm.dataservice.local.DataService;
+import org.oscm.domobjects.Organization;
 import org.oscm.domobjects.Parameter;
+import org.oscm.domobjects.PlatformUser;
 import org.oscm.domobjects.Subscription;
 import org.oscm.domobjects.Uda;
 import org.oscm.domobjects.UdaDefinition;
@@ -37,6 +39,8 @@ import org.oscm.test.ejb.TestContainer;
 @RunWith(MockitoJUnitRunner.class)
 public class SubscriptionSearchServiceBeanIT extends EJBTestBase {
 
+    private static final long ORGANIZATION_KEY = 1234L;
+
     @Spy
     private DataService ds = new DataServiceBean();
 
@@ -57,6 +61,11 @@ public class SubscriptionSearchServiceBeanIT extends EJBTestBase {
         container.addBean(sssb);
 
         doReturn(fullTextSession).when(ds).getSession();
+        Organization organization = new Organization();
+        organization.setKey(ORGANIZATION_KEY);
+        PlatformUser user = new PlatformUser();
+        user.setOrganization(organization);
+        doReturn(user).when(ds).getCurrentUser();
         doReturn(query).when(fullTextSession).createFullTextQuery(any(Query.class), any(Class.class));
     }
 
@@ -75,19 +84,16 @@ public class SubscriptionSearchServiceBeanIT extends EJBTestBase {
                 return null;
             }
         });
-        verify(query, times(5)).list();
+        verify(query, times(1)).list();
         ArgumentCaptor<Query> queryArgumentCaptor = forClass(Query.class);
-        verify(fullTextSession, times(1)).createFullTextQuery(queryArgumentCaptor.capture(), eq(Parameter.class));
-        verify(fullTextSession, times(2)).createFullTextQuery(queryArgumentCaptor.capture(), eq(Subscription.class));
-        verify(fullTextSession, times(1)).createFullTextQuery(queryArgumentCaptor.capture(), eq(Uda.class));
-        verify(fullTextSession, times(1)).createFullTextQuery(queryArgumentCaptor.capture(), eq(UdaDefinition.class));
+        verify(fullTextSession, times(1)).createFullTextQuery(queryArgumentCaptor.capture(), eq(Subscription.class));
+        verify(fullTextSession, never()).createFullTextQuery(any(Query.class), eq(Parameter.class));
+        verify(fullTextSession, never()).createFullTextQuery(any(Query.class), eq(Uda.class));
+        verify(fullTextSession, never()).createFullTextQuery(any(Query.class), eq(UdaDefinition.class));
 
         verifyQueryAttributes(queryArgumentCaptor,
-                "(dataContainer.subscriptionId:search)",
-                "(dataContainer.purchaseOrderNumber:search)",
-                "(dataContainer.udaValue:search)",
-                "(dataContainer.defaultValue:search)",
-                "(dataContainer.value:search)");
+                "+organizationKey:" + ORGANIZATION_KEY,
+                "+searchText:search");
 
     }
 
@@ -106,25 +112,14 @@ public class SubscriptionSearchServiceBeanIT extends EJBTestBase {
                 return null;
             }
         });
-        verify(query, times(10)).list();
+        verify(query, times(1)).list();
         ArgumentCaptor<Query> queryArgumentCaptor = forClass(Query.class);
-        verify(fullTextSession, times(2)).createFullTextQuery(queryArgumentCaptor.capture(), eq(Parameter.class));
-        verify(fullTextSession, times(4)).createFullTextQuery(queryArgumentCaptor.capture(), eq(Subscription.class));
-        verify(fullTextSession, times(2)).createFullTextQuery(queryArgumentCaptor.capture(), eq(Uda.class));
-        verify(fullTextSession, times(2)).createFullTextQuery(queryArgumentCaptor.capture(), eq(UdaDefinition.class));
-
-        verifyQueryAttributes(queryArgumentCaptor,
-                "(dataContainer.subscriptionId:search)",
-                "(dataContainer.purchaseOrderNumber:search)",
-                "(dataContainer.udaValue:search)",
-                "(dataContainer.defaultValue:search)",
-                "(dataContainer.value:search)");
+        verify(fullTextSession, times(1)).createFullTextQuery(queryArgumentCaptor.capture(), eq(Subscription.class));
 
         verifyQueryAttributes(queryArgumentCaptor,
-                "(dataContainer.subscriptionId:multiple)",
-                "(dataContainer.purchaseOrderNumber:multiple)",
-                "(dataContainer.udaValue:multiple)",
-                "(dataContainer.value:multiple)");
+                "+organizationKey:" + ORGANIZATION_KEY,
+                "+searchText:search",
+                "+searchText:multiple");
     }
 
     private void verifyQueryAttributes(ArgumentCaptor<Query> queryArgumentCaptor, String... expectedValues) {
@@ -165,34 +160,15 @@ public class SubscriptionSearchServiceBeanIT extends EJBTestBase {
                 return null;
             }
         });
-        int queryParts = 3;
-        verify(query, times(queryParts * 5)).list();
+        verify(query, times(1)).list();
         ArgumentCaptor<Query> queryArgumentCaptor = forClass(Query.class);
-        verify(fullTextSession, times(queryParts *1)).createFullTextQuery(queryArgumentCaptor.capture(), eq(Parameter.class));
-        verify(fullTextSession, times(queryParts *2)).createFullTextQuery(queryArgumentCaptor.capture(), eq(Subscription.class));
-        verify(fullTextSession, times(queryParts *1)).createFullTextQuery(queryArgumentCaptor.capture(), eq(Uda.class));
-        verify(fullTextSession, times(queryParts *1)).createFullTextQuery(queryArgumentCaptor.capture(), eq(UdaDefinition.class));
-
-        verifyQueryAttributes(queryArgumentCaptor,
-                "(dataContainer.subscriptionId:search)",
-                "(dataContainer.purchaseOrderNumber:search)",
-                "(dataContainer.udaValue:search)",
-                "(dataContainer.defaultValue:search)",
-                "(dataContainer.value:search)");
-
-        verifyQueryAttributes(queryArgumentCaptor,
-                "(dataContainer.subscriptionId:multiple)",
-                "(dataContainer.purchaseOrderNumber:multiple)",
-                "(dataContainer.udaValue:multiple)",
-                "(dataContainer.defaultValue:search)",
-                "(dataContainer.value:multiple)");
+        verify(fullTextSession, times(1)).createFullTextQuery(queryArgumentCaptor.capture(), eq(Subscription.class));
 
         verifyQueryAttributes(queryArgumentCaptor,
-                "(dataContainer.subscriptionId:words)",
-                "(dataContainer.purchaseOrderNumber:words)",
-                "(dataContainer.udaValue:words)",
-                "(dataContainer.defaultValue:search)",
-                "(dataContainer.value:words)");
+                "+organizationKey:" + ORGANIZATION_KEY,
+                "+searchText:search",
+                "+searchText:multiple",
+                "+searchText:words");
     }
 
 //    @Test
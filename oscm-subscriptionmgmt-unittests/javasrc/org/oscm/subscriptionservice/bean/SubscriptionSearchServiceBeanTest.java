@@ -0,0 +1,165 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.subscriptionservice.bean;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.lucene.analysis.WhitespaceAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.Field.Index;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.junit.Ignore;
+import org.junit.Test;
+
+public class SubscriptionSearchServiceBeanTest {
+
+    @Test
+    public void getTerms() {
+        // when
+        List<String> terms = SubscriptionSearchServiceBean
+                .getTerms("  Search \"Multiple\"   words search ");
+
+        // then
+        assertEquals(Arrays.asList("search", "multiple", "words"), terms);
+    }
+
+    @Test
+    public void getLuceneQuery() {
+        // when
+        Query query = SubscriptionSearchServiceBean.getLuceneQuery(10L,
+                Arrays.asList("search", "words"));
+
+        // then
+        assertEquals("+organizationKey:10 +searchText:search +searchText:words",
+                query.toString());
+    }
+
+    @Test
+    public void getLuceneQuery_index() throws Exception {
+        // given
+        Directory directory = new RAMDirectory();
+        IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(
+                Version.LUCENE_36, new WhitespaceAnalyzer(Version.LUCENE_36)));
+        writer.addDocument(givenDocument(1L, 10L, "sub1 po-1 value1 uda1"));
+        writer.addDocument(givenDocument(2L, 10L, "sub2 po-2 value1 uda2"));
+        writer.addDocument(givenDocument(3L, 20L, "sub3 po-3 value1 uda1"));
+        writer.close();
+
+        // when
+        Set<Long> keys = search(directory, SubscriptionSearchServiceBean
+                .getLuceneQuery(10L, Arrays.asList("value1", "uda1")));
+
+        // then
+        assertEquals(new HashSet<Long>(Arrays.asList(Long.valueOf(1L))), keys);
+        directory.close();
+    }
+
+    /**
+     * Benchmark for searching two terms in an index with 1,000,000
+     * subscriptions of 1,000 organizations, not run by default. Compares the
+     * single organization-scoped query with one query per term whose results
+     * are intersected.
+     */
+    @Ignore
+    @Test
+    public void getLuceneQuery_1000000() throws Exception {
+        // given
+        final int count = 1000000;
+        final int organizations = 1000;
+        final int runs = 100;
+        Random random = new Random(4711);
+        Directory directory = new RAMDirectory();
+        IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(
+                Version.LUCENE_36, new WhitespaceAnalyzer(Version.LUCENE_36)));
+        for (int i = 0; i < count; i++) {
+            writer.addDocument(givenDocument(i, i % organizations, "sub" + i
+                    + " po-" + random.nextInt(10000) + " value"
+                    + random.nextInt(100) + " uda" + random.nextInt(100)));
+        }
+        writer.close();
+        List<String> terms = Arrays.asList("value1", "uda1");
+
+        // when
+        long start = System.currentTimeMillis();
+        int singleHits = 0;
+        for (int i = 0; i < runs; i++) {
+            singleHits = search(
+                    directory,
+                    SubscriptionSearchServiceBean.getLuceneQuery(i
+                            % organizations, terms)).size();
+        }
+        long singleTime = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        int intersectedHits = 0;
+        for (int i = 0; i < runs; i++) {
+            Set<Long> keys = null;
+            for (String term : terms) {
+                Set<Long> termKeys = search(directory, new TermQuery(new Term(
+                        SubscriptionSearchServiceBean.SEARCH_TEXT, term)));
+                if (keys == null) {
+                    keys = termKeys;
+                } else {
+                    keys.retainAll(termKeys);
+                }
+            }
+            intersectedHits = keys.size();
+        }
+        long intersectedTime = System.currentTimeMillis() - start;
+
+        // then
+        System.out.println("Searched " + count + " subscriptions " + runs
+                + " times: single query " + singleTime + " ms (" + singleHits
+                + " hits), intersected queries " + intersectedTime + " ms ("
+                + intersectedHits + " hits)");
+        directory.close();
+    }
+
+    private static Document givenDocument(long key, long organizationKey,
+            String searchText) {
+        Document document = new Document();
+        document.add(new Field(SubscriptionSearchServiceBean.KEY, String
+                .valueOf(key), Store.YES, Index.NOT_ANALYZED));
+        document.add(new Field(SubscriptionSearchServiceBean.ORGANIZATION_KEY,
+                String.valueOf(organizationKey), Store.NO, Index.NOT_ANALYZED));
+        document.add(new Field(SubscriptionSearchServiceBean.SEARCH_TEXT,
+                searchText, Store.NO, Index.ANALYZED));
+        return document;
+    }
+
+    private static Set<Long> search(Directory directory, Query query)
+            throws Exception {
+        IndexReader reader = IndexReader.open(directory);
+        IndexSearcher searcher = new IndexSearcher(reader);
+        try {
+            Set<Long> keys = new HashSet<Long>();
+            for (ScoreDoc doc : searcher.search(query, Integer.MAX_VALUE).scoreDocs) {
+                keys.add(Long.valueOf(searcher.doc(doc.doc).get(
+                        SubscriptionSearchServiceBean.KEY)));
+            }
+            return keys;
+        } finally {
+            searcher.close();
+            reader.close();
+        }
+    }
+}
@@ -4057,6 +4057,20 @@ public class SubscriptionServiceBean implements SubscriptionService,
         return terminateBean.expireOverdueSubscriptions(currentTime);
     }
 
+    @Override
+    @TransactionAttribute(TransactionAttributeType.MANDATORY)
+    public List<Long> getActiveSubscriptionKeys() {
+        return getSubscriptionDao().getActiveSubscriptionKeys();
+    }
+
+    @Override
+    @TransactionAttribute(TransactionAttributeType.MANDATORY)
+    public boolean expireOverdueSubscriptions(long currentTime, long lowerKey,
+            long upperKey) {
+        return terminateBean.expireOverdueSubscriptions(currentTime, lowerKey,
+                upperKey);
+    }
+
     @Override
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
     public boolean expireSubscription(Subscription subscriptionToExpire) {
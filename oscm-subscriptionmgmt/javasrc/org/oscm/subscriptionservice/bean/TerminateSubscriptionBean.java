@@ -73,8 +73,18 @@ public class TerminateSubscriptionBean extends SubscriptionUtilBean {
     protected SubscriptionAuditLogCollector audit;
 
     public boolean expireOverdueSubscriptions(long currentTime) {
-        List<Subscription> activeSubs = getSubscriptionDao()
-                .getActiveSubscriptions();
+        return expireOverdueSubscriptions(currentTime, getSubscriptionDao()
+                .getActiveSubscriptions());
+    }
+
+    public boolean expireOverdueSubscriptions(long currentTime,
+            long lowerKey, long upperKey) {
+        return expireOverdueSubscriptions(currentTime, getSubscriptionDao()
+                .getActiveSubscriptions(lowerKey, upperKey));
+    }
+
+    private boolean expireOverdueSubscriptions(long currentTime,
+            List<Subscription> activeSubs) {
         boolean handledSuccessfully = true;
 
         for (Subscription sub : activeSubs) {
@@ -113,6 +113,24 @@ public class SubscriptionDao {
                 Subscription.class);
     }
 
+    public List<Long> getActiveSubscriptionKeys() {
+        Query query = dataManager
+                .createNamedQuery("Subscription.getKeysByStatus");
+        query.setParameter("status", SubscriptionStatus.ACTIVE);
+        return ParameterizedTypes.list(query.getResultList(), Long.class);
+    }
+
+    public List<Subscription> getActiveSubscriptions(long lowerKey,
+            long upperKey) {
+        Query query = dataManager
+                .createNamedQuery("Subscription.getByStatusAndKeyRange");
+        query.setParameter("status", SubscriptionStatus.ACTIVE);
+        query.setParameter("lowerKey", Long.valueOf(lowerKey));
+        query.setParameter("upperKey", Long.valueOf(upperKey));
+        return ParameterizedTypes.list(query.getResultList(),
+                Subscription.class);
+    }
+
     public List<Object[]> getSubscriptionsWithRoles(Organization owner,
             Set<SubscriptionStatus> states) {
         Query q = dataManager
@@ -12,6 +12,7 @@
 
 package org.oscm.taskhandling.bean;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
@@ -132,4 +133,28 @@ public class TaskListenerTest {
 
     }
 
+    @Test
+    public void onMessage_statistics() throws Exception {
+        // given
+        TaskStatistics.reset();
+        PayloadStub failingPayload = new PayloadStub();
+        failingPayload.setExecuteCauseException(true);
+        ObjectMessage message = mock(ObjectMessage.class);
+        when(message.getObject()).thenReturn(
+                new TaskMessage(HandlerStub.class, new PayloadStub()));
+        ObjectMessage failingMessage = mock(ObjectMessage.class);
+        when(failingMessage.getObject()).thenReturn(
+                new TaskMessage(HandlerStub.class, failingPayload));
+
+        // when
+        listener.onMessage(message);
+        listener.onMessage(failingMessage);
+
+        // then
+        TaskStatistics statistics = TaskStatistics.getAll().get(
+                "HandlerStub");
+        assertEquals(2, statistics.getProcessed());
+        assertEquals(1, statistics.getFailed());
+    }
+
 }
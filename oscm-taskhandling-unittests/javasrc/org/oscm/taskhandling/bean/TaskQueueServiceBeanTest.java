@@ -22,12 +22,14 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.List;
 
@@ -51,6 +53,7 @@ import org.oscm.logging.Log4jLogger;
 import org.oscm.logging.LoggerFactory;
 import org.oscm.taskhandling.local.TaskMessage;
 import org.oscm.taskhandling.operations.HandlerStub;
+import org.oscm.taskhandling.operations.ImportUserHandler;
 import org.oscm.taskhandling.operations.SendMailHandler;
 import org.oscm.taskhandling.operations.UpdateUserHandler;
 import org.oscm.taskhandling.payloads.PayloadStub;
@@ -66,6 +69,7 @@ public class TaskQueueServiceBeanTest {
 
     Connection connectionMock;
     Session sessionMock;
+    MessageProducer producerMock;
 
     ObjectMessage objectMessageMock;
     private Object storedObjectMessage;
@@ -78,7 +82,7 @@ public class TaskQueueServiceBeanTest {
         Queue queueMock = mock(Queue.class);
         sessionMock = mock(Session.class);
 
-        MessageProducer producerMock = mock(MessageProducer.class);
+        producerMock = mock(MessageProducer.class);
         doAnswer(new Answer<Void>() {
             @Override
             public Void answer(InvocationOnMock invocation) {
@@ -255,4 +259,68 @@ public class TaskQueueServiceBeanTest {
         }
     }
 
+    @Test
+    public void sendAllMessages_lanes() throws Exception {
+        // given
+        Queue bulkQueueMock = mock(Queue.class);
+        MessageProducer bulkProducerMock = mock(MessageProducer.class);
+        when(sessionMock.createProducer(bulkQueueMock)).thenReturn(
+                bulkProducerMock);
+        tqs.bulkQueue = bulkQueueMock;
+        List<TaskMessage> messages = new ArrayList<TaskMessage>(
+                Arrays.asList(new TaskMessage(SendMailHandler.class,
+                        mock(SendMailPayload.class)), new TaskMessage(
+                        UpdateUserHandler.class, mock(UpdateUserPayload.class))));
+
+        // when
+        tqs.sendAllMessages(messages);
+
+        // then
+        assertEquals(1, storedObjects.size());
+        verify(producerMock).setPriority(TaskLane.URGENT.getPriority());
+        verify(bulkProducerMock).send(objectMessageMock);
+        verify(objectMessageMock).setStringProperty(
+                TaskQueueServiceBean.HANDLER_PROPERTY, "SendMailHandler");
+        verify(objectMessageMock).setStringProperty(
+                TaskQueueServiceBean.HANDLER_PROPERTY, "UpdateUserHandler");
+    }
+
+    @Test
+    public void sendAllMessages_noBulkQueue() throws Exception {
+        // given
+        List<TaskMessage> messages = new ArrayList<TaskMessage>();
+        messages.add(new TaskMessage(UpdateUserHandler.class,
+                mock(UpdateUserPayload.class)));
+
+        // when
+        tqs.sendAllMessages(messages);
+
+        // then
+        assertEquals(1, storedObjects.size());
+        verify(producerMock, never()).setPriority(
+                TaskLane.URGENT.getPriority());
+    }
+
+    @Test
+    public void sendAllMessages_statistics() throws Exception {
+        // given
+        TaskStatistics.reset();
+        List<TaskMessage> messages = new ArrayList<TaskMessage>();
+        messages.add(new TaskMessage(HandlerStub.class, new PayloadStub()));
+        messages.add(new TaskMessage(HandlerStub.class, new PayloadStub()));
+
+        // when
+        tqs.sendAllMessages(messages);
+
+        // then
+        assertEquals(2, TaskStatistics.getAll().get("HandlerStub").getSent());
+    }
+
+    @Test
+    public void taskLane() {
+        assertEquals(TaskLane.URGENT, TaskLane.of(SendMailHandler.class));
+        assertEquals(TaskLane.BULK, TaskLane.of(ImportUserHandler.class));
+        assertEquals(TaskLane.BULK, TaskLane.of(UpdateUserHandler.class));
+        assertEquals(TaskLane.DEFAULT, TaskLane.of(HandlerStub.class));
+    }
 }
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.taskhandling.bean;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.Message;
+import javax.jms.Queue;
+import javax.jms.QueueBrowser;
+import javax.jms.Session;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class TaskQueueStatisticsTest {
+
+    private TaskQueueStatistics statistics;
+    private ConnectionFactory qFactory;
+    private long now;
+
+    @Before
+    public void setup() throws Exception {
+        TaskStatistics.reset();
+        final Message message = mock(Message.class);
+        when(message.getStringProperty(TaskQueueServiceBean.HANDLER_PROPERTY))
+                .thenReturn("SendMailHandler");
+        final QueueBrowser browser = mock(QueueBrowser.class);
+        when(browser.getEnumeration()).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return Collections.enumeration(Arrays.asList(message, message));
+            }
+        });
+        Session session = mock(Session.class);
+        when(session.createBrowser(any(Queue.class))).thenReturn(browser);
+        Connection connection = mock(Connection.class);
+        when(connection.createSession(anyBoolean(), anyInt())).thenReturn(
+                session);
+        qFactory = mock(ConnectionFactory.class);
+        when(qFactory.createConnection()).thenReturn(connection);
+        statistics = new TaskQueueStatistics(qFactory, mock(Queue.class)) {
+            @Override
+            long currentTimeMillis() {
+                return now;
+            }
+        };
+    }
+
+    @Test
+    public void getAttribute_queued() throws Exception {
+        // when
+        Object queued = statistics.getAttribute("SendMailHandler.Queued");
+
+        // then
+        assertEquals(Long.valueOf(2), queued);
+    }
+
+    @Test
+    public void getAttribute_queuedUnknownHandler() throws Exception {
+        // when
+        Object queued = statistics.getAttribute("ImportUserHandler.Queued");
+
+        // then
+        assertEquals(Long.valueOf(0), queued);
+    }
+
+    @Test
+    public void getAttribute_queuedCached() throws Exception {
+        // given
+        statistics.getMBeanInfo();
+        now += TaskQueueStatistics.QUEUED_MESSAGES_TTL - 1;
+
+        // when
+        statistics.getAttributes(new String[] { "SendMailHandler.Queued",
+                "UpdateUserHandler.Queued" });
+
+        // then
+        verify(qFactory, times(1)).createConnection();
+    }
+
+    @Test
+    public void getAttribute_queuedExpired() throws Exception {
+        // given
+        statistics.getAttribute("SendMailHandler.Queued");
+        now += TaskQueueStatistics.QUEUED_MESSAGES_TTL;
+
+        // when
+        statistics.getAttribute("SendMailHandler.Queued");
+
+        // then
+        verify(qFactory, times(2)).createConnection();
+    }
+}
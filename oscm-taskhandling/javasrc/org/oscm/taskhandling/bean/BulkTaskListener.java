@@ -0,0 +1,26 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.taskhandling.bean;
+
+import javax.ejb.ActivationConfigProperty;
+import javax.ejb.MessageDriven;
+import javax.interceptor.Interceptors;
+
+import org.oscm.interceptor.InvocationDateContainer;
+
+/**
+ * Message driven bean to handle the task messages of the bulk lane. At most
+ * two of them are processed at the same time, so bulk tasks leave the
+ * listeners of the task queue to the other tasks.
+ *
+ * @see TaskLane#BULK
+ */
+@MessageDriven(activationConfig = {
+        @ActivationConfigProperty(propertyName = "UserName", propertyValue = "jmsuser"),
+        @ActivationConfigProperty(propertyName = "Password", propertyValue = "jmsuser"),
+        @ActivationConfigProperty(propertyName = "endpointPoolMaxSize", propertyValue = "2") }, name = "bulkJmsQueue", mappedName = "jms/bss/bulkTaskQueue")
+@Interceptors({ InvocationDateContainer.class })
+public class BulkTaskListener extends TaskListener {
+}
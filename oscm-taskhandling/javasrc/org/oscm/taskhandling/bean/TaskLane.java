@@ -0,0 +1,69 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.taskhandling.bean;
+
+import javax.jms.Message;
+
+import org.oscm.taskhandling.operations.ImportUserHandler;
+import org.oscm.taskhandling.operations.SendMailHandler;
+import org.oscm.taskhandling.operations.TaskHandler;
+import org.oscm.taskhandling.operations.UpdateUserHandler;
+
+/**
+ * The lanes task messages are sent through, depending on their handler. Bulk
+ * tasks have their own queue and listener with a limited number of concurrent
+ * executions, so they cannot occupy all listener instances of the task queue.
+ * Urgent tasks are sent with a higher priority and therefore overtake the other
+ * tasks waiting in the task queue.
+ */
+public enum TaskLane {
+
+    /**
+     * Mails such as password reset notifications.
+     */
+    URGENT(false, 7),
+
+    DEFAULT(false, Message.DEFAULT_PRIORITY),
+
+    /**
+     * User imports and the notification of subscriptions about updated users,
+     * both of which send many messages at once.
+     */
+    BULK(true, Message.DEFAULT_PRIORITY);
+
+    private final boolean bulkQueue;
+    private final int priority;
+
+    private TaskLane(boolean bulkQueue, int priority) {
+        this.bulkQueue = bulkQueue;
+        this.priority = priority;
+    }
+
+    /**
+     * Returns <code>true</code> if the messages of this lane are sent to the
+     * bulk task queue instead of the task queue.
+     */
+    public boolean isBulkQueue() {
+        return bulkQueue;
+    }
+
+    /**
+     * Returns the JMS priority the messages of this lane are sent with.
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    public static TaskLane of(Class<? extends TaskHandler> handlerClass) {
+        if (SendMailHandler.class.equals(handlerClass)) {
+            return URGENT;
+        }
+        if (ImportUserHandler.class.equals(handlerClass)
+                || UpdateUserHandler.class.equals(handlerClass)) {
+            return BULK;
+        }
+        return DEFAULT;
+    }
+}
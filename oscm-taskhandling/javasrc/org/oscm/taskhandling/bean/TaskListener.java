@@ -18,6 +18,7 @@ import javax.ejb.ActivationConfigProperty;
 import javax.ejb.EJB;
 import javax.ejb.MessageDriven;
 import javax.interceptor.Interceptors;
+import javax.jms.JMSException;
 import javax.jms.Message;
 import javax.jms.ObjectMessage;
 
@@ -103,6 +104,9 @@ public class TaskListener {
                 Log4jLogger.SYSTEM_LOG);
         ObjectMessage om = null;
         TaskHandler handler = null;
+        String handlerName = null;
+        boolean success = false;
+        long startTime = System.currentTimeMillis();
         try {
             // obtain the task message object
             om = (ObjectMessage) message;
@@ -119,12 +123,17 @@ public class TaskListener {
                 messageObject = new TaskMessage(ExternalPriceModelHandler.class, payload); 
             }
 
+            TaskMessage taskMessage = (TaskMessage) messageObject;
+            if (taskMessage.getHandlerClass() != null) {
+                handlerName = taskMessage.getHandlerClass().getSimpleName();
+            }
             handler = TaskHandlerFactory.getInstance().getTaskHandler(
                     (TaskMessage) messageObject, createServiceFacade());
             ds.setCurrentUserKey(Long.valueOf(((TaskMessage) messageObject)
                     .getCurrentUserKey()));
 
             handler.execute();
+            success = true;
 
         } catch (IllegalArgumentException iae) {
             logIllegalArgumentExceptionError(iae);
@@ -161,7 +170,25 @@ public class TaskListener {
             }
         } finally {
             ds.setCurrentUserKey(null);
+            if (handlerName != null) {
+                recordStatistics(message, handlerName, startTime, success);
+            }
+        }
+    }
+
+    private void recordStatistics(Message message, String handlerName,
+            long startTime, boolean success) {
+        long endTime = System.currentTimeMillis();
+        long waitTime = 0;
+        try {
+            if (message.getJMSTimestamp() > 0) {
+                waitTime = Math.max(0, startTime - message.getJMSTimestamp());
+            }
+        } catch (JMSException e) {
+            // the wait time is not counted then
         }
+        TaskStatistics.get(handlerName).processed(waitTime,
+                endTime - startTime, success);
     }
 
     void logTaskMessageInstanceError(Message message) {
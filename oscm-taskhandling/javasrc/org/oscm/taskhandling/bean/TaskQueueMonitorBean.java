@@ -0,0 +1,74 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.taskhandling.bean;
+
+import java.lang.management.ManagementFactory;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.jms.ConnectionFactory;
+import javax.jms.Queue;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.oscm.logging.Log4jLogger;
+import org.oscm.logging.LoggerFactory;
+import org.oscm.types.enumtypes.LogMessageIdentifier;
+
+/**
+ * Registers the {@link TaskQueueStatistics} with the platform MBean server
+ * while the task handling is deployed.
+ */
+@Singleton
+@Startup
+public class TaskQueueMonitorBean {
+
+    private static final Log4jLogger logger = LoggerFactory
+            .getLogger(TaskQueueMonitorBean.class);
+
+    static final String OBJECT_NAME = "org.oscm:type=TaskQueue";
+
+    @Resource(name = "connFactory", mappedName = "jms/bss/taskQueueFactory")
+    protected ConnectionFactory qFactory;
+
+    @Resource(name = "jmsQueue", mappedName = "jms/bss/taskQueue")
+    protected Queue queue;
+
+    @Resource(name = "bulkJmsQueue", mappedName = "jms/bss/bulkTaskQueue")
+    protected Queue bulkQueue;
+
+    @PostConstruct
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(new TaskQueueStatistics(qFactory, queue,
+                    bulkQueue), name);
+        } catch (Exception e) {
+            logger.logWarn(Log4jLogger.SYSTEM_LOG, e,
+                    LogMessageIdentifier.WARN_TASK_QUEUE_STATISTICS_NOT_REGISTERED);
+        }
+    }
+
+    @PreDestroy
+    public void unregister() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (Exception e) {
+            logger.logWarn(Log4jLogger.SYSTEM_LOG, e,
+                    LogMessageIdentifier.WARN_TASK_QUEUE_STATISTICS_NOT_REGISTERED);
+        }
+    }
+}
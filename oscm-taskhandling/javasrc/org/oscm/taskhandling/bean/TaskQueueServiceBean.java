@@ -12,7 +12,9 @@
 
 package org.oscm.taskhandling.bean;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Resource;
 import javax.ejb.Asynchronous;
@@ -51,12 +53,21 @@ public class TaskQueueServiceBean implements TaskQueueServiceLocal {
     protected static Log4jLogger logger = LoggerFactory
             .getLogger(TaskQueueServiceBean.class);
 
+    /**
+     * The string property holding the simple name of the handler class of a
+     * task message, used to count the queued messages per handler.
+     */
+    public static final String HANDLER_PROPERTY = "handler";
+
     @Resource(name = "connFactory", mappedName = "jms/bss/taskQueueFactory")
     protected ConnectionFactory qFactory;
 
     @Resource(name = "jmsQueue", mappedName = "jms/bss/taskQueue")
     protected Queue queue;
 
+    @Resource(name = "bulkJmsQueue", mappedName = "jms/bss/bulkTaskQueue")
+    protected Queue bulkQueue;
+
     @EJB(beanInterface = DataService.class)
     DataService dm;
 
@@ -142,15 +153,26 @@ public class TaskQueueServiceBean implements TaskQueueServiceLocal {
             if (messages.size() > 0) {
                 conn = qFactory.createConnection();
                 session = conn.createSession(false, Session.AUTO_ACKNOWLEDGE);
-                MessageProducer producer = session.createProducer(queue);
+                Map<TaskLane, MessageProducer> producers = new EnumMap<TaskLane, MessageProducer>(
+                        TaskLane.class);
                 for (TaskMessage objectToSend : messages) {
                     PlatformUser user = dm.getCurrentUserIfPresent();
                     if (user != null) {
                         objectToSend.setCurrentUserKey(user.getKey());
                     }
+                    TaskLane lane = TaskLane.of(objectToSend.getHandlerClass());
+                    MessageProducer producer = producers.get(lane);
+                    if (producer == null) {
+                        producer = createProducer(session, lane);
+                        producers.put(lane, producer);
+                    }
+                    String handler = objectToSend.getHandlerClass()
+                            .getSimpleName();
                     ObjectMessage msg = session.createObjectMessage();
+                    msg.setStringProperty(HANDLER_PROPERTY, handler);
                     msg.setObject(objectToSend);
                     producer.send(msg);
+                    TaskStatistics.get(handler).sent();
                     sentMsgCount++;
                 }
 
@@ -174,6 +196,20 @@ public class TaskQueueServiceBean implements TaskQueueServiceLocal {
         }
     }
 
+    /**
+     * Creates a producer sending to the queue of the given lane with the
+     * priority of the lane. Bulk tasks are sent to the task queue if no bulk
+     * task queue is available.
+     */
+    private MessageProducer createProducer(Session session, TaskLane lane)
+            throws JMSException {
+        Queue target = lane.isBulkQueue() && bulkQueue != null ? bulkQueue
+                : queue;
+        MessageProducer producer = session.createProducer(target);
+        producer.setPriority(lane.getPriority());
+        return producer;
+    }
+
     void closeSession(Session session) {
         if (session != null) {
             try {
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.taskhandling.bean;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.jms.Connection;
+import javax.jms.ConnectionFactory;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Queue;
+import javax.jms.QueueBrowser;
+import javax.jms.Session;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InvalidAttributeValueException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.ReflectionException;
+
+/**
+ * Shows the task messages per handler. The number of queued messages is
+ * counted in the task queues, so it covers all nodes. As this requires
+ * browsing the whole queues, the counts are kept for
+ * {@link #QUEUED_MESSAGES_TTL} milliseconds and shared by all attributes. The
+ * other values are collected on this node, see {@link TaskStatistics}. The
+ * attributes are named after the handler and the value, e.g.
+ * <code>SendMailHandler.Queued</code>.
+ */
+public class TaskQueueStatistics implements DynamicMBean {
+
+    static final String QUEUED = "Queued";
+    static final String SENT = "Sent";
+    static final String PROCESSED = "Processed";
+    static final String FAILED = "Failed";
+    static final String AVERAGE_WAIT = "AverageWaitMillis";
+    static final String AVERAGE_PROCESSING = "AverageProcessingMillis";
+    static final String MAX_PROCESSING = "MaxProcessingMillis";
+
+    private static final String[] VALUES = { QUEUED, SENT, PROCESSED, FAILED,
+            AVERAGE_WAIT, AVERAGE_PROCESSING, MAX_PROCESSING };
+
+    /**
+     * The time in milliseconds for which the counted queued messages are
+     * shown before the queues are browsed again.
+     */
+    static final long QUEUED_MESSAGES_TTL = 10000L;
+
+    private final ConnectionFactory qFactory;
+    private final Queue[] queues;
+
+    private Map<String, Integer> queuedMessages;
+    private long queuedMessagesTime;
+
+    public TaskQueueStatistics(ConnectionFactory qFactory, Queue... queues) {
+        this.qFactory = qFactory;
+        this.queues = queues;
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        Set<String> handlers = new TreeSet<String>(TaskStatistics.getAll()
+                .keySet());
+        handlers.addAll(getQueuedMessages().keySet());
+        List<MBeanAttributeInfo> attributes = new ArrayList<MBeanAttributeInfo>();
+        for (String handler : handlers) {
+            for (String value : VALUES) {
+                attributes.add(new MBeanAttributeInfo(handler + "." + value,
+                        "java.lang.Long", value + " of the " + handler, true,
+                        false, false));
+            }
+        }
+        return new MBeanInfo(this.getClass().getName(),
+                "Task Queue Statistics MBean",
+                attributes.toArray(new MBeanAttributeInfo[attributes.size()]),
+                null, null, null);
+    }
+
+    @Override
+    public Object getAttribute(String attribute)
+            throws AttributeNotFoundException, MBeanException {
+        int index = attribute.lastIndexOf('.');
+        if (index < 0) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        String handler = attribute.substring(0, index);
+        String value = attribute.substring(index + 1);
+        if (QUEUED.equals(value)) {
+            Integer queued = getQueuedMessages().get(handler);
+            return Long.valueOf(queued == null ? 0 : queued.longValue());
+        }
+        TaskStatistics statistics = TaskStatistics.getAll().get(handler);
+        if (statistics == null) {
+            statistics = new TaskStatistics();
+        }
+        if (SENT.equals(value)) {
+            return Long.valueOf(statistics.getSent());
+        }
+        if (PROCESSED.equals(value)) {
+            return Long.valueOf(statistics.getProcessed());
+        }
+        if (FAILED.equals(value)) {
+            return Long.valueOf(statistics.getFailed());
+        }
+        if (AVERAGE_WAIT.equals(value)) {
+            return Long.valueOf(statistics.getAverageWaitTime());
+        }
+        if (AVERAGE_PROCESSING.equals(value)) {
+            return Long.valueOf(statistics.getAverageProcessingTime());
+        }
+        if (MAX_PROCESSING.equals(value)) {
+            return Long.valueOf(statistics.getMaxProcessingTime());
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    /**
+     * Returns the queued messages per handler, counted again only if the last
+     * count is older than {@link #QUEUED_MESSAGES_TTL}.
+     */
+    synchronized Map<String, Integer> getQueuedMessages() {
+        long now = currentTimeMillis();
+        if (queuedMessages == null
+                || now - queuedMessagesTime >= QUEUED_MESSAGES_TTL) {
+            queuedMessages = countQueuedMessages();
+            queuedMessagesTime = now;
+        }
+        return queuedMessages;
+    }
+
+    long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Browses the task queues and counts the messages per handler. Messages
+     * without handler property, e.g. sent by external billing adapters, are
+     * not counted.
+     */
+    Map<String, Integer> countQueuedMessages() {
+        Map<String, Integer> result = new HashMap<String, Integer>();
+        Connection conn = null;
+        try {
+            conn = qFactory.createConnection();
+            Session session = conn.createSession(false,
+                    Session.AUTO_ACKNOWLEDGE);
+            conn.start();
+            for (Queue queue : queues) {
+                if (queue == null) {
+                    continue;
+                }
+                QueueBrowser browser = session.createBrowser(queue);
+                try {
+                    Enumeration<?> messages = browser.getEnumeration();
+                    while (messages.hasMoreElements()) {
+                        String handler = ((Message) messages.nextElement())
+                                .getStringProperty(TaskQueueServiceBean.HANDLER_PROPERTY);
+                        if (handler != null) {
+                            Integer count = result.get(handler);
+                            result.put(handler, Integer
+                                    .valueOf(count == null ? 1 : count
+                                            .intValue() + 1));
+                        }
+                    }
+                } finally {
+                    browser.close();
+                }
+            }
+        } catch (JMSException e) {
+            // the queued messages are shown as 0 then
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (JMSException e) {
+                    // ignore
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        AttributeList result = new AttributeList();
+        for (String name : names) {
+            try {
+                result.add(new Attribute(name, getAttribute(name)));
+            } catch (Exception e) {
+                // unknown attributes are not returned
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature)
+            throws MBeanException, ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute)
+            throws AttributeNotFoundException, InvalidAttributeValueException,
+            MBeanException {
+        throw new AttributeNotFoundException(attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList list) {
+        return new AttributeList();
+    }
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.taskhandling.bean;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of the task messages of one handler, collected on this node since
+ * it was started. The statistics are identified by the simple name of the
+ * handler class.
+ */
+public class TaskStatistics {
+
+    private static final ConcurrentMap<String, TaskStatistics> statistics = new ConcurrentHashMap<String, TaskStatistics>();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalWaitTime = new AtomicLong();
+    private final AtomicLong totalProcessingTime = new AtomicLong();
+    private final AtomicLong maxProcessingTime = new AtomicLong();
+
+    static TaskStatistics get(String handler) {
+        TaskStatistics entry = statistics.get(handler);
+        if (entry == null) {
+            entry = new TaskStatistics();
+            TaskStatistics existing = statistics.putIfAbsent(handler, entry);
+            if (existing != null) {
+                entry = existing;
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the statistics of all handlers, sorted by handler name.
+     */
+    public static Map<String, TaskStatistics> getAll() {
+        return Collections.unmodifiableMap(new TreeMap<String, TaskStatistics>(
+                statistics));
+    }
+
+    static void reset() {
+        statistics.clear();
+    }
+
+    void sent() {
+        sent.incrementAndGet();
+    }
+
+    /**
+     * Counts a processed message.
+     *
+     * @param waitTime
+     *            the time the message was queued in milliseconds
+     * @param processingTime
+     *            the time the handler took in milliseconds
+     * @param success
+     *            <code>false</code> if the handler failed
+     */
+    void processed(long waitTime, long processingTime, boolean success) {
+        processed.incrementAndGet();
+        if (!success) {
+            failed.incrementAndGet();
+        }
+        totalWaitTime.addAndGet(waitTime);
+        totalProcessingTime.addAndGet(processingTime);
+        long max = maxProcessingTime.get();
+        while (processingTime > max
+                && !maxProcessingTime.compareAndSet(max, processingTime)) {
+            max = maxProcessingTime.get();
+        }
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getAverageWaitTime() {
+        long count = processed.get();
+        return count == 0 ? 0 : totalWaitTime.get() / count;
+    }
+
+    public long getAverageProcessingTime() {
+        long count = processed.get();
+        return count == 0 ? 0 : totalProcessingTime.get() / count;
+    }
+
+    public long getMaxProcessingTime() {
+        return maxProcessingTime.get();
+    }
+}
@@ -30,6 +30,7 @@ import org.oscm.configurationservice.local.ConfigurationServiceLocal;
 import org.oscm.dataservice.bean.DataServiceBean;
 import org.oscm.dataservice.local.DataService;
 import org.oscm.domobjects.TimerProcessing;
+import org.oscm.reviewservice.bean.ReviewServiceLocalBean;
 import org.oscm.subscriptionservice.local.SubscriptionServiceLocal;
 import org.oscm.test.DateTimeHandling;
 import org.oscm.test.EJBTestBase;
@@ -64,6 +65,8 @@ public class TimerServiceBeanIT extends EJBTestBase {
         container.addBean(Mockito.mock(BillingServiceLocal.class));
         container.addBean(new PaymentServiceStub());
         container.addBean(new IdentityServiceStub());
+        container.addBean(new TimerPartitionCoordinatorBean());
+        container.addBean(Mockito.mock(ReviewServiceLocalBean.class));
         container.addBean(tm = new TimerServiceBean());
         tss = new TimerServiceStub() {
             @Override
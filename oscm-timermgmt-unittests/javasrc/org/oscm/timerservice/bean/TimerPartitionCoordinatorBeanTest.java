@@ -0,0 +1,65 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.timerservice.bean;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.oscm.domobjects.TimerPartition;
+import org.oscm.types.enumtypes.TimerType;
+
+public class TimerPartitionCoordinatorBeanTest {
+
+    private static final TimerType TYPE = TimerType.DISCOUNT_END_CHECK;
+
+    @Test
+    public void split_noKeys() {
+        // when
+        List<TimerPartition> result = TimerPartitionCoordinatorBean.split(
+                TYPE, 100, Collections.<Long> emptyList());
+
+        // then
+        assertEquals(1, result.size());
+        assertEquals(0, result.get(0).getLowerKey());
+        assertEquals(Long.MAX_VALUE, result.get(0).getUpperKey());
+        assertEquals(0, result.get(0).getItemCount());
+        assertEquals(TYPE, result.get(0).getTimerType());
+        assertEquals(100, result.get(0).getStartTime());
+    }
+
+    @Test
+    public void split_coversKeySpace() {
+        // given
+        List<Long> keys = new ArrayList<Long>();
+        for (int i = 1; i <= 2 * TimerPartitionCoordinatorBean.PARTITION_SIZE + 1; i++) {
+            keys.add(Long.valueOf(i * 10));
+        }
+
+        // when
+        List<TimerPartition> result = TimerPartitionCoordinatorBean.split(
+                TYPE, 100, keys);
+
+        // then
+        assertEquals(3, result.size());
+        assertEquals(0, result.get(0).getLowerKey());
+        for (int i = 1; i < result.size(); i++) {
+            assertEquals(i, result.get(i).getPartitionIndex());
+            assertEquals(result.get(i - 1).getUpperKey() + 1, result.get(i)
+                    .getLowerKey());
+        }
+        assertEquals(Long.MAX_VALUE, result.get(2).getUpperKey());
+        assertEquals(TimerPartitionCoordinatorBean.PARTITION_SIZE, result
+                .get(0).getItemCount());
+        assertEquals(1, result.get(2).getItemCount());
+        assertEquals(
+                keys.get(TimerPartitionCoordinatorBean.PARTITION_SIZE)
+                        .longValue(), result.get(1).getLowerKey());
+    }
+}
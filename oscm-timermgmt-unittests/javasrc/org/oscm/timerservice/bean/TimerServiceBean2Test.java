@@ -11,9 +11,15 @@ package org.oscm.timerservice.bean;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -45,7 +51,10 @@ import org.oscm.billingservice.service.BillingServiceLocal;
 import org.oscm.configurationservice.local.ConfigurationServiceLocal;
 import org.oscm.converter.ParameterizedTypes;
 import org.oscm.dataservice.local.DataService;
+import org.oscm.domobjects.TimerPartition;
 import org.oscm.domobjects.TimerProcessing;
+import org.oscm.reviewservice.bean.ReviewServiceLocalBean;
+import org.oscm.subscriptionservice.local.SubscriptionServiceLocal;
 import org.oscm.test.stubs.ConfigurationServiceStub;
 import org.oscm.test.stubs.IdentityServiceStub;
 import org.oscm.timerservice.stubs.TimerServiceStub;
@@ -73,6 +82,9 @@ public class TimerServiceBean2Test {
     private BillingServiceLocal bss;
     private TimerStub timer;
     private AccountServiceLocal as;
+    private SubscriptionServiceLocal ss;
+    private TimerPartitionCoordinatorBean partitions;
+    private ReviewServiceLocalBean reviewService;
 
     private long now;
 
@@ -104,6 +116,12 @@ public class TimerServiceBean2Test {
         tm.bm = bss;
         tm.idServiceLocal = idService;
         tm.accMgmt = as;
+        ss = mock(SubscriptionServiceLocal.class);
+        tm.subMgmt = ss;
+        partitions = mock(TimerPartitionCoordinatorBean.class);
+        tm.partitions = partitions;
+        reviewService = mock(ReviewServiceLocalBean.class);
+        tm.reviewService = reviewService;
 
         cfs.setConfigurationSetting(
                 ConfigurationKey.TIMER_INTERVAL_ORGANIZATION, "12");
@@ -184,7 +202,8 @@ public class TimerServiceBean2Test {
                 assertTrue("Wrong execution time for timer", timer
                         .getExecDate().getTime() >= now);
             } else {
-                if (timerType == TimerType.DISCOUNT_END_CHECK) {
+                if (timerType == TimerType.DISCOUNT_END_CHECK
+                        || timerType == TimerType.REVIEW_RATING_CHECK) {
                     assertEquals("Wrong interval specified for timer", 0,
                             timer.getIntervalDuration());
                 } else if (timerType == TimerType.USER_NUM_CHECK) {
@@ -343,6 +362,19 @@ public class TimerServiceBean2Test {
 
     }
 
+    @Test
+    public void handleTimer_reviewRatingCheck() throws Exception {
+        // given
+        TimerStub timer = new TimerStub();
+        timer.setInfo(TimerType.REVIEW_RATING_CHECK);
+
+        // when
+        tm.handleTimer(timer);
+
+        // then
+        verify(reviewService, times(1)).checkRatingAggregates();
+    }
+
     @Test
     public void handleTimer_billingNotHandledCheckReinitOfTimer()
             throws Exception {
@@ -624,6 +656,130 @@ public class TimerServiceBean2Test {
                 result.getDayOfMonth());
     }
 
+    @Test
+    public void handleTimer_partitionedStartsRun() throws Exception {
+        // given
+        TimerStub timer = new TimerStub();
+        timer.setInfo(TimerType.RESTRICTED_SUBSCRIPTION_USAGE_PERIOD);
+        List<Long> keys = Arrays.asList(Long.valueOf(1), Long.valueOf(2));
+        doReturn(keys).when(ss).getActiveSubscriptionKeys();
+        TimerProcessing processing = new TimerProcessing();
+        processing.setKey(4711);
+        doReturn(processing).when(partitions).startRun(
+                any(TimerProcessing.class), eq(keys));
+        TimerPartition partition = partition(5, 0, Long.MAX_VALUE);
+        doReturn(partition).doReturn(null).when(partitions)
+                .claimPartition(any(TimerType.class), anyString());
+        doReturn(Boolean.TRUE).when(ss).expireOverdueSubscriptions(100, 0,
+                Long.MAX_VALUE);
+
+        // when
+        tm.handleTimer(timer);
+
+        // then
+        verify(ss).expireOverdueSubscriptions(100, 0, Long.MAX_VALUE);
+        verify(partitions).finishPartition(eq(5L), anyString(), eq(true));
+        verify(partitions).finishRun(eq(4711L), eq(true), anyLong());
+        verify(ss, never()).expireOverdueSubscriptions(anyLong());
+    }
+
+    @Test
+    public void handleTimer_partitionedRunStartedByOtherNode()
+            throws Exception {
+        // given
+        TimerStub timer = new TimerStub();
+        timer.setInfo(TimerType.DISCOUNT_END_CHECK);
+        doThrow(new EJBException()).when(partitions).startRun(
+                any(TimerProcessing.class), anyListOf(Long.class));
+        doReturn(partition(5, 10, 20)).doReturn(null).when(partitions)
+                .claimPartition(any(TimerType.class), anyString());
+        doReturn(Boolean.FALSE).when(as).sendDiscountEndNotificationMail(100,
+                10, 20);
+
+        // when
+        tm.handleTimer(timer);
+
+        // then
+        verify(as).sendDiscountEndNotificationMail(100, 10, 20);
+        verify(partitions).finishPartition(eq(5L), anyString(), eq(false));
+        verify(partitions, never()).finishRun(anyLong(), anyBoolean(),
+                anyLong());
+    }
+
+    @Test
+    public void handleTimer_partitionedAlreadyHandled() throws Exception {
+        // given
+        TimerStub timer = new TimerStub();
+        timer.setInfo(TimerType.RESTRICTED_SUBSCRIPTION_USAGE_PERIOD);
+        when(query.getResultList()).thenReturn(
+                Arrays.asList(new TimerProcessing()));
+
+        // when
+        tm.handleTimer(timer);
+
+        // then
+        verify(partitions, never()).startRun(any(TimerProcessing.class),
+                anyListOf(Long.class));
+        verify(partitions).claimPartition(
+                eq(TimerType.RESTRICTED_SUBSCRIPTION_USAGE_PERIOD),
+                anyString());
+    }
+
+    @Test
+    public void processPartitions_failureDoesNotStopOtherPartitions()
+            throws Exception {
+        // given
+        doReturn(partition(1, 0, 9)).doReturn(partition(2, 10, 19))
+                .doReturn(null).when(partitions)
+                .claimPartition(any(TimerType.class), anyString());
+        doThrow(new EJBException()).when(ss).expireOverdueSubscriptions(100,
+                0, 9);
+        doReturn(Boolean.TRUE).when(ss).expireOverdueSubscriptions(100, 10,
+                19);
+
+        // when
+        boolean result = tm
+                .processPartitions(TimerType.RESTRICTED_SUBSCRIPTION_USAGE_PERIOD);
+
+        // then
+        assertEquals(Boolean.FALSE, Boolean.valueOf(result));
+        verify(partitions).finishPartition(eq(1L), anyString(), eq(false));
+        verify(partitions).finishPartition(eq(2L), anyString(), eq(true));
+    }
+
+    @Test
+    public void getCurrentTimerExpirationDates_partitionProgress() {
+        // given
+        prepareTimerList(TimerType.DISCOUNT_END_CHECK, new Date());
+        TimerPartition finished = partition(1, 0, 9);
+        finished.setFinished(true);
+        TimerPartition leased = partition(2, 10, Long.MAX_VALUE);
+        leased.setNodeName("node1");
+        leased.setLeaseExpiry(System.currentTimeMillis() + 60000);
+        doReturn(Arrays.asList(finished, leased)).when(partitions)
+                .getLatestRun(TimerType.DISCOUNT_END_CHECK);
+
+        // when
+        List<VOTimerInfo> result = tm.getCurrentTimerExpirationDates();
+
+        // then
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0).getPartitions());
+        assertEquals(1, result.get(0).getFinishedPartitions());
+        assertEquals(Arrays.asList("node1"), result.get(0)
+                .getProcessingNodes());
+    }
+
+    private TimerPartition partition(long key, long lowerKey, long upperKey) {
+        TimerPartition partition = new TimerPartition();
+        partition.setKey(key);
+        partition.setTimerType(TimerType.RESTRICTED_SUBSCRIPTION_USAGE_PERIOD);
+        partition.setStartTime(100);
+        partition.setLowerKey(lowerKey);
+        partition.setUpperKey(upperKey);
+        return partition;
+    }
+
     private void prepareTimerList(TimerType timerType, Date date) {
         initTimer(timerType, date);
         tss.getTimers().add(timer);
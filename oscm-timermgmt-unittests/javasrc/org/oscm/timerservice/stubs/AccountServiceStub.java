@@ -113,6 +113,13 @@ public class AccountServiceStub implements AccountServiceLocal {
 
     }
 
+    @Override
+    @TransactionAttribute(TransactionAttributeType.MANDATORY)
+    public boolean sendDiscountEndNotificationMail(long currentTimeMillis,
+            long lowerKey, long upperKey) throws MailOperationException {
+        return true;
+    }
+
     @Override
     @TransactionAttribute(TransactionAttributeType.MANDATORY)
     public void checkDistinguishedName(Organization organization)
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.timerservice.bean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ejb.EJB;
+import javax.ejb.LocalBean;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.Query;
+
+import org.oscm.converter.ParameterizedTypes;
+import org.oscm.dataservice.local.DataService;
+import org.oscm.domobjects.TimerPartition;
+import org.oscm.domobjects.TimerProcessing;
+import org.oscm.internal.types.exception.ObjectNotFoundException;
+import org.oscm.types.enumtypes.TimerType;
+
+/**
+ * Splits the work of a timer run into key range partitions and hands them out
+ * to the cluster nodes. A node claims a partition by taking a lease on it. The
+ * partitions are small enough to be finished well within the lease time, so
+ * every claim acts as heartbeat of the node. If a node fails, its partition
+ * becomes claimable again once the lease has expired, so another node takes
+ * it over.
+ * <p>
+ * All methods run in transactions of their own, so the claims are visible to
+ * the other nodes immediately.
+ */
+@Stateless
+@LocalBean
+public class TimerPartitionCoordinatorBean {
+
+    /**
+     * The maximum number of objects in one partition.
+     */
+    static final int PARTITION_SIZE = 200;
+
+    /**
+     * The time a node may work on a partition before another node may take it
+     * over.
+     */
+    static final long LEASE_TIME = 15 * 60 * 1000L;
+
+    /**
+     * The number of claimable partitions read at once.
+     */
+    private static final int CLAIM_CANDIDATES = 10;
+
+    @EJB(beanInterface = DataService.class)
+    protected DataService dm;
+
+    /**
+     * Stores the processing entry of a new timer run together with its
+     * partitions. The unique constraint on the processing entry ensures that
+     * only one node starts the run; on all other nodes this method fails.
+     * Finished partitions of older runs are removed.
+     *
+     * @param processing
+     *            the processing entry of the run
+     * @param keys
+     *            the keys of the objects to be handled by the run in
+     *            ascending order
+     * @return the stored processing entry
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public TimerProcessing startRun(TimerProcessing processing, List<Long> keys)
+            throws Exception {
+        dm.persist(processing);
+        dm.flush();
+
+        Query query = dm.createNamedQuery("TimerPartition.deleteFinishedRuns");
+        query.setParameter("timerType", processing.getTimerType());
+        query.setParameter("startTime",
+                Long.valueOf(processing.getStartTime()));
+        query.executeUpdate();
+
+        for (TimerPartition partition : split(processing.getTimerType(),
+                processing.getStartTime(), keys)) {
+            dm.persist(partition);
+        }
+        dm.flush();
+        return processing;
+    }
+
+    /**
+     * Splits the given keys into partitions of at most
+     * {@link #PARTITION_SIZE} keys. The partitions cover the whole key space,
+     * so objects created after the split are handled as well.
+     */
+    static List<TimerPartition> split(TimerType timerType, long startTime,
+            List<Long> keys) {
+        List<TimerPartition> result = new ArrayList<TimerPartition>();
+        int count = Math.max(1, (keys.size() + PARTITION_SIZE - 1)
+                / PARTITION_SIZE);
+        for (int i = 0; i < count; i++) {
+            int first = i * PARTITION_SIZE;
+            int next = Math.min(first + PARTITION_SIZE, keys.size());
+            TimerPartition partition = new TimerPartition();
+            partition.setTimerType(timerType);
+            partition.setStartTime(startTime);
+            partition.setPartitionIndex(i);
+            partition.setLowerKey(i == 0 ? 0 : keys.get(first).longValue());
+            partition.setUpperKey(i == count - 1 ? Long.MAX_VALUE : keys.get(
+                    next).longValue() - 1);
+            partition.setItemCount(next - first);
+            result.add(partition);
+        }
+        return result;
+    }
+
+    /**
+     * Claims the next partition of the given timer type which is not finished
+     * and not leased by another node. Partitions of older runs, which were
+     * left by a failed node, are claimed first.
+     *
+     * @param timerType
+     *            the timer type
+     * @param nodeName
+     *            the name of the claiming node
+     * @return the claimed partition or <code>null</code> if there is nothing
+     *         left to do
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public TimerPartition claimPartition(TimerType timerType, String nodeName) {
+        long now = System.currentTimeMillis();
+        Query query = dm.createNamedQuery("TimerPartition.findClaimable");
+        query.setParameter("timerType", timerType);
+        query.setParameter("now", Long.valueOf(now));
+        query.setMaxResults(CLAIM_CANDIDATES);
+        List<TimerPartition> candidates = ParameterizedTypes.list(
+                query.getResultList(), TimerPartition.class);
+        for (TimerPartition candidate : candidates) {
+            Query claim = dm.createNamedQuery("TimerPartition.claim");
+            claim.setParameter("key", Long.valueOf(candidate.getKey()));
+            claim.setParameter("nodeName", nodeName);
+            claim.setParameter("leaseExpiry", Long.valueOf(now + LEASE_TIME));
+            claim.setParameter("now", Long.valueOf(now));
+            if (claim.executeUpdate() > 0) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Marks a partition claimed by the given node as finished.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void finishPartition(long partitionKey, String nodeName,
+            boolean success) {
+        Query query = dm.createNamedQuery("TimerPartition.finish");
+        query.setParameter("key", Long.valueOf(partitionKey));
+        query.setParameter("nodeName", nodeName);
+        query.setParameter("success", Boolean.valueOf(success));
+        query.executeUpdate();
+    }
+
+    /**
+     * Stores the result of the node that started a timer run.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void finishRun(long processingKey, boolean success, long duration)
+            throws ObjectNotFoundException {
+        TimerProcessing processing = dm.getReference(TimerProcessing.class,
+                processingKey);
+        processing.setDuration(duration);
+        processing.setSuccess(success);
+    }
+
+    /**
+     * Returns the partitions of the latest run of the given timer type.
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRED)
+    public List<TimerPartition> getLatestRun(TimerType timerType) {
+        Query query = dm.createNamedQuery("TimerPartition.findLatestRun");
+        query.setParameter("timerType", timerType);
+        return ParameterizedTypes.list(query.getResultList(),
+                TimerPartition.class);
+    }
+}
@@ -12,9 +12,12 @@ import java.io.Serializable;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.GregorianCalendar;
 import java.util.List;
+import java.util.Set;
 
 import javax.annotation.Resource;
 import javax.ejb.EJB;
@@ -37,9 +40,12 @@ import org.oscm.billingservice.service.BillingServiceLocal;
 import org.oscm.configurationservice.local.ConfigurationServiceLocal;
 import org.oscm.converter.ParameterizedTypes;
 import org.oscm.dataservice.local.DataService;
+import org.oscm.domobjects.OrganizationReference;
+import org.oscm.domobjects.TimerPartition;
 import org.oscm.domobjects.TimerProcessing;
 import org.oscm.identityservice.local.IdentityServiceLocal;
 import org.oscm.paymentservice.local.PaymentServiceLocal;
+import org.oscm.reviewservice.bean.ReviewServiceLocalBean;
 import org.oscm.subscriptionservice.local.SubscriptionServiceLocal;
 import org.oscm.types.constants.Configuration;
 import org.oscm.types.enumtypes.LogMessageIdentifier;
@@ -71,6 +77,15 @@ public class TimerServiceBean {
      */
     private static final double DEVIATION_FACTOR = 0.95;
 
+    /**
+     * The timer types whose work is split into key range partitions, which are
+     * processed by all cluster nodes.
+     */
+    static final Set<TimerType> PARTITIONED_TIMERS = Collections
+            .unmodifiableSet(EnumSet.of(
+                    TimerType.RESTRICTED_SUBSCRIPTION_USAGE_PERIOD,
+                    TimerType.DISCOUNT_END_CHECK));
+
     private static Log4jLogger logger = LoggerFactory
             .getLogger(TimerServiceBean.class);
 
@@ -81,7 +96,7 @@ public class TimerServiceBean {
     protected AccountServiceLocal accMgmt;
 
     @EJB(beanInterface = SubscriptionServiceLocal.class)
-    private SubscriptionServiceLocal subMgmt;
+    protected SubscriptionServiceLocal subMgmt;
 
     @EJB(beanInterface = DataService.class)
     protected DataService dm;
@@ -95,6 +110,12 @@ public class TimerServiceBean {
     @EJB(beanInterface = IdentityServiceLocal.class)
     protected IdentityServiceLocal idServiceLocal;
 
+    @EJB
+    protected ReviewServiceLocalBean reviewService;
+
+    @EJB
+    protected TimerPartitionCoordinatorBean partitions;
+
     @Resource
     protected SessionContext ctx;
 
@@ -345,6 +366,11 @@ public class TimerServiceBean {
         TimerType timerType = (TimerType) timer.getInfo();
         long currentTime = System.currentTimeMillis();
 
+        if (PARTITIONED_TIMERS.contains(timerType)) {
+            handlePartitionedTimer(timerType, currentTime);
+            return;
+        }
+
         // 1. create the timer processing data entry in the database, required
         // to avoid other nodes from handling the same task
         TimerProcessing processingData = createTimerProcessing(timerType,
@@ -357,9 +383,6 @@ public class TimerServiceBean {
                 case ORGANIZATION_UNCONFIRMED:
                     outcome = accMgmt.removeOverdueOrganizations(currentTime);
                     break;
-                case RESTRICTED_SUBSCRIPTION_USAGE_PERIOD:
-                    outcome = subMgmt.expireOverdueSubscriptions(currentTime);
-                    break;
                 case TENANT_PROVISIONING_TIMEOUT:
                     outcome = subMgmt
                             .notifyAboutTimedoutSubscriptions(currentTime);
@@ -368,16 +391,15 @@ public class TimerServiceBean {
                     outcome = bm.startBillingRun(currentTime);
                     outcome = ps.chargeForOutstandingBills() && outcome;
                     break;
-                case DISCOUNT_END_CHECK:
-                    outcome = accMgmt
-                            .sendDiscountEndNotificationMail(currentTime);
-                    break;
                 case INACTIVE_ON_BEHALF_USERS_REMOVAL:
                     outcome = idServiceLocal.removeInactiveOnBehalfUsers();
                     break;
                 case USER_NUM_CHECK:
                     outcome = accMgmt.checkUserNum();
                     break;
+                case REVIEW_RATING_CHECK:
+                    outcome = reviewService.checkRatingAggregates();
+                    break;
                 default:
                     logger.logError(LogMessageIdentifier.ERROR_TIMER_TIMEOUT_FOR_UNKNOWN_TYPE);
 
@@ -399,6 +421,125 @@ public class TimerServiceBean {
 
     }
 
+    /**
+     * Handles a timer whose work is shared by all cluster nodes. The first node
+     * starts the run and splits the work into partitions, then every node
+     * processes partitions until none is left. Partitions of a failed node are
+     * taken over once their lease has expired, at the latest with the next
+     * run.
+     * 
+     * @param timerType
+     *            The type of the timer.
+     * @param currentTime
+     *            The start time for the timer related task handling.
+     */
+    void handlePartitionedTimer(TimerType timerType, long currentTime) {
+        TimerProcessing processingData = null;
+        if (!isHandled(timerType, currentTime)) {
+            processingData = startPartitionedRun(timerType, currentTime);
+        }
+
+        boolean outcome = processPartitions(timerType);
+
+        if (processingData != null) {
+            try {
+                partitions.finishRun(processingData.getKey(), outcome,
+                        System.currentTimeMillis() - currentTime);
+            } catch (Exception e) {
+                logger.logError(Log4jLogger.SYSTEM_LOG, e,
+                        LogMessageIdentifier.ERROR_HANDLE_TIMER_FAILED);
+            }
+        }
+    }
+
+    /**
+     * Tries to start a partitioned timer run.
+     * 
+     * @return <code>null</code> if another node has started the run, the
+     *         stored timer processing data otherwise.
+     */
+    private TimerProcessing startPartitionedRun(TimerType timerType,
+            long currentTime) {
+        List<Long> keys;
+        try {
+            keys = getPartitionKeys(timerType, currentTime);
+        } catch (Exception e) {
+            logger.logError(Log4jLogger.SYSTEM_LOG, e,
+                    LogMessageIdentifier.ERROR_HANDLE_TIMER_FAILED);
+            return null;
+        }
+        try {
+            return partitions.startRun(
+                    newTimerProcessing(timerType, currentTime), keys);
+        } catch (Exception e) {
+            // insertion failed, so another node has already started the run
+            return null;
+        }
+    }
+
+    /**
+     * Returns the keys of the objects to be handled by a partitioned timer in
+     * ascending order.
+     */
+    List<Long> getPartitionKeys(TimerType timerType, long currentTime) {
+        switch (timerType) {
+        case RESTRICTED_SUBSCRIPTION_USAGE_PERIOD:
+            return subMgmt.getActiveSubscriptionKeys();
+        case DISCOUNT_END_CHECK:
+            List<Long> keys = new ArrayList<Long>();
+            for (OrganizationReference reference : accMgmt
+                    .getOrganizationForDiscountEndNotificiation(currentTime)) {
+                keys.add(Long.valueOf(reference.getKey()));
+            }
+            Collections.sort(keys);
+            return keys;
+        default:
+            throw new IllegalArgumentException(String.valueOf(timerType));
+        }
+    }
+
+    /**
+     * Claims and processes partitions of the given timer type until there is
+     * nothing left to do.
+     * 
+     * @return <code>true</code> if all partitions processed by this node
+     *         succeeded
+     */
+    boolean processPartitions(TimerType timerType) {
+        String nodeName = cfgMgmt.getNodeName();
+        boolean outcome = true;
+        TimerPartition partition;
+        while ((partition = partitions.claimPartition(timerType, nodeName)) != null) {
+            boolean partitionOutcome = false;
+            try {
+                partitionOutcome = processPartition(partition);
+            } catch (Exception e) {
+                logger.logError(Log4jLogger.SYSTEM_LOG, e,
+                        LogMessageIdentifier.ERROR_HANDLE_TIMER_FAILED);
+            }
+            partitions.finishPartition(partition.getKey(), nodeName,
+                    partitionOutcome);
+            outcome = outcome && partitionOutcome;
+        }
+        return outcome;
+    }
+
+    boolean processPartition(TimerPartition partition) throws Exception {
+        switch (partition.getTimerType()) {
+        case RESTRICTED_SUBSCRIPTION_USAGE_PERIOD:
+            return subMgmt.expireOverdueSubscriptions(
+                    partition.getStartTime(), partition.getLowerKey(),
+                    partition.getUpperKey());
+        case DISCOUNT_END_CHECK:
+            return accMgmt.sendDiscountEndNotificationMail(
+                    partition.getStartTime(), partition.getLowerKey(),
+                    partition.getUpperKey());
+        default:
+            throw new IllegalArgumentException(String.valueOf(partition
+                    .getTimerType()));
+        }
+    }
+
     /**
      * Tries to create a timer processing data entry. If there has already been
      * a handling for the same timer type within 95% of the timer interval time,
@@ -418,6 +559,27 @@ public class TimerServiceBean {
         TimerProcessing data = null;
 
         // 1. check if another node has already handled the task first
+        if (!isHandled(type, startTime)) {
+            // 2. try to create the entry.
+            data = newTimerProcessing(type, startTime);
+            try {
+                dm.persist(data);
+                dm.flush();
+            } catch (Exception e) {
+                // insertion failed, so another node is already working on the
+                // task..., simply abort by returning null
+                data = null;
+            }
+        }
+
+        return data;
+    }
+
+    /**
+     * Checks if there has already been a handling for the same timer type
+     * within 95% of the timer interval time.
+     */
+    private boolean isHandled(TimerType type, long startTime) {
         TimerIntervalDetails timerIntervalDetails = getTimerDetailsForTimerType(type);
         long timerInterval = timerIntervalDetails.getIntervalTime();
         if (timerInterval == 0 && timerIntervalDetails.getPeriod() != null) {
@@ -431,25 +593,16 @@ public class TimerServiceBean {
         query.setParameter("timerType", type);
         query.setParameter("lowerTimeBound", Long.valueOf(lowerTimeBound));
         List<?> resultList = query.getResultList();
+        return !resultList.isEmpty();
+    }
 
-        if (resultList.isEmpty()) {
-            // 2. try to create the entry.
-            data = new TimerProcessing();
-            data.setNodeName(cfgMgmt.getNodeName());
-            data.setTimerType(type);
-            data.setStartTime(startTime);
-            data.setSuccess(true);
-            data.setStartTimeMutex(startTime / TIMER_HANDLING_DISTANCE);
-            try {
-                dm.persist(data);
-                dm.flush();
-            } catch (Exception e) {
-                // insertion failed, so another node is already working on the
-                // task..., simply abort by returning null
-                data = null;
-            }
-        }
-
+    private TimerProcessing newTimerProcessing(TimerType type, long startTime) {
+        TimerProcessing data = new TimerProcessing();
+        data.setNodeName(cfgMgmt.getNodeName());
+        data.setTimerType(type);
+        data.setStartTime(startTime);
+        data.setSuccess(true);
+        data.setStartTimeMutex(startTime / TIMER_HANDLING_DISTANCE);
         return data;
     }
 
@@ -636,10 +789,35 @@ public class TimerServiceBean {
                 VOTimerInfo timerInfo = new VOTimerInfo();
                 timerInfo.setTimerType(type.name());
                 timerInfo.setExpirationDate(new Date(expirationTime));
+                if (PARTITIONED_TIMERS.contains(type)) {
+                    setPartitionProgress(timerInfo,
+                            partitions.getLatestRun(type));
+                }
                 result.add(timerInfo);
             }
         }
 
         return result;
     }
+
+    /**
+     * Sets the progress of the latest run of a partitioned timer.
+     */
+    private void setPartitionProgress(VOTimerInfo timerInfo,
+            List<TimerPartition> run) {
+        int finished = 0;
+        List<String> nodes = new ArrayList<String>();
+        for (TimerPartition partition : run) {
+            if (partition.isFinished()) {
+                finished++;
+            } else if (partition.getNodeName() != null
+                    && partition.getLeaseExpiry() > System.currentTimeMillis()
+                    && !nodes.contains(partition.getNodeName())) {
+                nodes.add(partition.getNodeName());
+            }
+        }
+        timerInfo.setPartitions(run.size());
+        timerInfo.setFinishedPartitions(finished);
+        timerInfo.setProcessingNodes(nodes);
+    }
 }
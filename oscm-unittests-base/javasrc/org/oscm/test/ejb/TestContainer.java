@@ -14,6 +14,7 @@ import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -33,6 +34,7 @@ import javax.persistence.EntityManagerFactory;
 import javax.persistence.PersistenceContext;
 import javax.transaction.Synchronization;
 import javax.transaction.Transaction;
+import javax.transaction.TransactionSynchronizationRegistry;
 import javax.xml.ws.WebServiceContext;
 
 import org.oscm.test.cdi.ContextManager;
@@ -73,6 +75,9 @@ public class TestContainer {
         resources.put(Queue.class, TestJMSQueue.getInstance());
         resources.put(WebServiceContext.class, new TestWebServiceContext(
                 sessionContext));
+        resources.put(TransactionSynchronizationRegistry.class,
+                new TestTransactionSynchronizationRegistry(
+                        persistence.getTransactionManager()));
         contextManager = new ContextManager(this);
         addBean(new TestEvent(contextManager));
     }
@@ -220,7 +225,8 @@ public class TestContainer {
             final EntityManagerFactory factory) {
         InvocationHandler h = new InvocationHandler() {
 
-            private final Map<Transaction, EntityManager> delegates = new HashMap<Transaction, EntityManager>();
+            private final Map<Transaction, EntityManager> delegates = Collections
+                    .synchronizedMap(new HashMap<Transaction, EntityManager>());
 
             @Override
             public Object invoke(Object proxy, Method method, Object[] args)
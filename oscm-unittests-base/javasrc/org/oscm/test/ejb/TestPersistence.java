@@ -11,6 +11,7 @@ import java.util.Properties;
 import java.util.Set;
 
 import javax.persistence.EntityManagerFactory;
+import javax.persistence.SharedCacheMode;
 import javax.sql.DataSource;
 import javax.transaction.Transaction;
 import javax.transaction.TransactionManager;
@@ -24,6 +25,7 @@ import org.apache.commons.dbcp.managed.XAConnectionFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.apache.geronimo.transaction.manager.TransactionManagerImpl;
 import org.hibernate.HibernateException;
+import org.hibernate.cache.internal.NoCachingRegionFactory;
 import org.hibernate.cfg.Environment;
 import org.hibernate.ejb.Ejb3Configuration;
 import org.hibernate.transaction.TransactionManagerLookup;
@@ -43,6 +45,8 @@ import org.oscm.test.db.ITestDB;
 @SuppressWarnings("deprecation")
 public class TestPersistence {
 
+    private static final String SHARED_CACHE_MODE = "javax.persistence.sharedCache.mode";
+
     private final TransactionManager transactionManager;
 
     private Map<String, EntityManagerFactory> factoryCache = new HashMap<String, EntityManagerFactory>();
@@ -95,6 +99,13 @@ public class TestPersistence {
         properties.put(Environment.TRANSACTION_MANAGER_STRATEGY,
                 TMLookup.class.getName());
         properties.put(Environment.HBM2DDL_AUTO, "");
+        // the tests reset the database directly, so cached entities and query
+        // results would outlive their rows
+        properties.put(Environment.USE_SECOND_LEVEL_CACHE, "false");
+        properties.put(Environment.USE_QUERY_CACHE, "false");
+        properties.put(Environment.CACHE_REGION_FACTORY,
+                NoCachingRegionFactory.class.getName());
+        properties.put(SHARED_CACHE_MODE, SharedCacheMode.NONE.name());
         properties.put(Environment.DATASOURCE, createManagedDataSource(testDb
                 .getDataSource()));
         Ejb3Configuration configured = configuration.configure(unitName,
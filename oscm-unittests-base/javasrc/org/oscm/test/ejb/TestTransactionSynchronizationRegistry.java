@@ -0,0 +1,135 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.test.ejb;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.transaction.RollbackException;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.SystemException;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Transaction synchronization registry working on the transactions of the
+ * test persistence. The resources of a transaction are removed when it
+ * completes.
+ */
+public class TestTransactionSynchronizationRegistry implements
+        TransactionSynchronizationRegistry {
+
+    private final TransactionManager transactionManager;
+
+    private final Map<Transaction, Map<Object, Object>> resources = new HashMap<Transaction, Map<Object, Object>>();
+
+    public TestTransactionSynchronizationRegistry(
+            TransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    @Override
+    public Object getTransactionKey() {
+        try {
+            return transactionManager.getTransaction();
+        } catch (SystemException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void putResource(Object key, Object value) {
+        Transaction tx = getTransaction();
+        synchronized (resources) {
+            Map<Object, Object> txResources = resources.get(tx);
+            if (txResources == null) {
+                txResources = new HashMap<Object, Object>();
+                resources.put(tx, txResources);
+                registerSynchronization(tx, new ResourceRemover(tx));
+            }
+            txResources.put(key, value);
+        }
+    }
+
+    @Override
+    public Object getResource(Object key) {
+        Transaction tx = getTransaction();
+        synchronized (resources) {
+            Map<Object, Object> txResources = resources.get(tx);
+            return txResources == null ? null : txResources.get(key);
+        }
+    }
+
+    @Override
+    public void registerInterposedSynchronization(Synchronization sync) {
+        registerSynchronization(getTransaction(), sync);
+    }
+
+    @Override
+    public int getTransactionStatus() {
+        try {
+            return transactionManager.getStatus();
+        } catch (SystemException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void setRollbackOnly() {
+        try {
+            getTransaction().setRollbackOnly();
+        } catch (SystemException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public boolean getRollbackOnly() {
+        try {
+            return getTransaction().getStatus() == Status.STATUS_MARKED_ROLLBACK;
+        } catch (SystemException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Transaction getTransaction() {
+        Transaction tx = (Transaction) getTransactionKey();
+        if (tx == null) {
+            throw new IllegalStateException("No active transaction");
+        }
+        return tx;
+    }
+
+    private static void registerSynchronization(Transaction tx,
+            Synchronization sync) {
+        try {
+            tx.registerSynchronization(sync);
+        } catch (RollbackException | SystemException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private class ResourceRemover implements Synchronization {
+
+        private final Transaction tx;
+
+        ResourceRemover(Transaction tx) {
+            this.tx = tx;
+        }
+
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            synchronized (resources) {
+                resources.remove(tx);
+            }
+        }
+    }
+}
@@ -33,6 +33,7 @@ import org.oscm.internal.types.exception.TechnicalServiceNotAliveException;
 import org.oscm.internal.types.exception.TechnicalServiceOperationException;
 import org.oscm.internal.types.exception.ValidationException;
 import org.oscm.internal.vo.LdapProperties;
+import org.oscm.internal.vo.ListCriteria;
 import org.oscm.internal.vo.VOBillingContact;
 import org.oscm.internal.vo.VOImageResource;
 import org.oscm.internal.vo.VOOrganization;
@@ -62,6 +63,12 @@ public class AccountServiceStub implements AccountService, AccountServiceLocal {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public List<VOOrganization> getMyCustomersByCriteria(
+            ListCriteria listCriteria) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public List<VOOrganization> getMyCustomersOptimization() {
         throw new UnsupportedOperationException();
@@ -190,6 +197,12 @@ public class AccountServiceStub implements AccountService, AccountServiceLocal {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public boolean sendDiscountEndNotificationMail(long currentTimeMillis,
+            long lowerKey, long upperKey) throws MailOperationException {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void checkDistinguishedName(Organization organization)
             throws DistinguishedNameException {
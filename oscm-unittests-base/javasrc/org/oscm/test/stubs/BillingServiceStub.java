@@ -21,6 +21,13 @@ public class BillingServiceStub implements BillingService, BillingServiceLocal {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public List<BillingResult> generateBillingForAnyPeriod(long startOfPeriod,
+            long endOfPeriod, long organizationKey, int firstSubscription,
+            int maxSubscriptions) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public boolean startBillingRun(long currentTime) {
         throw new UnsupportedOperationException();
@@ -161,4 +161,14 @@ public class ConfigurationServiceStub implements ConfigurationService,
         return true;
     }
 
+    @Override
+    public long getConfigurationCacheVersion() {
+        return 0;
+    }
+
+    @Override
+    public long getConfigurationCacheRefreshTime() {
+        return 0;
+    }
+
 }
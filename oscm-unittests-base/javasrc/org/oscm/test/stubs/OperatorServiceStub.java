@@ -93,8 +93,8 @@ public class OperatorServiceStub implements OperatorService {
     }
 
     @Override
-    public byte[] getOrganizationBillingData(long from, long to,
-            String organizationId) {
+    public List<String> getOrganizationBillingData(long from, long to,
+            String organizationId, int firstSubscription, int maxSubscriptions) {
         throw new UnsupportedOperationException();
     }
 
@@ -218,7 +218,7 @@ public class OperatorServiceStub implements OperatorService {
     }
 
     @Override
-    public byte[] getSupplierRevenueList(long month) {
+    public byte[] getSupplierRevenueList(long month, int firstRow, int maxRows) {
         throw new UnsupportedOperationException();
     }
 
@@ -25,6 +25,7 @@ import javax.persistence.Query;
 
 import junit.framework.Assert;
 
+import org.junit.Ignore;
 import org.junit.Test;
 import org.mockito.Mockito;
 
@@ -256,6 +257,32 @@ public class UserGroupServiceLocalBeanIT extends EJBTestBase {
         Assert.assertEquals(UnitRoleType.ADMINISTRATOR, roleTypes.get(0));
     }
 
+    @Test
+    public void assignUsersToGroup_alreadyAssigned() throws Exception {
+        // given
+        container.login(userKey);
+        final UserGroup userGroup = createGroups(1).get(0);
+        final PlatformUser user = findUser(userKey);
+        assignUsersToGroup(userGroup, Collections.singletonList(user));
+
+        // when
+        assignUsersToGroup(userGroup, Collections.singletonList(user));
+
+        // then
+        List<String> userIds = runTX(new Callable<List<String>>() {
+            @Override
+            public List<String> call() throws Exception {
+                return localDao.getAssignedUserIdsForGroup(userGroup
+                        .getKey());
+            }
+        });
+        Assert.assertEquals(Collections.singletonList(user.getUserId()),
+                userIds);
+        List<UnitRoleType> roleTypes = getRoleTypes(userGroup,
+                UnitRoleType.USER, user);
+        Assert.assertEquals(1, roleTypes.size());
+    }
+
     @Test(expected = ObjectNotFoundException.class)
     public void grantUserRolesException() throws Exception {
         // given
@@ -376,6 +403,52 @@ public class UserGroupServiceLocalBeanIT extends EJBTestBase {
         return groups;
     }
 
+    /**
+     * Benchmark for assigning and revoking 10,000 users, not run by default.
+     */
+    @Ignore
+    @Test
+    public void assignAndRevokeUsers_10000() throws Exception {
+        // given
+        final int count = 10000;
+        final UserGroup userGroup = createGroups(1).get(0);
+        final List<PlatformUser> users = runTX(
+                new Callable<List<PlatformUser>>() {
+                    @Override
+                    public List<PlatformUser> call() throws Exception {
+                        Organization org = mgr.getReference(
+                                PlatformUser.class, Long.parseLong(userKey))
+                                .getOrganization();
+                        List<PlatformUser> result = new ArrayList<>();
+                        for (int i = 0; i < count; i++) {
+                            result.add(Organizations.createUserForOrg(mgr,
+                                    org, false, "bulk" + i));
+                        }
+                        return result;
+                    }
+                });
+
+        // when
+        long start = System.currentTimeMillis();
+        assignUsersToGroup(userGroup, users);
+        long assignTime = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        runTX(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                localService.revokeUsersFromGroup(userGroup, users);
+                return null;
+            }
+        });
+        long revokeTime = System.currentTimeMillis() - start;
+
+        // then
+        System.out.println("Assigned " + count + " users in " + assignTime
+                + " ms, revoked in " + revokeTime + " ms");
+        assertTrue(assignTime < 60000);
+        assertTrue(revokeTime < 60000);
+    }
+
     @Test
     public void createGroupsWithNullRefIdAndDesc() throws Exception {
         container.login(userKey, ROLE_ORGANIZATION_ADMIN);
@@ -11,8 +11,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -34,6 +36,7 @@ import java.util.Set;
 import javax.ejb.SessionContext;
 import javax.persistence.Query;
 
+import org.hibernate.Session;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -92,6 +95,7 @@ public class UserGroupServiceLocalBeanTest {
     private Product product;
     private Map<UserGroup, UnitUserRole> groupsWithRoles;
     private UnitUserRole unitUserRole;
+    private Session session;
     private static final long groupKey = 1000L;
     private static final String USER_ID = "userId";
     private static final String TESTGROUPNAME = "test";
@@ -158,6 +162,8 @@ public class UserGroupServiceLocalBeanTest {
 
         doNothing().when(userGroupService.getDm())
                 .persist(any(DomainObject.class));
+        session = mock(Session.class);
+        doReturn(session).when(userGroupService.getDm()).getSession();
         doReturn(new SendMailStatus<PlatformUser>())
                 .when(userGroupService.getCs()).sendMail(any(EmailType.class),
                         any(Object[].class), any(Marketplace.class),
@@ -409,6 +415,7 @@ public class UserGroupServiceLocalBeanTest {
         when(userGroupService.slsl
                 .getSubscriptionsForOwner(any(PlatformUser.class)))
                         .thenReturn(Collections.EMPTY_LIST);
+        givenPlatformUsersFound(user);
 
         doReturn(new UnitRoleAssignment()).when(userGroupService.getDm())
                 .getReferenceByBusinessKey(any(UnitRoleAssignment.class));
@@ -420,7 +427,9 @@ public class UserGroupServiceLocalBeanTest {
                 new HashMap<PlatformUser, String>());
 
         // then
-        verify(userGroupService.getCs(), times(1)).sendMail(
+        verify(userGroupService.getTqs(), times(1))
+                .sendAllMessages(any(List.class));
+        verify(userGroupService.getCs(), times(0)).sendMail(
                 EmailType.GROUP_USER_ASSIGNED, new Object[] { "group" }, null,
                 user);
         verify(userGroupService.getCs(), times(0)).sendMail(
@@ -435,6 +444,7 @@ public class UserGroupServiceLocalBeanTest {
         doReturn(givenMarketplace()).when(userGroupService.getDm())
                 .getReferenceByBusinessKey(any(Marketplace.class));
         userGroup.setName("group");
+        givenPlatformUsersFound(user);
         // when
         userGroupService.updateUserGroup(userGroup, new ArrayList<Product>(),
                 new ArrayList<Product>(), MARKETPLACEID,
@@ -443,9 +453,8 @@ public class UserGroupServiceLocalBeanTest {
                 new HashMap<PlatformUser, String>());
 
         // then
-        verify(userGroupService.getCs(), times(1)).sendMail(
-                EmailType.GROUP_USER_REVOKED, new Object[] { TESTGROUPNAME },
-                null, user);
+        verify(userGroupService.getTqs(), times(1))
+                .sendAllMessages(any(List.class));
         verify(userGroupService.getCs(), times(0)).sendMail(
                 EmailType.USER_GROUP_UPDATED, new Object[] { TESTGROUPNAME },
                 null, user);
@@ -484,6 +493,7 @@ public class UserGroupServiceLocalBeanTest {
         when(userGroupService.slsl
                 .getSubscriptionsForOwner(any(PlatformUser.class)))
                         .thenReturn(Collections.EMPTY_LIST);
+        givenPlatformUsersFound(user);
         // when
         UserGroup result = userGroupService.updateUserGroup(userGroup, visProds,
                 invisProds, MARKETPLACEID, givenPlatformUserMap(),
@@ -492,11 +502,12 @@ public class UserGroupServiceLocalBeanTest {
 
         // then
         assertEquals(group.getKey(), result.getKey());
-        verify(userGroupService.getDm(), times(4)).flush();
+        verify(userGroupService.getDm(), times(2)).flush();
         verify(userGroupService.getDm(), times(2))
                 .refresh(any(DomainObject.class));
-        verify(userGroupService.getDm(), times(3))
+        verify(userGroupService.getDm(), times(1))
                 .persist(any(DomainObject.class));
+        verify(session, times(2)).persist(any(DomainObject.class));
     }
 
     @Test
@@ -608,14 +619,71 @@ public class UserGroupServiceLocalBeanTest {
         ugu.setPlatformuser(user);
 
         doReturn(ugu).when(userGroupService.getUserGroupDao()).getUserGroupAssignment(any(UserGroup.class), any(PlatformUser.class));
+        givenPlatformUsersFound(user);
 
         // when
         userGroupService.assignUsersToGroup(group,
                 Collections.singletonList(user));
 
         // then
-        verify(userGroupService.getDm(), times(2)).flush();
-        verify(userGroupService.getDm(), times(2)).persist(any(DomainObject.class));
+        verify(userGroupService.getDm(), times(1)).flush();
+        verify(session).persist(isA(UserGroupToUser.class));
+        verify(session).persist(isA(UnitRoleAssignment.class));
+        verify(userGroupService.getDm(), never()).persist(
+                any(DomainObject.class));
+        verify(userGroupService.getTqs(), times(1))
+                .sendAllMessages(any(List.class));
+    }
+
+    @Test
+    public void assignUsersToGroup_alreadyAssigned() throws Exception {
+        // given
+        group.setIsDefault(false);
+        group.setOrganization(org);
+        List<PlatformUser> users = givenUsers(3);
+        givenPlatformUsersFound(users.toArray(new PlatformUser[users.size()]));
+        doReturn(Arrays.asList("user0", "user2")).when(
+                userGroupService.getUserGroupDao()).getAssignedUserIdsForGroup(
+                group.getKey());
+
+        // when
+        userGroupService.assignUsersToGroup(group, users);
+
+        // then
+        verify(session, times(1)).persist(isA(UserGroupToUser.class));
+        verify(session, times(1)).persist(isA(UnitRoleAssignment.class));
+        verify(userGroupService.audit).assignUsersToGroup(
+                userGroupService.getDm(), group,
+                Collections.singletonList(users.get(1)));
+    }
+
+    @Test
+    public void assignUsersToGroup_manyUsers() throws Exception {
+        // given
+        group.setIsDefault(false);
+        group.setOrganization(org);
+        List<PlatformUser> users = givenUsers(
+                UserGroupServiceLocalBean.BATCH_SIZE * 2 + 1);
+        givenPlatformUsersFound(users.toArray(new PlatformUser[users.size()]));
+
+        // when
+        userGroupService.assignUsersToGroup(group, users);
+
+        // then
+        verify(userGroupService.getUserGroupDao(), times(1))
+                .getPlatformUsers(anyListOf(String.class));
+        verify(userGroupService.getUserGroupDao(), times(1))
+                .getAssignedUserIdsForGroup(group.getKey());
+        verify(session, times(users.size() * 2)).persist(
+                any(DomainObject.class));
+        verify(userGroupService.getDm(), never()).persist(
+                any(DomainObject.class));
+        verify(userGroupService.getDm(), times(3)).flush();
+        verify(userGroupService.getTqs(), times(1))
+                .sendAllMessages(any(List.class));
+        verify(userGroupService.getCs(), never()).sendMail(any(EmailType.class),
+                any(Object[].class), any(Marketplace.class),
+                any(PlatformUser[].class));
     }
 
     @Test(expected = ObjectNotFoundException.class)
@@ -635,6 +703,7 @@ public class UserGroupServiceLocalBeanTest {
         // given
         group.setIsDefault(false);
         group.setOrganization(org);
+        givenPlatformUsersFound(user);
         // when
         userGroupService.revokeUsersFromGroup(group,
                 Collections.singletonList(user));
@@ -671,26 +740,41 @@ public class UserGroupServiceLocalBeanTest {
         // given
         group.setIsDefault(false);
         group.setOrganization(org);
-        when(userGroupService.getDm().find(any(DomainObject.class)))
-                .thenAnswer(new Answer<DomainObject<?>>() {
-
-                    @Override
-                    public DomainObject<?> answer(InvocationOnMock invocation) {
-                        Object template = invocation.getArguments()[0];
-                        if (template instanceof UserGroup) {
-                            return group;
-                        } else if (template instanceof PlatformUser) {
-                            return platformUser;
-                        }
-                        return null;
-                    }
-                });
+        platformUser.setUserId(USER_ID);
+        givenPlatformUsersFound(platformUser);
 
         // when
         userGroupService.revokeUsersFromGroup(group,
                 Collections.singletonList(user));
     }
 
+    @Test
+    public void revokeUsersFromGroup_manyUsers() throws Exception {
+        // given
+        group.setIsDefault(false);
+        group.setOrganization(org);
+        List<PlatformUser> users = givenUsers(100);
+        List<UserGroupToUser> assignments = new ArrayList<UserGroupToUser>();
+        for (PlatformUser member : users) {
+            UserGroupToUser userGroupToUser = new UserGroupToUser();
+            userGroupToUser.setUserGroup(group);
+            userGroupToUser.setPlatformuser(member);
+            member.getUserGroupToUsers().add(userGroupToUser);
+            assignments.add(userGroupToUser);
+        }
+        group.setUserGroupToUsers(assignments);
+        givenPlatformUsersFound(users.toArray(new PlatformUser[users.size()]));
+
+        // when
+        userGroupService.revokeUsersFromGroup(group, users);
+
+        // then
+        verify(userGroupService.getDm(), times(users.size())).remove(
+                isA(UserGroupToUser.class));
+        verify(userGroupService.getTqs(), times(1))
+                .sendAllMessages(any(List.class));
+    }
+
     @Test
     public void assignUserToGroups_OK() throws Exception {
         // given
@@ -1222,6 +1306,23 @@ public class UserGroupServiceLocalBeanTest {
                 .getVisibleServices(String.valueOf(group.getKey()), pagination, MARKETPLACEID);
     }
 
+    private List<PlatformUser> givenUsers(int count) {
+        List<PlatformUser> users = new ArrayList<PlatformUser>();
+        for (int i = 0; i < count; i++) {
+            PlatformUser platformUser = new PlatformUser();
+            platformUser.setKey(100L + i);
+            platformUser.setUserId("user" + i);
+            platformUser.setOrganization(org);
+            users.add(platformUser);
+        }
+        return users;
+    }
+
+    private void givenPlatformUsersFound(PlatformUser... users) {
+        doReturn(Arrays.asList(users)).when(userGroupService.getUserGroupDao())
+                .getPlatformUsers(anyListOf(String.class));
+    }
+
     private PlatformUser prepareUserWithRoleForTest(UserRoleType userRoleType) {
         PlatformUser user = new PlatformUser();
         RoleAssignment roleAssignment = new RoleAssignment();
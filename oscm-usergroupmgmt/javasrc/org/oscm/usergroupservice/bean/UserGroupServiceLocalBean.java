@@ -10,12 +10,16 @@ package org.oscm.usergroupservice.bean;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import javax.annotation.Resource;
 import javax.annotation.security.RolesAllowed;
@@ -26,6 +30,8 @@ import javax.ejb.Stateless;
 import javax.interceptor.Interceptors;
 import javax.persistence.Query;
 
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
 import org.oscm.communicationservice.data.SendMailStatus;
 import org.oscm.communicationservice.data.SendMailStatus.SendMailStatusItem;
 import org.oscm.communicationservice.local.CommunicationServiceLocal;
@@ -115,6 +121,12 @@ public class UserGroupServiceLocalBean {
     private static final Log4jLogger logger = LoggerFactory
             .getLogger(UserGroupServiceLocalBean.class);
 
+    /**
+     * The number of assignments flushed at once, matching the JDBC batch size
+     * of the persistence unit.
+     */
+    static final int BATCH_SIZE = 50;
+
     @RolesAllowed({ "ORGANIZATION_ADMIN" })
     public UserGroup createUserGroup(UserGroup group,
             List<Product> visibleProducts, List<Product> invisibleProducts,
@@ -359,24 +371,23 @@ public class UserGroupServiceLocalBean {
                     OperationNotPermittedException,
                     UserRoleAssignmentException {
         validateUserGroupOfOrganization(group);
-        List<PlatformUser> platformUsers = new ArrayList<PlatformUser>();
-        for (PlatformUser user : users.keySet()) {
-            PlatformUser pu = loadPlatformUser(user);
-            UserGroupToUser userGroupToUser = new UserGroupToUser();
-            userGroupToUser.setUserGroup(group);
-            userGroupToUser.setPlatformuser(pu);
-            dm.persist(userGroupToUser);
-            platformUsers.add(user);
-            List<UnitRoleType> roles = Arrays
-                    .asList(UnitRoleType.valueOf(users.get(user)));
-            grantUserRoles(user, roles, group);
-            handleGlobalUnitAdministratorRole(user);
+        Map<PlatformUser, UnitRoleType> roles = new LinkedHashMap<PlatformUser, UnitRoleType>();
+        for (Entry<PlatformUser, String> entry : users.entrySet()) {
+            roles.put(entry.getKey(), UnitRoleType.valueOf(entry.getValue()));
+        }
+        List<PlatformUser> platformUsers = persistUserAssignments(group,
+                roles);
+        for (Entry<PlatformUser, UnitRoleType> entry : roles.entrySet()) {
+            // a user role in one more unit does not change whether the
+            // user is unit administrator
+            if (entry.getValue() == UnitRoleType.ADMINISTRATOR) {
+                handleGlobalUnitAdministratorRole(entry.getKey());
+            }
         }
-        dm.flush();
         dm.refresh(group);
 
         if (!group.isDefault()) {
-            sendMailToUser(platformUsers, EmailType.GROUP_USER_ASSIGNED,
+            sendMailToUsersAsync(platformUsers, EmailType.GROUP_USER_ASSIGNED,
                     new Object[] { group.getName() });
         }
         if (!users.isEmpty()) {
@@ -613,27 +624,77 @@ public class UserGroupServiceLocalBean {
                     NonUniqueBusinessKeyException, ObjectNotFoundException,
                     OperationNotPermittedException {
         validateUserGroupOfOrganization(group);
+        Map<PlatformUser, UnitRoleType> roles = new LinkedHashMap<PlatformUser, UnitRoleType>();
         for (PlatformUser user : users) {
-            PlatformUser pu = loadPlatformUser(user);
-            UserGroupToUser userGroupToUser = new UserGroupToUser();
-            userGroupToUser.setUserGroup(group);
-            userGroupToUser.setPlatformuser(pu);
-            dm.persist(userGroupToUser);
-            List<UnitRoleType> roles = Arrays.asList(UnitRoleType.USER);
-            grantUserRoles(user, roles, group);
+            roles.put(user, UnitRoleType.USER);
         }
-        dm.flush();
+        List<PlatformUser> platformUsers = persistUserAssignments(group,
+                roles);
         dm.refresh(group);
 
         if (!group.isDefault()) {
-            sendMailToUser(users, EmailType.GROUP_USER_ASSIGNED,
+            sendMailToUsersAsync(platformUsers, EmailType.GROUP_USER_ASSIGNED,
                     new Object[] { group.getName() });
         }
         if (!users.isEmpty()) {
-            audit.assignUsersToGroup(dm, group, users);
+            audit.assignUsersToGroup(dm, group, platformUsers);
         }
     }
 
+    /**
+     * Assigns the given users with the given unit roles to the group. The
+     * users are loaded with one query per {@link UserGroupDao#MAX_IN_VALUES}
+     * users and the ids of the users already assigned with one query. Users
+     * already assigned are skipped, so the new rows are persisted without a
+     * business key check per row and flushed in batches of
+     * {@link #BATCH_SIZE}, which are sent to the database as JDBC batches.
+     * 
+     * @return the newly assigned users as loaded from the database
+     */
+    private List<PlatformUser> persistUserAssignments(UserGroup group,
+            Map<PlatformUser, UnitRoleType> users)
+                    throws ObjectNotFoundException,
+                    OperationNotPermittedException {
+        Map<String, PlatformUser> dbUsers = loadPlatformUsers(users.keySet());
+        Set<String> assignedUserIds = new HashSet<String>(
+                userGroupDao.getAssignedUserIdsForGroup(group.getKey()));
+        List<PlatformUser> assigned = new ArrayList<PlatformUser>();
+        // the callers have already accessed the data service in this call,
+        // so the history entries are written for the current user
+        Session session = dm.getSession();
+        FlushMode flushMode = session.getFlushMode();
+        session.setFlushMode(FlushMode.MANUAL);
+        try {
+            for (Entry<PlatformUser, UnitRoleType> entry : users.entrySet()) {
+                PlatformUser user = dbUsers.get(entry.getKey().getUserId());
+                if (!assignedUserIds.add(user.getUserId())) {
+                    continue;
+                }
+                UserGroupToUser userGroupToUser = new UserGroupToUser();
+                userGroupToUser.setUserGroup(group);
+                userGroupToUser.setPlatformuser(user);
+                session.persist(userGroupToUser);
+
+                UnitUserRole userRole = new UnitUserRole();
+                userRole.setKey(entry.getValue().getKey());
+                userRole.setRoleName(entry.getValue());
+                UnitRoleAssignment roleAssignment = new UnitRoleAssignment();
+                roleAssignment.setUnitUserRole(userRole);
+                roleAssignment.setUserGroupToUser(userGroupToUser);
+                session.persist(roleAssignment);
+
+                assigned.add(user);
+                if (assigned.size() % BATCH_SIZE == 0) {
+                    dm.flush();
+                }
+            }
+            dm.flush();
+        } finally {
+            session.setFlushMode(flushMode);
+        }
+        return assigned;
+    }
+
     @RolesAllowed({ "ORGANIZATION_ADMIN" })
     public UserGroup revokeUsersFromGroup(UserGroup group,
             List<PlatformUser> users) throws OperationNotPermittedException,
@@ -656,26 +717,28 @@ public class UserGroupServiceLocalBean {
             List<PlatformUser> users) throws OperationNotPermittedException,
                     ObjectNotFoundException, MailOperationException {
         validateUserGroupOfOrganization(group);
-        validatePlatformUserOfOrganization(
-                users.toArray(new PlatformUser[users.size()]));
+        Map<String, PlatformUser> platformUsers = loadPlatformUsers(users);
 
-        for (PlatformUser user : users) {
-            for (UserGroupToUser userGroupToUser : group
-                    .getUserGroupToUsers()) {
-                if (userGroupToUser.getPlatformuser().getUserId()
-                        .equals(user.getUserId())) {
-                    userGroupToUser.getPlatformuser().getUserGroupToUsers()
-                            .remove(userGroupToUser);
-                    removeSubscriptionOwner(userGroupToUser.getPlatformuser());
-                    dm.remove(userGroupToUser);
-                }
+        Map<String, UserGroupToUser> assignments = new HashMap<String, UserGroupToUser>();
+        for (UserGroupToUser userGroupToUser : group.getUserGroupToUsers()) {
+            assignments.put(userGroupToUser.getPlatformuser().getUserId(),
+                    userGroupToUser);
+        }
+        for (String userId : platformUsers.keySet()) {
+            UserGroupToUser userGroupToUser = assignments.remove(userId);
+            if (userGroupToUser != null) {
+                userGroupToUser.getPlatformuser().getUserGroupToUsers()
+                        .remove(userGroupToUser);
+                removeSubscriptionOwner(userGroupToUser.getPlatformuser());
+                dm.remove(userGroupToUser);
             }
         }
 
         dm.flush();
         dm.refresh(group);
-        sendMailToUser(users, EmailType.GROUP_USER_REVOKED,
-                new Object[] { group.getName() });
+        sendMailToUsersAsync(
+                new ArrayList<PlatformUser>(platformUsers.values()),
+                EmailType.GROUP_USER_REVOKED, new Object[] { group.getName() });
         if (!users.isEmpty()) {
             audit.removeUsersFromGroup(dm, group, users);
         }
@@ -1005,6 +1068,24 @@ public class UserGroupServiceLocalBean {
         }
     }
 
+    /**
+     * Queues the mails to the given users, so they are sent asynchronously by
+     * the task queue.
+     */
+    private void sendMailToUsersAsync(List<PlatformUser> recipients,
+            EmailType type, Object[] params) {
+        if (recipients.isEmpty()) {
+            return;
+        }
+        SendMailPayload payload = new SendMailPayload();
+        for (PlatformUser recipient : recipients) {
+            payload.addMailObjectForUser(recipient.getKey(), type, params,
+                    null);
+        }
+        TaskMessage message = new TaskMessage(SendMailHandler.class, payload);
+        tqs.sendAllMessages(Collections.singletonList(message));
+    }
+
     private UserGroup getDefaultUserGroupForUser(long userKey)
             throws ObjectNotFoundException {
         PlatformUser user = dm.getReference(PlatformUser.class, userKey);
@@ -1038,6 +1119,49 @@ public class UserGroupServiceLocalBean {
         return pu;
     }
 
+    /**
+     * Loads the given users of the current organization with as few queries as
+     * possible.
+     * 
+     * @return the loaded users by user id
+     */
+    private Map<String, PlatformUser> loadPlatformUsers(
+            Collection<PlatformUser> platformUsers)
+                    throws ObjectNotFoundException,
+                    OperationNotPermittedException {
+        List<String> userIds = new ArrayList<String>(platformUsers.size());
+        for (PlatformUser platformUser : platformUsers) {
+            userIds.add(platformUser.getUserId());
+        }
+        Map<String, PlatformUser> found = new HashMap<String, PlatformUser>();
+        for (PlatformUser user : userGroupDao.getPlatformUsers(userIds)) {
+            found.put(user.getUserId(), user);
+        }
+        Organization org = dm.getCurrentUser().getOrganization();
+        Map<String, PlatformUser> result = new LinkedHashMap<String, PlatformUser>();
+        for (String userId : userIds) {
+            PlatformUser user = found.get(userId);
+            if (user == null) {
+                ObjectNotFoundException onf = new ObjectNotFoundException(
+                        ObjectNotFoundException.ClassEnum.USER, userId);
+                logger.logWarn(Log4jLogger.SYSTEM_LOG, onf,
+                        LogMessageIdentifier.WARN_USER_NOT_FOUND);
+                throw onf;
+            } else if (user.getOrganization().getKey() != org.getKey()) {
+                String message = String.format(
+                        "PlatformUser '%s' does not belong to organization '%s'.",
+                        userId, org.getOrganizationId());
+                OperationNotPermittedException e = new OperationNotPermittedException(
+                        message);
+                logger.logWarn(Log4jLogger.SYSTEM_LOG, e,
+                        LogMessageIdentifier.WARN_PLATFORMUSER_NOT_BELONG_TO_ORGANIZATION);
+                throw e;
+            }
+            result.put(userId, user);
+        }
+        return result;
+    }
+
     private String removeTailString(String name) {
         if (name == null || name.isEmpty()) {
             return "";
@@ -8,6 +8,7 @@
 
 package org.oscm.usergroupservice.dao;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
 
@@ -48,6 +49,11 @@ public class UserGroupDao {
     private static final Log4jLogger logger = LoggerFactory
             .getLogger(UserGroupDao.class);
 
+    /**
+     * The maximum number of values bound to one IN parameter.
+     */
+    public static final int MAX_IN_VALUES = 1000;
+
     public List<UserGroup> getUserGroupsForOrganizationWithoutDefault() {
         long orgKey = dm.getCurrentUser().getOrganization().getKey();
         Query query = dm
@@ -148,6 +154,22 @@ public class UserGroupDao {
         return ParameterizedTypes.list(query.getResultList(), String.class);
     }
 
+    /**
+     * Returns the users with the given user ids. Unknown user ids are ignored.
+     */
+    public List<PlatformUser> getPlatformUsers(List<String> userIds) {
+        List<PlatformUser> result = new ArrayList<PlatformUser>(
+                userIds.size());
+        for (int i = 0; i < userIds.size(); i += MAX_IN_VALUES) {
+            Query query = dm.createNamedQuery("PlatformUser.findByUserIds");
+            query.setParameter("userIds", userIds.subList(i,
+                    Math.min(i + MAX_IN_VALUES, userIds.size())));
+            result.addAll(ParameterizedTypes.list(query.getResultList(),
+                    PlatformUser.class));
+        }
+        return result;
+    }
+
     public boolean isNotTerminatedSubscriptionAssignedToUnit(long groupKey) {
         Query query = dm
                 .createNamedQuery("Subscription.isNotTerminatedSubscriptionAssignedToUnit");
@@ -79,6 +79,7 @@ public class AccountServiceWSTest {
         serviceWS.getBillingContacts();
         serviceWS.getCustomerPaymentConfiguration();
         serviceWS.getMyCustomers();
+        serviceWS.getMyCustomersByCriteria(null);
         serviceWS.getDefaultPaymentConfiguration();
         serviceWS.getOrganizationData();
         serviceWS.getOrganizationId(0);
@@ -107,7 +108,7 @@ public class AccountServiceWSTest {
         serviceWS.removeSuppliersFromTechnicalService(null, null);
         serviceWS.getSuppliersForTechnicalService(null);
 
-        verify(requestMock, times(33)).getRemoteAddr();
+        verify(requestMock, times(34)).getRemoteAddr();
 
         verify(serviceMock, times(1)).deregisterOrganization();
         verify(serviceMock, times(1)).getAvailablePaymentTypesForOrganization();
@@ -116,6 +117,7 @@ public class AccountServiceWSTest {
         verify(serviceMock, times(1)).getBillingContacts();
         verify(serviceMock, times(1)).getCustomerPaymentConfiguration();
         verify(serviceMock, times(1)).getMyCustomers();
+        verify(serviceMock, times(1)).getMyCustomersByCriteria(null);
         verify(serviceMock, times(1)).getDefaultPaymentConfiguration();
         verify(serviceMock, times(1)).getOrganizationData();
         verify(serviceMock, times(1)).getOrganizationId(0);
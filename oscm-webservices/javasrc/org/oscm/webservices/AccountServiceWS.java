@@ -49,6 +49,7 @@ import org.oscm.types.exceptions.TechnicalServiceNotAliveException;
 import org.oscm.types.exceptions.TechnicalServiceOperationException;
 import org.oscm.types.exceptions.ValidationException;
 import org.oscm.vo.LdapProperties;
+import org.oscm.vo.ListCriteria;
 import org.oscm.vo.VOBillingContact;
 import org.oscm.vo.VOImageResource;
 import org.oscm.vo.VOOrganization;
@@ -154,6 +155,19 @@ public class AccountServiceWS implements AccountService {
         }
     }
 
+    @Override
+    public List<VOOrganization> getMyCustomersByCriteria(
+            ListCriteria listCriteria) throws OrganizationAuthoritiesException {
+        WS_LOGGER.logAccess(wsContext, ds);
+        try {
+            return VOCollectionConverter.convertList(
+                    delegate.getMyCustomersByCriteria(VOConverter
+                            .convertToUp(listCriteria)), VOOrganization.class);
+        } catch (org.oscm.internal.types.exception.OrganizationAuthoritiesException e) {
+            throw ExceptionConverter.convertToApi(e);
+        }
+    }
+
     @Override
     public Set<VOPaymentType> getDefaultPaymentConfiguration() {
         WS_LOGGER.logAccess(wsContext, ds);
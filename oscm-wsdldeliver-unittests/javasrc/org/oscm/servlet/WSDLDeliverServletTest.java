@@ -0,0 +1,230 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.servlet;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class WSDLDeliverServletTest {
+
+    private static final long LAST_MODIFIED = 1451606400000L;
+    private static final byte[] WSDL = "<definitions name=\"test\"/>"
+            .getBytes();
+
+    private WSDLDeliverServlet servlet;
+    private WSDLArtifact artifact;
+    private HttpServletRequest request;
+    private HttpServletResponse response;
+    private ByteArrayOutputStream content;
+
+    @Before
+    public void setup() throws Exception {
+        artifact = new WSDLArtifact(WSDL, LAST_MODIFIED);
+        servlet = new WSDLDeliverServlet() {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            WSDLArtifact getArtifact(String filePath) {
+                return artifact;
+            }
+        };
+        request = mock(HttpServletRequest.class);
+        when(request.getDateHeader("If-Modified-Since")).thenReturn(
+                Long.valueOf(-1L));
+        response = mock(HttpServletResponse.class);
+        content = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                content.write(b);
+            }
+        });
+    }
+
+    @Test
+    public void doGet() throws Exception {
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response).setHeader("ETag", artifact.getETag(false));
+        verify(response).setDateHeader("Last-Modified", LAST_MODIFIED);
+        verify(response).setHeader("Vary", "Accept-Encoding");
+        verify(response).setContentType("text/xml;charset=UTF-8");
+        verify(response).setContentLength(WSDL.length);
+        verify(response, never()).setHeader(eq("Content-Encoding"),
+                anyString());
+        verify(response, never()).setStatus(anyInt());
+        assertArrayEquals(WSDL, content.toByteArray());
+    }
+
+    @Test
+    public void doGet_gzip() throws Exception {
+        // given
+        when(request.getHeader("Accept-Encoding")).thenReturn(
+                "deflate, gzip;q=0.5");
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response).setHeader("ETag", artifact.getETag(true));
+        verify(response).setHeader("Content-Encoding", "gzip");
+        verify(response).setContentLength(content.size());
+        assertArrayEquals(WSDL, gunzip(content.toByteArray()));
+    }
+
+    @Test
+    public void doGet_gzipNotAcceptable() throws Exception {
+        // given
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip;q=0");
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response).setHeader("ETag", artifact.getETag(false));
+        verify(response, never()).setHeader(eq("Content-Encoding"),
+                anyString());
+        assertArrayEquals(WSDL, content.toByteArray());
+    }
+
+    @Test
+    public void doGet_notModifiedByETag() throws Exception {
+        // given
+        when(request.getHeader("If-None-Match")).thenReturn(
+                "\"other\", " + artifact.getETag(false));
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(response).setHeader("ETag", artifact.getETag(false));
+        verify(response, never()).getOutputStream();
+    }
+
+    @Test
+    public void doGet_notModifiedByWeakGzipETag() throws Exception {
+        // given
+        when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        when(request.getHeader("If-None-Match")).thenReturn(
+                "W/" + artifact.getETag(true));
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(response, never()).getOutputStream();
+    }
+
+    @Test
+    public void doGet_modifiedByETag() throws Exception {
+        // given the entity tags take precedence over the date
+        when(request.getHeader("If-None-Match")).thenReturn(
+                artifact.getETag(true));
+        when(request.getDateHeader("If-Modified-Since")).thenReturn(
+                Long.valueOf(LAST_MODIFIED));
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response, never()).setStatus(anyInt());
+        assertArrayEquals(WSDL, content.toByteArray());
+    }
+
+    @Test
+    public void doGet_notModifiedByDate() throws Exception {
+        // given
+        when(request.getDateHeader("If-Modified-Since")).thenReturn(
+                Long.valueOf(LAST_MODIFIED));
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        verify(response).setDateHeader("Last-Modified", LAST_MODIFIED);
+        verify(response, never()).getOutputStream();
+    }
+
+    @Test
+    public void doGet_modifiedSinceDate() throws Exception {
+        // given
+        when(request.getDateHeader("If-Modified-Since")).thenReturn(
+                Long.valueOf(LAST_MODIFIED - 1000));
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response, never()).setStatus(anyInt());
+        assertArrayEquals(WSDL, content.toByteArray());
+    }
+
+    @Test
+    public void doGet_invalidDate() throws Exception {
+        // given
+        when(request.getDateHeader("If-Modified-Since")).thenThrow(
+                new IllegalArgumentException());
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response, never()).setStatus(anyInt());
+        assertArrayEquals(WSDL, content.toByteArray());
+    }
+
+    @Test
+    public void doGet_notFound() throws Exception {
+        // given
+        artifact = null;
+
+        // when
+        servlet.doGet(request, response);
+
+        // then
+        verify(response, never()).setHeader(anyString(), anyString());
+        verify(response, never()).getOutputStream();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        InputStream in = new GZIPInputStream(new ByteArrayInputStream(data));
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ *  Copyright FUJITSU LIMITED 2016
+ *******************************************************************************/
+
+package org.oscm.servlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.zip.GZIPOutputStream;
+
+import org.oscm.converter.ContentHashConverter;
+
+/**
+ * A WSDL or XSD file delivered by the {@link WSDLDeliverServlet}. The content
+ * is read once and kept as it is stored, i.e. UTF-8 encoded as declared by the
+ * files, together with its gzip compressed form, the entity tag and the last
+ * modification time.
+ */
+class WSDLArtifact {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final byte[] content;
+    private final byte[] gzipContent;
+    private final String eTag;
+    private final long lastModified;
+
+    WSDLArtifact(byte[] content, long lastModified) throws IOException {
+        this.content = content;
+        this.gzipContent = gzip(content);
+        this.eTag = "\"" + ContentHashConverter.toContentHash(content) + "\"";
+        // HTTP dates only have a precision of seconds
+        this.lastModified = lastModified / 1000 * 1000;
+    }
+
+    /**
+     * Reads the file with the given path from the given class loader.
+     *
+     * @return the artifact or <code>null</code> if the file does not exist
+     */
+    static WSDLArtifact load(ClassLoader classLoader, String path)
+            throws IOException {
+        URL url = classLoader.getResource(path);
+        if (url == null) {
+            return null;
+        }
+        URLConnection connection = url.openConnection();
+        long lastModified = connection.getLastModified();
+        if (lastModified <= 0) {
+            lastModified = System.currentTimeMillis();
+        }
+        InputStream in = connection.getInputStream();
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int length;
+            while ((length = in.read(buffer)) != -1) {
+                out.write(buffer, 0, length);
+            }
+            return new WSDLArtifact(out.toByteArray(), lastModified);
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        try {
+            gzip.write(content);
+        } finally {
+            gzip.close();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Returns the content in the form to be sent, gzip compressed or not.
+     */
+    byte[] getContent(boolean gzip) {
+        return gzip ? gzipContent : content;
+    }
+
+    /**
+     * Returns the strong entity tag of the content in the form to be sent.
+     * Both forms have different entity tags.
+     */
+    String getETag(boolean gzip) {
+        return gzip ? eTag.substring(0, eTag.length() - 1) + "-gzip\"" : eTag;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+}
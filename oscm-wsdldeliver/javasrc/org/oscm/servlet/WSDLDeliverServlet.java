@@ -4,9 +4,9 @@
 
 package org.oscm.servlet;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -36,6 +36,13 @@ public class WSDLDeliverServlet extends HttpServlet {
     public static final String FILE_TYPE = "FILE_TYPE";
     public static final String WSDL_ROOT_PATH = "/wsdl/";
 
+    private static final String CONTENT_TYPE = "text/xml;charset=UTF-8";
+
+    /**
+     * The files delivered so far, mapped by their path.
+     */
+    private final ConcurrentMap<String, WSDLArtifact> artifacts = new ConcurrentHashMap<String, WSDLArtifact>();
+
     @Override
     public void init() throws ServletException {
         super.init();
@@ -53,30 +60,116 @@ public class WSDLDeliverServlet extends HttpServlet {
         process(request, response);
     }
 
+    /**
+     * Writes the requested WSDL or XSD file to the response. The files are
+     * read once and kept in memory. The content is sent gzip compressed if the
+     * client accepts it. The content hash is sent as entity tag together with
+     * the last modification time, so a client revalidating an unchanged file
+     * only gets the status <code>304 Not Modified</code>.
+     */
     private void process(HttpServletRequest request,
             HttpServletResponse response) {
         String filePath = getTargetFilePathFromRequest(request);
         if (filePath.length() == 0) {
             logger.logWarn(Log4jLogger.SYSTEM_LOG,
                     LogMessageIdentifier.WARN_GET_FILE_CONTENT_FAILED);
+            return;
         }
-        InputStream fileStream = Thread.currentThread().getContextClassLoader()
-                .getResourceAsStream(filePath);
         try {
-            String fileContent = convertStreamToString(fileStream);
-            response.getWriter().print(fileContent);
+            WSDLArtifact artifact = getArtifact(filePath);
+            if (artifact == null) {
+                return;
+            }
+            boolean gzip = acceptsGzip(request);
+            String eTag = artifact.getETag(gzip);
+            response.setHeader("ETag", eTag);
+            response.setDateHeader("Last-Modified", artifact.getLastModified());
+            response.setHeader("Vary", "Accept-Encoding");
+            if (isNotModified(request, eTag, artifact.getLastModified())) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            byte[] content = artifact.getContent(gzip);
+            response.setContentType(CONTENT_TYPE);
+            if (gzip) {
+                response.setHeader("Content-Encoding", "gzip");
+            }
+            response.setContentLength(content.length);
+            response.getOutputStream().write(content);
         } catch (IOException e) {
             logger.logWarn(Log4jLogger.SYSTEM_LOG, e,
                     LogMessageIdentifier.WARN_GET_FILE_CONTENT_FAILED);
-        } finally {
-            if (fileStream != null) {
-                try {
-                    fileStream.close();
-                } catch (IOException e) {
-                    // ignore, wanted to close anyway
+        }
+    }
+
+    /**
+     * Returns the file with the given path, reading it only on the first
+     * request.
+     * 
+     * @return the file or <code>null</code> if it does not exist
+     */
+    WSDLArtifact getArtifact(String filePath) throws IOException {
+        WSDLArtifact artifact = artifacts.get(filePath);
+        if (artifact == null) {
+            artifact = WSDLArtifact.load(Thread.currentThread()
+                    .getContextClassLoader(), filePath);
+            if (artifact != null) {
+                artifacts.putIfAbsent(filePath, artifact);
+            }
+        }
+        return artifact;
+    }
+
+    /**
+     * Checks whether the client accepts gzip compressed content.
+     */
+    private boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader("Accept-Encoding");
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")
+                        && parameter.substring(2).matches("0(\\.0*)?")) {
+                    return false;
                 }
             }
+            return true;
         }
+        return false;
+    }
+
+    /**
+     * Checks whether the client already has the file with the given entity
+     * tag and modification time. The entity tags are checked if the client
+     * sends any, otherwise the modification time.
+     */
+    private boolean isNotModified(HttpServletRequest request, String eTag,
+            long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.equals("*") || tag.equals(eTag)
+                        || tag.equals("W/" + eTag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader("If-Modified-Since");
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
     }
 
     private String getTargetFilePathFromRequest(HttpServletRequest request) {
@@ -113,16 +206,4 @@ public class WSDLDeliverServlet extends HttpServlet {
             return APIVersion.getForURLString(version);
         }
     }
-
-    private String convertStreamToString(InputStream is) throws IOException {
-        if (is == null) {
-            return "";
-        }
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        int i = -1;
-        while ((i = is.read()) != -1) {
-            baos.write(i);
-        }
-        return baos.toString();
-    }
 }